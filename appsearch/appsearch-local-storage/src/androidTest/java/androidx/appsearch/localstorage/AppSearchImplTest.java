@@ -27,6 +27,7 @@ import static org.junit.Assert.assertThrows;
 
 import android.content.Context;
 
+import androidx.appsearch.app.AppSearchBatchResult;
 import androidx.appsearch.app.AppSearchResult;
 import androidx.appsearch.app.AppSearchSchema;
 import androidx.appsearch.app.GenericDocument;
@@ -85,10 +86,14 @@ import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @SuppressWarnings("GuardedBy")
 public class AppSearchImplTest {
@@ -444,6 +449,137 @@ public class AppSearchImplTest {
         assertThat(oStats.getDeletedDocumentCount()).isEqualTo(1);
     }
 
+    @Test
+    public void testBatchPutDocuments() throws Exception {
+        // Insert schema
+        List<AppSearchSchema> schemas =
+                Collections.singletonList(new AppSearchSchema.Builder("type").build());
+        InternalSetSchemaResponse internalSetSchemaResponse = mAppSearchImpl.setSchema(
+                "package",
+                "database",
+                schemas,
+                /*visibilityDocuments=*/ Collections.emptyList(),
+                /*forceOverride=*/ false,
+                /*version=*/ 0,
+                /* setSchemaStatsBuilder= */ null);
+        assertThat(internalSetSchemaResponse.isSuccess()).isTrue();
+
+        // Enough documents to be converted by several threads, and one with an unknown type.
+        List<GenericDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            documents.add(new GenericDocument.Builder<>("namespace", "id" + i, "type").build());
+        }
+        documents.add(new GenericDocument.Builder<>("namespace", "unknown", "unknownType").build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AppSearchBatchResult.Builder<String, Void> resultBuilder =
+                new AppSearchBatchResult.Builder<>();
+        try {
+            mAppSearchImpl.batchPutDocuments(
+                    "package",
+                    "database",
+                    documents,
+                    resultBuilder,
+                    /*sendChangeNotifications=*/ false,
+                    /*logger=*/ null,
+                    executor);
+        } finally {
+            executor.shutdown();
+        }
+        AppSearchBatchResult<String, Void> result = resultBuilder.build();
+
+        assertThat(result.getSuccesses()).hasSize(300);
+        assertThat(result.getFailures().keySet()).containsExactly("unknown");
+        assertThat(result.getFailures().get("unknown").getResultCode())
+                .isEqualTo(AppSearchResult.RESULT_NOT_FOUND);
+        for (int i = 0; i < 300; i++) {
+            GenericDocument getResult = mAppSearchImpl.getDocument("package", "database",
+                    "namespace", "id" + i, Collections.emptyMap());
+            assertThat(getResult).isEqualTo(documents.get(i));
+        }
+    }
+
+    @Test
+    public void testBatchPutDocuments_closed_failsEveryDocument() throws Exception {
+        mAppSearchImpl.close();
+
+        List<GenericDocument> documents = Arrays.asList(
+                new GenericDocument.Builder<>("namespace", "id1", "type").build(),
+                new GenericDocument.Builder<>("namespace", "id2", "type").build());
+        AppSearchBatchResult.Builder<String, Void> resultBuilder =
+                new AppSearchBatchResult.Builder<>();
+        mAppSearchImpl.batchPutDocuments(
+                "package",
+                "database",
+                documents,
+                resultBuilder,
+                /*sendChangeNotifications=*/ false,
+                /*logger=*/ null,
+                /*conversionExecutor=*/ null);
+        AppSearchBatchResult<String, Void> result = resultBuilder.build();
+
+        assertThat(result.getSuccesses()).isEmpty();
+        assertThat(result.getFailures().keySet()).containsExactly("id1", "id2");
+        assertThat(result.getFailures().get("id1").getResultCode())
+                .isEqualTo(AppSearchResult.RESULT_INTERNAL_ERROR);
+    }
+
+    @Test
+    public void testPersistToDisk_concurrentCalls() throws Exception {
+        // Insert schema
+        List<AppSearchSchema> schemas =
+                Collections.singletonList(new AppSearchSchema.Builder("type").build());
+        InternalSetSchemaResponse internalSetSchemaResponse = mAppSearchImpl.setSchema(
+                "package",
+                "database",
+                schemas,
+                /*visibilityDocuments=*/ Collections.emptyList(),
+                /*forceOverride=*/ false,
+                /*version=*/ 0,
+                /* setSchemaStatsBuilder= */ null);
+        assertThat(internalSetSchemaResponse.isSuccess()).isTrue();
+
+        // Each thread puts a document and persists it, the persists get coalesced.
+        int threadCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            GenericDocument document =
+                    new GenericDocument.Builder<>("namespace", "id" + i, "type").build();
+            futures.add(executor.submit(() -> {
+                mAppSearchImpl.putDocument(
+                        "package",
+                        "database",
+                        document,
+                        /*sendChangeNotifications=*/ false,
+                        /*logger=*/ null);
+                mAppSearchImpl.persistToDisk(PersistType.Code.LITE);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // All the documents should be visible even from another instance.
+        AppSearchImpl appSearchImpl2 = AppSearchImpl.create(
+                mAppSearchDir,
+                new AppSearchConfigImpl(
+                        new UnlimitedLimitConfig(),
+                        new DefaultIcingOptionsConfig()
+                ),
+                /*initStatsBuilder=*/ null,
+                ALWAYS_OPTIMIZE,
+                /*visibilityChecker=*/null);
+        for (int i = 0; i < threadCount; i++) {
+            GenericDocument getResult = appSearchImpl2.getDocument("package", "database",
+                    "namespace", "id" + i, Collections.emptyMap());
+            assertThat(getResult.getId()).isEqualTo("id" + i);
+        }
+        appSearchImpl2.close();
+    }
+
     @Test
     public void testReset() throws Exception {
         // Insert schema
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appsearch.localstorage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.os.Bundle;
+
+import androidx.appsearch.app.SearchResultPage;
+
+import com.google.android.icing.proto.ResultSpecProto;
+import com.google.android.icing.proto.ScoringSpecProto;
+import com.google.android.icing.proto.SearchSpecProto;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class SearchResultPageCacheTest {
+    private static final ResultSpecProto RESULT_SPEC =
+            ResultSpecProto.newBuilder().setNumPerPage(10).build();
+    private static final ScoringSpecProto SCORING_SPEC = ScoringSpecProto.getDefaultInstance();
+
+    private final SearchResultPageCache mCache = new SearchResultPageCache(/*maxSize=*/ 2);
+
+    @Test
+    public void testGet_equalSpecs() {
+        SearchResultPage page = newPage(/*nextPageToken=*/ 0);
+        mCache.put(searchSpec("foo"), RESULT_SPEC, SCORING_SPEC, "package$database/", page);
+
+        SearchResultPage cachedPage = mCache.get(searchSpec("foo"), RESULT_SPEC, SCORING_SPEC);
+        assertThat(cachedPage).isNotNull();
+        assertThat(cachedPage).isNotSameInstanceAs(page);
+        assertThat(cachedPage.getBundle()).isSameInstanceAs(page.getBundle());
+
+        assertThat(mCache.get(searchSpec("bar"), RESULT_SPEC, SCORING_SPEC)).isNull();
+        assertThat(mCache.get(searchSpec("foo"),
+                ResultSpecProto.newBuilder().setNumPerPage(20).build(), SCORING_SPEC)).isNull();
+    }
+
+    @Test
+    public void testPut_pageWithNextPageTokenIsNotCached() {
+        mCache.put(searchSpec("foo"), RESULT_SPEC, SCORING_SPEC, "package$database/",
+                newPage(/*nextPageToken=*/ 42));
+
+        assertThat(mCache.get(searchSpec("foo"), RESULT_SPEC, SCORING_SPEC)).isNull();
+        assertThat(mCache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testPut_evictsLeastRecentlyUsed() {
+        mCache.put(searchSpec("a"), RESULT_SPEC, SCORING_SPEC, "package$database/",
+                newPage(/*nextPageToken=*/ 0));
+        mCache.put(searchSpec("b"), RESULT_SPEC, SCORING_SPEC, "package$database/",
+                newPage(/*nextPageToken=*/ 0));
+        assertThat(mCache.get(searchSpec("a"), RESULT_SPEC, SCORING_SPEC)).isNotNull();
+        mCache.put(searchSpec("c"), RESULT_SPEC, SCORING_SPEC, "package$database/",
+                newPage(/*nextPageToken=*/ 0));
+
+        assertThat(mCache.size()).isEqualTo(2);
+        assertThat(mCache.get(searchSpec("a"), RESULT_SPEC, SCORING_SPEC)).isNotNull();
+        assertThat(mCache.get(searchSpec("b"), RESULT_SPEC, SCORING_SPEC)).isNull();
+        assertThat(mCache.get(searchSpec("c"), RESULT_SPEC, SCORING_SPEC)).isNotNull();
+    }
+
+    @Test
+    public void testInvalidate_prefix() {
+        mCache.put(searchSpec("a"), RESULT_SPEC, SCORING_SPEC, "package$database1/",
+                newPage(/*nextPageToken=*/ 0));
+        mCache.put(searchSpec("b"), RESULT_SPEC, SCORING_SPEC, "package$database2/",
+                newPage(/*nextPageToken=*/ 0));
+
+        mCache.invalidate("package$database1/");
+
+        assertThat(mCache.get(searchSpec("a"), RESULT_SPEC, SCORING_SPEC)).isNull();
+        assertThat(mCache.get(searchSpec("b"), RESULT_SPEC, SCORING_SPEC)).isNotNull();
+    }
+
+    @Test
+    public void testInvalidate_globalQuery() {
+        mCache.put(searchSpec("a"), RESULT_SPEC, SCORING_SPEC, /*prefix=*/ null,
+                newPage(/*nextPageToken=*/ 0));
+
+        mCache.invalidate("package$database/");
+
+        assertThat(mCache.get(searchSpec("a"), RESULT_SPEC, SCORING_SPEC)).isNull();
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        mCache.put(searchSpec("a"), RESULT_SPEC, SCORING_SPEC, "package$database1/",
+                newPage(/*nextPageToken=*/ 0));
+        mCache.put(searchSpec("b"), RESULT_SPEC, SCORING_SPEC, "package$database2/",
+                newPage(/*nextPageToken=*/ 0));
+
+        mCache.invalidateAll();
+
+        assertThat(mCache.size()).isEqualTo(0);
+    }
+
+    private static SearchSpecProto searchSpec(String query) {
+        return SearchSpecProto.newBuilder().setQuery(query).build();
+    }
+
+    private static SearchResultPage newPage(long nextPageToken) {
+        Bundle bundle = new Bundle();
+        bundle.putParcelableArrayList(SearchResultPage.RESULTS_FIELD, new ArrayList<>());
+        bundle.putLong(SearchResultPage.NEXT_PAGE_TOKEN_FIELD, nextPageToken);
+        return new SearchResultPage(bundle);
+    }
+}
@@ -18,6 +18,7 @@ package androidx.appsearch.localstorage;
 
 import static androidx.appsearch.app.AppSearchResult.RESULT_INTERNAL_ERROR;
 import static androidx.appsearch.app.AppSearchResult.RESULT_SECURITY_ERROR;
+import static androidx.appsearch.app.AppSearchResult.throwableToFailedResult;
 import static androidx.appsearch.app.InternalSetSchemaResponse.newFailedSetSchemaResponse;
 import static androidx.appsearch.app.InternalSetSchemaResponse.newSuccessfulSetSchemaResponse;
 import static androidx.appsearch.localstorage.util.PrefixUtil.addPrefixToDocument;
@@ -37,6 +38,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
+import androidx.appsearch.app.AppSearchBatchResult;
 import androidx.appsearch.app.AppSearchResult;
 import androidx.appsearch.app.AppSearchSchema;
 import androidx.appsearch.app.GenericDocument;
@@ -126,8 +128,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
-import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
@@ -173,13 +177,19 @@ public final class AppSearchImpl implements Closeable {
     @VisibleForTesting
     static final int CHECK_OPTIMIZE_INTERVAL = 100;
 
+    /** Number of documents of a batch converted at a time by a thread. */
+    private static final int CONVERSION_CHUNK_SIZE = 64;
+
+    /** Maximum number of threads converting the documents of a batch. */
+    private static final int MAX_CONVERSION_THREADS = 4;
+
     /** A GetResultSpec that uses projection to skip all properties. */
     private static final GetResultSpecProto GET_RESULT_SPEC_NO_PROPERTIES =
             GetResultSpecProto.newBuilder().addTypePropertyMasks(
                     TypePropertyMask.newBuilder().setSchemaType(
                             GetByDocumentIdRequest.PROJECTION_SCHEMA_TYPE_WILDCARD)).build();
 
-    private final ReadWriteLock mReadWriteLock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock mReadWriteLock = new ReentrantReadWriteLock();
     private final OptimizeStrategy mOptimizeStrategy;
     private final AppSearchConfig mConfig;
 
@@ -221,6 +231,21 @@ public final class AppSearchImpl implements Closeable {
 
     private final ObserverManager mObserverManager = new ObserverManager();
 
+    // Results of queries that fit in a single page. Invalidated under the write lock before any
+    // change to the documents or schemas, and only accessed under the read lock otherwise.
+    private final SearchResultPageCache mSearchResultPageCache = new SearchResultPageCache();
+
+    private final Object mPersistLock = new Object();
+
+    // Number of calls to persistToDisk(LITE) made so far, and how many of them a completed
+    // persist covers.
+    @GuardedBy("mPersistLock")
+    private long mPersistRequestCount;
+    @GuardedBy("mPersistLock")
+    private long mPersistedRequestCount;
+    @GuardedBy("mPersistLock")
+    private boolean mPersistInProgress;
+
     /**
      * VisibilityStore will be used in {@link #setSchema} and {@link #getSchema} to store and query
      * visibility information. But to create a {@link VisibilityStore}, it will call
@@ -746,6 +771,7 @@ public final class AppSearchImpl implements Closeable {
         long nativeLatencyStartTimeMillis = SystemClock.elapsedRealtime();
         SchemaProto finalSchema = existingSchemaBuilder.build();
         LogUtil.piiTrace(TAG, "setSchema, request", finalSchema.getTypesCount(), finalSchema);
+        mSearchResultPageCache.invalidateAll();
         SetSchemaResultProto setSchemaResultProto =
                 mIcingSearchEngineLocked.setSchema(finalSchema, forceOverride);
         LogUtil.piiTrace(
@@ -1006,74 +1032,264 @@ public final class AppSearchImpl implements Closeable {
         }
         long totalStartTimeMillis = SystemClock.elapsedRealtime();
 
+        // The conversion doesn't depend on any state, it doesn't need the lock.
+        String prefix = createPrefix(packageName, databaseName);
+        DocumentProto finalDocument = toPrefixedDocumentProto(document, prefix, pStatsBuilder);
+
         mReadWriteLock.writeLock().lock();
         try {
             throwIfClosedLocked();
+            putPrefixedDocumentLocked(packageName, databaseName, prefix, document, finalDocument,
+                    sendChangeNotifications, pStatsBuilder);
+        } finally {
+            mReadWriteLock.writeLock().unlock();
 
-            // Generate Document Proto
-            long generateDocumentProtoStartTimeMillis = SystemClock.elapsedRealtime();
-            DocumentProto.Builder documentBuilder = GenericDocumentToProtoConverter.toDocumentProto(
-                    document).toBuilder();
-            long generateDocumentProtoEndTimeMillis = SystemClock.elapsedRealtime();
-
-            // Rewrite Document Type
-            long rewriteDocumentTypeStartTimeMillis = SystemClock.elapsedRealtime();
-            String prefix = createPrefix(packageName, databaseName);
-            addPrefixToDocument(documentBuilder, prefix);
-            long rewriteDocumentTypeEndTimeMillis = SystemClock.elapsedRealtime();
-            DocumentProto finalDocument = documentBuilder.build();
-
-            // Check limits
-            int newDocumentCount = enforceLimitConfigLocked(
-                    packageName, finalDocument.getUri(), finalDocument.getSerializedSize());
-
-            // Insert document
-            LogUtil.piiTrace(TAG, "putDocument, request", finalDocument.getUri(), finalDocument);
-            PutResultProto putResultProto = mIcingSearchEngineLocked.put(finalDocument);
-            LogUtil.piiTrace(
-                    TAG, "putDocument, response", putResultProto.getStatus(), putResultProto);
-
-            // Logging stats
-            if (pStatsBuilder != null) {
-                pStatsBuilder
-                        .setStatusCode(statusProtoToResultCode(putResultProto.getStatus()))
-                        .setGenerateDocumentProtoLatencyMillis(
-                                (int) (generateDocumentProtoEndTimeMillis
-                                        - generateDocumentProtoStartTimeMillis))
-                        .setRewriteDocumentTypesLatencyMillis(
-                                (int) (rewriteDocumentTypeEndTimeMillis
-                                        - rewriteDocumentTypeStartTimeMillis));
-                AppSearchLoggerHelper.copyNativeStats(putResultProto.getPutDocumentStats(),
-                        pStatsBuilder);
+            if (pStatsBuilder != null && logger != null) {
+                long totalEndTimeMillis = SystemClock.elapsedRealtime();
+                pStatsBuilder.setTotalLatencyMillis(
+                        (int) (totalEndTimeMillis - totalStartTimeMillis));
+                logger.logStats(pStatsBuilder.build());
             }
+        }
+    }
 
-            checkSuccess(putResultProto.getStatus());
+    /**
+     * Adds a batch of documents to the AppSearch index.
+     *
+     * <p>This method belongs to mutate group.
+     *
+     * <p>Unlike calling {@link #putDocument} for each document, the documents are converted and
+     * prefixed before taking the write lock, in parallel on {@code conversionExecutor} if one is
+     * given, and are then all put under a single acquisition of the write lock.
+     *
+     * @param packageName             The package name that owns the documents.
+     * @param databaseName            The databaseName the documents reside in.
+     * @param documents               The documents to index.
+     * @param batchResultBuilder      The builder receiving the result of each document, keyed by
+     *                                its ID.
+     * @param sendChangeNotifications Whether to dispatch
+     *                                {@link androidx.appsearch.observer.DocumentChangeInfo}
+     *                                messages to observers for this change.
+     * @param conversionExecutor      The executor to convert the documents on, in addition to the
+     *                                calling thread, or {@code null} to convert them on the
+     *                                calling thread only.
+     */
+    public void batchPutDocuments(
+            @NonNull String packageName,
+            @NonNull String databaseName,
+            @NonNull List<GenericDocument> documents,
+            @NonNull AppSearchBatchResult.Builder<String, Void> batchResultBuilder,
+            boolean sendChangeNotifications,
+            @Nullable AppSearchLogger logger,
+            @Nullable Executor conversionExecutor) {
+        int documentCount = documents.size();
+        PutDocumentStats.Builder[] pStatsBuilders = null;
+        if (logger != null) {
+            pStatsBuilders = new PutDocumentStats.Builder[documentCount];
+            for (int i = 0; i < documentCount; i++) {
+                pStatsBuilders[i] = new PutDocumentStats.Builder(packageName, databaseName);
+            }
+        }
+        long[] latenciesMillis = new long[documentCount];
 
-            // Only update caches if the document is successfully put to Icing.
-            addToMap(mNamespaceMapLocked, prefix, finalDocument.getNamespace());
-            mDocumentCountMapLocked.put(packageName, newDocumentCount);
+        String prefix = createPrefix(packageName, databaseName);
+        DocumentProto[] finalDocuments = new DocumentProto[documentCount];
+        Throwable[] conversionFailures = new Throwable[documentCount];
+        toPrefixedDocumentProtos(documents, prefix, finalDocuments, conversionFailures,
+                pStatsBuilders, latenciesMillis, conversionExecutor);
 
-            // Prepare notifications
-            if (sendChangeNotifications) {
-                mObserverManager.onDocumentChange(
-                        packageName,
-                        databaseName,
-                        document.getNamespace(),
-                        document.getSchemaType(),
-                        document.getId(),
-                        mVisibilityStoreLocked,
-                        mVisibilityCheckerLocked);
+        mReadWriteLock.writeLock().lock();
+        try {
+            try {
+                throwIfClosedLocked();
+            } catch (Throwable t) {
+                // Like putting the documents one by one, every document fails.
+                AppSearchResult<Void> closedResult = throwableToFailedResult(t);
+                for (int i = 0; i < documentCount; i++) {
+                    batchResultBuilder.setResult(documents.get(i).getId(), closedResult);
+                }
+                return;
+            }
+            for (int i = 0; i < documentCount; i++) {
+                GenericDocument document = documents.get(i);
+                if (conversionFailures[i] != null) {
+                    batchResultBuilder.setResult(document.getId(),
+                            throwableToFailedResult(conversionFailures[i]));
+                    continue;
+                }
+                long putStartTimeMillis = SystemClock.elapsedRealtime();
+                try {
+                    putPrefixedDocumentLocked(packageName, databaseName, prefix, document,
+                            finalDocuments[i], sendChangeNotifications,
+                            pStatsBuilders == null ? null : pStatsBuilders[i]);
+                    batchResultBuilder.setSuccess(document.getId(), /*value=*/ null);
+                } catch (Throwable t) {
+                    batchResultBuilder.setResult(document.getId(), throwableToFailedResult(t));
+                } finally {
+                    latenciesMillis[i] += SystemClock.elapsedRealtime() - putStartTimeMillis;
+                }
             }
         } finally {
             mReadWriteLock.writeLock().unlock();
 
-            if (pStatsBuilder != null && logger != null) {
-                long totalEndTimeMillis = SystemClock.elapsedRealtime();
-                pStatsBuilder.setTotalLatencyMillis(
-                        (int) (totalEndTimeMillis - totalStartTimeMillis));
-                logger.logStats(pStatsBuilder.build());
+            if (pStatsBuilders != null && logger != null) {
+                for (int i = 0; i < documentCount; i++) {
+                    pStatsBuilders[i].setTotalLatencyMillis((int) latenciesMillis[i]);
+                    logger.logStats(pStatsBuilders[i].build());
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts the documents with {@link #toPrefixedDocumentProto}, on the calling thread and on
+     * up to {@link #MAX_CONVERSION_THREADS} - 1 tasks of {@code executor}.
+     *
+     * <p>The documents are split in chunks that the calling thread and the tasks take in turn,
+     * so the calling thread converts every chunk no task got to, and it only waits for chunks
+     * already being converted. This never waits for the executor to have a thread available.
+     */
+    private static void toPrefixedDocumentProtos(
+            @NonNull List<GenericDocument> documents,
+            @NonNull String prefix,
+            @NonNull DocumentProto[] finalDocuments,
+            @NonNull Throwable[] failures,
+            @Nullable PutDocumentStats.Builder[] pStatsBuilders,
+            @NonNull long[] latenciesMillis,
+            @Nullable Executor executor) {
+        int chunkCount = (documents.size() + CONVERSION_CHUNK_SIZE - 1) / CONVERSION_CHUNK_SIZE;
+        AtomicInteger nextChunk = new AtomicInteger();
+        CountDownLatch convertedChunks = new CountDownLatch(chunkCount);
+        Runnable converter = () -> {
+            int chunk;
+            while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                int end = Math.min(documents.size(), (chunk + 1) * CONVERSION_CHUNK_SIZE);
+                for (int i = chunk * CONVERSION_CHUNK_SIZE; i < end; i++) {
+                    long startTimeMillis = SystemClock.elapsedRealtime();
+                    try {
+                        finalDocuments[i] = toPrefixedDocumentProto(documents.get(i), prefix,
+                                pStatsBuilders == null ? null : pStatsBuilders[i]);
+                    } catch (Throwable t) {
+                        failures[i] = t;
+                    }
+                    latenciesMillis[i] = SystemClock.elapsedRealtime() - startTimeMillis;
+                }
+                convertedChunks.countDown();
+            }
+        };
+
+        if (executor != null) {
+            int helperCount = Math.min(chunkCount,
+                    Math.min(MAX_CONVERSION_THREADS, Runtime.getRuntime().availableProcessors()))
+                    - 1;
+            for (int i = 0; i < helperCount; i++) {
+                try {
+                    executor.execute(converter);
+                } catch (RejectedExecutionException e) {
+                    // The calling thread converts the remaining chunks
+                    break;
+                }
             }
         }
+        converter.run();
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                convertedChunks.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Converts a document to a {@link DocumentProto} and adds the given prefix to its types and
+     * namespace.
+     */
+    @NonNull
+    private static DocumentProto toPrefixedDocumentProto(
+            @NonNull GenericDocument document,
+            @NonNull String prefix,
+            @Nullable PutDocumentStats.Builder pStatsBuilder) {
+        // Generate Document Proto
+        long generateDocumentProtoStartTimeMillis = SystemClock.elapsedRealtime();
+        DocumentProto.Builder documentBuilder = GenericDocumentToProtoConverter.toDocumentProto(
+                document).toBuilder();
+        long generateDocumentProtoEndTimeMillis = SystemClock.elapsedRealtime();
+
+        // Rewrite Document Type
+        long rewriteDocumentTypeStartTimeMillis = SystemClock.elapsedRealtime();
+        addPrefixToDocument(documentBuilder, prefix);
+        long rewriteDocumentTypeEndTimeMillis = SystemClock.elapsedRealtime();
+
+        if (pStatsBuilder != null) {
+            pStatsBuilder
+                    .setGenerateDocumentProtoLatencyMillis(
+                            (int) (generateDocumentProtoEndTimeMillis
+                                    - generateDocumentProtoStartTimeMillis))
+                    .setRewriteDocumentTypesLatencyMillis(
+                            (int) (rewriteDocumentTypeEndTimeMillis
+                                    - rewriteDocumentTypeStartTimeMillis));
+        }
+        return documentBuilder.build();
+    }
+
+    /**
+     * Puts a document converted by {@link #toPrefixedDocumentProto} to Icing, and updates the
+     * caches and notifications accordingly.
+     *
+     * @throws AppSearchException on IcingSearchEngine error or if the limits are violated.
+     */
+    @GuardedBy("mReadWriteLock")
+    private void putPrefixedDocumentLocked(
+            @NonNull String packageName,
+            @NonNull String databaseName,
+            @NonNull String prefix,
+            @NonNull GenericDocument document,
+            @NonNull DocumentProto finalDocument,
+            boolean sendChangeNotifications,
+            @Nullable PutDocumentStats.Builder pStatsBuilder)
+            throws AppSearchException {
+        // Check limits
+        int newDocumentCount = enforceLimitConfigLocked(
+                packageName, finalDocument.getUri(), finalDocument.getSerializedSize());
+
+        // Insert document
+        LogUtil.piiTrace(TAG, "putDocument, request", finalDocument.getUri(), finalDocument);
+        mSearchResultPageCache.invalidate(prefix);
+        PutResultProto putResultProto = mIcingSearchEngineLocked.put(finalDocument);
+        LogUtil.piiTrace(
+                TAG, "putDocument, response", putResultProto.getStatus(), putResultProto);
+
+        // Logging stats
+        if (pStatsBuilder != null) {
+            pStatsBuilder.setStatusCode(statusProtoToResultCode(putResultProto.getStatus()));
+            AppSearchLoggerHelper.copyNativeStats(putResultProto.getPutDocumentStats(),
+                    pStatsBuilder);
+        }
+
+        checkSuccess(putResultProto.getStatus());
+
+        // Only update caches if the document is successfully put to Icing.
+        addToMap(mNamespaceMapLocked, prefix, finalDocument.getNamespace());
+        mDocumentCountMapLocked.put(packageName, newDocumentCount);
+
+        // Prepare notifications
+        if (sendChangeNotifications) {
+            mObserverManager.onDocumentChange(
+                    packageName,
+                    databaseName,
+                    document.getNamespace(),
+                    document.getSchemaType(),
+                    document.getId(),
+                    mVisibilityStoreLocked,
+                    mVisibilityCheckerLocked);
+        }
     }
 
     /**
@@ -1352,6 +1568,7 @@ public final class AppSearchImpl implements Closeable {
             SearchResultPage searchResultPage =
                     doQueryLocked(
                             searchSpecToProtoConverter,
+                            prefix,
                             sStatsBuilder);
             addNextPageToken(packageName, searchResultPage.getNextPageToken());
             return searchResultPage;
@@ -1458,6 +1675,7 @@ public final class AppSearchImpl implements Closeable {
             SearchResultPage searchResultPage =
                     doQueryLocked(
                             searchSpecToProtoConverter,
+                            /*prefix=*/ null,
                             sStatsBuilder);
             addNextPageToken(
                     callerAccess.getCallingPackageName(), searchResultPage.getNextPageToken());
@@ -1473,9 +1691,16 @@ public final class AppSearchImpl implements Closeable {
         }
     }
 
+    /**
+     * Executes a query, or returns its cached results if it ran recently and all of its results
+     * fit in a single page.
+     *
+     * @param prefix the prefix searched in by a local query, or {@code null} for a global query.
+     */
     @GuardedBy("mReadWriteLock")
     private SearchResultPage doQueryLocked(
             @NonNull SearchSpecToProtoConverter searchSpecToProtoConverter,
+            @Nullable String prefix,
             @Nullable SearchStats.Builder sStatsBuilder)
             throws AppSearchException {
         // Rewrite the given SearchSpec into SearchSpecProto, ResultSpecProto and ScoringSpecProto.
@@ -1490,6 +1715,15 @@ public final class AppSearchImpl implements Closeable {
                     (SystemClock.elapsedRealtime() - rewriteSearchSpecLatencyStartMillis));
         }
 
+        SearchResultPage cachedPage =
+                mSearchResultPageCache.get(finalSearchSpec, finalResultSpec, scoringSpec);
+        if (cachedPage != null) {
+            if (sStatsBuilder != null) {
+                sStatsBuilder.setStatusCode(AppSearchResult.RESULT_OK);
+            }
+            return cachedPage;
+        }
+
         // Send request to Icing.
         SearchResultProto searchResultProto = searchInIcingLocked(
                 finalSearchSpec, finalResultSpec, scoringSpec, sStatsBuilder);
@@ -1503,6 +1737,8 @@ public final class AppSearchImpl implements Closeable {
                     (int) (SystemClock.elapsedRealtime()
                             - rewriteSearchResultLatencyStartMillis));
         }
+        mSearchResultPageCache.put(
+                finalSearchSpec, finalResultSpec, scoringSpec, prefix, searchResultPage);
         return searchResultPage;
     }
 
@@ -1772,6 +2008,8 @@ public final class AppSearchImpl implements Closeable {
                     .build();
 
             LogUtil.piiTrace(TAG, "reportUsage, request", report.getDocumentUri(), report);
+            // Usage changes the ranking of usage based queries
+            mSearchResultPageCache.invalidate(createPrefix(packageName, databaseName));
             ReportUsageResultProto result = mIcingSearchEngineLocked.reportUsage(report);
             LogUtil.piiTrace(TAG, "reportUsage, response", result.getStatus(), result);
             checkSuccess(result.getStatus());
@@ -1824,6 +2062,7 @@ public final class AppSearchImpl implements Closeable {
             if (LogUtil.isPiiTraceEnabled()) {
                 LogUtil.piiTrace(TAG, "removeById, request", prefixedNamespace + ", " + documentId);
             }
+            mSearchResultPageCache.invalidate(createPrefix(packageName, databaseName));
             DeleteResultProto deleteResultProto =
                     mIcingSearchEngineLocked.delete(prefixedNamespace, documentId);
             LogUtil.piiTrace(
@@ -1931,6 +2170,7 @@ public final class AppSearchImpl implements Closeable {
                 }
             }
 
+            mSearchResultPageCache.invalidate(prefix);
             doRemoveByQueryLocked(
                     packageName, finalSearchSpec, prefixedObservedSchemas, removeStatsBuilder);
 
@@ -2223,6 +2463,10 @@ public final class AppSearchImpl implements Closeable {
      * <p>If the app crashes after an update/delete request has been made, but before any call to
      * PersistToDisk, then all data in Icing will be lost.
      *
+     * <p>Calls with {@link PersistType.Code#LITE} from different threads are coalesced: a call
+     * made while another one is persisting waits for it to complete, and then a single persist
+     * covers all the calls that waited.
+     *
      * @param persistType the amount of data to persist. {@link PersistType.Code#LITE} will only
      *                    persist the minimal amount of data to ensure all data can be recovered.
      *                    {@link PersistType.Code#FULL} will persist all data necessary to
@@ -2230,6 +2474,52 @@ public final class AppSearchImpl implements Closeable {
      * @throws AppSearchException on any error that AppSearch persist data to disk.
      */
     public void persistToDisk(@NonNull PersistType.Code persistType) throws AppSearchException {
+        if (persistType != PersistType.Code.LITE
+                || mReadWriteLock.isWriteLockedByCurrentThread()) {
+            persistToDiskNow(persistType);
+            return;
+        }
+
+        // Group commit: calls made while a persist is in progress wait for it, and the first of
+        // them then persists for all of them, as any persist that starts after a call covers the
+        // data written before it.
+        long request;
+        synchronized (mPersistLock) {
+            request = ++mPersistRequestCount;
+            boolean interrupted = false;
+            while (mPersistInProgress) {
+                try {
+                    mPersistLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (mPersistedRequestCount >= request) {
+                return;
+            }
+            mPersistInProgress = true;
+            request = mPersistRequestCount;
+        }
+        boolean persisted = false;
+        try {
+            persistToDiskNow(persistType);
+            persisted = true;
+        } finally {
+            synchronized (mPersistLock) {
+                mPersistInProgress = false;
+                if (persisted) {
+                    mPersistedRequestCount = request;
+                }
+                mPersistLock.notifyAll();
+            }
+        }
+    }
+
+    private void persistToDiskNow(@NonNull PersistType.Code persistType)
+            throws AppSearchException {
         mReadWriteLock.writeLock().lock();
         try {
             throwIfClosedLocked();
@@ -2312,6 +2602,7 @@ public final class AppSearchImpl implements Closeable {
                     "clearPackageData.setSchema, request",
                     finalSchema.getTypesCount(),
                     finalSchema);
+            mSearchResultPageCache.invalidateAll();
             SetSchemaResultProto setSchemaResultProto = mIcingSearchEngineLocked.setSchema(
                     finalSchema, /*ignoreErrorsAndDeleteDocuments=*/ true);
             LogUtil.piiTrace(
@@ -2360,6 +2651,7 @@ public final class AppSearchImpl implements Closeable {
     private void resetLocked(@Nullable InitializeStats.Builder initStatsBuilder)
             throws AppSearchException {
         LogUtil.piiTrace(TAG, "icingSearchEngine.reset, request");
+        mSearchResultPageCache.invalidateAll();
         ResetResultProto resetResultProto = mIcingSearchEngineLocked.reset();
         LogUtil.piiTrace(
                 TAG,
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appsearch.localstorage;
+
+import android.os.Bundle;
+import android.os.SystemClock;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appsearch.app.SearchResultPage;
+import androidx.core.util.ObjectsCompat;
+
+import com.google.android.icing.proto.ResultSpecProto;
+import com.google.android.icing.proto.ScoringSpecProto;
+import com.google.android.icing.proto.SearchSpecProto;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least-recently-used cache of the results of queries that fit in a single
+ * {@link SearchResultPage}.
+ *
+ * <p>Queries are keyed by the specs sent to Icing, which already contain the prefixed filters of
+ * the searched packages and databases, and for global queries the schemas visible to the caller.
+ * Only pages without a next page token are cached: a next page token refers to a state held by
+ * Icing for a single caller.
+ *
+ * <p>{@link AppSearchImpl} invalidates the cache under its write lock, before any change to the
+ * documents or schemas of a prefix, and only reads and fills it under its read lock, so a cached
+ * page never outlives the data it was computed from. Entries also expire after
+ * {@link #MAX_AGE_MILLIS}, as documents expire with their time to live without any change: the
+ * cache is meant for the same query running again shortly, e.g. while the user types.
+ *
+ * <p>This class is thread safe.
+ */
+final class SearchResultPageCache {
+    static final int DEFAULT_MAX_SIZE = 16;
+    static final long MAX_AGE_MILLIS = 1000;
+
+    private final Object mLock = new Object();
+    private final int mMaxSize;
+
+    @GuardedBy("mLock")
+    private final LinkedHashMap<Key, Entry> mEntriesLocked;
+
+    SearchResultPageCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    SearchResultPageCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        mMaxSize = maxSize;
+        mEntriesLocked = new LinkedHashMap<Key, Entry>(16, 0.75f, /*accessOrder=*/ true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > mMaxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns a new {@link SearchResultPage} with the cached results of the given query, or
+     * {@code null} if they aren't cached.
+     */
+    @Nullable
+    SearchResultPage get(
+            @NonNull SearchSpecProto searchSpec,
+            @NonNull ResultSpecProto resultSpec,
+            @NonNull ScoringSpecProto scoringSpec) {
+        Key key = new Key(searchSpec, resultSpec, scoringSpec);
+        Entry entry;
+        synchronized (mLock) {
+            entry = mEntriesLocked.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (SystemClock.elapsedRealtime() - entry.mCreationTimeMillis > MAX_AGE_MILLIS) {
+                mEntriesLocked.remove(key);
+                return null;
+            }
+        }
+        // The page lazily builds its results from the bundle, each caller gets its own page.
+        return new SearchResultPage(entry.mPageBundle);
+    }
+
+    /**
+     * Caches the results of the given query, if they fit in a single page.
+     *
+     * @param prefix the prefix of the package and database the query searched in, or
+     *               {@code null} for a global query, whose results are removed by any
+     *               invalidation.
+     */
+    void put(
+            @NonNull SearchSpecProto searchSpec,
+            @NonNull ResultSpecProto resultSpec,
+            @NonNull ScoringSpecProto scoringSpec,
+            @Nullable String prefix,
+            @NonNull SearchResultPage page) {
+        if (page.getNextPageToken() != 0) {
+            return;
+        }
+        Entry entry = new Entry(prefix, page.getBundle(), SystemClock.elapsedRealtime());
+        synchronized (mLock) {
+            mEntriesLocked.put(new Key(searchSpec, resultSpec, scoringSpec), entry);
+        }
+    }
+
+    /** Removes the results of the queries that searched in the given prefix. */
+    void invalidate(@NonNull String prefix) {
+        synchronized (mLock) {
+            Iterator<Entry> iterator = mEntriesLocked.values().iterator();
+            while (iterator.hasNext()) {
+                String entryPrefix = iterator.next().mPrefix;
+                if (entryPrefix == null || entryPrefix.equals(prefix)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /** Removes all the cached results. */
+    void invalidateAll() {
+        synchronized (mLock) {
+            mEntriesLocked.clear();
+        }
+    }
+
+    int size() {
+        synchronized (mLock) {
+            return mEntriesLocked.size();
+        }
+    }
+
+    private static final class Key {
+        private final SearchSpecProto mSearchSpec;
+        private final ResultSpecProto mResultSpec;
+        private final ScoringSpecProto mScoringSpec;
+        private final int mHashCode;
+
+        Key(@NonNull SearchSpecProto searchSpec,
+                @NonNull ResultSpecProto resultSpec,
+                @NonNull ScoringSpecProto scoringSpec) {
+            mSearchSpec = searchSpec;
+            mResultSpec = resultSpec;
+            mScoringSpec = scoringSpec;
+            mHashCode = ObjectsCompat.hash(searchSpec, resultSpec, scoringSpec);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mHashCode == key.mHashCode
+                    && mSearchSpec.equals(key.mSearchSpec)
+                    && mResultSpec.equals(key.mResultSpec)
+                    && mScoringSpec.equals(key.mScoringSpec);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+
+    private static final class Entry {
+        @Nullable
+        final String mPrefix;
+        final Bundle mPageBundle;
+        final long mCreationTimeMillis;
+
+        Entry(@Nullable String prefix, @NonNull Bundle pageBundle, long creationTimeMillis) {
+            mPrefix = prefix;
+            mPageBundle = pageBundle;
+            mCreationTimeMillis = creationTimeMillis;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import androidx.appsearch.app.SearchResult;
 import androidx.appsearch.app.SearchResultPage;
 import androidx.appsearch.app.SearchResults;
 import androidx.appsearch.app.SearchSpec;
+import androidx.appsearch.exceptions.AppSearchException;
 import androidx.appsearch.localstorage.stats.SearchStats;
 import androidx.appsearch.localstorage.util.FutureUtil;
 import androidx.appsearch.localstorage.visibilitystore.CallerAccess;
@@ -31,6 +32,7 @@ import androidx.core.util.Preconditions;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 
 class SearchResultsImpl implements SearchResults {
@@ -58,6 +60,10 @@ class SearchResultsImpl implements SearchResults {
 
     private boolean mIsClosed = false;
 
+    // The next page, fetched in the background while the caller handles the current one.
+    @Nullable
+    private ListenableFuture<SearchResultPage> mPrefetchedPage;
+
     @Nullable
     private final AppSearchLogger mLogger;
 
@@ -103,31 +109,51 @@ class SearchResultsImpl implements SearchResults {
                     searchResultPage = mAppSearchImpl.query(
                             mPackageName, mDatabaseName, mQueryExpression, mSearchSpec, mLogger);
                 }
-            } else {
-                SearchStats.Builder sStatsBuilder = null;
-                if (mLogger != null) {
-                    sStatsBuilder =
-                            new SearchStats.Builder(mVisibilityScope, mPackageName);
-                    if (mDatabaseName != null) {
-                        sStatsBuilder.setDatabase(mDatabaseName);
-                    }
-                }
-                searchResultPage = mAppSearchImpl.getNextPage(mPackageName, mNextPageToken,
-                        sStatsBuilder);
-                if (mLogger != null && sStatsBuilder != null) {
-                    if (mSearchSpec.getJoinSpec() != null
-                            && !mSearchSpec.getJoinSpec().getChildPropertyExpression().isEmpty()) {
-                        sStatsBuilder.setJoinType(AppSearchSchema.StringPropertyConfig
-                                .JOINABLE_VALUE_TYPE_QUALIFIED_ID);
-                    }
-                    mLogger.logStats(sStatsBuilder.build());
+            } else if (mPrefetchedPage != null) {
+                ListenableFuture<SearchResultPage> prefetchedPage = mPrefetchedPage;
+                mPrefetchedPage = null;
+                try {
+                    searchResultPage = prefetchedPage.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
                 }
+            } else {
+                searchResultPage = getNextPage(mNextPageToken);
             }
             mNextPageToken = searchResultPage.getNextPageToken();
+            if (mNextPageToken != 0) {
+                // Fetch the next page while the caller handles this one.
+                long nextPageToken = mNextPageToken;
+                mPrefetchedPage = FutureUtil.execute(mExecutor, () -> getNextPage(nextPageToken));
+            }
             return searchResultPage.getResults();
         });
     }
 
+    @NonNull
+    private SearchResultPage getNextPage(long nextPageToken) throws AppSearchException {
+        SearchStats.Builder sStatsBuilder = null;
+        if (mLogger != null) {
+            sStatsBuilder =
+                    new SearchStats.Builder(mVisibilityScope, mPackageName);
+            if (mDatabaseName != null) {
+                sStatsBuilder.setDatabase(mDatabaseName);
+            }
+        }
+        SearchResultPage searchResultPage = mAppSearchImpl.getNextPage(mPackageName,
+                nextPageToken, sStatsBuilder);
+        if (mLogger != null && sStatsBuilder != null) {
+            if (mSearchSpec.getJoinSpec() != null
+                    && !mSearchSpec.getJoinSpec().getChildPropertyExpression().isEmpty()) {
+                sStatsBuilder.setJoinType(AppSearchSchema.StringPropertyConfig
+                        .JOINABLE_VALUE_TYPE_QUALIFIED_ID);
+            }
+            mLogger.logStats(sStatsBuilder.build());
+        }
+        return searchResultPage;
+    }
+
     @Override
     @SuppressWarnings("FutureReturnValueIgnored")
     public void close() {
@@ -135,6 +161,15 @@ class SearchResultsImpl implements SearchResults {
         // critical to the correct functioning of the system; also, the return value is void.
         if (!mIsClosed) {
             FutureUtil.execute(mExecutor, () -> {
+                if (mPrefetchedPage != null) {
+                    // Don't let the prefetch use the token after it's invalidated.
+                    try {
+                        mPrefetchedPage.get();
+                    } catch (ExecutionException e) {
+                        // The page isn't needed anymore.
+                    }
+                    mPrefetchedPage = null;
+                }
                 mAppSearchImpl.invalidateNextPageToken(mPackageName, mNextPageToken);
                 mIsClosed = true;
                 return null;
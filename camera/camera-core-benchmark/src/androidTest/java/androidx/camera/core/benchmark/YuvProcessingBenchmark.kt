@@ -0,0 +1,261 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core.benchmark
+
+import android.graphics.ImageFormat
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.camera.core.ImageProcessingUtil
+import androidx.camera.core.ImageProxy
+import androidx.camera.core.internal.utils.ImageUtil
+import androidx.camera.core.internal.utils.YuvProcessingUtil
+import androidx.camera.testing.impl.fakes.FakeImageInfo
+import androidx.camera.testing.impl.fakes.FakeImageProxy
+import androidx.test.filters.LargeTest
+import java.nio.ByteBuffer
+import kotlin.random.Random
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Compares the pure Java YUV_420_888 processing of [YuvProcessingUtil] with the libyuv based
+ * [ImageProcessingUtil] and with the previous scalar Java implementations.
+ */
+@RunWith(Parameterized::class)
+@LargeTest
+class YuvProcessingBenchmark(
+    private val width: Int,
+    private val height: Int,
+    private val pixelStrideUV: Int
+) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private lateinit var image: ImageProxy
+    private lateinit var rgbaBuffer: ByteBuffer
+    private lateinit var rotatedY: ByteBuffer
+
+    @Before
+    fun setUp() {
+        image = createYuvImage(width, height, pixelStrideUV)
+        rgbaBuffer = ByteBuffer.allocateDirect(width * height * 4)
+        rotatedY = ByteBuffer.allocateDirect(width * height)
+    }
+
+    @Test
+    fun yuvToRgba_native() {
+        benchmarkRule.measureRepeated {
+            ImageProcessingUtil.convertYUVToBitmap(image).recycle()
+        }
+    }
+
+    @Test
+    fun yuvToRgba_java() {
+        val planes = image.planes
+        benchmarkRule.measureRepeated {
+            YuvProcessingUtil.convertYuv420ToRgba(
+                planes[0].buffer, planes[0].rowStride, planes[0].pixelStride,
+                planes[1].buffer, planes[1].rowStride,
+                planes[2].buffer, planes[2].rowStride, planes[1].pixelStride,
+                rgbaBuffer, width * 4, width, height
+            )
+        }
+    }
+
+    @Test
+    fun yuvToNv21_rowByRow() {
+        benchmarkRule.measureRepeated {
+            yuvToNv21RowByRow(image)
+        }
+    }
+
+    @Test
+    fun yuvToNv21_java() {
+        benchmarkRule.measureRepeated {
+            ImageUtil.yuv_420_888toNv21(image)
+        }
+    }
+
+    @Test
+    fun rotateLuma90_java() {
+        val plane = image.planes[0]
+        benchmarkRule.measureRepeated {
+            YuvProcessingUtil.rotatePlane(
+                plane.buffer, plane.rowStride, plane.pixelStride,
+                rotatedY, height, 1, width, height, 90
+            )
+        }
+    }
+
+    @Test
+    fun downsampleAveraging_scalar() {
+        val plane = image.planes[0]
+        val output = ByteArray(width / 2 * (height / 2))
+        benchmarkRule.measureRepeated {
+            resizeAveragingScalar(
+                plane.buffer, width, plane.pixelStride, plane.rowStride, height,
+                output, width / 2, height / 2
+            )
+        }
+    }
+
+    @Test
+    fun downsampleAveraging_java() {
+        val plane = image.planes[0]
+        val output = ByteArray(width / 2 * (height / 2))
+        benchmarkRule.measureRepeated {
+            YuvProcessingUtil.downsamplePlaneAveraging(
+                plane.buffer, width, plane.pixelStride, plane.rowStride, height,
+                output, width / 2, height / 2
+            )
+        }
+    }
+
+    companion object {
+        @Parameterized.Parameters(name = "{0}x{1},pixelStrideUV={2}")
+        @JvmStatic
+        fun parameters() = mutableListOf<Array<Any>>().apply {
+            listOf(1280 to 720, 1920 to 1080, 3840 to 2160).forEach { (width, height) ->
+                // Planar (I420) and semi-planar (NV12 / NV21) chroma layouts.
+                listOf(1, 2).forEach { pixelStrideUV ->
+                    add(arrayOf(width, height, pixelStrideUV))
+                }
+            }
+        }
+
+        private fun createYuvImage(width: Int, height: Int, pixelStrideUV: Int): ImageProxy {
+            // Pad the rows like most camera HALs do.
+            val rowStride = (width + 63) / 64 * 64
+            val chromaHeight = height / 2
+            val random = Random(0)
+            val y = ByteBuffer.allocateDirect(rowStride * height)
+            y.put(random.nextBytes(y.capacity())).rewind()
+            val u: ByteBuffer
+            val v: ByteBuffer
+            if (pixelStrideUV == 2) {
+                val uv = ByteBuffer.allocateDirect(rowStride * chromaHeight)
+                uv.put(random.nextBytes(uv.capacity())).rewind()
+                u = uv.duplicate().apply { limit(capacity() - 1) }.slice()
+                v = uv.duplicate().apply { position(1) }.slice()
+            } else {
+                val chromaRowStride = rowStride / 2
+                u = ByteBuffer.allocateDirect(chromaRowStride * chromaHeight)
+                u.put(random.nextBytes(u.capacity())).rewind()
+                v = ByteBuffer.allocateDirect(chromaRowStride * chromaHeight)
+                v.put(random.nextBytes(v.capacity())).rewind()
+            }
+            val chromaRowStride = if (pixelStrideUV == 2) rowStride else rowStride / 2
+            return FakeImageProxy(FakeImageInfo()).apply {
+                format = ImageFormat.YUV_420_888
+                setWidth(width)
+                setHeight(height)
+                planes = arrayOf(
+                    createPlane(y, rowStride, 1),
+                    createPlane(u, chromaRowStride, pixelStrideUV),
+                    createPlane(v, chromaRowStride, pixelStrideUV)
+                )
+            }
+        }
+
+        private fun createPlane(
+            buffer: ByteBuffer,
+            rowStride: Int,
+            pixelStride: Int
+        ): ImageProxy.PlaneProxy =
+            object : ImageProxy.PlaneProxy {
+                override fun getRowStride() = rowStride
+                override fun getPixelStride() = pixelStride
+                override fun getBuffer() = buffer
+            }
+
+        /** The row by row implementation previously used by ImageUtil. */
+        private fun yuvToNv21RowByRow(image: ImageProxy): ByteArray {
+            val (yPlane, uPlane, vPlane) = image.planes
+            val yBuffer = yPlane.buffer
+            val uBuffer = uPlane.buffer
+            val vBuffer = vPlane.buffer
+            yBuffer.rewind()
+            uBuffer.rewind()
+            vBuffer.rewind()
+            val ySize = yBuffer.remaining()
+            var position = 0
+            val nv21 = ByteArray(ySize + image.width * image.height / 2)
+            for (row in 0 until image.height) {
+                yBuffer.get(nv21, position, image.width)
+                position += image.width
+                yBuffer.position(
+                    minOf(ySize, yBuffer.position() - image.width + yPlane.rowStride)
+                )
+            }
+            val vLineBuffer = ByteArray(vPlane.rowStride)
+            val uLineBuffer = ByteArray(uPlane.rowStride)
+            for (row in 0 until image.height / 2) {
+                vBuffer.get(vLineBuffer, 0, minOf(vPlane.rowStride, vBuffer.remaining()))
+                uBuffer.get(uLineBuffer, 0, minOf(uPlane.rowStride, uBuffer.remaining()))
+                var vPosition = 0
+                var uPosition = 0
+                for (col in 0 until image.width / 2) {
+                    nv21[position++] = vLineBuffer[vPosition]
+                    nv21[position++] = uLineBuffer[uPosition]
+                    vPosition += vPlane.pixelStride
+                    uPosition += uPlane.pixelStride
+                }
+            }
+            return nv21
+        }
+
+        /** The scalar implementation previously used by ImageProxyDownsampler. */
+        private fun resizeAveragingScalar(
+            input: ByteBuffer,
+            inputWidth: Int,
+            inputPixelStride: Int,
+            inputRowStride: Int,
+            inputHeight: Int,
+            output: ByteArray,
+            outputWidth: Int,
+            outputHeight: Int
+        ) {
+            val scaleX = inputWidth.toFloat() / outputWidth
+            val scaleY = inputHeight.toFloat() / outputHeight
+            val row0 = ByteArray(inputRowStride)
+            val row1 = ByteArray(inputRowStride)
+            val sourceIndices = IntArray(outputWidth) { (it * scaleX).toInt() * inputPixelStride }
+            synchronized(input) {
+                input.rewind()
+                for (iy in 0 until outputHeight) {
+                    val floorSourceY = (iy * scaleY).toInt()
+                    input.position(minOf(floorSourceY, inputHeight - 1) * inputRowStride)
+                    input.get(row0, 0, minOf(inputRowStride, input.remaining()))
+                    input.position(minOf(floorSourceY + 1, inputHeight - 1) * inputRowStride)
+                    input.get(row1, 0, minOf(inputRowStride, input.remaining()))
+                    for (ix in 0 until outputWidth) {
+                        val s = sourceIndices[ix]
+                        val sum = (row0[s].toInt() and 0xFF) +
+                            (row0[s + inputPixelStride].toInt() and 0xFF) +
+                            (row1[s].toInt() and 0xFF) +
+                            (row1[s + inputPixelStride].toInt() and 0xFF)
+                        output[iy * outputWidth + ix] = (sum / 4).toByte()
+                    }
+                }
+            }
+        }
+    }
+}
@@ -159,6 +159,21 @@ public final class ImageAnalysis extends UseCase {
      * @see Builder#setImageQueueDepth(int)
      */
     public static final int STRATEGY_BLOCK_PRODUCER = 1;
+    /**
+     * Only deliver the latest image to the analyzer, and adapt to the measured latency of the
+     * analyzer to deliver fresher images.
+     *
+     * <p>This strategy behaves like {@link #STRATEGY_KEEP_ONLY_LATEST}, and additionally
+     * measures the interval between images and the time the analyzer takes to close them. When
+     * the analyzer closes an image, the latest image produced meanwhile is dropped if it has
+     * already waited for more than half of the image interval and the next image is expected
+     * within a quarter of the analysis latency. The next image is then delivered as soon as it
+     * is produced. This trades a bounded part of the analyzer throughput for a shorter delay
+     * between capture and analysis when the analyzer is slower than the camera.
+     *
+     * @see #setFrameTimingListener(Executor, FrameTimingListener)
+     */
+    public static final int STRATEGY_ADAPTIVE = 2;
 
     /**
      * Images sent to the analyzer will have YUV format.
@@ -237,12 +252,14 @@ public final class ImageAnalysis extends UseCase {
         // Get the combined configuration with defaults
         ImageAnalysisConfig combinedConfig = (ImageAnalysisConfig) getCurrentConfig();
 
-        if (combinedConfig.getBackpressureStrategy(DEFAULT_BACKPRESSURE_STRATEGY)
-                == STRATEGY_BLOCK_PRODUCER) {
+        int backpressureStrategy =
+                combinedConfig.getBackpressureStrategy(DEFAULT_BACKPRESSURE_STRATEGY);
+        if (backpressureStrategy == STRATEGY_BLOCK_PRODUCER) {
             mImageAnalysisAbstractAnalyzer = new ImageAnalysisBlockingAnalyzer();
         } else {
             mImageAnalysisAbstractAnalyzer = new ImageAnalysisNonBlockingAnalyzer(
-                    config.getBackgroundExecutor(CameraXExecutors.highPriorityExecutor()));
+                    config.getBackgroundExecutor(CameraXExecutors.highPriorityExecutor()),
+                    /* adaptive= */ backpressureStrategy == STRATEGY_ADAPTIVE);
         }
         mImageAnalysisAbstractAnalyzer.setOutputImageFormat(getOutputImageFormat());
         mImageAnalysisAbstractAnalyzer.setOutputImageRotationEnabled(
@@ -533,6 +550,31 @@ public final class ImageAnalysis extends UseCase {
         }
     }
 
+    /**
+     * Sets a listener to receive the timing of each image delivered to the analyzer.
+     *
+     * <p>The listener is called once the analyzer closes the image, with the time the image
+     * waited before being processed, the time spent converting or rotating it as configured by
+     * {@link Builder#setOutputImageFormat(int)} and
+     * {@link Builder#setOutputImageRotationEnabled(boolean)}, and the time until the analyzer
+     * closed it. Setting a listener replaces any previously set one.
+     *
+     * @param executor The executor on which the listener is called.
+     * @param listener The listener receiving the timings.
+     * @see #clearFrameTimingListener()
+     */
+    public void setFrameTimingListener(@NonNull Executor executor,
+            @NonNull FrameTimingListener listener) {
+        mImageAnalysisAbstractAnalyzer.setFrameTimingListener(executor, listener);
+    }
+
+    /**
+     * Removes the listener set with {@link #setFrameTimingListener(Executor, FrameTimingListener)}.
+     */
+    public void clearFrameTimingListener() {
+        mImageAnalysisAbstractAnalyzer.setFrameTimingListener(null, null);
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -791,7 +833,7 @@ public final class ImageAnalysis extends UseCase {
      *
      * @see Builder#setBackpressureStrategy(int)
      */
-    @IntDef({STRATEGY_KEEP_ONLY_LATEST, STRATEGY_BLOCK_PRODUCER})
+    @IntDef({STRATEGY_KEEP_ONLY_LATEST, STRATEGY_BLOCK_PRODUCER, STRATEGY_ADAPTIVE})
     @Retention(RetentionPolicy.SOURCE)
     @RestrictTo(Scope.LIBRARY_GROUP)
     public @interface BackpressureStrategy {
@@ -934,6 +976,78 @@ public final class ImageAnalysis extends UseCase {
         }
     }
 
+    /**
+     * Listener receiving the timing of the images delivered to the {@link Analyzer}.
+     *
+     * @see ImageAnalysis#setFrameTimingListener(Executor, FrameTimingListener)
+     */
+    public interface FrameTimingListener {
+        /**
+         * Called after the analyzer closed an image.
+         *
+         * @param frameTiming The timing of the image.
+         */
+        void onFrameTiming(@NonNull FrameTiming frameTiming);
+    }
+
+    /**
+     * The timing of an image delivered to the {@link Analyzer}, from the moment it was acquired
+     * from the camera to the moment the analyzer closed it.
+     */
+    public static final class FrameTiming {
+        private final long mTimestamp;
+        private final long mQueueWaitNanos;
+        private final long mConversionNanos;
+        private final long mAnalysisNanos;
+        private final int mDroppedFrameCount;
+
+        FrameTiming(long timestamp, long queueWaitNanos, long conversionNanos,
+                long analysisNanos, int droppedFrameCount) {
+            mTimestamp = timestamp;
+            mQueueWaitNanos = queueWaitNanos;
+            mConversionNanos = conversionNanos;
+            mAnalysisNanos = analysisNanos;
+            mDroppedFrameCount = droppedFrameCount;
+        }
+
+        /** Returns the timestamp of the image, as returned by {@link ImageInfo#getTimestamp()}. */
+        public long getTimestamp() {
+            return mTimestamp;
+        }
+
+        /**
+         * Returns the time, in nanoseconds, between the image being acquired from the camera and
+         * its processing starting, e.g. while the analyzer was busy with a previous image.
+         */
+        public long getQueueWaitNanos() {
+            return mQueueWaitNanos;
+        }
+
+        /**
+         * Returns the time, in nanoseconds, spent converting the image to the output format and
+         * rotating it, or 0 if no processing was needed.
+         */
+        public long getConversionNanos() {
+            return mConversionNanos;
+        }
+
+        /**
+         * Returns the time, in nanoseconds, between the end of the processing of the image and
+         * the analyzer closing it, including posting it to the analyzer's executor.
+         */
+        public long getAnalysisNanos() {
+            return mAnalysisNanos;
+        }
+
+        /**
+         * Returns the number of images dropped by the backpressure strategy since the previous
+         * image delivered to the analyzer.
+         */
+        public int getDroppedFrameCount() {
+            return mDroppedFrameCount;
+        }
+    }
+
     /**
      * {@link ImageAnalysis.Analyzer} option for returning the original coordinates.
      *
@@ -1052,8 +1166,8 @@ public final class ImageAnalysis extends UseCase {
          * Sets the backpressure strategy to apply to the image producer to deal with scenarios
          * where images may be produced faster than they can be analyzed.
          *
-         * <p>The available values are {@link #STRATEGY_BLOCK_PRODUCER} and
-         * {@link #STRATEGY_KEEP_ONLY_LATEST}.
+         * <p>The available values are {@link #STRATEGY_BLOCK_PRODUCER},
+         * {@link #STRATEGY_KEEP_ONLY_LATEST} and {@link #STRATEGY_ADAPTIVE}.
          *
          * <p>If not set, the backpressure strategy will default to
          * {@link #STRATEGY_KEEP_ONLY_LATEST}.
@@ -1084,7 +1198,11 @@ public final class ImageAnalysis extends UseCase {
          * the camera pipeline.
          *
          * <p>The value only applies to {@link #STRATEGY_BLOCK_PRODUCER} mode.
-         * For {@link #STRATEGY_KEEP_ONLY_LATEST} the value is ignored.
+         * For {@link #STRATEGY_KEEP_ONLY_LATEST} and {@link #STRATEGY_ADAPTIVE} the value is
+         * ignored: these strategies use a fixed number of images, and keep at most one image
+         * waiting for the analyzer. With {@link #STRATEGY_ADAPTIVE}, the analyzer latency rather
+         * than the queue depth decides whether that image is delivered or dropped for the next
+         * one.
          *
          * <p>If not set, and this option is used by the selected backpressure strategy,
          * the default will be a queue depth of 6 images.
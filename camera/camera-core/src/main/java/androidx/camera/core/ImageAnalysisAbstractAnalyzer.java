@@ -28,6 +28,7 @@ import android.graphics.Rect;
 import android.graphics.RectF;
 import android.media.ImageWriter;
 import android.os.Build;
+import android.os.SystemClock;
 
 import androidx.annotation.GuardedBy;
 import androidx.annotation.IntRange;
@@ -116,6 +117,14 @@ abstract class ImageAnalysisAbstractAnalyzer implements ImageReaderProxy.OnImage
     @Nullable
     @VisibleForTesting ByteBuffer mVRotatedBuffer;
 
+    @GuardedBy("mAnalyzerLock")
+    @Nullable
+    private Executor mFrameTimingExecutor;
+
+    @GuardedBy("mAnalyzerLock")
+    @Nullable
+    private ImageAnalysis.FrameTimingListener mFrameTimingListener;
+
     // Lock that synchronizes the access to mSubscribedAnalyzer/mUserExecutor to prevent mismatch.
     private final Object mAnalyzerLock = new Object();
 
@@ -168,6 +177,19 @@ abstract class ImageAnalysisAbstractAnalyzer implements ImageReaderProxy.OnImage
      * @return The future which will complete once analysis has finished or it failed.
      */
     ListenableFuture<Void> analyzeImage(@NonNull ImageProxy imageProxy) {
+        return analyzeImage(imageProxy, SystemClock.elapsedRealtimeNanos(), 0);
+    }
+
+    /**
+     * Analyzes a {@link ImageProxy} acquired at {@code acquiredTimeNanos}, in the
+     * {@link SystemClock#elapsedRealtimeNanos()} time base, after {@code droppedFrameCount}
+     * images were dropped. Both are reported to the {@link ImageAnalysis.FrameTimingListener}.
+     *
+     * @see #analyzeImage(ImageProxy)
+     */
+    ListenableFuture<Void> analyzeImage(@NonNull ImageProxy imageProxy, long acquiredTimeNanos,
+            int droppedFrameCount) {
+        long processingStartNanos = SystemClock.elapsedRealtimeNanos();
         Executor executor;
         ImageAnalysis.Analyzer analyzer;
         SafeCloseImageReaderProxy processedImageReaderProxy;
@@ -178,10 +200,14 @@ abstract class ImageAnalysisAbstractAnalyzer implements ImageReaderProxy.OnImage
         ByteBuffer vRotatedBuffer;
         int currentBufferRotationDegrees = mOutputImageRotationEnabled ? mRelativeRotation : 0;
         boolean outputImageDirty;
+        Executor frameTimingExecutor;
+        ImageAnalysis.FrameTimingListener frameTimingListener;
 
         synchronized (mAnalyzerLock) {
             executor = mUserExecutor;
             analyzer = mSubscribedAnalyzer;
+            frameTimingExecutor = mFrameTimingExecutor;
+            frameTimingListener = mFrameTimingListener;
 
             // Set dirty flag to indicate the output image transform matrix (for both YUV and RGB)
             // and image reader proxy (for YUV) needs to be recreated.
@@ -242,6 +268,8 @@ abstract class ImageAnalysisAbstractAnalyzer implements ImageReaderProxy.OnImage
                 }
             }
 
+            long processingEndNanos = SystemClock.elapsedRealtimeNanos();
+
             // Flag to indicate YUV2RGB conversion or YUV/RGB rotation failed, not including one
             // pixel shift process for YUV.
             final boolean outputProcessedImageFailed = processedImageProxy == null;
@@ -278,11 +306,29 @@ abstract class ImageAnalysisAbstractAnalyzer implements ImageReaderProxy.OnImage
                                                 : mRelativeRotation,
                                         transformMatrix);
 
-                                ImageProxy outputSettableImageProxy = new SettableImageProxy(
-                                        outputImageProxy, imageInfo);
+                                SettableImageProxy outputSettableImageProxy =
+                                        new SettableImageProxy(outputImageProxy, imageInfo);
                                 if (!cropRect.isEmpty()) {
                                     outputSettableImageProxy.setCropRect(cropRect);
                                 }
+                                if (frameTimingListener != null && frameTimingExecutor != null) {
+                                    long queueWaitNanos = processingStartNanos - acquiredTimeNanos;
+                                    long conversionNanos =
+                                            processingEndNanos - processingStartNanos;
+                                    outputSettableImageProxy.addOnImageCloseListener(image -> {
+                                        ImageAnalysis.FrameTiming frameTiming =
+                                                new ImageAnalysis.FrameTiming(
+                                                        imageInfo.getTimestamp(),
+                                                        queueWaitNanos,
+                                                        conversionNanos,
+                                                        SystemClock.elapsedRealtimeNanos()
+                                                                - processingEndNanos,
+                                                        droppedFrameCount);
+                                        frameTimingExecutor.execute(
+                                                () -> frameTimingListener.onFrameTiming(
+                                                        frameTiming));
+                                    });
+                                }
                                 analyzer.analyze(outputSettableImageProxy);
                                 completer.set(null);
                             } else {
@@ -358,6 +404,14 @@ abstract class ImageAnalysisAbstractAnalyzer implements ImageReaderProxy.OnImage
 
     }
 
+    void setFrameTimingListener(@Nullable Executor executor,
+            @Nullable ImageAnalysis.FrameTimingListener listener) {
+        synchronized (mAnalyzerLock) {
+            mFrameTimingExecutor = executor;
+            mFrameTimingListener = listener;
+        }
+    }
+
     void setAnalyzer(@Nullable Executor userExecutor,
             @Nullable ImageAnalysis.Analyzer subscribedAnalyzer) {
         // Keep clearCache out of mAnalyzerLock critical section to avoid deadlock.
@@ -387,30 +441,24 @@ abstract class ImageAnalysisAbstractAnalyzer implements ImageReaderProxy.OnImage
 
     @GuardedBy("mAnalyzerLock")
     private void createHelperBuffer(@NonNull ImageProxy imageProxy) {
+        // The buffers are reused across frames, and only reallocated if the image size grows.
+        int pixelCount = imageProxy.getWidth() * imageProxy.getHeight();
         if (mOutputImageFormat == ImageAnalysis.OUTPUT_IMAGE_FORMAT_YUV_420_888) {
-            if (mYRotatedBuffer == null) {
-                mYRotatedBuffer = ByteBuffer.allocateDirect(
-                        imageProxy.getWidth() * imageProxy.getHeight());
-            }
-            mYRotatedBuffer.position(0);
-
-            if (mURotatedBuffer == null) {
-                mURotatedBuffer = ByteBuffer.allocateDirect(
-                        imageProxy.getWidth() * imageProxy.getHeight() / 4);
-            }
-            mURotatedBuffer.position(0);
-
-            if (mVRotatedBuffer == null) {
-                mVRotatedBuffer = ByteBuffer.allocateDirect(
-                        imageProxy.getWidth() * imageProxy.getHeight() / 4);
-            }
-            mVRotatedBuffer.position(0);
+            mYRotatedBuffer = reuseOrAllocate(mYRotatedBuffer, pixelCount);
+            mURotatedBuffer = reuseOrAllocate(mURotatedBuffer, pixelCount / 4);
+            mVRotatedBuffer = reuseOrAllocate(mVRotatedBuffer, pixelCount / 4);
         } else if (mOutputImageFormat == OUTPUT_IMAGE_FORMAT_RGBA_8888) {
-            if (mRGBConvertedBuffer == null) {
-                mRGBConvertedBuffer = ByteBuffer.allocateDirect(
-                        imageProxy.getWidth() * imageProxy.getHeight() * 4);
-            }
+            mRGBConvertedBuffer = reuseOrAllocate(mRGBConvertedBuffer, pixelCount * 4);
+        }
+    }
+
+    @NonNull
+    private static ByteBuffer reuseOrAllocate(@Nullable ByteBuffer buffer, int size) {
+        if (buffer == null || buffer.capacity() < size) {
+            return ByteBuffer.allocateDirect(size);
         }
+        buffer.clear();
+        return buffer;
     }
 
     @GuardedBy("mAnalyzerLock")
@@ -16,6 +16,8 @@
 
 package androidx.camera.core;
 
+import android.os.SystemClock;
+
 import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -33,6 +35,10 @@ import java.util.concurrent.Executor;
  * OnImageAvailableListener with non-blocking behavior. Analyzes images in a non-blocking way by
  * dropping images when analyzer is busy.
  *
+ * <p> In adaptive mode, the cached image is also dropped when it's stale enough that waiting for
+ * the next image is worth it, based on the measured image interval and analysis latency. See
+ * {@link ImageAnalysis#STRATEGY_ADAPTIVE}.
+ *
  * <p> Used with {@link ImageAnalysis}.
  */
 @RequiresApi(21) // TODO(b/200306659): Remove and replace with annotation on package-info.java
@@ -51,13 +57,42 @@ final class ImageAnalysisNonBlockingAnalyzer extends ImageAnalysisAbstractAnalyz
     @VisibleForTesting
     ImageProxy mCachedImage;
 
+    // The time mCachedImage was acquired, in the SystemClock#elapsedRealtimeNanos() time base.
+    @GuardedBy("mLock")
+    private long mCachedImageAcquiredTimeNanos;
+
     // The latest unclosed image sent to the app.
     @GuardedBy("mLock")
     @Nullable
     private CacheAnalyzingImageProxy mPostedImage;
 
+    @GuardedBy("mLock")
+    private long mPostedTimeNanos;
+
+    // The number of images dropped since the last posted image.
+    @GuardedBy("mLock")
+    private int mDroppedFrameCount = 0;
+
+    private final boolean mAdaptive;
+
+    // Moving averages of the interval between incoming images and of the time between posting an
+    // image and the app closing it, or 0 if not measured yet.
+    @GuardedBy("mLock")
+    private long mFrameIntervalNanos = 0;
+
+    @GuardedBy("mLock")
+    private long mAnalysisLatencyNanos = 0;
+
+    @GuardedBy("mLock")
+    private long mLastAcquiredTimeNanos = -1;
+
     ImageAnalysisNonBlockingAnalyzer(Executor executor) {
+        this(executor, /* adaptive= */ false);
+    }
+
+    ImageAnalysisNonBlockingAnalyzer(Executor executor, boolean adaptive) {
         mBackgroundExecutor = executor;
+        mAdaptive = adaptive;
     }
 
     @Nullable
@@ -76,45 +111,68 @@ final class ImageAnalysisNonBlockingAnalyzer extends ImageAnalysisAbstractAnalyz
     @Override
     void onValidImageAvailable(@NonNull ImageProxy imageProxy) {
         synchronized (mLock) {
-            if (!mIsAttached) {
-                imageProxy.close();
-                return;
-            }
-            if (mPostedImage != null) {
-                // There is unclosed image held by the app. The incoming image has to wait.
-
-                if (imageProxy.getImageInfo().getTimestamp()
-                        <= mPostedImage.getImageInfo().getTimestamp()) {
-                    // Discard the incoming image that is in the wrong order. Cached image can be
-                    // in this state.
-                    imageProxy.close();
-                } else {
-                    // Otherwise cache the incoming image and repost it later.
-                    if (mCachedImage != null) {
-                        mCachedImage.close();
-                    }
-                    mCachedImage = imageProxy;
-                }
-                return;
+            long nowNanos = SystemClock.elapsedRealtimeNanos();
+            if (mLastAcquiredTimeNanos >= 0) {
+                mFrameIntervalNanos =
+                        updateAverage(mFrameIntervalNanos, nowNanos - mLastAcquiredTimeNanos);
             }
+            mLastAcquiredTimeNanos = nowNanos;
+            processImage(imageProxy, nowNanos);
+        }
+    }
 
-            // Post the incoming image to app.
-            final CacheAnalyzingImageProxy newPostedImage = new CacheAnalyzingImageProxy(imageProxy,
-                    this);
-            mPostedImage = newPostedImage;
-            Futures.addCallback(analyzeImage(newPostedImage), new FutureCallback<Void>() {
-                @Override
-                public void onSuccess(Void result) {
-                    // No-op. If the post is successful, app should close it.
-                }
+    /**
+     * Posts the image to the app, caches it or closes it.
+     *
+     * @param imageProxy        the image to process.
+     * @param acquiredTimeNanos the time the image was acquired.
+     */
+    @GuardedBy("mLock")
+    private void processImage(@NonNull ImageProxy imageProxy, long acquiredTimeNanos) {
+        if (!mIsAttached) {
+            imageProxy.close();
+            return;
+        }
+        if (mPostedImage != null) {
+            // There is unclosed image held by the app. The incoming image has to wait.
 
-                @Override
-                public void onFailure(@NonNull Throwable t) {
-                    // Close the image if we didn't post it to user.
-                    newPostedImage.close();
+            if (imageProxy.getImageInfo().getTimestamp()
+                    <= mPostedImage.getImageInfo().getTimestamp()) {
+                // Discard the incoming image that is in the wrong order. Cached image can be
+                // in this state.
+                imageProxy.close();
+            } else {
+                // Otherwise cache the incoming image and repost it later.
+                if (mCachedImage != null) {
+                    mCachedImage.close();
+                    mDroppedFrameCount++;
                 }
-            }, CameraXExecutors.directExecutor());
+                mCachedImage = imageProxy;
+                mCachedImageAcquiredTimeNanos = acquiredTimeNanos;
+            }
+            return;
         }
+
+        // Post the incoming image to app.
+        final CacheAnalyzingImageProxy newPostedImage = new CacheAnalyzingImageProxy(imageProxy,
+                this);
+        mPostedImage = newPostedImage;
+        mPostedTimeNanos = SystemClock.elapsedRealtimeNanos();
+        int droppedFrameCount = mDroppedFrameCount;
+        mDroppedFrameCount = 0;
+        Futures.addCallback(analyzeImage(newPostedImage, acquiredTimeNanos, droppedFrameCount),
+                new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                // No-op. If the post is successful, app should close it.
+            }
+
+            @Override
+            public void onFailure(@NonNull Throwable t) {
+                // Close the image if we didn't post it to user.
+                newPostedImage.close();
+            }
+        }, CameraXExecutors.directExecutor());
     }
 
     @Override
@@ -132,15 +190,46 @@ final class ImageAnalysisNonBlockingAnalyzer extends ImageAnalysisAbstractAnalyz
      */
     void analyzeCachedImage() {
         synchronized (mLock) {
+            long nowNanos = SystemClock.elapsedRealtimeNanos();
+            if (mPostedImage != null) {
+                mAnalysisLatencyNanos =
+                        updateAverage(mAnalysisLatencyNanos, nowNanos - mPostedTimeNanos);
+            }
             mPostedImage = null;
             if (mCachedImage != null) {
                 ImageProxy cachedImage = mCachedImage;
                 mCachedImage = null;
-                onValidImageAvailable(cachedImage);
+                if (mAdaptive && shouldWaitForNextImage(nowNanos - mCachedImageAcquiredTimeNanos)) {
+                    cachedImage.close();
+                    mDroppedFrameCount++;
+                    return;
+                }
+                processImage(cachedImage, mCachedImageAcquiredTimeNanos);
             }
         }
     }
 
+    /**
+     * Returns true if the next image is expected soon enough, and is fresh enough compared to the
+     * cached image of the given age, that it's worth waiting for it.
+     */
+    @GuardedBy("mLock")
+    private boolean shouldWaitForNextImage(long cachedImageAgeNanos) {
+        if (mFrameIntervalNanos == 0 || mAnalysisLatencyNanos == 0) {
+            return false;
+        }
+        long nextImageDelayNanos = mFrameIntervalNanos - cachedImageAgeNanos;
+        // The next image is on its way and fresher than the cached one will be, and waiting for it
+        // costs at most a quarter of an analysis.
+        return nextImageDelayNanos > 0
+                && cachedImageAgeNanos > nextImageDelayNanos
+                && nextImageDelayNanos <= mAnalysisLatencyNanos / 4;
+    }
+
+    private static long updateAverage(long average, long sample) {
+        return average == 0 ? sample : average + (sample - average) / 8;
+    }
+
     /**
      * An {@link ImageProxy} that analyze cached image on close.
      */
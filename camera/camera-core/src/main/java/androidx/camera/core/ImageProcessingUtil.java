@@ -32,10 +32,12 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
 import androidx.camera.core.impl.ImageOutputConfig;
 import androidx.camera.core.impl.ImageReaderProxy;
 import androidx.camera.core.internal.compat.ImageWriterCompat;
 import androidx.camera.core.internal.utils.ImageUtil;
+import androidx.camera.core.internal.utils.YuvProcessingUtil;
 import androidx.core.util.Preconditions;
 
 import java.nio.ByteBuffer;
@@ -50,10 +52,19 @@ import java.util.Locale;
 public final class ImageProcessingUtil {
 
     private static final String TAG = "ImageProcessingUtil";
+    private static final int ARGB_PIXEL_STRIDE = 4;
     private static int sImageCount = 0;
+    private static boolean sNativeLibraryLoaded = false;
 
     static {
-        System.loadLibrary("image_processing_util_jni");
+        try {
+            System.loadLibrary("image_processing_util_jni");
+            sNativeLibraryLoaded = true;
+        } catch (UnsatisfiedLinkError e) {
+            // Operations which have a pure Java implementation fall back to it, the other ones
+            // fail as documented.
+            Logger.w(TAG, "Failed to load image_processing_util_jni", e);
+        }
     }
 
     enum Result {
@@ -71,6 +82,9 @@ public final class ImageProcessingUtil {
      * <p>This methods wraps the given byte array with an {@link Image} via the help of the
      * given ImageReader. The image format of the ImageReader has to be JPEG, and the JPEG image
      * size has to match the size of the ImageReader.
+     *
+     * <p>Returns null if the image cannot be written, which is always the case when the
+     * image_processing_util_jni library is not loaded.
      */
     @Nullable
     public static ImageProxy convertJpegBytesToImage(
@@ -82,6 +96,10 @@ public final class ImageProcessingUtil {
         Surface surface = jpegImageReaderProxy.getSurface();
         Preconditions.checkNotNull(surface);
 
+        if (!sNativeLibraryLoaded) {
+            Logger.e(TAG, "Failed to enqueue JPEG image, image_processing_util_jni not loaded.");
+            return null;
+        }
         if (nativeWriteJpegToSurface(jpegBytes, surface) != 0) {
             Logger.e(TAG, "Failed to enqueue JPEG image.");
             return null;
@@ -98,6 +116,9 @@ public final class ImageProcessingUtil {
     /**
      * Copies information from a given Bitmap to the address of the ByteBuffer
      *
+     * <p>The bitmap has to be in {@link Bitmap.Config#ARGB_8888}. The rows are written from the
+     * start of the ByteBuffer, regardless of its position.
+     *
      * @param bitmap            source bitmap
      * @param byteBuffer        destination ByteBuffer
      * @param bufferStride      the stride of the ByteBuffer
@@ -107,6 +128,10 @@ public final class ImageProcessingUtil {
         int bitmapStride = bitmap.getRowBytes();
         int width = bitmap.getWidth();
         int height = bitmap.getHeight();
+        if (!sNativeLibraryLoaded) {
+            copyBetweenByteBufferAndBitmap(bitmap, byteBuffer, bufferStride, false);
+            return;
+        }
         nativeCopyBetweenByteBufferAndBitmap(bitmap, byteBuffer, bitmapStride, bufferStride, width,
                 height, false);
     }
@@ -114,6 +139,9 @@ public final class ImageProcessingUtil {
     /**
      * Copies information from a ByteBuffer to the address of the Bitmap
      *
+     * <p>The bitmap has to be in {@link Bitmap.Config#ARGB_8888}. The rows are read from the
+     * start of the ByteBuffer, regardless of its position.
+     *
      * @param bitmap            destination Bitmap
      * @param byteBuffer        source ByteBuffer
      * @param bufferStride      the stride of the ByteBuffer
@@ -124,13 +152,18 @@ public final class ImageProcessingUtil {
         int bitmapStride = bitmap.getRowBytes();
         int width = bitmap.getWidth();
         int height = bitmap.getHeight();
+        if (!sNativeLibraryLoaded) {
+            copyBetweenByteBufferAndBitmap(bitmap, byteBuffer, bufferStride, true);
+            return;
+        }
         nativeCopyBetweenByteBufferAndBitmap(bitmap, byteBuffer, bufferStride, bitmapStride, width,
                 height, true);
     }
 
     /**
      * Writes a JPEG bytes data as an Image into the Surface. Returns true if it succeeds and false
-     * otherwise.
+     * otherwise, which is always the case when the image_processing_util_jni library is not
+     * loaded.
      */
     public static boolean writeJpegBytesToSurface(
             @NonNull Surface surface,
@@ -138,6 +171,10 @@ public final class ImageProcessingUtil {
         Preconditions.checkNotNull(jpegBytes);
         Preconditions.checkNotNull(surface);
 
+        if (!sNativeLibraryLoaded) {
+            Logger.e(TAG, "Failed to enqueue JPEG image, image_processing_util_jni not loaded.");
+            return false;
+        }
         if (nativeWriteJpegToSurface(jpegBytes, surface) != 0) {
             Logger.e(TAG, "Failed to enqueue JPEG image.");
             return false;
@@ -174,6 +211,10 @@ public final class ImageProcessingUtil {
      * otherwise the input YUV layout will be converted to NV12 first and then to RGBA_8888 as a
      * fallback.
      *
+     * <p>Writing to the Surface of the ImageReader requires the image_processing_util_jni
+     * library. When it is not loaded, the conversion fails and null is returned. Use
+     * {@link #convertYUVToBitmap(ImageProxy)} instead, which has a pure Java fallback.
+     *
      * @param imageProxy           input image proxy in YUV.
      * @param rgbImageReaderProxy  output image reader proxy in RGB.
      * @param rgbConvertedBuffer   intermediate image buffer for format conversion.
@@ -268,6 +309,25 @@ public final class ImageProcessingUtil {
                 imageProxy.getHeight(), Bitmap.Config.ARGB_8888);
         int bitmapStride = bitmap.getRowBytes();
 
+        if (!sNativeLibraryLoaded) {
+            ByteBuffer rgbaBuffer = ByteBuffer.allocateDirect(bitmapStride * imageHeight);
+            YuvProcessingUtil.convertYuv420ToRgba(
+                    imageProxy.getPlanes()[0].getBuffer(),
+                    srcStrideY,
+                    srcPixelStrideY,
+                    imageProxy.getPlanes()[1].getBuffer(),
+                    srcStrideU,
+                    imageProxy.getPlanes()[2].getBuffer(),
+                    srcStrideV,
+                    srcPixelStrideUV,
+                    rgbaBuffer,
+                    bitmapStride,
+                    imageWidth,
+                    imageHeight);
+            bitmap.copyPixelsFromBuffer(rgbaBuffer);
+            return bitmap;
+        }
+
         int result = nativeConvertAndroid420ToBitmap(
                 imageProxy.getPlanes()[0].getBuffer(),
                 srcStrideY,
@@ -290,6 +350,9 @@ public final class ImageProcessingUtil {
     /**
      * Applies one pixel shift workaround for YUV image
      *
+     * <p>The shift requires the image_processing_util_jni library, false is returned when it is
+     * not loaded.
+     *
      * @param imageProxy input image proxy in YUV.
      * @return true if one pixel shift is applied successfully, otherwise false.
      */
@@ -377,6 +440,52 @@ public final class ImageProcessingUtil {
         return wrappedRotatedImageProxy;
     }
 
+    /**
+     * Pure Java version of {@link #nativeCopyBetweenByteBufferAndBitmap}, used when the native
+     * library is not loaded.
+     */
+    private static void copyBetweenByteBufferAndBitmap(@NonNull Bitmap bitmap,
+            @NonNull ByteBuffer byteBuffer, int bufferStride, boolean isCopyBufferToBitmap) {
+        int bitmapStride = bitmap.getRowBytes();
+        int height = bitmap.getHeight();
+        // Like the native copy, this ignores the position and limit of the ByteBuffer.
+        ByteBuffer buffer = byteBuffer.duplicate();
+        buffer.clear();
+        if (bufferStride == bitmapStride) {
+            if (isCopyBufferToBitmap) {
+                bitmap.copyPixelsFromBuffer(buffer);
+            } else {
+                bitmap.copyPixelsToBuffer(buffer);
+            }
+            return;
+        }
+        // The bitmap can only be copied as a whole, so the rows go through a packed buffer.
+        int rowBytes = bitmap.getWidth() * ARGB_PIXEL_STRIDE;
+        ByteBuffer packed = ByteBuffer.allocate(bitmapStride * height);
+        if (!isCopyBufferToBitmap) {
+            bitmap.copyPixelsToBuffer(packed);
+        }
+        for (int row = 0; row < height; row++) {
+            ByteBuffer source = isCopyBufferToBitmap ? buffer : packed;
+            ByteBuffer destination = isCopyBufferToBitmap ? packed : buffer;
+            int sourceStride = isCopyBufferToBitmap ? bufferStride : bitmapStride;
+            int destinationStride = isCopyBufferToBitmap ? bitmapStride : bufferStride;
+            source.limit(row * sourceStride + rowBytes);
+            source.position(row * sourceStride);
+            destination.position(row * destinationStride);
+            destination.put(source);
+        }
+        if (isCopyBufferToBitmap) {
+            packed.clear();
+            bitmap.copyPixelsFromBuffer(packed);
+        }
+    }
+
+    @VisibleForTesting
+    static boolean isNativeLibraryLoaded() {
+        return sNativeLibraryLoaded;
+    }
+
     private static boolean isSupportedYUVFormat(@NonNull ImageProxy imageProxy) {
         return imageProxy.getFormat() == ImageFormat.YUV_420_888
                 && imageProxy.getPlanes().length == 3;
@@ -397,6 +506,12 @@ public final class ImageProcessingUtil {
             @Nullable ByteBuffer rgbConvertedBuffer,
             @ImageOutputConfig.RotationDegreesValue int rotation,
             boolean onePixelShiftEnabled) {
+        if (!sNativeLibraryLoaded) {
+            // Writing to the Surface goes through ANativeWindow, which has no Java equivalent
+            // for the RGBA_8888 ImageReader surfaces used here.
+            Logger.e(TAG, "YUV to RGB conversion requires image_processing_util_jni");
+            return ERROR_CONVERSION;
+        }
         int imageWidth = imageProxy.getWidth();
         int imageHeight = imageProxy.getHeight();
         int srcStrideY = imageProxy.getPlanes()[0].getRowStride();
@@ -434,6 +549,9 @@ public final class ImageProcessingUtil {
 
     @NonNull
     private static Result applyPixelShiftInternal(@NonNull ImageProxy imageProxy) {
+        if (!sNativeLibraryLoaded) {
+            return ERROR_CONVERSION;
+        }
         int imageWidth = imageProxy.getWidth();
         int imageHeight = imageProxy.getHeight();
         int srcStrideY = imageProxy.getPlanes()[0].getRowStride();
@@ -487,6 +605,31 @@ public final class ImageProcessingUtil {
             return ERROR_CONVERSION;
         }
 
+        if (!sNativeLibraryLoaded) {
+            YuvProcessingUtil.rotateYuv420(
+                    imageProxy.getPlanes()[0].getBuffer(),
+                    srcStrideY,
+                    imageProxy.getPlanes()[1].getBuffer(),
+                    srcStrideU,
+                    imageProxy.getPlanes()[2].getBuffer(),
+                    srcStrideV,
+                    srcPixelStrideUV,
+                    rotatedImage.getPlanes()[0].getBuffer(),
+                    rotatedImage.getPlanes()[0].getRowStride(),
+                    rotatedImage.getPlanes()[0].getPixelStride(),
+                    rotatedImage.getPlanes()[1].getBuffer(),
+                    rotatedImage.getPlanes()[1].getRowStride(),
+                    rotatedImage.getPlanes()[1].getPixelStride(),
+                    rotatedImage.getPlanes()[2].getBuffer(),
+                    rotatedImage.getPlanes()[2].getRowStride(),
+                    rotatedImage.getPlanes()[2].getPixelStride(),
+                    imageWidth,
+                    imageHeight,
+                    rotationDegrees);
+            ImageWriterCompat.queueInputImage(rotatedImageWriter, rotatedImage);
+            return SUCCESS;
+        }
+
         int result = nativeRotateYUV(
                 imageProxy.getPlanes()[0].getBuffer(),
                 srcStrideY,
@@ -21,6 +21,7 @@ import android.util.Size;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
+import androidx.camera.core.internal.utils.YuvProcessingUtil;
 
 import java.nio.ByteBuffer;
 
@@ -86,7 +87,7 @@ final class ImageProxyDownsampler {
                             outputHeights[i]);
                     break;
                 case AVERAGING:
-                    resizeAveraging(
+                    YuvProcessingUtil.downsamplePlaneAveraging(
                             inputBuffer,
                             inputWidths[i],
                             inputPlane.getPixelStride(),
@@ -141,53 +142,6 @@ final class ImageProxyDownsampler {
         }
     }
 
-    private static void resizeAveraging(
-            ByteBuffer input,
-            int inputWidth,
-            int inputPixelStride,
-            int inputRowStride,
-            int inputHeight,
-            byte[] output,
-            int outputWidth,
-            int outputHeight) {
-        float scaleX = (float) inputWidth / outputWidth;
-        float scaleY = (float) inputHeight / outputHeight;
-
-        byte[] row0 = new byte[inputRowStride];
-        byte[] row1 = new byte[inputRowStride];
-        int[] sourceIndices = new int[outputWidth];
-        for (int ix = 0; ix < outputWidth; ++ix) {
-            float sourceX = ix * scaleX;
-            int floorSourceX = (int) sourceX;
-            sourceIndices[ix] = floorSourceX * inputPixelStride;
-        }
-
-        synchronized (input) {
-            input.rewind();
-            for (int iy = 0; iy < outputHeight; ++iy) {
-                float sourceY = iy * scaleY;
-                int floorSourceY = (int) sourceY;
-                int rowOffsetSource0 = Math.min(floorSourceY, inputHeight - 1) * inputRowStride;
-                int rowOffsetSource1 = Math.min(floorSourceY + 1, inputHeight - 1) * inputRowStride;
-                int rowOffsetTarget = iy * outputWidth;
-
-                input.position(rowOffsetSource0);
-                input.get(row0, 0, Math.min(inputRowStride, input.remaining()));
-                input.position(rowOffsetSource1);
-                input.get(row1, 0, Math.min(inputRowStride, input.remaining()));
-
-                for (int ix = 0; ix < outputWidth; ++ix) {
-                    int sampleA = row0[sourceIndices[ix]] & 0xFF;
-                    int sampleB = row0[sourceIndices[ix] + inputPixelStride] & 0xFF;
-                    int sampleC = row1[sourceIndices[ix]] & 0xFF;
-                    int sampleD = row1[sourceIndices[ix] + inputPixelStride] & 0xFF;
-                    int mixed = (sampleA + sampleB + sampleC + sampleD) / 4;
-                    output[rowOffsetTarget + ix] = (byte) (mixed & 0xFF);
-                }
-            }
-        }
-    }
-
     @SuppressWarnings("SameParameterValue")
     private static ImageProxy.PlaneProxy createPlaneProxy(
             final int rowStride, final int pixelStride, final byte[] data) {
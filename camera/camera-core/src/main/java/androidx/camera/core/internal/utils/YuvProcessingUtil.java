@@ -0,0 +1,458 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core.internal.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Pure Java implementation of the YUV_420_888 processing otherwise done by libyuv through
+ * {@code image_processing_util_jni}.
+ *
+ * <p>All of the methods work on the planes of an image as {@link ByteBuffer}s, heap or direct,
+ * with arbitrary row and pixel strides, and don't depend on the native library or on any Android
+ * class, so they can be used when the native library can't be loaded, e.g. in host side tests.
+ *
+ * <p>The planes are processed one row at a time: each source row is copied with a single bulk
+ * {@link ByteBuffer#get(byte[], int, int)} into a scratch array, transformed by a simple counted
+ * loop over the arrays, which the JIT can unroll and vectorize, and written back with a single
+ * bulk {@link ByteBuffer#put(byte[], int, int)}. The positions of the given buffers are never
+ * modified.
+ */
+@RequiresApi(21) // TODO(b/200306659): Remove and replace with annotation on package-info.java
+public final class YuvProcessingUtil {
+
+    // Full swing BT.601 (JPEG) coefficients in 16.16 fixed point, matching the
+    // libyuv::kYvuJPEGConstants used by the native conversion.
+    private static final int COEFFICIENT_R_V = 91881; // 1.402
+    private static final int COEFFICIENT_G_U = 22554; // 0.344136
+    private static final int COEFFICIENT_G_V = 46802; // 0.714136
+    private static final int COEFFICIENT_B_U = 116130; // 1.772
+    private static final int FIXED_POINT_HALF = 1 << 15;
+
+    private YuvProcessingUtil() {
+    }
+
+    /**
+     * Converts a YUV_420_888 image to RGBA_8888, i.e. 4 bytes per pixel in R, G, B, A order, as
+     * written by {@code ImageProcessingUtil#convertYUVToRGB}.
+     *
+     * @param srcY             the Y plane.
+     * @param srcStrideY       the row stride of the Y plane.
+     * @param srcPixelStrideY  the pixel stride of the Y plane.
+     * @param srcU             the U plane.
+     * @param srcStrideU       the row stride of the U plane.
+     * @param srcV             the V plane.
+     * @param srcStrideV       the row stride of the V plane.
+     * @param srcPixelStrideUV the pixel stride of the U and V planes.
+     * @param dstRgba          the output buffer, with at least {@code dstStride * height} bytes.
+     * @param dstStride        the row stride of the output, at least {@code width * 4}.
+     * @param width            the width of the image.
+     * @param height           the height of the image.
+     */
+    public static void convertYuv420ToRgba(
+            @NonNull ByteBuffer srcY,
+            int srcStrideY,
+            int srcPixelStrideY,
+            @NonNull ByteBuffer srcU,
+            int srcStrideU,
+            @NonNull ByteBuffer srcV,
+            int srcStrideV,
+            int srcPixelStrideUV,
+            @NonNull ByteBuffer dstRgba,
+            int dstStride,
+            int width,
+            int height) {
+        int chromaWidth = (width + 1) / 2;
+        byte[] rowY = new byte[rowLength(width, srcPixelStrideY)];
+        byte[] rowU = new byte[rowLength(chromaWidth, srcPixelStrideUV)];
+        byte[] rowV = new byte[rowLength(chromaWidth, srcPixelStrideUV)];
+        byte[] rowRgba = new byte[width * 4];
+        // The chroma contributions of the current chroma row, shared by two rows of pixels.
+        int[] chromaR = new int[chromaWidth];
+        int[] chromaG = new int[chromaWidth];
+        int[] chromaB = new int[chromaWidth];
+
+        ByteBuffer y = srcY.duplicate();
+        ByteBuffer u = srcU.duplicate();
+        ByteBuffer v = srcV.duplicate();
+        ByteBuffer dst = dstRgba.duplicate();
+        for (int row = 0; row < height; row++) {
+            if ((row & 1) == 0) {
+                int chromaRow = row / 2;
+                readRow(u, chromaRow * srcStrideU, rowU);
+                readRow(v, chromaRow * srcStrideV, rowV);
+                for (int i = 0, offset = 0; i < chromaWidth; i++, offset += srcPixelStrideUV) {
+                    int cu = (rowU[offset] & 0xFF) - 128;
+                    int cv = (rowV[offset] & 0xFF) - 128;
+                    chromaR[i] = (COEFFICIENT_R_V * cv + FIXED_POINT_HALF) >> 16;
+                    chromaG[i] =
+                            (COEFFICIENT_G_U * cu + COEFFICIENT_G_V * cv + FIXED_POINT_HALF) >> 16;
+                    chromaB[i] = (COEFFICIENT_B_U * cu + FIXED_POINT_HALF) >> 16;
+                }
+            }
+            readRow(y, row * srcStrideY, rowY);
+            for (int x = 0, offset = 0, out = 0; x < width;
+                    x++, offset += srcPixelStrideY, out += 4) {
+                int luma = rowY[offset] & 0xFF;
+                int i = x >> 1;
+                rowRgba[out] = (byte) clamp(luma + chromaR[i]);
+                rowRgba[out + 1] = (byte) clamp(luma - chromaG[i]);
+                rowRgba[out + 2] = (byte) clamp(luma + chromaB[i]);
+                rowRgba[out + 3] = (byte) 0xFF;
+            }
+            dst.position(row * dstStride);
+            dst.put(rowRgba, 0, rowRgba.length);
+        }
+    }
+
+    /**
+     * Converts a YUV_420_888 image to NV21, i.e. the Y plane followed by the interleaved V and U
+     * samples, both without padding.
+     *
+     * @param dstNv21 the output array, with at least {@code width * height * 3 / 2} bytes.
+     */
+    public static void convertYuv420ToNv21(
+            @NonNull ByteBuffer srcY,
+            int srcStrideY,
+            int srcPixelStrideY,
+            @NonNull ByteBuffer srcU,
+            int srcStrideU,
+            int srcPixelStrideU,
+            @NonNull ByteBuffer srcV,
+            int srcStrideV,
+            int srcPixelStrideV,
+            @NonNull byte[] dstNv21,
+            int width,
+            int height) {
+        int position = copyPlane(srcY, srcStrideY, srcPixelStrideY, width, height, dstNv21, 0);
+
+        int chromaWidth = width / 2;
+        int chromaHeight = height / 2;
+        byte[] rowU = new byte[rowLength(chromaWidth, srcPixelStrideU)];
+        byte[] rowV = new byte[rowLength(chromaWidth, srcPixelStrideV)];
+        ByteBuffer u = srcU.duplicate();
+        ByteBuffer v = srcV.duplicate();
+        for (int row = 0; row < chromaHeight; row++) {
+            readRow(u, row * srcStrideU, rowU);
+            readRow(v, row * srcStrideV, rowV);
+            if (srcPixelStrideU == 1 && srcPixelStrideV == 1) {
+                for (int i = 0; i < chromaWidth; i++) {
+                    dstNv21[position + 2 * i] = rowV[i];
+                    dstNv21[position + 2 * i + 1] = rowU[i];
+                }
+            } else {
+                for (int i = 0, offsetU = 0, offsetV = 0; i < chromaWidth;
+                        i++, offsetU += srcPixelStrideU, offsetV += srcPixelStrideV) {
+                    dstNv21[position + 2 * i] = rowV[offsetV];
+                    dstNv21[position + 2 * i + 1] = rowU[offsetU];
+                }
+            }
+            position += 2 * chromaWidth;
+        }
+    }
+
+    /**
+     * Rotates the three planes of a YUV_420_888 image clockwise.
+     *
+     * <p>The output planes are for an image of {@code height x width} if the rotation is 90 or
+     * 270 degrees, and of {@code width x height} otherwise.
+     *
+     * @param rotationDegrees 0, 90, 180 or 270.
+     */
+    public static void rotateYuv420(
+            @NonNull ByteBuffer srcY,
+            int srcStrideY,
+            @NonNull ByteBuffer srcU,
+            int srcStrideU,
+            @NonNull ByteBuffer srcV,
+            int srcStrideV,
+            int srcPixelStrideUV,
+            @NonNull ByteBuffer dstY,
+            int dstStrideY,
+            int dstPixelStrideY,
+            @NonNull ByteBuffer dstU,
+            int dstStrideU,
+            int dstPixelStrideU,
+            @NonNull ByteBuffer dstV,
+            int dstStrideV,
+            int dstPixelStrideV,
+            int width,
+            int height,
+            int rotationDegrees) {
+        int chromaWidth = (width + 1) / 2;
+        int chromaHeight = (height + 1) / 2;
+        rotatePlane(srcY, srcStrideY, 1, dstY, dstStrideY, dstPixelStrideY, width, height,
+                rotationDegrees);
+        rotatePlane(srcU, srcStrideU, srcPixelStrideUV, dstU, dstStrideU, dstPixelStrideU,
+                chromaWidth, chromaHeight, rotationDegrees);
+        rotatePlane(srcV, srcStrideV, srcPixelStrideUV, dstV, dstStrideV, dstPixelStrideV,
+                chromaWidth, chromaHeight, rotationDegrees);
+    }
+
+    /**
+     * Rotates a single plane clockwise.
+     *
+     * @param width           the width of the source plane.
+     * @param height          the height of the source plane.
+     * @param rotationDegrees 0, 90, 180 or 270.
+     */
+    public static void rotatePlane(
+            @NonNull ByteBuffer src,
+            int srcRowStride,
+            int srcPixelStride,
+            @NonNull ByteBuffer dst,
+            int dstRowStride,
+            int dstPixelStride,
+            int width,
+            int height,
+            int rotationDegrees) {
+        if (rotationDegrees != 0 && rotationDegrees != 90 && rotationDegrees != 180
+                && rotationDegrees != 270) {
+            throw new IllegalArgumentException("Unsupported rotation degrees: " + rotationDegrees);
+        }
+        byte[] plane = new byte[width * height];
+        copyPlane(src, srcRowStride, srcPixelStride, width, height, plane, 0);
+
+        boolean swapDimensions = rotationDegrees == 90 || rotationDegrees == 270;
+        int dstWidth = swapDimensions ? height : width;
+        int dstHeight = swapDimensions ? width : height;
+        byte[] rotated;
+        switch (rotationDegrees) {
+            case 90:
+                rotated = transposeBlocked(plane, width, height, /* mirrorRows= */ true);
+                break;
+            case 180:
+                rotated = new byte[plane.length];
+                for (int i = 0, j = plane.length - 1; i < plane.length; i++, j--) {
+                    rotated[j] = plane[i];
+                }
+                break;
+            case 270:
+                rotated = transposeBlocked(plane, width, height, /* mirrorRows= */ false);
+                break;
+            default:
+                rotated = plane;
+                break;
+        }
+        writePlane(rotated, dstWidth, dstHeight, dst, dstRowStride, dstPixelStride);
+    }
+
+    /**
+     * Downsamples a plane by averaging, for each output sample, the 2x2 input samples at the
+     * matching position.
+     *
+     * <p>This produces the same output as the scalar implementation of
+     * {@code ImageProxyDownsampler}, while reading each input row at most once.
+     */
+    public static void downsamplePlaneAveraging(
+            @NonNull ByteBuffer input,
+            int inputWidth,
+            int inputPixelStride,
+            int inputRowStride,
+            int inputHeight,
+            @NonNull byte[] output,
+            int outputWidth,
+            int outputHeight) {
+        float scaleX = (float) inputWidth / outputWidth;
+        float scaleY = (float) inputHeight / outputHeight;
+
+        int[] sourceIndices = new int[outputWidth];
+        for (int ix = 0; ix < outputWidth; ++ix) {
+            sourceIndices[ix] = ((int) (ix * scaleX)) * inputPixelStride;
+        }
+        // Input rows are at most inputRowStride long, and only the first bytes up to the last
+        // sample read are needed.
+        int rowLength = Math.min(inputRowStride,
+                sourceIndices[outputWidth - 1] + inputPixelStride + 1);
+        boolean contiguousPairs = isHalvingWithUnitStride(sourceIndices, inputPixelStride);
+
+        ByteBuffer buffer = input.duplicate();
+        byte[] row0 = new byte[rowLength];
+        byte[] row1 = new byte[rowLength];
+        int loadedRow0 = -1;
+        int loadedRow1 = -1;
+        for (int iy = 0; iy < outputHeight; ++iy) {
+            int floorSourceY = (int) (iy * scaleY);
+            int sourceRow0 = Math.min(floorSourceY, inputHeight - 1);
+            int sourceRow1 = Math.min(floorSourceY + 1, inputHeight - 1);
+            // When scaleY < 2 consecutive output rows share an input row, so keep it instead of
+            // reading it again.
+            if (sourceRow0 == loadedRow1) {
+                byte[] swap = row0;
+                row0 = row1;
+                row1 = swap;
+                loadedRow0 = loadedRow1;
+                loadedRow1 = -1;
+            }
+            if (sourceRow0 != loadedRow0) {
+                readRowAtMost(buffer, sourceRow0 * inputRowStride, row0);
+                loadedRow0 = sourceRow0;
+            }
+            if (sourceRow1 != loadedRow1) {
+                if (sourceRow1 == loadedRow0) {
+                    System.arraycopy(row0, 0, row1, 0, rowLength);
+                } else {
+                    readRowAtMost(buffer, sourceRow1 * inputRowStride, row1);
+                }
+                loadedRow1 = sourceRow1;
+            }
+
+            int rowOffsetTarget = iy * outputWidth;
+            if (contiguousPairs) {
+                for (int ix = 0, s = 0; ix < outputWidth; ++ix, s += 2) {
+                    int sum = (row0[s] & 0xFF) + (row0[s + 1] & 0xFF)
+                            + (row1[s] & 0xFF) + (row1[s + 1] & 0xFF);
+                    output[rowOffsetTarget + ix] = (byte) (sum >> 2);
+                }
+            } else {
+                for (int ix = 0; ix < outputWidth; ++ix) {
+                    int s = sourceIndices[ix];
+                    int sum = (row0[s] & 0xFF) + (row0[s + inputPixelStride] & 0xFF)
+                            + (row1[s] & 0xFF) + (row1[s + inputPixelStride] & 0xFF);
+                    output[rowOffsetTarget + ix] = (byte) (sum >> 2);
+                }
+            }
+        }
+    }
+
+    /** Returns true if output sample {@code i} reads the input samples {@code 2i} and 2i + 1. */
+    private static boolean isHalvingWithUnitStride(int[] sourceIndices, int pixelStride) {
+        if (pixelStride != 1) {
+            return false;
+        }
+        for (int i = 0; i < sourceIndices.length; i++) {
+            if (sourceIndices[i] != 2 * i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Transposes a {@code width x height} plane into a {@code height x width} one, mirroring the
+     * rows to rotate by 90 degrees clockwise, or the columns to rotate by 270 degrees.
+     *
+     * <p>The plane is processed in square blocks, so that both the reads and the writes of a
+     * block stay within a few cache lines.
+     */
+    private static byte[] transposeBlocked(byte[] plane, int width, int height,
+            boolean mirrorRows) {
+        final int blockSize = 32;
+        byte[] out = new byte[plane.length];
+        // The output is height wide and width high.
+        for (int by = 0; by < height; by += blockSize) {
+            int endY = Math.min(by + blockSize, height);
+            for (int bx = 0; bx < width; bx += blockSize) {
+                int endX = Math.min(bx + blockSize, width);
+                for (int y = by; y < endY; y++) {
+                    int srcRow = y * width;
+                    if (mirrorRows) {
+                        // (x, y) -> (height - 1 - y, x)
+                        int dstColumn = height - 1 - y;
+                        for (int x = bx; x < endX; x++) {
+                            out[x * height + dstColumn] = plane[srcRow + x];
+                        }
+                    } else {
+                        // (x, y) -> (y, width - 1 - x)
+                        for (int x = bx; x < endX; x++) {
+                            out[(width - 1 - x) * height + y] = plane[srcRow + x];
+                        }
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Copies a plane to {@code dst} at {@code offset} without padding, returning the position
+     * following the copied samples.
+     */
+    private static int copyPlane(ByteBuffer src, int rowStride, int pixelStride, int width,
+            int height, byte[] dst, int offset) {
+        ByteBuffer buffer = src.duplicate();
+        if (pixelStride == 1) {
+            for (int row = 0; row < height; row++) {
+                buffer.position(row * rowStride);
+                buffer.get(dst, offset, width);
+                offset += width;
+            }
+            return offset;
+        }
+        byte[] line = new byte[rowLength(width, pixelStride)];
+        for (int row = 0; row < height; row++) {
+            readRow(buffer, row * rowStride, line);
+            for (int x = 0, s = 0; x < width; x++, s += pixelStride) {
+                dst[offset + x] = line[s];
+            }
+            offset += width;
+        }
+        return offset;
+    }
+
+    /** Writes an unpadded plane to {@code dst} with the given strides. */
+    private static void writePlane(byte[] plane, int width, int height, ByteBuffer dst,
+            int rowStride, int pixelStride) {
+        ByteBuffer buffer = dst.duplicate();
+        if (pixelStride == 1) {
+            for (int row = 0; row < height; row++) {
+                buffer.position(row * rowStride);
+                buffer.put(plane, row * width, width);
+            }
+            return;
+        }
+        // Read back the rows so that the samples interleaved with the written ones, e.g. the
+        // other chroma plane of a semi-planar image, are preserved.
+        byte[] line = new byte[rowLength(width, pixelStride)];
+        for (int row = 0; row < height; row++) {
+            int rowOffset = row * rowStride;
+            readRow(buffer, rowOffset, line);
+            for (int x = 0, s = 0; x < width; x++, s += pixelStride) {
+                line[s] = plane[row * width + x];
+            }
+            buffer.position(rowOffset);
+            buffer.put(line, 0, line.length);
+        }
+    }
+
+    /** Returns the number of bytes spanned by {@code samples} samples of a row. */
+    private static int rowLength(int samples, int pixelStride) {
+        return samples == 0 ? 0 : (samples - 1) * pixelStride + 1;
+    }
+
+    /** Reads {@code row.length} bytes at {@code offset}. */
+    private static void readRow(ByteBuffer buffer, int offset, byte[] row) {
+        buffer.position(offset);
+        buffer.get(row, 0, row.length);
+    }
+
+    /**
+     * Reads up to {@code row.length} bytes at {@code offset}, as the last row of a plane may be
+     * shorter than its row stride.
+     */
+    private static void readRowAtMost(ByteBuffer buffer, int offset, byte[] row) {
+        buffer.position(offset);
+        buffer.get(row, 0, Math.min(row.length, buffer.remaining()));
+    }
+
+    private static int clamp(int value) {
+        return Math.min(255, Math.max(0, value));
+    }
+}
@@ -30,6 +30,7 @@ import static org.mockito.Mockito.when;
 import static org.robolectric.Shadows.shadowOf;
 
 import android.os.Build;
+import android.os.SystemClock;
 
 import androidx.camera.core.impl.ImageReaderProxy;
 import androidx.camera.core.impl.MutableTagBundle;
@@ -43,6 +44,9 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 import org.robolectric.annotation.internal.DoNotInstrument;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -153,4 +157,112 @@ public class ImageAnalysisNonBlockingAnalyzerTest {
         // Assert.
         assertThat(mImageAnalysisNonBlockingAnalyzer.mCachedImage).isNull();
     }
+
+    @Test
+    public void frameTimingListener_receivesTimingWhenImageClosed() {
+        // Arrange.
+        List<ImageAnalysis.FrameTiming> timings = new ArrayList<>();
+        mImageAnalysisNonBlockingAnalyzer.setFrameTimingListener(
+                CameraXExecutors.directExecutor(), timings::add);
+        when(mImageInfo.getTimestamp()).thenReturn(1234L);
+        mImageAnalysisNonBlockingAnalyzer.setAnalyzer(CameraXExecutors.mainThreadExecutor(),
+                image -> {
+                    SystemClock.sleep(10);
+                    image.close();
+                });
+
+        // Act.
+        mImageAnalysisNonBlockingAnalyzer.onImageAvailable(mImageReaderProxy);
+        shadowOf(getMainLooper()).idle();
+
+        // Assert.
+        assertThat(timings).hasSize(1);
+        assertThat(timings.get(0).getTimestamp()).isEqualTo(1234L);
+        assertThat(timings.get(0).getAnalysisNanos())
+                .isAtLeast(TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(timings.get(0).getDroppedFrameCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void frameTimingListener_reportsDroppedImages() {
+        // Arrange.
+        List<ImageAnalysis.FrameTiming> timings = new ArrayList<>();
+        List<ImageProxy> analyzedImages = new ArrayList<>();
+        mImageAnalysisNonBlockingAnalyzer.setFrameTimingListener(
+                CameraXExecutors.directExecutor(), timings::add);
+        mImageAnalysisNonBlockingAnalyzer.setAnalyzer(CameraXExecutors.mainThreadExecutor(),
+                analyzedImages::add);
+
+        // Act: the second image is dropped while the first one is analyzed.
+        deliverImage(mImageAnalysisNonBlockingAnalyzer, createImage(1));
+        deliverImage(mImageAnalysisNonBlockingAnalyzer, createImage(2));
+        deliverImage(mImageAnalysisNonBlockingAnalyzer, createImage(3));
+        SystemClock.sleep(5);
+        analyzedImages.get(0).close();
+        shadowOf(getMainLooper()).idle();
+        analyzedImages.get(1).close();
+
+        // Assert.
+        assertThat(analyzedImages).hasSize(2);
+        assertThat(analyzedImages.get(1).getImageInfo().getTimestamp()).isEqualTo(3);
+        assertThat(timings).hasSize(2);
+        assertThat(timings.get(0).getDroppedFrameCount()).isEqualTo(0);
+        assertThat(timings.get(1).getDroppedFrameCount()).isEqualTo(1);
+        assertThat(timings.get(1).getQueueWaitNanos()).isGreaterThan(0);
+    }
+
+    @Test
+    public void adaptive_staleCachedImageDropped() {
+        List<ImageProxy> analyzedImages = analyzeWithSlowAnalyzer(/* adaptive= */ true);
+
+        // The cached image waited for more than half of the frame interval, and the next image
+        // is expected within a quarter of the analysis latency.
+        assertThat(analyzedImages).hasSize(1);
+    }
+
+    @Test
+    public void keepOnlyLatest_staleCachedImageAnalyzed() {
+        List<ImageProxy> analyzedImages = analyzeWithSlowAnalyzer(/* adaptive= */ false);
+
+        assertThat(analyzedImages).hasSize(2);
+        assertThat(analyzedImages.get(1).getImageInfo().getTimestamp()).isEqualTo(4);
+    }
+
+    /**
+     * Delivers images every 33ms to an analyzer closing the first one after 119ms, and returns
+     * the analyzed images.
+     */
+    private List<ImageProxy> analyzeWithSlowAnalyzer(boolean adaptive) {
+        ImageAnalysisNonBlockingAnalyzer analyzer = new ImageAnalysisNonBlockingAnalyzer(
+                CameraXExecutors.directExecutor(), adaptive);
+        List<ImageProxy> analyzedImages = new ArrayList<>();
+        analyzer.setAnalyzer(CameraXExecutors.mainThreadExecutor(), analyzedImages::add);
+        analyzer.attach();
+
+        for (int i = 1; i <= 4; i++) {
+            if (i > 1) {
+                shadowOf(getMainLooper()).idleFor(33, TimeUnit.MILLISECONDS);
+            }
+            deliverImage(analyzer, createImage(i));
+        }
+        shadowOf(getMainLooper()).idleFor(20, TimeUnit.MILLISECONDS);
+        analyzedImages.get(0).close();
+        shadowOf(getMainLooper()).idle();
+        return analyzedImages;
+    }
+
+    private void deliverImage(ImageAnalysisNonBlockingAnalyzer analyzer, ImageProxy image) {
+        when(mImageReaderProxy.acquireLatestImage()).thenReturn(image);
+        analyzer.onImageAvailable(mImageReaderProxy);
+        shadowOf(getMainLooper()).idle();
+    }
+
+    private ImageProxy createImage(long timestamp) {
+        ImageInfo imageInfo = mock(ImageInfo.class);
+        when(imageInfo.getTimestamp()).thenReturn(timestamp);
+        when(imageInfo.getTagBundle()).thenReturn(mTagBundle);
+        ImageProxy image = mock(ImageProxy.class);
+        when(image.getImageInfo()).thenReturn(imageInfo);
+        return image;
+    }
 }
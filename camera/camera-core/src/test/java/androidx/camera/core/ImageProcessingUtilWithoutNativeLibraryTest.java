@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assume.assumeFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.ImageFormat;
+import android.graphics.SurfaceTexture;
+import android.os.Build;
+import android.view.Surface;
+
+import androidx.camera.core.impl.ImageReaderProxy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.internal.DoNotInstrument;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Unit tests for {@link ImageProcessingUtil} when the image_processing_util_jni library is not
+ * available, which is the case on the host.
+ */
+@RunWith(RobolectricTestRunner.class)
+@DoNotInstrument
+@Config(minSdk = Build.VERSION_CODES.LOLLIPOP)
+public class ImageProcessingUtilWithoutNativeLibraryTest {
+    private static final int WIDTH = 4;
+    private static final int HEIGHT = 3;
+    private static final int PADDING_BYTES = 8;
+    private static final byte PADDING_VALUE = 0x7f;
+    private static final byte[] JPEG_BYTES = new byte[]{(byte) 0xff, (byte) 0xd8};
+
+    private SurfaceTexture mSurfaceTexture;
+    private Surface mSurface;
+
+    @Before
+    public void setUp() {
+        assumeFalse(ImageProcessingUtil.isNativeLibraryLoaded());
+        mSurfaceTexture = new SurfaceTexture(0);
+        mSurface = new Surface(mSurfaceTexture);
+    }
+
+    @After
+    public void tearDown() {
+        if (mSurface != null) {
+            mSurface.release();
+            mSurfaceTexture.release();
+        }
+    }
+
+    @Test
+    public void convertJpegBytesToImage_returnsNull() {
+        ImageReaderProxy imageReaderProxy = mock(ImageReaderProxy.class);
+        when(imageReaderProxy.getImageFormat()).thenReturn(ImageFormat.JPEG);
+        when(imageReaderProxy.getSurface()).thenReturn(mSurface);
+
+        assertThat(ImageProcessingUtil.convertJpegBytesToImage(imageReaderProxy, JPEG_BYTES))
+                .isNull();
+        verify(imageReaderProxy, never()).acquireLatestImage();
+    }
+
+    @Test
+    public void writeJpegBytesToSurface_returnsFalse() {
+        assertThat(ImageProcessingUtil.writeJpegBytesToSurface(mSurface, JPEG_BYTES)).isFalse();
+    }
+
+    @Test
+    public void convertYUVToRGB_returnsNull() {
+        ImageProxy imageProxy = createYuvImageProxy();
+        ImageReaderProxy rgbImageReaderProxy = mock(ImageReaderProxy.class);
+        when(rgbImageReaderProxy.getSurface()).thenReturn(mSurface);
+
+        assertThat(ImageProcessingUtil.convertYUVToRGB(imageProxy, rgbImageReaderProxy, null, 0,
+                false)).isNull();
+        verify(rgbImageReaderProxy, never()).acquireLatestImage();
+    }
+
+    @Test
+    public void copyBetweenBitmapAndPackedByteBuffer() {
+        Bitmap source = createBitmap(Color.YELLOW);
+        Bitmap destination = createBitmap(Color.BLUE);
+        ByteBuffer byteBuffer = ByteBuffer.allocateDirect(source.getRowBytes() * HEIGHT);
+        // The position of the buffer is ignored.
+        byteBuffer.position(4);
+
+        ImageProcessingUtil.copyBitmapToByteBuffer(source, byteBuffer, source.getRowBytes());
+        ImageProcessingUtil.copyByteBufferToBitmap(destination, byteBuffer,
+                source.getRowBytes());
+
+        assertThat(byteBuffer.position()).isEqualTo(4);
+        assertBitmapColor(destination, Color.YELLOW);
+    }
+
+    @Test
+    public void copyBetweenBitmapAndPaddedByteBuffer() {
+        Bitmap source = createBitmap(Color.YELLOW);
+        Bitmap destination = createBitmap(Color.BLUE);
+        int bufferStride = source.getRowBytes() + PADDING_BYTES;
+        ByteBuffer byteBuffer = ByteBuffer.allocateDirect(bufferStride * HEIGHT);
+        for (int i = 0; i < byteBuffer.capacity(); i++) {
+            byteBuffer.put(i, PADDING_VALUE);
+        }
+
+        ImageProcessingUtil.copyBitmapToByteBuffer(source, byteBuffer, bufferStride);
+        ImageProcessingUtil.copyByteBufferToBitmap(destination, byteBuffer, bufferStride);
+
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int i = source.getRowBytes(); i < bufferStride; i++) {
+                assertThat(byteBuffer.get(row * bufferStride + i)).isEqualTo(PADDING_VALUE);
+            }
+        }
+        assertBitmapColor(destination, Color.YELLOW);
+    }
+
+    private static Bitmap createBitmap(int color) {
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(color);
+        return bitmap;
+    }
+
+    private static void assertBitmapColor(Bitmap bitmap, int color) {
+        for (int y = 0; y < bitmap.getHeight(); y++) {
+            for (int x = 0; x < bitmap.getWidth(); x++) {
+                assertThat(bitmap.getPixel(x, y)).isEqualTo(color);
+            }
+        }
+    }
+
+    private static ImageProxy createYuvImageProxy() {
+        ImageProxy.PlaneProxy[] planes = new ImageProxy.PlaneProxy[3];
+        for (int i = 0; i < planes.length; i++) {
+            int size = i == 0 ? WIDTH * HEIGHT : WIDTH * HEIGHT / 2;
+            planes[i] = mock(ImageProxy.PlaneProxy.class);
+            when(planes[i].getBuffer()).thenReturn(ByteBuffer.allocateDirect(size));
+            when(planes[i].getRowStride()).thenReturn(WIDTH);
+            when(planes[i].getPixelStride()).thenReturn(i == 0 ? 1 : 2);
+        }
+        ImageProxy imageProxy = mock(ImageProxy.class);
+        when(imageProxy.getFormat()).thenReturn(ImageFormat.YUV_420_888);
+        when(imageProxy.getWidth()).thenReturn(WIDTH);
+        when(imageProxy.getHeight()).thenReturn(HEIGHT);
+        when(imageProxy.getPlanes()).thenReturn(planes);
+        return imageProxy;
+    }
+}
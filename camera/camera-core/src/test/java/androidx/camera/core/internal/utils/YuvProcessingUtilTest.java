@@ -0,0 +1,276 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core.internal.utils;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.assertThrows;
+
+import android.os.Build;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.internal.DoNotInstrument;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Unit tests for {@link YuvProcessingUtil}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@DoNotInstrument
+@Config(minSdk = Build.VERSION_CODES.LOLLIPOP)
+public class YuvProcessingUtilTest {
+    private static final int WIDTH = 6;
+    private static final int HEIGHT = 4;
+    private static final int ROW_STRIDE = 8;
+
+    @Test
+    public void convertYuv420ToRgba_grayAndPrimaryColors() {
+        // Three 2x2 blocks: gray, red and blue in full swing BT.601.
+        int width = 6;
+        int height = 2;
+        ByteBuffer y = ByteBuffer.allocateDirect(width * height);
+        y.put(new byte[]{(byte) 128, (byte) 128, 76, 76, 29, 29,
+                (byte) 128, (byte) 128, 76, 76, 29, 29});
+        ByteBuffer u = ByteBuffer.allocateDirect(3);
+        u.put(new byte[]{(byte) 128, 85, (byte) 255});
+        ByteBuffer v = ByteBuffer.allocateDirect(3);
+        v.put(new byte[]{(byte) 128, (byte) 255, 107});
+        ByteBuffer rgba = ByteBuffer.allocateDirect(width * 4 * height);
+
+        YuvProcessingUtil.convertYuv420ToRgba(y, width, 1, u, 3, v, 3, 1, rgba, width * 4,
+                width, height);
+
+        assertPixel(rgba, 0, 128, 128, 128);
+        assertPixel(rgba, width + 1, 128, 128, 128);
+        assertPixel(rgba, 2, 254, 0, 0);
+        assertPixel(rgba, 4, 0, 0, 254);
+        assertPixel(rgba, width + 5, 0, 0, 254);
+    }
+
+    @Test
+    public void convertYuv420ToRgba_doesNotChangeBufferPositions() {
+        ByteBuffer y = ByteBuffer.allocateDirect(ROW_STRIDE * HEIGHT);
+        ByteBuffer u = ByteBuffer.allocateDirect(ROW_STRIDE * HEIGHT / 2);
+        ByteBuffer v = ByteBuffer.allocateDirect(ROW_STRIDE * HEIGHT / 2);
+        ByteBuffer rgba = ByteBuffer.allocateDirect(WIDTH * 4 * HEIGHT);
+
+        YuvProcessingUtil.convertYuv420ToRgba(y, ROW_STRIDE, 1, u, ROW_STRIDE, v, ROW_STRIDE, 2,
+                rgba, WIDTH * 4, WIDTH, HEIGHT);
+
+        assertThat(y.position()).isEqualTo(0);
+        assertThat(u.position()).isEqualTo(0);
+        assertThat(rgba.position()).isEqualTo(0);
+        // Opaque output.
+        assertThat(rgba.get(3)).isEqualTo((byte) 0xFF);
+    }
+
+    @Test
+    public void convertYuv420ToNv21_semiPlanarWithPadding() {
+        // NV12 like layout: U and V interleaved with a pixel stride of 2 and padded rows.
+        ByteBuffer y = ByteBuffer.allocateDirect(ROW_STRIDE * (HEIGHT - 1) + WIDTH);
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int x = 0; x < WIDTH; x++) {
+                y.put(row * ROW_STRIDE + x, (byte) (row * 10 + x));
+            }
+        }
+        byte[] uv = new byte[ROW_STRIDE * (HEIGHT / 2)];
+        for (int row = 0; row < HEIGHT / 2; row++) {
+            for (int x = 0; x < WIDTH / 2; x++) {
+                uv[row * ROW_STRIDE + 2 * x] = (byte) (100 + row * 10 + x); // U
+                uv[row * ROW_STRIDE + 2 * x + 1] = (byte) (200 + row * 10 + x); // V
+            }
+        }
+        ByteBuffer uvBuffer = ByteBuffer.allocateDirect(uv.length);
+        uvBuffer.put(uv);
+        ByteBuffer u = slice(uvBuffer, 0, uv.length - 1);
+        ByteBuffer v = slice(uvBuffer, 1, uv.length - 1);
+        byte[] nv21 = new byte[WIDTH * HEIGHT * 3 / 2];
+
+        YuvProcessingUtil.convertYuv420ToNv21(y, ROW_STRIDE, 1, u, ROW_STRIDE, 2, v, ROW_STRIDE,
+                2, nv21, WIDTH, HEIGHT);
+
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertThat(nv21[row * WIDTH + x]).isEqualTo((byte) (row * 10 + x));
+            }
+        }
+        int chromaOffset = WIDTH * HEIGHT;
+        for (int row = 0; row < HEIGHT / 2; row++) {
+            for (int x = 0; x < WIDTH / 2; x++) {
+                int position = chromaOffset + row * WIDTH + 2 * x;
+                assertThat(nv21[position]).isEqualTo((byte) (200 + row * 10 + x));
+                assertThat(nv21[position + 1]).isEqualTo((byte) (100 + row * 10 + x));
+            }
+        }
+    }
+
+    @Test
+    public void rotatePlane_allRotations() {
+        ByteBuffer src = createPlane(WIDTH, HEIGHT, ROW_STRIDE, 1);
+        for (int rotation : new int[]{0, 90, 180, 270}) {
+            boolean swap = rotation % 180 != 0;
+            int dstWidth = swap ? HEIGHT : WIDTH;
+            int dstHeight = swap ? WIDTH : HEIGHT;
+            int dstRowStride = dstWidth + 3;
+            ByteBuffer dst = ByteBuffer.allocateDirect(dstRowStride * dstHeight);
+
+            YuvProcessingUtil.rotatePlane(src, ROW_STRIDE, 1, dst, dstRowStride, 1, WIDTH,
+                    HEIGHT, rotation);
+
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    int dstX;
+                    int dstY;
+                    switch (rotation) {
+                        case 90:
+                            dstX = HEIGHT - 1 - y;
+                            dstY = x;
+                            break;
+                        case 180:
+                            dstX = WIDTH - 1 - x;
+                            dstY = HEIGHT - 1 - y;
+                            break;
+                        case 270:
+                            dstX = y;
+                            dstY = WIDTH - 1 - x;
+                            break;
+                        default:
+                            dstX = x;
+                            dstY = y;
+                            break;
+                    }
+                    assertThat(dst.get(dstY * dstRowStride + dstX))
+                            .isEqualTo(src.get(y * ROW_STRIDE + x));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rotatePlane_withPixelStride_preservesInterleavedSamples() {
+        ByteBuffer src = createPlane(2, 2, 4, 2);
+        ByteBuffer dst = ByteBuffer.allocateDirect(8);
+        for (int i = 0; i < 8; i++) {
+            dst.put(i, (byte) 0x7F);
+        }
+
+        YuvProcessingUtil.rotatePlane(src, 4, 2, dst, 4, 2, 2, 2, 90);
+
+        // Source samples: (0, 0) = 0, (1, 0) = 1, (0, 1) = 10, (1, 1) = 11.
+        assertThat(dst.get(0)).isEqualTo((byte) 10);
+        assertThat(dst.get(2)).isEqualTo((byte) 0);
+        assertThat(dst.get(4)).isEqualTo((byte) 11);
+        assertThat(dst.get(6)).isEqualTo((byte) 1);
+        assertThat(dst.get(1)).isEqualTo((byte) 0x7F);
+        assertThat(dst.get(7)).isEqualTo((byte) 0x7F);
+    }
+
+    @Test
+    public void rotatePlane_unsupportedRotation_throws() {
+        ByteBuffer plane = ByteBuffer.allocateDirect(4);
+        assertThrows(IllegalArgumentException.class,
+                () -> YuvProcessingUtil.rotatePlane(plane, 2, 1, plane, 2, 1, 2, 2, 45));
+    }
+
+    @Test
+    public void downsamplePlaneAveraging_matchesScalarImplementation() {
+        Random random = new Random(0);
+        int[][] cases = {
+                // inputWidth, inputHeight, pixelStride, outputWidth, outputHeight
+                {64, 48, 1, 32, 24},
+                {64, 48, 2, 32, 24},
+                {64, 48, 1, 40, 30},
+                {63, 47, 1, 20, 13},
+                {32, 32, 2, 31, 31},
+        };
+        for (int[] c : cases) {
+            int inputWidth = c[0];
+            int inputHeight = c[1];
+            int pixelStride = c[2];
+            int outputWidth = c[3];
+            int outputHeight = c[4];
+            int rowStride = inputWidth * pixelStride + 5;
+            byte[] data = new byte[rowStride * (inputHeight - 1) + inputWidth * pixelStride];
+            random.nextBytes(data);
+            ByteBuffer input = ByteBuffer.allocateDirect(data.length);
+            input.put(data);
+
+            byte[] expected = new byte[outputWidth * outputHeight];
+            resizeAveragingReference(data, inputWidth, pixelStride, rowStride, inputHeight,
+                    expected, outputWidth, outputHeight);
+            byte[] actual = new byte[outputWidth * outputHeight];
+            YuvProcessingUtil.downsamplePlaneAveraging(input, inputWidth, pixelStride, rowStride,
+                    inputHeight, actual, outputWidth, outputHeight);
+
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    /** The scalar implementation previously used by {@code ImageProxyDownsampler}. */
+    private static void resizeAveragingReference(byte[] input, int inputWidth,
+            int inputPixelStride, int inputRowStride, int inputHeight, byte[] output,
+            int outputWidth, int outputHeight) {
+        float scaleX = (float) inputWidth / outputWidth;
+        float scaleY = (float) inputHeight / outputHeight;
+        for (int iy = 0; iy < outputHeight; ++iy) {
+            int floorSourceY = (int) (iy * scaleY);
+            int rowOffsetSource0 = Math.min(floorSourceY, inputHeight - 1) * inputRowStride;
+            int rowOffsetSource1 = Math.min(floorSourceY + 1, inputHeight - 1) * inputRowStride;
+            for (int ix = 0; ix < outputWidth; ++ix) {
+                int sourceIndex = ((int) (ix * scaleX)) * inputPixelStride;
+                int sampleA = input[rowOffsetSource0 + sourceIndex] & 0xFF;
+                int sampleB = input[rowOffsetSource0 + sourceIndex + inputPixelStride] & 0xFF;
+                int sampleC = input[rowOffsetSource1 + sourceIndex] & 0xFF;
+                int sampleD = input[rowOffsetSource1 + sourceIndex + inputPixelStride] & 0xFF;
+                output[iy * outputWidth + ix] =
+                        (byte) ((sampleA + sampleB + sampleC + sampleD) / 4);
+            }
+        }
+    }
+
+    /** Creates a plane where the sample at (x, y) is {@code y * 10 + x}. */
+    private static ByteBuffer createPlane(int width, int height, int rowStride,
+            int pixelStride) {
+        ByteBuffer plane = ByteBuffer.allocateDirect(rowStride * height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                plane.put(y * rowStride + x * pixelStride, (byte) (y * 10 + x));
+            }
+        }
+        return plane;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice();
+    }
+
+    private static void assertPixel(ByteBuffer rgba, int pixel, int r, int g, int b) {
+        int offset = pixel * 4;
+        assertThat(rgba.get(offset) & 0xFF).isEqualTo(r);
+        assertThat(rgba.get(offset + 1) & 0xFF).isEqualTo(g);
+        assertThat(rgba.get(offset + 2) & 0xFF).isEqualTo(b);
+        assertThat(rgba.get(offset + 3) & 0xFF).isEqualTo(255);
+    }
+}
@@ -1190,8 +1190,9 @@ public abstract class CameraController {
      * Sets the backpressure strategy to apply to the image producer to deal with scenarios
      * where images may be produced faster than they can be analyzed.
      *
-     * <p>The available values are {@link ImageAnalysis#STRATEGY_BLOCK_PRODUCER} and
-     * {@link ImageAnalysis#STRATEGY_KEEP_ONLY_LATEST}. If not set, the backpressure strategy
+     * <p>The available values are {@link ImageAnalysis#STRATEGY_BLOCK_PRODUCER},
+     * {@link ImageAnalysis#STRATEGY_KEEP_ONLY_LATEST} and
+     * {@link ImageAnalysis#STRATEGY_ADAPTIVE}. If not set, the backpressure strategy
      * will default to {@link ImageAnalysis#STRATEGY_KEEP_ONLY_LATEST}.
      *
      * <p> Changing the value will reconfigure the camera which will cause additional latency. To
@@ -1217,7 +1218,9 @@ public abstract class CameraController {
      *
      * <p> This sets the number of images available in parallel to {@link ImageAnalysis.Analyzer}
      * . The value is only used if the backpressure strategy is
-     * {@link ImageAnalysis.BackpressureStrategy#STRATEGY_BLOCK_PRODUCER}.
+     * {@link ImageAnalysis.BackpressureStrategy#STRATEGY_BLOCK_PRODUCER}. It is ignored by
+     * {@link ImageAnalysis#STRATEGY_KEEP_ONLY_LATEST} and {@link ImageAnalysis#STRATEGY_ADAPTIVE},
+     * which keep at most one image waiting for the analyzer.
      *
      * <p> Changing the value will reconfigure the camera which will cause additional latency. To
      * avoid this, set the value before controller is bound to lifecycle.
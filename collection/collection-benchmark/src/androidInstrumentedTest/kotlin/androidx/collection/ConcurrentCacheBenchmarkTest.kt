@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import org.junit.After
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import org.junit.runners.Parameterized.Parameters
+
+/**
+ * Measures caches and maps shared by [threads] threads, each running [OperationsPerThread] operations of
+ * which one in ten is a put and the others are gets.
+ */
+@RunWith(Parameterized::class)
+class ConcurrentCacheBenchmarkTest(private val threads: Int) {
+    private val keyList = createKeyList(KeyCount)
+
+    private val executor: ExecutorService = Executors.newFixedThreadPool(threads)
+
+    @get:Rule
+    val benchmark = BenchmarkRule()
+
+    @After
+    fun tearDown() {
+        executor.shutdownNow()
+    }
+
+    @Test
+    fun lruCache() {
+        val cache = LruCache<Int, String>(KeyCount)
+        runConcurrently(get = { cache[it] }, put = { key, value -> cache.put(key, value) })
+    }
+
+    @Test
+    fun segmentedLruCache() {
+        val cache = SegmentedLruCache<Int, String>(KeyCount)
+        runConcurrently(get = { cache[it] }, put = { key, value -> cache.put(key, value) })
+    }
+
+    @Test
+    fun concurrentScatterMap() {
+        val map = ConcurrentScatterMap<Int, String>()
+        runConcurrently(get = { map[it] }, put = { key, value -> map.put(key, value) })
+    }
+
+    @Test
+    fun concurrentIntObjectMap() {
+        val map = ConcurrentIntObjectMap<String>()
+        runConcurrently(get = { map[it] }, put = { key, value -> map.put(key, value) })
+    }
+
+    @Test
+    fun concurrentHashMap() {
+        val map = ConcurrentHashMap<Int, String>()
+        runConcurrently(get = { map[it] }, put = { key, value -> map.put(key, value) })
+    }
+
+    private inline fun runConcurrently(
+        crossinline get: (Int) -> String?,
+        crossinline put: (Int, String) -> Unit,
+    ) {
+        keyList.forEach { put(it, "value of $it") }
+        val tasks = List(threads) { thread ->
+            Callable {
+                var index = thread * (KeyCount / threads)
+                repeat(OperationsPerThread) { operation ->
+                    val key = keyList[index]
+                    if (operation % 10 == 0) {
+                        put(key, "value of $key")
+                    } else {
+                        get(key)
+                    }
+                    index = if (index == KeyCount - 1) 0 else index + 1
+                }
+            }
+        }
+        benchmark.measureRepeated {
+            executor.invokeAll(tasks).forEach { it.get() }
+        }
+    }
+
+    companion object {
+        private const val KeyCount = 1_000
+        private const val OperationsPerThread = 10_000
+
+        @JvmStatic
+        @Parameters(name = "threads={0}")
+        fun parameters() = buildParameters(
+            listOf(1, 2, 4, 8, 16),
+        )
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection
+
+import androidx.annotation.IntRange
+import androidx.collection.internal.Lock
+import androidx.collection.internal.synchronized
+import kotlin.Long.Companion.MAX_VALUE
+
+/**
+ * A thread safe map of keys to values, split into independently locked stripes so that threads
+ * accessing different keys rarely contend on the same lock.
+ *
+ * Each key is assigned to a stripe by its hash code, and each stripe is a [MutableScatterMap]
+ * guarded by its own lock. Reads and writes of a key lock its stripe only, so operations on a
+ * single key are atomic, but operations spanning the whole map, such as [size] and [forEach],
+ * visit the stripes one at a time and do not see a consistent snapshot of the map.
+ *
+ * Prefer [MutableScatterMap] for maps accessed from a single thread.
+ *
+ * @constructor Creates a new [ConcurrentScatterMap]
+ * @param stripeCount the number of stripes, rounded up to a power of two and at most 256.
+ */
+public class ConcurrentScatterMap<K : Any, V : Any>
+public constructor(
+    @IntRange(from = 1, to = MAX_VALUE) stripeCount: Int = DefaultStripeCount,
+) {
+
+    init {
+        require(stripeCount > 0) { "stripeCount <= 0" }
+    }
+
+    private val stripes: Array<Stripe<K, V>> =
+        Array(stripeCountFor(stripeCount)) { Stripe() }
+
+    private fun stripeFor(key: K): Stripe<K, V> = stripes[stripeIndex(hash(key), stripes.size)]
+
+    /**
+     * Returns the number of key-value pairs in this map. Stripes are counted one at a time, so
+     * the result may not reflect concurrent modifications.
+     */
+    public val size: Int
+        get() = stripes.sumOf { stripe -> stripe.lock.synchronized { stripe.map.size } }
+
+    /**
+     * Returns `true` if this map has no key-value pairs.
+     */
+    public fun isEmpty(): Boolean = stripes.all { stripe ->
+        stripe.lock.synchronized { stripe.map.isEmpty() }
+    }
+
+    /**
+     * Returns the number of stripes of this map.
+     */
+    public fun stripeCount(): Int = stripes.size
+
+    /**
+     * Returns the value corresponding to the given [key], or `null` if such a key is not present
+     * in the map.
+     */
+    public operator fun get(key: K): V? {
+        val stripe = stripeFor(key)
+        return stripe.lock.synchronized { stripe.map[key] }
+    }
+
+    /**
+     * Returns the value to which the specified [key] is mapped, or [defaultValue] if this map
+     * contains no mapping for the key.
+     */
+    public fun getOrDefault(key: K, defaultValue: V): V = get(key) ?: defaultValue
+
+    /**
+     * Returns the value for the given [key] if the value is present. Otherwise, calls
+     * [defaultValue] and puts its result in the map under the given key, then returns it.
+     *
+     * [defaultValue] is called while holding the lock of the key's stripe, so it is called at
+     * most once per absent key, but it blocks other threads accessing the same stripe.
+     */
+    public fun getOrPut(key: K, defaultValue: () -> V): V {
+        val stripe = stripeFor(key)
+        return stripe.lock.synchronized { stripe.map.getOrPut(key, defaultValue) }
+    }
+
+    /**
+     * Returns `true` if the specified [key] is present in this map.
+     */
+    public fun containsKey(key: K): Boolean {
+        val stripe = stripeFor(key)
+        return stripe.lock.synchronized { stripe.map.containsKey(key) }
+    }
+
+    /**
+     * Returns `true` if the specified [key] is present in this map.
+     */
+    public operator fun contains(key: K): Boolean = containsKey(key)
+
+    /**
+     * Creates a new mapping from [key] to [value] in this map. If [key] is already present in the
+     * map, the association is modified and the previously associated value is replaced with
+     * [value].
+     */
+    public operator fun set(key: K, value: V) {
+        put(key, value)
+    }
+
+    /**
+     * Creates a new mapping from [key] to [value] in this map. If [key] is already present in the
+     * map, the association is modified and the previously associated value is replaced with
+     * [value]. If [key] is not present, a new entry is added to the map.
+     *
+     * @return value previously associated with [key] or `null` if [key] was not present.
+     */
+    public fun put(key: K, value: V): V? {
+        val stripe = stripeFor(key)
+        return stripe.lock.synchronized { stripe.map.put(key, value) }
+    }
+
+    /**
+     * Creates a new mapping from [key] to [value] in this map if [key] is not present.
+     *
+     * @return value associated with [key], which is left unchanged, or `null` if [key] was not
+     * present and [value] was added.
+     */
+    public fun putIfAbsent(key: K, value: V): V? {
+        val stripe = stripeFor(key)
+        return stripe.lock.synchronized {
+            val map = stripe.map
+            val previous = map[key]
+            if (previous == null) {
+                map[key] = value
+            }
+            previous
+        }
+    }
+
+    /**
+     * Removes the specified [key] and its associated value from the map.
+     *
+     * @return the value that was removed, or `null` if [key] was not present.
+     */
+    public fun remove(key: K): V? {
+        val stripe = stripeFor(key)
+        return stripe.lock.synchronized { stripe.map.remove(key) }
+    }
+
+    /**
+     * Removes the specified [key] and its associated value from the map if the associated value
+     * equals [value].
+     *
+     * @return `true` if the entry was removed.
+     */
+    public fun remove(key: K, value: V): Boolean {
+        val stripe = stripeFor(key)
+        return stripe.lock.synchronized { stripe.map.remove(key, value) }
+    }
+
+    /**
+     * Removes all mappings from this map, one stripe at a time.
+     */
+    public fun clear() {
+        stripes.forEach { stripe -> stripe.lock.synchronized { stripe.map.clear() } }
+    }
+
+    /**
+     * Iterates over every key-value pair stored in this map by invoking the specified [block]
+     * lambda. Each stripe is visited while holding its lock, so [block] must not modify this
+     * map, and pairs added or removed concurrently in stripes not yet visited may or may not be
+     * seen.
+     */
+    public fun forEach(block: (key: K, value: V) -> Unit) {
+        stripes.forEach { stripe -> stripe.lock.synchronized { stripe.map.forEach(block) } }
+    }
+
+    private class Stripe<K, V> {
+        val lock = Lock()
+        val map = MutableScatterMap<K, V>()
+    }
+}
+
+internal const val DefaultStripeCount = 16
+
+internal const val MaxStripeCount = 256
+
+/**
+ * Returns [stripeCount] rounded up to a power of two, and at most [MaxStripeCount].
+ */
+internal fun stripeCountFor(stripeCount: Int): Int {
+    var count = 1
+    while (count < stripeCount && count < MaxStripeCount) {
+        count *= 2
+    }
+    return count
+}
+
+/**
+ * Returns the stripe of a key with [hash] among [stripeCount] stripes. The stripe is picked from
+ * the top-most bits, which the map of a stripe only uses for probing once its capacity exceeds
+ * 2^17 slots.
+ */
+internal fun stripeIndex(hash: Int, stripeCount: Int): Int =
+    (hash ushr 24) and (stripeCount - 1)
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection
+
+import androidx.annotation.IntRange
+import kotlin.Long.Companion.MAX_VALUE
+
+/**
+ * A cache with the same behavior as [LruCache], split into independently locked segments so that
+ * threads accessing different keys do not contend on a single lock.
+ *
+ * Each key is assigned to a segment by its hash code, and each segment holds an equal share of
+ * [maxSize] and evicts its own least recently used entries. Eviction is therefore only
+ * approximately least recently used across the whole cache: an entry may be evicted from a full
+ * segment while older entries remain in other segments.
+ *
+ * Prefer [LruCache] for caches accessed from a single thread, or holding few entries.
+ *
+ * @constructor Creates a new [SegmentedLruCache]
+ * @param maxSize for caches that do not override [sizeOf], this is the maximum number of entries in
+ * the cache. For all other caches, this is the maximum sum of the sizes of the entries in this
+ * cache.
+ * @param segmentCount the number of segments, rounded up to a power of two. A cache never has more
+ * segments than [maxSize] allows, as every segment holds at least one unit.
+ */
+public open class SegmentedLruCache<K : Any, V : Any>
+public constructor(
+    @IntRange(from = 1, to = MAX_VALUE) maxSize: Int,
+    @IntRange(from = 1, to = MAX_VALUE) segmentCount: Int = DefaultSegmentCount,
+) {
+
+    init {
+        require(maxSize > 0) { "maxSize <= 0" }
+        require(segmentCount > 0) { "segmentCount <= 0" }
+    }
+
+    private val segments: Array<Segment>
+
+    init {
+        var count = 1
+        while (count < segmentCount && count * 2 <= maxSize) {
+            count *= 2
+        }
+        segments = Array(count) { index -> Segment(segmentMaxSize(maxSize, count, index)) }
+    }
+
+    private fun segmentFor(key: K): Segment {
+        val hash = key.hashCode()
+        return segments[(hash xor (hash ushr 16)) and (segments.size - 1)]
+    }
+
+    /**
+     * Sets the size of the cache.
+     *
+     * @param maxSize The new maximum size, which must be at least the number of segments.
+     */
+    public open fun resize(@IntRange(from = 1, to = MAX_VALUE) maxSize: Int) {
+        require(maxSize >= segments.size) { "maxSize < segment count" }
+        segments.forEachIndexed { index, segment ->
+            segment.resize(segmentMaxSize(maxSize, segments.size, index))
+        }
+    }
+
+    /**
+     * Returns the value for [key] if it exists in the cache or can be created by [create].
+     * If a value was returned, it is moved to the head of its segment's queue. This returns `null`
+     * if a value is not cached and cannot be created.
+     */
+    public operator fun get(key: K): V? = segmentFor(key)[key]
+
+    /**
+     * Caches [value] for [key]. The value is moved to the head of its segment's queue.
+     *
+     * @return the previous value mapped by [key].
+     */
+    public fun put(key: K, value: V): V? = segmentFor(key).put(key, value)
+
+    /**
+     * Removes the entry for [key] if it exists.
+     *
+     * @return the previous value mapped by [key].
+     */
+    public fun remove(key: K): V? = segmentFor(key).remove(key)
+
+    /**
+     * Called for entries that have been evicted or removed. This method is
+     * invoked when a value is evicted to make space, removed by a call to
+     * [remove], or replaced by a call to [put]. The default
+     * implementation does nothing.
+     *
+     * The method is called without synchronization: other threads may
+     * access the cache while this method is executing.
+     *
+     * @param evicted `true` if the entry is being removed to make space, `false`
+     * if the removal was caused by a [put] or [remove].
+     * @param newValue the new value for [key], if it exists. If non-null, this removal was caused
+     * by a [put]. Otherwise it was caused by an eviction or a [remove].
+     */
+    protected open fun entryRemoved(evicted: Boolean, key: K, oldValue: V, newValue: V?) {
+    }
+
+    /**
+     * Called after a cache miss to compute a value for the corresponding key.
+     * Returns the computed value or null if no value can be computed. The
+     * default implementation returns null.
+     *
+     * The method is called without synchronization: other threads may
+     * access the cache while this method is executing.
+     *
+     * If a value for [key] exists in the cache when this method
+     * returns, the created value will be released with [entryRemoved]
+     * and discarded.
+     */
+    protected open fun create(key: K): V? = null
+
+    /**
+     * Returns the size of the entry for [key] and [value] in
+     * user-defined units.  The default implementation returns 1 so that size
+     * is the number of entries and max size is the maximum number of entries.
+     *
+     * An entry's size must not change while it is in the cache, and must not exceed the
+     * share of [maxSize] held by a segment for the entry to be retained.
+     */
+    protected open fun sizeOf(key: K, value: V): Int = 1
+
+    /**
+     * Clear the cache, calling [entryRemoved] on each removed entry.
+     */
+    public fun evictAll() {
+        segments.forEach { it.evictAll() }
+    }
+
+    /**
+     * For caches that do not override [sizeOf], this returns the number
+     * of entries in the cache. For all other caches, this returns the sum of
+     * the sizes of the entries in this cache.
+     */
+    public fun size(): Int = segments.sumOf { it.size() }
+
+    /**
+     * For caches that do not override [sizeOf], this returns the maximum
+     * number of entries in the cache. For all other caches, this returns the
+     * maximum sum of the sizes of the entries in this cache.
+     */
+    public fun maxSize(): Int = segments.sumOf { it.maxSize() }
+
+    /**
+     * Returns the number of segments of this cache.
+     */
+    public fun segmentCount(): Int = segments.size
+
+    /**
+     * Returns the number of times [get] returned a value that was
+     * already present in the cache.
+     */
+    public fun hitCount(): Int = segments.sumOf { it.hitCount() }
+
+    /**
+     * Returns the number of times [get] returned null or required a new
+     * value to be created.
+     */
+    public fun missCount(): Int = segments.sumOf { it.missCount() }
+
+    /**
+     * Returns the number of times [create] returned a value.
+     */
+    public fun createCount(): Int = segments.sumOf { it.createCount() }
+
+    /**
+     * Returns the number of times [put] was called.
+     */
+    public fun putCount(): Int = segments.sumOf { it.putCount() }
+
+    /**
+     * Returns the number of values that have been evicted.
+     */
+    public fun evictionCount(): Int = segments.sumOf { it.evictionCount() }
+
+    /**
+     * Returns a mutable copy of the current contents of the cache. Entries of each segment are
+     * ordered from least recently accessed to most recently accessed, but segments are not
+     * ordered with respect to each other, and each segment is copied separately.
+     */
+    public fun snapshot(): MutableMap<K, V> {
+        val copy = LinkedHashMap<K, V>()
+        segments.forEach { segment -> copy.putAll(segment.snapshot()) }
+        return copy
+    }
+
+    override fun toString(): String {
+        val hitCount = hitCount()
+        val missCount = missCount()
+        val accesses = hitCount + missCount
+        val hitPercent = if (accesses != 0) {
+            100 * hitCount / accesses
+        } else {
+            0
+        }
+
+        return "SegmentedLruCache[maxSize=${maxSize()},segments=${segments.size}," +
+            "hits=$hitCount,misses=$missCount,hitRate=$hitPercent%]"
+    }
+
+    private inner class Segment(maxSize: Int) : LruCache<K, V>(maxSize) {
+        override fun sizeOf(key: K, value: V): Int =
+            this@SegmentedLruCache.sizeOf(key, value)
+
+        override fun create(key: K): V? = this@SegmentedLruCache.create(key)
+
+        override fun entryRemoved(evicted: Boolean, key: K, oldValue: V, newValue: V?) {
+            this@SegmentedLruCache.entryRemoved(evicted, key, oldValue, newValue)
+        }
+    }
+}
+
+private const val DefaultSegmentCount = 16
+
+/**
+ * Returns the share of [maxSize] held by the segment at [index], distributing the remainder over
+ * the first segments.
+ */
+private fun segmentMaxSize(maxSize: Int, segmentCount: Int, index: Int): Int {
+    return maxSize / segmentCount + if (index < maxSize % segmentCount) 1 else 0
+}
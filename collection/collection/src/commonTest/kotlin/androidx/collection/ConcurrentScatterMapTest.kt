@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+import kotlinx.coroutines.DelicateCoroutinesApi
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.GlobalScope
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+
+internal class ConcurrentScatterMapTest {
+
+    @Test
+    fun putGetRemove() {
+        val map = ConcurrentScatterMap<String, String>()
+        assertTrue(map.isEmpty())
+        assertNull(map.put("a", "A"))
+        assertEquals("A", map.put("a", "A2"))
+        map["b"] = "B"
+        assertEquals("A2", map["a"])
+        assertEquals("B", map["b"])
+        assertNull(map["c"])
+        assertEquals("C", map.getOrDefault("c", "C"))
+        assertTrue("a" in map)
+        assertFalse(map.containsKey("c"))
+        assertEquals(2, map.size)
+
+        assertFalse(map.remove("b", "A2"))
+        assertTrue(map.remove("b", "B"))
+        assertEquals("A2", map.remove("a"))
+        assertNull(map.remove("a"))
+        assertTrue(map.isEmpty())
+    }
+
+    @Test
+    fun stripeCount() {
+        assertEquals(16, ConcurrentScatterMap<String, String>().stripeCount())
+        assertEquals(8, ConcurrentScatterMap<String, String>(stripeCount = 5).stripeCount())
+        assertEquals(1, ConcurrentScatterMap<String, String>(stripeCount = 1).stripeCount())
+        assertEquals(256, ConcurrentScatterMap<String, String>(stripeCount = 1000).stripeCount())
+    }
+
+    @Test
+    fun cannotCreateWithZeroStripes() {
+        assertFailsWith<IllegalArgumentException> {
+            ConcurrentScatterMap<String, String>(stripeCount = 0)
+        }
+    }
+
+    @Test
+    fun putIfAbsentAndGetOrPut() {
+        val map = ConcurrentScatterMap<String, String>()
+        assertNull(map.putIfAbsent("a", "A"))
+        assertEquals("A", map.putIfAbsent("a", "A2"))
+        assertEquals("A", map["a"])
+
+        var created = 0
+        assertEquals("B", map.getOrPut("b") { created++; "B" })
+        assertEquals("B", map.getOrPut("b") { created++; "B2" })
+        assertEquals(1, created)
+    }
+
+    @Test
+    fun forEachAndClear() {
+        val map = ConcurrentScatterMap<Int, String>(stripeCount = 4)
+        for (i in 0 until 100) {
+            map[i] = "value $i"
+        }
+        val visited = mutableMapOf<Int, String>()
+        map.forEach { key, value -> visited[key] = value }
+        assertEquals((0 until 100).associateWith { "value $it" }, visited)
+
+        map.clear()
+        assertEquals(0, map.size)
+        assertNull(map[0])
+    }
+
+    /** Makes sure that operations on different stripes stay consistent when run concurrently. */
+    @OptIn(DelicateCoroutinesApi::class) // Using GlobalScope in tests
+    @Test
+    fun consistentMultithreadedAccess() {
+        val map = ConcurrentScatterMap<Int, Int>()
+        val jobs = List(8) { worker ->
+            GlobalScope.launch(Dispatchers.Default) {
+                for (i in 0 until 1000) {
+                    val key = worker * 1000 + i
+                    map[key] = key * 2
+                    // All workers share the first 1000 keys.
+                    assertEquals(i * 2, map.getOrPut(i) { i * 2 })
+                }
+            }
+        }
+        runBlocking {
+            jobs.forEach { it.join() }
+        }
+        assertEquals(8000, map.size)
+        for (key in 0 until 8000) {
+            assertEquals(key * 2, map[key])
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+import kotlinx.coroutines.DelicateCoroutinesApi
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.GlobalScope
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+
+internal class SegmentedLruCacheTest {
+
+    @Test
+    fun putGetRemove() {
+        val cache = SegmentedLruCache<String, String>(100)
+        assertNull(cache.put("a", "A"))
+        assertEquals("A", cache.put("a", "A2"))
+        assertEquals("A2", cache["a"])
+        assertNull(cache["b"])
+        assertEquals("A2", cache.remove("a"))
+        assertNull(cache["a"])
+        assertEquals(0, cache.size())
+        assertEquals(2, cache.putCount())
+        assertEquals(1, cache.hitCount())
+        assertEquals(2, cache.missCount())
+    }
+
+    @Test
+    fun segmentCount() {
+        assertEquals(16, SegmentedLruCache<String, String>(100).segmentCount())
+        assertEquals(8, SegmentedLruCache<String, String>(100, segmentCount = 5).segmentCount())
+        assertEquals(4, SegmentedLruCache<String, String>(5).segmentCount())
+        assertEquals(1, SegmentedLruCache<String, String>(1).segmentCount())
+    }
+
+    @Test
+    fun maxSizeSplitAcrossSegments() {
+        val cache = SegmentedLruCache<String, String>(10, segmentCount = 4)
+        assertEquals(10, cache.maxSize())
+        cache.resize(13)
+        assertEquals(13, cache.maxSize())
+    }
+
+    @Test
+    fun cannotCreateZeroSizeCache() {
+        assertFailsWith<IllegalArgumentException> {
+            SegmentedLruCache<String, String>(0)
+        }
+    }
+
+    @Test
+    fun cannotResizeBelowSegmentCount() {
+        val cache = SegmentedLruCache<String, String>(100, segmentCount = 4)
+        assertFailsWith<IllegalArgumentException> {
+            cache.resize(3)
+        }
+    }
+
+    @Test
+    fun evictionKeepsSizeWithinMaxSize() {
+        val evictedKeys = mutableListOf<Int>()
+        val cache = object : SegmentedLruCache<Int, String>(64) {
+            override fun entryRemoved(
+                evicted: Boolean,
+                key: Int,
+                oldValue: String,
+                newValue: String?
+            ) {
+                if (evicted) evictedKeys.add(key)
+            }
+        }
+        for (i in 0 until 1000) {
+            cache.put(i, "value $i")
+            assertTrue(cache.size() <= 64)
+        }
+        assertEquals(64, cache.size())
+        assertEquals(1000 - 64, cache.evictionCount())
+        assertEquals(1000 - 64, evictedKeys.size)
+        // The most recently added entry of a segment is never evicted.
+        assertEquals("value 999", cache[999])
+    }
+
+    @Test
+    fun sizeOfAndCreate() {
+        val cache = object : SegmentedLruCache<String, String>(20, segmentCount = 2) {
+            override fun sizeOf(key: String, value: String): Int = value.length
+
+            override fun create(key: String): String = key.uppercase()
+        }
+        assertEquals("ABC", cache["abc"])
+        assertEquals(3, cache.size())
+        assertEquals(1, cache.createCount())
+        assertEquals("ABC", cache["abc"])
+        assertEquals(1, cache.createCount())
+        assertEquals(1, cache.hitCount())
+        assertEquals(mapOf("abc" to "ABC"), cache.snapshot())
+    }
+
+    @Test
+    fun entryLargerThanSegmentIsEvicted() {
+        val cache = object : SegmentedLruCache<String, String>(20, segmentCount = 4) {
+            override fun sizeOf(key: String, value: String): Int = value.length
+        }
+        // Each of the 4 segments holds 5 units, and "a" and "b" are in different segments.
+        assertNull(cache.put("a", "12345"))
+        assertEquals(5, cache.size())
+        // Like LruCache, the entry is added and then trimmed.
+        assertNull(cache.put("b", "123456"))
+        assertNull(cache["b"])
+        assertEquals("12345", cache["a"])
+        assertEquals(5, cache.size())
+        assertEquals(2, cache.putCount())
+        assertEquals(1, cache.evictionCount())
+    }
+
+    @Test
+    fun evictAll() {
+        val cache = SegmentedLruCache<Int, Int>(100)
+        for (i in 0 until 50) {
+            cache.put(i, i)
+        }
+        cache.evictAll()
+        assertEquals(0, cache.size())
+        assertEquals(50, cache.evictionCount())
+        assertTrue(cache.snapshot().isEmpty())
+    }
+
+    @Test
+    fun toStringReportsStatistics() {
+        val cache = SegmentedLruCache<String, String>(4, segmentCount = 2)
+        cache.put("a", "A")
+        cache["a"]
+        cache["b"]
+        assertEquals(
+            "SegmentedLruCache[maxSize=4,segments=2,hits=1,misses=1,hitRate=50%]",
+            cache.toString()
+        )
+    }
+
+    /** Makes sure that operations on different segments stay consistent when run concurrently. */
+    @OptIn(DelicateCoroutinesApi::class) // Using GlobalScope in tests
+    @Test
+    fun consistentMultithreadedAccess() {
+        val cache = object : SegmentedLruCache<Int, Int>(256) {
+            override fun create(key: Int): Int = key * 2
+        }
+        val jobs = List(8) { worker ->
+            GlobalScope.launch(Dispatchers.Default) {
+                for (i in 0 until 1000) {
+                    val key = (i * 31 + worker) % 512
+                    assertEquals(key * 2, cache[key])
+                    if (i % 10 == 0) {
+                        cache.remove(key)
+                    }
+                }
+            }
+        }
+        runBlocking {
+            jobs.forEach { it.join() }
+        }
+        assertTrue(cache.size() <= 256)
+        assertEquals(8 * 1000, cache.hitCount() + cache.missCount())
+    }
+}
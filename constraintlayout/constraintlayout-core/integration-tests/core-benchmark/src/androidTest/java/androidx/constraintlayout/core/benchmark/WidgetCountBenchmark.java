@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.constraintlayout.core.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.constraintlayout.core.LinearSystem;
+import androidx.constraintlayout.core.widgets.ConstraintWidgetContainer;
+import androidx.constraintlayout.core.widgets.Optimizer;
+import androidx.test.filters.LargeTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures {@link ConstraintWidgetContainer#measure} on synthetic trees of 10 to 1000 widgets,
+ * with the standard optimization level and both solver engines. The benchmark library reports
+ * allocation counts alongside timings.
+ */
+@LargeTest
+@RunWith(Parameterized.class)
+public class WidgetCountBenchmark {
+
+    @Parameterized.Parameters(name = "{0}_{1}_optimizedEngine={2}")
+    public static List<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (WidgetTrees.Type type : WidgetTrees.Type.values()) {
+            for (int count : new int[] {10, 100, 1000}) {
+                parameters.add(new Object[] {type, count, false});
+                parameters.add(new Object[] {type, count, true});
+            }
+        }
+        return parameters;
+    }
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final WidgetTrees.Type mType;
+    private final int mCount;
+    private final boolean mOptimizedEngine;
+    private boolean mPreviousOptimizedEngine;
+    private ConstraintWidgetContainer mRoot;
+
+    public WidgetCountBenchmark(WidgetTrees.Type type, int count, boolean optimizedEngine) {
+        mType = type;
+        mCount = count;
+        mOptimizedEngine = optimizedEngine;
+    }
+
+    @Before
+    public void setup() {
+        mPreviousOptimizedEngine = LinearSystem.OPTIMIZED_ENGINE;
+        // needs to be set before creating the container, as its LinearSystem reads it
+        LinearSystem.OPTIMIZED_ENGINE = mOptimizedEngine;
+        mRoot = WidgetTrees.create(mType, mCount);
+    }
+
+    @After
+    public void teardown() {
+        LinearSystem.OPTIMIZED_ENGINE = mPreviousOptimizedEngine;
+    }
+
+    @Test
+    public void measure() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            WidgetTrees.measure(mRoot, Optimizer.OPTIMIZATION_STANDARD);
+        }
+    }
+}
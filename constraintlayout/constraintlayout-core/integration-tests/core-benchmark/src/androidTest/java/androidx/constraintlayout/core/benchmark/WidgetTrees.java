@@ -0,0 +1,321 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.constraintlayout.core.benchmark;
+
+import static androidx.constraintlayout.core.widgets.analyzer.BasicMeasure.EXACTLY;
+import static androidx.constraintlayout.core.widgets.analyzer.BasicMeasure.UNSPECIFIED;
+
+import androidx.constraintlayout.core.utils.GridCore;
+import androidx.constraintlayout.core.widgets.Barrier;
+import androidx.constraintlayout.core.widgets.ConstraintAnchor;
+import androidx.constraintlayout.core.widgets.ConstraintWidget;
+import androidx.constraintlayout.core.widgets.ConstraintWidgetContainer;
+import androidx.constraintlayout.core.widgets.Flow;
+import androidx.constraintlayout.core.widgets.Optimizer;
+import androidx.constraintlayout.core.widgets.VirtualLayout;
+import androidx.constraintlayout.core.widgets.analyzer.BasicMeasure;
+
+/**
+ * Builds synthetic widget trees of a given size, used to benchmark the solver.
+ */
+final class WidgetTrees {
+
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 1920;
+
+    private static final int ROW_SIZE = 3;
+    private static final int NESTED_CONTAINER_SIZE = 10;
+
+    enum Type {
+        CHAINS,
+        BARRIERS,
+        FLOW,
+        GRID,
+        NESTED_WRAP_CONTENT
+    }
+
+    private WidgetTrees() {
+    }
+
+    /**
+     * Create a container holding (about) {@code count} widgets arranged following {@code type}
+     */
+    static ConstraintWidgetContainer create(Type type, int count) {
+        ConstraintWidgetContainer root = new ConstraintWidgetContainer(0, 0, WIDTH, HEIGHT);
+        root.setDebugName("root");
+        root.setMeasurer(MEASURER);
+        switch (type) {
+            case CHAINS:
+                addChains(root, count);
+                break;
+            case BARRIERS:
+                addBarriers(root, count);
+                break;
+            case FLOW:
+                addFlow(root, count);
+                break;
+            case GRID:
+                addGrid(root, count);
+                break;
+            case NESTED_WRAP_CONTENT:
+                addNestedWrapContent(root, count);
+                break;
+        }
+        return root;
+    }
+
+    /**
+     * Measure the container the same way ConstraintLayout does in onMeasure
+     */
+    static void measure(ConstraintWidgetContainer root, int optimizationLevel) {
+        root.setOptimizationLevel(optimizationLevel);
+        root.measure(optimizationLevel, EXACTLY, WIDTH, EXACTLY, HEIGHT, 0, 0, 0, 0);
+    }
+
+    /**
+     * Rows of three widgets in a spread horizontal chain, the rows being stacked vertically
+     */
+    private static void addChains(ConstraintWidgetContainer root, int count) {
+        ConstraintWidget previousRow = null;
+        int rows = Math.max(1, count / ROW_SIZE);
+        for (int i = 0; i < rows; i++) {
+            ConstraintWidget a = createWidget(root, "A" + i, 100, 40);
+            ConstraintWidget b = createWidget(root, "B" + i, 100, 40);
+            ConstraintWidget c = createWidget(root, "C" + i, 100, 40);
+            a.connect(ConstraintAnchor.Type.LEFT, root, ConstraintAnchor.Type.LEFT);
+            a.connect(ConstraintAnchor.Type.RIGHT, b, ConstraintAnchor.Type.LEFT);
+            b.connect(ConstraintAnchor.Type.LEFT, a, ConstraintAnchor.Type.RIGHT);
+            b.connect(ConstraintAnchor.Type.RIGHT, c, ConstraintAnchor.Type.LEFT);
+            c.connect(ConstraintAnchor.Type.LEFT, b, ConstraintAnchor.Type.RIGHT);
+            c.connect(ConstraintAnchor.Type.RIGHT, root, ConstraintAnchor.Type.RIGHT);
+            b.setHorizontalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
+            if (previousRow == null) {
+                a.connect(ConstraintAnchor.Type.TOP, root, ConstraintAnchor.Type.TOP, 8);
+            } else {
+                a.connect(ConstraintAnchor.Type.TOP, previousRow, ConstraintAnchor.Type.BOTTOM,
+                        8);
+            }
+            b.connect(ConstraintAnchor.Type.TOP, a, ConstraintAnchor.Type.TOP);
+            b.connect(ConstraintAnchor.Type.BOTTOM, a, ConstraintAnchor.Type.BOTTOM);
+            c.connect(ConstraintAnchor.Type.TOP, a, ConstraintAnchor.Type.TOP);
+            c.connect(ConstraintAnchor.Type.BOTTOM, a, ConstraintAnchor.Type.BOTTOM);
+            previousRow = a;
+        }
+    }
+
+    /**
+     * Label / value pairs, the values being aligned on a barrier at the end of the labels
+     */
+    private static void addBarriers(ConstraintWidgetContainer root, int count) {
+        int rows = Math.max(1, count / 2);
+        ConstraintWidget[] labels = new ConstraintWidget[rows];
+        Barrier barrier = new Barrier("barrier");
+        barrier.setBarrierType(Barrier.RIGHT);
+        ConstraintWidget previous = null;
+        for (int i = 0; i < rows; i++) {
+            ConstraintWidget label = createWidget(root, "L" + i, 50 + (i * 37) % 200, 30);
+            label.connect(ConstraintAnchor.Type.LEFT, root, ConstraintAnchor.Type.LEFT, 8);
+            if (previous == null) {
+                label.connect(ConstraintAnchor.Type.TOP, root, ConstraintAnchor.Type.TOP, 8);
+            } else {
+                label.connect(ConstraintAnchor.Type.TOP, previous, ConstraintAnchor.Type.BOTTOM,
+                        8);
+            }
+            barrier.add(label);
+            labels[i] = label;
+            previous = label;
+        }
+        root.add(barrier);
+        for (int i = 0; i < rows; i++) {
+            ConstraintWidget value = createWidget(root, "V" + i, 100, 30);
+            value.setHorizontalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
+            value.connect(ConstraintAnchor.Type.LEFT, barrier, ConstraintAnchor.Type.RIGHT, 8);
+            value.connect(ConstraintAnchor.Type.RIGHT, root, ConstraintAnchor.Type.RIGHT, 8);
+            value.connect(ConstraintAnchor.Type.TOP, labels[i], ConstraintAnchor.Type.TOP);
+            value.connect(ConstraintAnchor.Type.BOTTOM, labels[i], ConstraintAnchor.Type.BOTTOM);
+        }
+    }
+
+    /**
+     * A wrapping chain Flow filling the container
+     */
+    private static void addFlow(ConstraintWidgetContainer root, int count) {
+        Flow flow = new Flow();
+        flow.setDebugName("flow");
+        flow.setWrapMode(Flow.WRAP_CHAIN);
+        flow.setHorizontalGap(8);
+        flow.setVerticalGap(8);
+        flow.setHorizontalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.MATCH_PARENT);
+        flow.setVerticalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+        flow.connect(ConstraintAnchor.Type.LEFT, root, ConstraintAnchor.Type.LEFT);
+        flow.connect(ConstraintAnchor.Type.RIGHT, root, ConstraintAnchor.Type.RIGHT);
+        flow.connect(ConstraintAnchor.Type.TOP, root, ConstraintAnchor.Type.TOP);
+        root.add(flow);
+        for (int i = 0; i < count; i++) {
+            ConstraintWidget widget = createWidget(root, "F" + i, 60 + (i * 13) % 120, 40);
+            flow.add(widget);
+        }
+    }
+
+    /**
+     * A square-ish grid
+     */
+    private static void addGrid(ConstraintWidgetContainer root, int count) {
+        int columns = Math.max(1, (int) Math.ceil(Math.sqrt(count)));
+        int rows = Math.max(1, (count + columns - 1) / columns);
+        GridCore grid = new GridCore(rows, columns);
+        grid.setDebugName("grid");
+        grid.setHorizontalGaps(4);
+        grid.setVerticalGaps(4);
+        grid.setHorizontalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.MATCH_PARENT);
+        grid.setVerticalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.MATCH_PARENT);
+        grid.connect(ConstraintAnchor.Type.LEFT, root, ConstraintAnchor.Type.LEFT);
+        grid.connect(ConstraintAnchor.Type.RIGHT, root, ConstraintAnchor.Type.RIGHT);
+        grid.connect(ConstraintAnchor.Type.TOP, root, ConstraintAnchor.Type.TOP);
+        grid.connect(ConstraintAnchor.Type.BOTTOM, root, ConstraintAnchor.Type.BOTTOM);
+        grid.setContainer(root);
+        root.add(grid);
+        for (int i = 0; i < count; i++) {
+            ConstraintWidget widget = createWidget(root, "G" + i, 10, 10);
+            widget.setHorizontalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
+            widget.setVerticalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
+            grid.add(widget);
+        }
+    }
+
+    /**
+     * Wrap content widgets stacked in the root, each backed by its own container holding a small
+     * vertical chain (the way a nested ConstraintLayout is measured by its parent)
+     */
+    private static void addNestedWrapContent(ConstraintWidgetContainer root, int count) {
+        int containers = Math.max(1, count / NESTED_CONTAINER_SIZE);
+        ConstraintWidget previous = null;
+        for (int i = 0; i < containers; i++) {
+            ConstraintWidgetContainer nested = new ConstraintWidgetContainer();
+            nested.setDebugName("N" + i);
+            nested.setMeasurer(MEASURER);
+            ConstraintWidget previousChild = null;
+            for (int j = 0; j < NESTED_CONTAINER_SIZE; j++) {
+                ConstraintWidget child = createWidget(nested, "N" + i + "_" + j,
+                        40 + (j * 17) % 80, 20);
+                child.connect(ConstraintAnchor.Type.LEFT, nested, ConstraintAnchor.Type.LEFT);
+                child.connect(ConstraintAnchor.Type.RIGHT, nested, ConstraintAnchor.Type.RIGHT);
+                if (previousChild == null) {
+                    child.connect(ConstraintAnchor.Type.TOP, nested, ConstraintAnchor.Type.TOP);
+                } else {
+                    child.connect(ConstraintAnchor.Type.TOP, previousChild,
+                            ConstraintAnchor.Type.BOTTOM, 4);
+                }
+                previousChild = child;
+            }
+            previousChild.connect(ConstraintAnchor.Type.BOTTOM, nested,
+                    ConstraintAnchor.Type.BOTTOM);
+
+            ConstraintWidget widget = createWidget(root, "W" + i, 0, 0);
+            widget.setCompanionWidget(nested);
+            widget.setHorizontalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+            widget.setVerticalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+            widget.connect(ConstraintAnchor.Type.LEFT, root, ConstraintAnchor.Type.LEFT);
+            widget.connect(ConstraintAnchor.Type.RIGHT, root, ConstraintAnchor.Type.RIGHT);
+            if (previous == null) {
+                widget.connect(ConstraintAnchor.Type.TOP, root, ConstraintAnchor.Type.TOP);
+            } else {
+                widget.connect(ConstraintAnchor.Type.TOP, previous, ConstraintAnchor.Type.BOTTOM);
+            }
+            previous = widget;
+        }
+    }
+
+    private static ConstraintWidget createWidget(ConstraintWidgetContainer parent, String name,
+            int width, int height) {
+        ConstraintWidget widget = new ConstraintWidget(width, height);
+        widget.setDebugName(name);
+        parent.add(widget);
+        return widget;
+    }
+
+    /**
+     * Measurer returning the widgets own dimensions, and measuring virtual layouts and nested
+     * containers like ConstraintLayout would measure its children.
+     */
+    static final BasicMeasure.Measurer MEASURER = new BasicMeasure.Measurer() {
+        @Override
+        public void measure(ConstraintWidget widget, BasicMeasure.Measure measure) {
+            ConstraintWidget.DimensionBehaviour horizontalBehavior = measure.horizontalBehavior;
+            ConstraintWidget.DimensionBehaviour verticalBehavior = measure.verticalBehavior;
+            int horizontalDimension = measure.horizontalDimension;
+            int verticalDimension = measure.verticalDimension;
+
+            if (widget instanceof VirtualLayout) {
+                VirtualLayout layout = (VirtualLayout) widget;
+                int widthMode = UNSPECIFIED;
+                int heightMode = UNSPECIFIED;
+                int widthSize = 0;
+                int heightSize = 0;
+                if (layout.getHorizontalDimensionBehaviour()
+                        == ConstraintWidget.DimensionBehaviour.MATCH_PARENT) {
+                    widthSize = layout.getParent() != null ? layout.getParent().getWidth() : 0;
+                    widthMode = EXACTLY;
+                } else if (horizontalBehavior == ConstraintWidget.DimensionBehaviour.FIXED) {
+                    widthSize = horizontalDimension;
+                    widthMode = EXACTLY;
+                }
+                if (layout.getVerticalDimensionBehaviour()
+                        == ConstraintWidget.DimensionBehaviour.MATCH_PARENT) {
+                    heightSize = layout.getParent() != null ? layout.getParent().getHeight() : 0;
+                    heightMode = EXACTLY;
+                } else if (verticalBehavior == ConstraintWidget.DimensionBehaviour.FIXED) {
+                    heightSize = verticalDimension;
+                    heightMode = EXACTLY;
+                }
+                layout.measure(widthMode, widthSize, heightMode, heightSize);
+                measure.measuredWidth = layout.getMeasuredWidth();
+                measure.measuredHeight = layout.getMeasuredHeight();
+            } else if (widget.getCompanionWidget() instanceof ConstraintWidgetContainer) {
+                ConstraintWidgetContainer container =
+                        (ConstraintWidgetContainer) widget.getCompanionWidget();
+                container.setHorizontalDimensionBehaviour(
+                        ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+                container.setVerticalDimensionBehaviour(
+                        ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+                container.measure(widget.getParent() instanceof ConstraintWidgetContainer
+                                ? ((ConstraintWidgetContainer) widget.getParent())
+                                        .getOptimizationLevel()
+                                : Optimizer.OPTIMIZATION_STANDARD,
+                        UNSPECIFIED, 0, UNSPECIFIED, 0, 0, 0, 0, 0);
+                measure.measuredWidth = container.getWidth();
+                measure.measuredHeight = container.getHeight();
+            } else {
+                measure.measuredWidth = horizontalBehavior
+                        == ConstraintWidget.DimensionBehaviour.FIXED
+                        ? horizontalDimension : widget.getWidth();
+                measure.measuredHeight = verticalBehavior
+                        == ConstraintWidget.DimensionBehaviour.FIXED
+                        ? verticalDimension : widget.getHeight();
+            }
+        }
+
+        @Override
+        public void didMeasures() {
+        }
+    };
+}
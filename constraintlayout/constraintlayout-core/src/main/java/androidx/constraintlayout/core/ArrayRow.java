@@ -534,6 +534,10 @@ public class ArrayRow implements LinearSystem.Row {
                     unrestrictedCandidate = variable;
                     unrestrictedCandidateAmount = amount;
                     unrestrictedCandidateIsNew = true;
+                } else if (unrestrictedCandidateAmount == amount
+                        && unrestrictedCandidateIsNew == isNew(variable, system)
+                        && isPreferredInIncrementalMode(system, variable, unrestrictedCandidate)) {
+                    unrestrictedCandidate = variable;
                 }
             } else if (unrestrictedCandidate == null) {
                 if (amount < 0) {
@@ -549,6 +553,11 @@ public class ArrayRow implements LinearSystem.Row {
                         restrictedCandidate = variable;
                         restrictedCandidateAmount = amount;
                         restrictedCandidateIsNew = true;
+                    } else if (restrictedCandidateAmount == amount
+                            && restrictedCandidateIsNew == isNew(variable, system)
+                            && isPreferredInIncrementalMode(system, variable,
+                            restrictedCandidate)) {
+                        restrictedCandidate = variable;
                     }
                 }
             }
@@ -560,6 +569,19 @@ public class ArrayRow implements LinearSystem.Row {
         return restrictedCandidate;
     }
 
+    /**
+     * Returns true if, in incremental mode, the variable should replace an equally ranked subject
+     * candidate because it was part of the basis of the previous resolution and the candidate
+     * wasn't. The previous basis is only used to break ties, so that the resolution reaches the
+     * same optimum as a full one.
+     */
+    private static boolean isPreferredInIncrementalMode(LinearSystem system,
+            SolverVariable variable, SolverVariable candidate) {
+        return system.incrementalSolving
+                && system.wasInPreviousBasis(variable)
+                && !system.wasInPreviousBasis(candidate);
+    }
+
     /**
      * Returns true if the variable is new to the system, i.e. is already present
      * in one of the rows. This function is called while choosing the subject of a new row.
@@ -21,6 +21,10 @@ package androidx.constraintlayout.core;
 public class Cache {
     Pools.Pool<ArrayRow> mOptimizedArrayRowPool = new Pools.SimplePool<>(256);
     Pools.Pool<ArrayRow> mArrayRowPool = new Pools.SimplePool<>(256);
-    Pools.Pool<SolverVariable> mSolverVariablePool = new Pools.SimplePool<>(256);
+    // The packed engine keeps every row and variable it created, so that it doesn't
+    // allocate once a layout has been solved once
+    Pools.Pool<ArrayRow> mPackedArrayRowPool = new Pools.GrowingPool<>(256);
+    Pools.Pool<SolverVariable> mSolverVariablePool = LinearSystem.PACKED_ENGINE
+            ? new Pools.GrowingPool<>(256) : new Pools.SimplePool<>(256);
     SolverVariable[] mIndexedVariables = new SolverVariable[32];
 }
@@ -40,6 +40,7 @@ public class LinearSystem {
     public static boolean USE_SYNONYMS = true;
     public static boolean SKIP_COLUMNS = true;
     public static boolean OPTIMIZED_ENGINE = false;
+    public static boolean PACKED_ENGINE = false;
 
     /*
      * Default size for the object pools
@@ -70,9 +71,15 @@ public class LinearSystem {
     public boolean graphOptimizer = false;
     public boolean newgraphOptimizer = false;
 
+    // if true, will warm start the resolution from the basis of the previous one
+    public boolean incrementalSolving = false;
+
     // Used in optimize()
     private boolean[] mAlreadyTestedCandidates = new boolean[mTableSize];
 
+    // Variables that were basic (i.e. defining a row) at the end of the previous resolution
+    private boolean[] mPreviousBasis = new boolean[mTableSize];
+
     int mNumColumns = 1;
     int mNumRows = 0;
     private int mMaxRows = mTableSize;
@@ -91,12 +98,20 @@ public class LinearSystem {
         }
     }
 
+    static class PackedRow extends ArrayRow {
+        PackedRow(Cache cache) {
+            variables = new PackedVariables(this, cache);
+        }
+    }
+
     public LinearSystem() {
         mRows = new ArrayRow[mTableSize];
         releaseRows();
         mCache = new Cache();
         mGoal = new PriorityGoalRow(mCache);
-        if (OPTIMIZED_ENGINE) {
+        if (PACKED_ENGINE) {
+            mTempGoal = new PackedRow(mCache);
+        } else if (OPTIMIZED_ENGINE) {
             mTempGoal = new ValuesRow(mCache);
         } else {
             mTempGoal = new ArrayRow(mCache);
@@ -152,6 +167,7 @@ public class LinearSystem {
         mRows = Arrays.copyOf(mRows, mTableSize);
         mCache.mIndexedVariables = Arrays.copyOf(mCache.mIndexedVariables, mTableSize);
         mAlreadyTestedCandidates = new boolean[mTableSize];
+        mPreviousBasis = Arrays.copyOf(mPreviousBasis, mTableSize);
         mMaxColumns = mTableSize;
         mMaxRows = mTableSize;
         if (sMetrics != null) {
@@ -165,22 +181,25 @@ public class LinearSystem {
      * Release ArrayRows back to their pool
      */
     private void releaseRows() {
-        if (OPTIMIZED_ENGINE) {
-            for (int i = 0; i < mNumRows; i++) {
-                ArrayRow row = mRows[i];
-                if (row != null) {
-                    mCache.mOptimizedArrayRowPool.release(row);
-                }
-                mRows[i] = null;
+        for (int i = 0; i < mNumRows; i++) {
+            ArrayRow row = mRows[i];
+            if (row != null) {
+                releaseRow(row);
             }
+            mRows[i] = null;
+        }
+    }
+
+    /**
+     * Release an ArrayRow back to the pool of its engine
+     */
+    private void releaseRow(ArrayRow row) {
+        if (PACKED_ENGINE) {
+            mCache.mPackedArrayRowPool.release(row);
+        } else if (OPTIMIZED_ENGINE) {
+            mCache.mOptimizedArrayRowPool.release(row);
         } else {
-            for (int i = 0; i < mNumRows; i++) {
-                ArrayRow row = mRows[i];
-                if (row != null) {
-                    mCache.mArrayRowPool.release(row);
-                }
-                mRows[i] = null;
-            }
+            mCache.mArrayRowPool.release(row);
         }
     }
 
@@ -193,6 +212,10 @@ public class LinearSystem {
             System.out.println("## RESET SYSTEM ##");
             System.out.println("##################");
         }
+        if (PACKED_ENGINE) {
+            // needs to be cleared while its variables are still indexed
+            mTempGoal.clear();
+        }
         for (int i = 0; i < mCache.mIndexedVariables.length; i++) {
             SolverVariable variable = mCache.mIndexedVariables[i];
             if (variable != null) {
@@ -216,7 +239,12 @@ public class LinearSystem {
         }
         releaseRows();
         mNumRows = 0;
-        if (OPTIMIZED_ENGINE) {
+        if (PACKED_ENGINE) {
+            // the temporary goal was cleared above, keep it (and its storage) around
+            if (!(mTempGoal instanceof PackedRow)) {
+                mTempGoal = new PackedRow(mCache);
+            }
+        } else if (OPTIMIZED_ENGINE) {
             mTempGoal = new ValuesRow(mCache);
         } else {
             mTempGoal = new ArrayRow(mCache);
@@ -260,11 +288,20 @@ public class LinearSystem {
 
     public static long ARRAY_ROW_CREATION = 0;
     public static long OPTIMIZED_ARRAY_ROW_CREATION = 0;
+    public static long PACKED_ARRAY_ROW_CREATION = 0;
 
     // @TODO: add description
     public ArrayRow createRow() {
         ArrayRow row;
-        if (OPTIMIZED_ENGINE) {
+        if (PACKED_ENGINE) {
+            row = mCache.mPackedArrayRowPool.acquire();
+            if (row == null) {
+                row = new PackedRow(mCache);
+                PACKED_ARRAY_ROW_CREATION++;
+            } else {
+                row.reset();
+            }
+        } else if (OPTIMIZED_ENGINE) {
             row = mCache.mOptimizedArrayRowPool.acquire();
             if (row == null) {
                 row = new ValuesRow(mCache);
@@ -539,6 +576,35 @@ public class LinearSystem {
             displayReadableRows();
         }
         computeValues();
+        if (incrementalSolving) {
+            saveBasis();
+        }
+    }
+
+    /**
+     * Remember which variables ended up basic in this resolution, so that the next
+     * resolution of a similar system can pick them again as row subjects and start
+     * the optimization close to the previous optimum.
+     */
+    private void saveBasis() {
+        Arrays.fill(mPreviousBasis, false);
+        for (int i = 0; i < mNumRows; i++) {
+            SolverVariable variable = mRows[i].mVariable;
+            if (variable != null && variable.id >= 0 && variable.id < mPreviousBasis.length) {
+                mPreviousBasis[variable.id] = true;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the variable was basic at the end of the previous resolution
+     *
+     * @param variable the variable to check
+     * @return true if the variable was part of the previous basis
+     */
+    boolean wasInPreviousBasis(SolverVariable variable) {
+        return variable.id >= 0 && variable.id < mPreviousBasis.length
+                && mPreviousBasis[variable.id];
     }
 
     final void cleanupRows() {
@@ -557,11 +623,7 @@ public class LinearSystem {
                 mRows[mNumRows - 1] = null;
                 mNumRows--;
                 i--;
-                if (OPTIMIZED_ENGINE) {
-                    mCache.mOptimizedArrayRowPool.release(current);
-                } else {
-                    mCache.mArrayRowPool.release(current);
-                }
+                releaseRow(current);
             }
             i++;
         }
@@ -596,6 +658,9 @@ public class LinearSystem {
             row.updateFromSystem(this);
 
             if (row.isEmpty()) {
+                if (PACKED_ENGINE) {
+                    releaseRow(row);
+                }
                 return;
             }
 
@@ -634,11 +699,7 @@ public class LinearSystem {
                         if (!row.mIsSimpleDefinition) {
                             row.mVariable.updateReferencesWithNewDefinition(this, row);
                         }
-                        if (OPTIMIZED_ENGINE) {
-                            mCache.mOptimizedArrayRowPool.release(row);
-                        } else {
-                            mCache.mArrayRowPool.release(row);
-                        }
+                        releaseRow(row);
                         mNumRows--;
                     }
                 }
@@ -655,6 +716,10 @@ public class LinearSystem {
         }
         if (!added) {
             addRow(row);
+            if (PACKED_ENGINE && SIMPLIFY_SYNONYMS && row.mIsSimpleDefinition) {
+                // the row only set a final value, it isn't part of the system
+                releaseRow(row);
+            }
         }
     }
 
@@ -681,11 +746,7 @@ public class LinearSystem {
                 if (mRows[i] != null && mRows[i].mIsSimpleDefinition) {
                     ArrayRow removedRow = mRows[i];
                     removedRow.mVariable.setFinalValue(this, removedRow.mConstantValue);
-                    if (OPTIMIZED_ENGINE) {
-                        mCache.mOptimizedArrayRowPool.release(removedRow);
-                    } else {
-                        mCache.mArrayRowPool.release(removedRow);
-                    }
+                    releaseRow(removedRow);
                     mRows[i] = null;
                     int lastRow = i + 1;
                     for (int j = i + 1; j < mNumRows; j++) {
@@ -722,11 +783,7 @@ public class LinearSystem {
             if (!row.mVariable.isFinalValue) {
                 row.mVariable.setFinalValue(this, row.mConstantValue);
             }
-            if (OPTIMIZED_ENGINE) {
-                mCache.mOptimizedArrayRowPool.release(row);
-            } else {
-                mCache.mArrayRowPool.release(row);
-            }
+            releaseRow(row);
         }
     }
 
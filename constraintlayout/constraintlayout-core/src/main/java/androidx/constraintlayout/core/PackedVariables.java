@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core;
+
+import java.util.Arrays;
+
+/**
+ * Store a set of variables and their values in two packed parallel arrays, sorted by
+ * variable id.
+ *
+ * Indexed access is O(1), lookups are a binary search, and insertions / removals shift
+ * contiguous memory, which keeps pivoting cache-friendly. The arrays are kept when the row is
+ * cleared, so a pooled row doesn't allocate once it reached its working size.
+ */
+public class PackedVariables implements ArrayRow.ArrayRowVariables {
+
+    private static final boolean DEBUG = false;
+    private static final int NONE = -1;
+    private static final int DEFAULT_SIZE = 8;
+    private static float sEpsilon = 0.001f;
+
+    // ids of the variables, in increasing order
+    int[] mIds = new int[DEFAULT_SIZE];
+    // values of the variables, at the same index as their id
+    float[] mValues = new float[DEFAULT_SIZE];
+    int mCount = 0;
+
+    private final ArrayRow mRow; // our owner
+    // pointer to the system-wide cache, allowing access to SolverVariables
+    protected final Cache mCache;
+
+    PackedVariables(ArrayRow row, Cache cache) {
+        mRow = row;
+        mCache = cache;
+    }
+
+    @Override
+    public int getCurrentSize() {
+        return mCount;
+    }
+
+    @Override
+    public SolverVariable getVariable(int index) {
+        if (index < 0 || index >= mCount) {
+            return null;
+        }
+        return mCache.mIndexedVariables[mIds[index]];
+    }
+
+    @Override
+    public float getVariableValue(int index) {
+        if (index < 0 || index >= mCount) {
+            return 0;
+        }
+        return mValues[index];
+    }
+
+    @Override
+    public boolean contains(SolverVariable variable) {
+        return indexOf(variable) != NONE;
+    }
+
+    @Override
+    public int indexOf(SolverVariable variable) {
+        if (mCount == 0 || variable == null) {
+            return NONE;
+        }
+        int index = Arrays.binarySearch(mIds, 0, mCount, variable.id);
+        return index >= 0 ? index : NONE;
+    }
+
+    @Override
+    public float get(SolverVariable variable) {
+        final int index = indexOf(variable);
+        if (index != NONE) {
+            return mValues[index];
+        }
+        return 0;
+    }
+
+    @Override
+    public void display() {
+        System.out.println(this);
+    }
+
+    @Override
+    public String toString() {
+        String str = hashCode() + " { ";
+        for (int i = 0; i < mCount; i++) {
+            SolverVariable v = getVariable(i);
+            if (v == null) {
+                continue;
+            }
+            str += v + " = " + mValues[i] + " ";
+        }
+        str += " }";
+        return str;
+    }
+
+    @Override
+    public void clear() {
+        if (DEBUG) {
+            System.out.println(this + " <clear>");
+        }
+        for (int i = 0; i < mCount; i++) {
+            SolverVariable v = getVariable(i);
+            if (v != null) {
+                v.removeFromRow(mRow);
+            }
+        }
+        mCount = 0;
+    }
+
+    @Override
+    public void put(SolverVariable variable, float value) {
+        if (DEBUG) {
+            System.out.println(this + " <put> " + variable.id + " = " + value);
+        }
+        if (value > -sEpsilon && value < sEpsilon) {
+            remove(variable, true);
+            return;
+        }
+        int index = Arrays.binarySearch(mIds, 0, mCount, variable.id);
+        if (index >= 0) {
+            mValues[index] = value;
+        } else {
+            insertVariable(-(index + 1), variable, value);
+        }
+    }
+
+    @Override
+    public int sizeInBytes() {
+        return (mIds.length * 4) + (mValues.length * 4) + 4;
+    }
+
+    @Override
+    public float remove(SolverVariable v, boolean removeFromDefinition) {
+        if (DEBUG) {
+            System.out.println(this + " <remove> " + v.id);
+        }
+        int index = indexOf(v);
+        if (index == NONE) {
+            return 0;
+        }
+        float value = mValues[index];
+        removeVariable(index, v, removeFromDefinition);
+        return value;
+    }
+
+    @Override
+    public void add(SolverVariable v, float value, boolean removeFromDefinition) {
+        if (DEBUG) {
+            System.out.println(this + " <add> " + v.id + " = " + value);
+        }
+        if (value > -sEpsilon && value < sEpsilon) {
+            return;
+        }
+        int index = Arrays.binarySearch(mIds, 0, mCount, v.id);
+        if (index < 0) {
+            insertVariable(-(index + 1), v, value);
+        } else {
+            mValues[index] += value;
+            if (mValues[index] > -sEpsilon && mValues[index] < sEpsilon) {
+                removeVariable(index, v, removeFromDefinition);
+            }
+        }
+    }
+
+    @Override
+    public float use(ArrayRow definition, boolean removeFromDefinition) {
+        float value = get(definition.mVariable);
+        remove(definition.mVariable, removeFromDefinition);
+        if (definition.variables instanceof PackedVariables) {
+            PackedVariables localDef = (PackedVariables) definition.variables;
+            final int definitionSize = localDef.mCount;
+            for (int i = 0; i < definitionSize; i++) {
+                SolverVariable definitionVariable = mCache.mIndexedVariables[localDef.mIds[i]];
+                add(definitionVariable, localDef.mValues[i] * value, removeFromDefinition);
+            }
+        } else {
+            ArrayRow.ArrayRowVariables definitionVariables = definition.variables;
+            final int definitionSize = definitionVariables.getCurrentSize();
+            for (int i = 0; i < definitionSize; i++) {
+                SolverVariable definitionVariable = definitionVariables.getVariable(i);
+                float definitionValue = definitionVariables.getVariableValue(i);
+                add(definitionVariable, definitionValue * value, removeFromDefinition);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void invert() {
+        for (int i = 0; i < mCount; i++) {
+            mValues[i] *= -1;
+        }
+    }
+
+    @Override
+    public void divideByAmount(float amount) {
+        for (int i = 0; i < mCount; i++) {
+            mValues[i] /= amount;
+        }
+    }
+
+    private void insertVariable(int index, SolverVariable variable, float value) {
+        if (mCount == mIds.length) {
+            int size = mIds.length * 2;
+            mIds = Arrays.copyOf(mIds, size);
+            mValues = Arrays.copyOf(mValues, size);
+        }
+        if (index < mCount) {
+            System.arraycopy(mIds, index, mIds, index + 1, mCount - index);
+            System.arraycopy(mValues, index, mValues, index + 1, mCount - index);
+        }
+        mIds[index] = variable.id;
+        mValues[index] = value;
+        mCount++;
+        variable.addToRow(mRow);
+        variable.usageInRowCount++;
+    }
+
+    private void removeVariable(int index, SolverVariable variable,
+            boolean removeFromDefinition) {
+        final int tail = mCount - index - 1;
+        if (tail > 0) {
+            System.arraycopy(mIds, index + 1, mIds, index, tail);
+            System.arraycopy(mValues, index + 1, mValues, index, tail);
+        }
+        mCount--;
+        variable.usageInRowCount--;
+        if (removeFromDefinition) {
+            variable.removeFromRow(mRow);
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package androidx.constraintlayout.core;
 
+import java.util.Arrays;
+
 /**
  * Helper class for crating pools of objects. An example use looks like this:
  * <pre>
@@ -155,4 +157,62 @@ final class Pools {
         }
     }
 
+    /**
+     * Simple (non-synchronized) pool of objects, growing to hold every released instance.
+     *
+     * @param <T> The pooled type.
+     */
+    static class GrowingPool<T> implements Pool<T> {
+        private Object[] mPool;
+
+        private int mPoolSize;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param initialPoolSize The initial size of the pool.
+         * @throws IllegalArgumentException If the initial pool size is less than zero.
+         */
+        GrowingPool(int initialPoolSize) {
+            if (initialPoolSize <= 0) {
+                throw new IllegalArgumentException("The initial pool size must be > 0");
+            }
+            mPool = new Object[initialPoolSize];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T acquire() {
+            if (mPoolSize > 0) {
+                final int lastPooledIndex = mPoolSize - 1;
+                T instance = (T) mPool[lastPooledIndex];
+                mPool[lastPooledIndex] = null;
+                mPoolSize--;
+                return instance;
+            }
+            return null;
+        }
+
+        @Override
+        public boolean release(T instance) {
+            if (mPoolSize == mPool.length) {
+                mPool = Arrays.copyOf(mPool, mPool.length * 2);
+            }
+            mPool[mPoolSize] = instance;
+            mPoolSize++;
+            return true;
+        }
+
+        @Override
+        public void releaseAll(T[] variables, int count) {
+            if (count > variables.length) {
+                count = variables.length;
+            }
+            if (mPoolSize + count > mPool.length) {
+                mPool = Arrays.copyOf(mPool, Math.max(mPool.length * 2, mPoolSize + count));
+            }
+            System.arraycopy(variables, 0, mPool, mPoolSize, count);
+            mPoolSize += count;
+        }
+    }
 }
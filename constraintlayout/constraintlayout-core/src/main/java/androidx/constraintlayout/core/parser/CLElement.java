@@ -99,8 +99,7 @@ public class CLElement implements Cloneable {
         if (mStart > mEnd || mEnd == Long.MAX_VALUE) {
             return this.getClass() + " (INVALID, " + mStart + "-" + mEnd + ")";
         }
-        String content = new String(mContent);
-        content = content.substring((int) mStart, (int) mEnd + 1);
+        String content = new String(mContent, (int) mStart, (int) (mEnd - mStart + 1));
 
         return getStrClass() + " (" + mStart + " : " + mEnd + ") <<" + content + ">>";
     }
@@ -119,15 +118,15 @@ public class CLElement implements Cloneable {
 
     // @TODO: add description
     public String content() {
-        String content = new String(mContent);
+        // Only copy the characters of this element, not the whole document
         // Handle empty string
-        if (content.length() < 1) {
+        if (mContent.length < 1) {
             return "";
         }
         if (mEnd == Long.MAX_VALUE || mEnd < mStart) {
-            return content.substring((int) mStart, (int) mStart + 1);
+            return new String(mContent, (int) mStart, 1);
         }
-        return content.substring((int) mStart, (int) mEnd + 1);
+        return new String(mContent, (int) mStart, (int) (mEnd - mStart + 1));
     }
 
     /**
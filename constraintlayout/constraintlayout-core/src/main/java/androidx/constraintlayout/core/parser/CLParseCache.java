@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core.parser;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, least-recently-used cache of parsed json content.
+ * <p>
+ * Entries are keyed by the content string (its hash is computed once by {@link String}, and
+ * equality makes hash collisions harmless). The same {@link CLObject} is returned for the
+ * same content, so it is shared by all callers and must not be modified: use
+ * {@link CLObject#clone()} to get a copy that can be.
+ */
+public class CLParseCache {
+
+    public static final int DEFAULT_MAX_SIZE = 32;
+
+    private final LinkedHashMap<String, CLObject> mCache;
+    private int mMaxSize;
+    private int mHits;
+    private int mMisses;
+
+    public CLParseCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public CLParseCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        mMaxSize = maxSize;
+        mCache = new LinkedHashMap<String, CLObject>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CLObject> eldest) {
+                return size() > mMaxSize;
+            }
+        };
+    }
+
+    /**
+     * Return the parsed content, parsing it only if it isn't in the cache already.
+     *
+     * @param content the json content
+     * @return the (shared) parsed root object
+     * @throws CLParsingException if the content can't be parsed. Failures are not cached.
+     */
+    public CLObject parse(String content) throws CLParsingException {
+        synchronized (mCache) {
+            CLObject cached = mCache.get(content);
+            if (cached != null) {
+                mHits++;
+                return cached;
+            }
+            mMisses++;
+        }
+        // parse outside of the lock, two threads may race to parse the same content
+        // but they get an equivalent tree
+        CLObject parsed = CLParser.parse(content);
+        synchronized (mCache) {
+            CLObject cached = mCache.get(content);
+            if (cached != null) {
+                return cached;
+            }
+            mCache.put(content, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Change the maximum number of parsed contents kept, evicting the least recently used ones
+     * if needed.
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        synchronized (mCache) {
+            mMaxSize = maxSize;
+            Iterator<String> iterator = mCache.keySet().iterator();
+            while (mCache.size() > mMaxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove all the parsed contents
+     */
+    public void clear() {
+        synchronized (mCache) {
+            mCache.clear();
+        }
+    }
+
+    /**
+     * Number of parsed contents currently cached
+     */
+    public int size() {
+        synchronized (mCache) {
+            return mCache.size();
+        }
+    }
+
+    /**
+     * Number of calls to {@link #parse(String)} that didn't need to parse
+     */
+    public int hitCount() {
+        synchronized (mCache) {
+            return mHits;
+        }
+    }
+
+    /**
+     * Number of calls to {@link #parse(String)} that needed to parse
+     */
+    public int missCount() {
+        synchronized (mCache) {
+            return mMisses;
+        }
+    }
+}
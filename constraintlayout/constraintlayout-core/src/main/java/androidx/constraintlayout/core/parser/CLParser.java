@@ -30,6 +30,23 @@ public class CLParser {
         return new CLParser(string).parse();
     }
 
+    private static final CLParseCache sCache = new CLParseCache();
+
+    /**
+     * Parse the given content, or return the tree parsed for the same content previously.
+     * The returned object is shared and must not be modified.
+     */
+    public static CLObject parseCached(String string) throws CLParsingException {
+        return sCache.parse(string);
+    }
+
+    /**
+     * The cache used by {@link #parseCached(String)}
+     */
+    public static CLParseCache getCache() {
+        return sCache;
+    }
+
     public CLParser(String content) {
         mContent = content;
     }
@@ -217,6 +217,7 @@ public class ConstraintWidgetContainer extends WidgetContainer {
     public void setOptimizationLevel(int value) {
         mOptimizationLevel = value;
         mSystem.USE_DEPENDENCY_ORDERING = optimizeFor(Optimizer.OPTIMIZATION_DEPENDENCY_ORDERING);
+        mSystem.incrementalSolving = optimizeFor(Optimizer.OPTIMIZATION_INCREMENTAL_SOLVING);
     }
 
     /**
@@ -39,9 +39,13 @@ public class Optimizer {
     public static final int OPTIMIZATION_CACHE_MEASURES = 1 << 8;
     public static final int OPTIMIZATION_DEPENDENCY_ORDERING = 1 << 9;
     public static final int OPTIMIZATION_GROUPING = 1 << 10;
+    public static final int OPTIMIZATION_INCREMENTAL_SOLVING = 1 << 11;
+    public static final int OPTIMIZATION_PARALLEL_MEASURE = 1 << 12;
     public static final int OPTIMIZATION_STANDARD = OPTIMIZATION_DIRECT
             /* | OPTIMIZATION_GROUPING */
             /* | OPTIMIZATION_DEPENDENCY_ORDERING */
+            /* | OPTIMIZATION_INCREMENTAL_SOLVING */
+            /* | OPTIMIZATION_PARALLEL_MEASURE */
             | OPTIMIZATION_CACHE_MEASURES
             /* | OPTIMIZATION_GRAPH */
             /* | OPTIMIZATION_GRAPH_WRAP */
@@ -33,6 +33,8 @@ import androidx.constraintlayout.core.widgets.Optimizer;
 import androidx.constraintlayout.core.widgets.VirtualLayout;
 
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Implements basic measure for linear resolution
@@ -53,6 +55,11 @@ public class BasicMeasure {
     private final ArrayList<ConstraintWidget> mVariableDimensionsWidgets = new ArrayList<>();
     private Measure mMeasure = new Measure();
 
+    // widgets measured concurrently when OPTIMIZATION_PARALLEL_MEASURE is set, and the
+    // Measure instance used for each of them (at the same index)
+    private final ArrayList<ConstraintWidget> mParallelWidgets = new ArrayList<>();
+    private final ArrayList<Measure> mParallelMeasures = new ArrayList<>();
+
     // @TODO: add description
     public void updateHierarchy(ConstraintWidgetContainer layout) {
         mVariableDimensionsWidgets.clear();
@@ -79,6 +86,8 @@ public class BasicMeasure {
         final int childCount = layout.mChildren.size();
         boolean optimize = layout.optimizeFor(Optimizer.OPTIMIZATION_GRAPH);
         Measurer measurer = layout.getMeasurer();
+        boolean parallel = measureInParallel(layout, measurer);
+        mParallelWidgets.clear();
         for (int i = 0; i < childCount; i++) {
             ConstraintWidget child = layout.mChildren.get(i);
             if (child instanceof Guideline) {
@@ -137,11 +146,18 @@ public class BasicMeasure {
                 continue;
             }
 
-            measure(measurer, child, Measure.SELF_DIMENSIONS);
+            if (parallel) {
+                mParallelWidgets.add(child);
+            } else {
+                measure(measurer, child, Measure.SELF_DIMENSIONS);
+            }
             if (layout.mMetrics != null) {
                 layout.mMetrics.measuredWidgets++;
             }
         }
+        if (parallel) {
+            measureAll(measurer, Measure.SELF_DIMENSIONS);
+        }
         measurer.didMeasures();
     }
 
@@ -352,34 +368,48 @@ public class BasicMeasure {
                 }
                 ////////////////////////////////////////////////////////////////////////////////////
 
+                boolean parallel = measureInParallel(layout, measurer);
                 int maxIterations = 2;
                 for (int j = 0; j < maxIterations; j++) {
+                    int measureStrategy = Measure.TRY_GIVEN_DIMENSIONS;
+                    if (j == maxIterations - 1) {
+                        measureStrategy = Measure.USE_GIVEN_DIMENSIONS;
+                    }
+                    if (parallel) {
+                        // the widgets only depend on the dimensions given by the previous
+                        // solver pass, not on each other: measure them all first.
+                        mParallelWidgets.clear();
+                        for (int i = 0; i < sizeDependentWidgetsCount; i++) {
+                            ConstraintWidget widget = mVariableDimensionsWidgets.get(i);
+                            if (!skipSizeDependentMeasure(widget, optimize)) {
+                                mParallelWidgets.add(widget);
+                            }
+                        }
+                        measureAll(measurer, measureStrategy);
+                    }
+                    int measured = 0;
                     for (int i = 0; i < sizeDependentWidgetsCount; i++) {
                         ConstraintWidget widget = mVariableDimensionsWidgets.get(i);
-                        if ((widget instanceof Helper && !(widget instanceof VirtualLayout))
-                                || widget instanceof Guideline) {
-                            continue;
-                        }
-                        if (widget.getVisibility() == GONE) {
-                            continue;
-                        }
-                        if (optimize && widget.mHorizontalRun.mDimension.resolved
-                                && widget.mVerticalRun.mDimension.resolved) {
+                        if (skipSizeDependentMeasure(widget, optimize)) {
                             continue;
                         }
-                        if (widget instanceof VirtualLayout) {
-                            continue;
-                        }
-
-                        int preWidth = widget.getWidth();
-                        int preHeight = widget.getHeight();
-                        int preBaselineDistance = widget.getBaselineDistance();
 
-                        int measureStrategy = Measure.TRY_GIVEN_DIMENSIONS;
-                        if (j == maxIterations - 1) {
-                            measureStrategy = Measure.USE_GIVEN_DIMENSIONS;
+                        int preWidth;
+                        int preHeight;
+                        int preBaselineDistance;
+                        boolean hasMeasure;
+                        if (parallel) {
+                            Measure measure = mParallelMeasures.get(measured++);
+                            preWidth = measure.previousWidth;
+                            preHeight = measure.previousHeight;
+                            preBaselineDistance = measure.previousBaseline;
+                            hasMeasure = measure.measuredNeedsSolverPass;
+                        } else {
+                            preWidth = widget.getWidth();
+                            preHeight = widget.getHeight();
+                            preBaselineDistance = widget.getBaselineDistance();
+                            hasMeasure = measure(measurer, widget, measureStrategy);
                         }
-                        boolean hasMeasure = measure(measurer, widget, measureStrategy);
                         if (DO_NOT_USE && !widget.hasDependencies()) {
                             hasMeasure = false;
                         }
@@ -452,6 +482,97 @@ public class BasicMeasure {
         return layoutTime;
     }
 
+    private static boolean skipSizeDependentMeasure(ConstraintWidget widget, boolean optimize) {
+        if ((widget instanceof Helper && !(widget instanceof VirtualLayout))
+                || widget instanceof Guideline) {
+            return true;
+        }
+        if (widget.getVisibility() == GONE) {
+            return true;
+        }
+        if (optimize && widget.mHorizontalRun.mDimension.resolved
+                && widget.mVerticalRun.mDimension.resolved) {
+            return true;
+        }
+        return widget instanceof VirtualLayout;
+    }
+
+    /**
+     * Returns true if the children of the layout can be measured concurrently
+     */
+    private static boolean measureInParallel(ConstraintWidgetContainer layout,
+            Measurer measurer) {
+        return layout.optimizeFor(Optimizer.OPTIMIZATION_PARALLEL_MEASURE)
+                && measurer.isThreadSafe();
+    }
+
+    /**
+     * Measure all the widgets in mParallelWidgets on the fork-join pool. The results are
+     * left in mParallelMeasures, at the index of the widget.
+     *
+     * @param measurer        the (thread-safe) measurer callback
+     * @param measureStrategy how to use the current ConstraintWidget dimensions during the measure
+     */
+    private void measureAll(Measurer measurer, int measureStrategy) {
+        final int count = mParallelWidgets.size();
+        while (mParallelMeasures.size() < count) {
+            mParallelMeasures.add(new Measure());
+        }
+        if (count == 0) {
+            return;
+        }
+        MeasureTask task = new MeasureTask(measurer, mParallelWidgets, mParallelMeasures,
+                measureStrategy, 0, count);
+        if (count == 1) {
+            task.compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+    }
+
+    /**
+     * Measure a range of widgets, splitting it in halves until each task measures a single
+     * widget. Widgets of the range are distinct, so each task only writes to its own widget.
+     */
+    static class MeasureTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Measurer mMeasurer;
+        private final ArrayList<ConstraintWidget> mWidgets;
+        private final ArrayList<Measure> mMeasures;
+        private final int mMeasureStrategy;
+        private final int mStart;
+        private final int mEnd;
+
+        MeasureTask(Measurer measurer, ArrayList<ConstraintWidget> widgets,
+                ArrayList<Measure> measures, int measureStrategy, int start, int end) {
+            mMeasurer = measurer;
+            mWidgets = widgets;
+            mMeasures = measures;
+            mMeasureStrategy = measureStrategy;
+            mStart = start;
+            mEnd = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (mEnd - mStart == 1) {
+                ConstraintWidget widget = mWidgets.get(mStart);
+                Measure measure = mMeasures.get(mStart);
+                measure.previousWidth = widget.getWidth();
+                measure.previousHeight = widget.getHeight();
+                measure.previousBaseline = widget.getBaselineDistance();
+                measure(mMeasurer, widget, mMeasureStrategy, measure);
+                return;
+            }
+            int middle = (mStart + mEnd) >>> 1;
+            invokeAll(new MeasureTask(mMeasurer, mWidgets, mMeasures, mMeasureStrategy,
+                            mStart, middle),
+                    new MeasureTask(mMeasurer, mWidgets, mMeasures, mMeasureStrategy,
+                            middle, mEnd));
+        }
+    }
+
     /**
      * Convenience function to fill in the measure spec
      *
@@ -461,16 +582,21 @@ public class BasicMeasure {
      * @return true if needs another solver pass
      */
     private boolean measure(Measurer measurer, ConstraintWidget widget, int measureStrategy) {
-        mMeasure.horizontalBehavior = widget.getHorizontalDimensionBehaviour();
-        mMeasure.verticalBehavior = widget.getVerticalDimensionBehaviour();
-        mMeasure.horizontalDimension = widget.getWidth();
-        mMeasure.verticalDimension = widget.getHeight();
-        mMeasure.measuredNeedsSolverPass = false;
-        mMeasure.measureStrategy = measureStrategy;
-
-        boolean horizontalMatchConstraints = (mMeasure.horizontalBehavior
+        return measure(measurer, widget, measureStrategy, mMeasure);
+    }
+
+    private static boolean measure(Measurer measurer, ConstraintWidget widget,
+            int measureStrategy, Measure measure) {
+        measure.horizontalBehavior = widget.getHorizontalDimensionBehaviour();
+        measure.verticalBehavior = widget.getVerticalDimensionBehaviour();
+        measure.horizontalDimension = widget.getWidth();
+        measure.verticalDimension = widget.getHeight();
+        measure.measuredNeedsSolverPass = false;
+        measure.measureStrategy = measureStrategy;
+
+        boolean horizontalMatchConstraints = (measure.horizontalBehavior
                 == ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
-        boolean verticalMatchConstraints = (mMeasure.verticalBehavior
+        boolean verticalMatchConstraints = (measure.verticalBehavior
                 == ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
         boolean horizontalUseRatio = horizontalMatchConstraints && widget.mDimensionRatio > 0;
         boolean verticalUseRatio = verticalMatchConstraints && widget.mDimensionRatio > 0;
@@ -478,23 +604,23 @@ public class BasicMeasure {
         if (horizontalUseRatio) {
             if (widget.mResolvedMatchConstraintDefault[HORIZONTAL]
                     == ConstraintWidget.MATCH_CONSTRAINT_RATIO_RESOLVED) {
-                mMeasure.horizontalBehavior = ConstraintWidget.DimensionBehaviour.FIXED;
+                measure.horizontalBehavior = ConstraintWidget.DimensionBehaviour.FIXED;
             }
         }
         if (verticalUseRatio) {
             if (widget.mResolvedMatchConstraintDefault[VERTICAL]
                     == ConstraintWidget.MATCH_CONSTRAINT_RATIO_RESOLVED) {
-                mMeasure.verticalBehavior = ConstraintWidget.DimensionBehaviour.FIXED;
+                measure.verticalBehavior = ConstraintWidget.DimensionBehaviour.FIXED;
             }
         }
 
-        measurer.measure(widget, mMeasure);
-        widget.setWidth(mMeasure.measuredWidth);
-        widget.setHeight(mMeasure.measuredHeight);
-        widget.setHasBaseline(mMeasure.measuredHasBaseline);
-        widget.setBaselineDistance(mMeasure.measuredBaseline);
-        mMeasure.measureStrategy = Measure.SELF_DIMENSIONS;
-        return mMeasure.measuredNeedsSolverPass;
+        measurer.measure(widget, measure);
+        widget.setWidth(measure.measuredWidth);
+        widget.setHeight(measure.measuredHeight);
+        widget.setHasBaseline(measure.measuredHasBaseline);
+        widget.setBaselineDistance(measure.measuredBaseline);
+        measure.measureStrategy = Measure.SELF_DIMENSIONS;
+        return measure.measuredNeedsSolverPass;
     }
 
     public interface Measurer {
@@ -503,6 +629,16 @@ public class BasicMeasure {
 
         // @TODO: add description
         void didMeasures();
+
+        /**
+         * Return true if {@link #measure} can be called concurrently for different widgets.
+         * With {@link Optimizer#OPTIMIZATION_PARALLEL_MEASURE}, the children of a layout are
+         * then measured on the common fork-join pool; {@link #didMeasures()} is still called
+         * once, on the calling thread.
+         */
+        default boolean isThreadSafe() {
+            return false;
+        }
     }
 
     public static class Measure {
@@ -519,5 +655,9 @@ public class BasicMeasure {
         public boolean measuredHasBaseline;
         public boolean measuredNeedsSolverPass;
         public int measureStrategy;
+        // dimensions of the widget before a concurrent measure
+        int previousWidth;
+        int previousHeight;
+        int previousBaseline;
     }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.constraintlayout.core.widgets.ConstraintAnchor;
+import androidx.constraintlayout.core.widgets.ConstraintWidget;
+import androidx.constraintlayout.core.widgets.ConstraintWidgetContainer;
+import androidx.constraintlayout.core.widgets.Optimizer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class IncrementalSolvingTest {
+
+    private static final int ROWS = 20;
+    private static final String[] VARIABLES = {"Rl", "Rr", "Al", "Ar", "Bl", "Br"};
+
+    private ConstraintWidgetContainer createLayout(ArrayList<ConstraintWidget> widgets) {
+        ConstraintWidgetContainer root = new ConstraintWidgetContainer(0, 0, 800, 2000);
+        root.setDebugName("root");
+        ConstraintWidget previous = root;
+        for (int i = 0; i < ROWS; i++) {
+            ConstraintWidget a = new ConstraintWidget(100 + i, 20);
+            ConstraintWidget b = new ConstraintWidget(200, 20);
+            ConstraintWidget c = new ConstraintWidget(50, 20);
+            a.setDebugName("A" + i);
+            b.setDebugName("B" + i);
+            c.setDebugName("C" + i);
+            root.add(a);
+            root.add(b);
+            root.add(c);
+            a.connect(ConstraintAnchor.Type.LEFT, root, ConstraintAnchor.Type.LEFT, 8);
+            a.connect(ConstraintAnchor.Type.RIGHT, b, ConstraintAnchor.Type.LEFT);
+            b.connect(ConstraintAnchor.Type.LEFT, a, ConstraintAnchor.Type.RIGHT);
+            b.connect(ConstraintAnchor.Type.RIGHT, c, ConstraintAnchor.Type.LEFT);
+            c.connect(ConstraintAnchor.Type.LEFT, b, ConstraintAnchor.Type.RIGHT);
+            c.connect(ConstraintAnchor.Type.RIGHT, root, ConstraintAnchor.Type.RIGHT, 8);
+            b.setHorizontalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
+            a.setHorizontalBiasPercent(0.3f);
+            ConstraintAnchor.Type top = previous == root
+                    ? ConstraintAnchor.Type.TOP : ConstraintAnchor.Type.BOTTOM;
+            a.connect(ConstraintAnchor.Type.TOP, previous, top, 4);
+            b.connect(ConstraintAnchor.Type.TOP, a, ConstraintAnchor.Type.TOP);
+            b.connect(ConstraintAnchor.Type.BOTTOM, a, ConstraintAnchor.Type.BOTTOM);
+            c.connect(ConstraintAnchor.Type.TOP, a, ConstraintAnchor.Type.TOP);
+            c.connect(ConstraintAnchor.Type.BOTTOM, a, ConstraintAnchor.Type.BOTTOM);
+            widgets.add(a);
+            widgets.add(b);
+            widgets.add(c);
+            previous = a;
+        }
+        return root;
+    }
+
+    private static void add(LinearSystem system, LinearEquation equation) {
+        system.addConstraint(LinearEquation.createRowFromEquation(system, equation));
+    }
+
+    private static void add(LinearSystem system, LinearEquation equation, int strength) {
+        ArrayRow row = LinearEquation.createRowFromEquation(system, equation);
+        row.addError(system, strength);
+        system.addConstraint(row);
+    }
+
+    private static void addMinMaxConstraints(LinearSystem system, int width) {
+        LinearEquation.resetNaming();
+        add(system, new LinearEquation(system).var("Rl").equalsTo().var(0));
+        add(system, new LinearEquation(system).var("Br").equalsTo().var("Bl").plus(width));
+        add(system, new LinearEquation(system).var("Al").equalsTo().var("Rl"), 1);
+        add(system, new LinearEquation(system).var("Ar").equalsTo().var("Rr"), 1);
+        add(system, new LinearEquation(system).var("Ar").greaterThan().var("Al").plus(150), 2);
+        add(system, new LinearEquation(system).var("Ar").lowerThan().var("Al").plus(200), 2);
+        add(system, new LinearEquation(system).var("Rr").greaterThan().var("Ar"));
+        add(system, new LinearEquation(system).var("Rr").greaterThan().var("Br"));
+        add(system, new LinearEquation(system).var("Al").minus("Rl")
+                .equalsTo().var("Rr").minus("Ar"));
+        add(system, new LinearEquation(system).var("Bl").minus("Rl")
+                .equalsTo().var("Rr").minus("Br"));
+    }
+
+    private long layout(ConstraintWidgetContainer root) {
+        Metrics metrics = new Metrics();
+        root.fillMetrics(metrics);
+        root.layout();
+        root.fillMetrics(null);
+        return metrics.pivots;
+    }
+
+    @Test
+    public void testIncrementalSolvingMatchesFullSolving() {
+        ArrayList<ConstraintWidget> fullWidgets = new ArrayList<>();
+        ConstraintWidgetContainer full = createLayout(fullWidgets);
+        full.setOptimizationLevel(Optimizer.OPTIMIZATION_NONE);
+
+        ArrayList<ConstraintWidget> incrementalWidgets = new ArrayList<>();
+        ConstraintWidgetContainer incremental = createLayout(incrementalWidgets);
+        incremental.setOptimizationLevel(Optimizer.OPTIMIZATION_INCREMENTAL_SOLVING);
+
+        layout(full);
+        layout(incremental);
+
+        for (int pass = 0; pass < 5; pass++) {
+            // change a single widget between passes, like a list row re-measure would
+            ConstraintWidget fullChanged = fullWidgets.get(pass * 3);
+            ConstraintWidget incrementalChanged = incrementalWidgets.get(pass * 3);
+            fullChanged.setWidth(fullChanged.getWidth() + 17);
+            incrementalChanged.setWidth(incrementalChanged.getWidth() + 17);
+
+            long fullPivots = layout(full);
+            long incrementalPivots = layout(incremental);
+            assertTrue(incrementalPivots <= fullPivots);
+
+            for (int i = 0; i < fullWidgets.size(); i++) {
+                ConstraintWidget expected = fullWidgets.get(i);
+                ConstraintWidget actual = incrementalWidgets.get(i);
+                assertEquals(expected.getDebugName(), expected.getX(), actual.getX());
+                assertEquals(expected.getDebugName(), expected.getY(), actual.getY());
+                assertEquals(expected.getDebugName(), expected.getWidth(), actual.getWidth());
+                assertEquals(expected.getDebugName(), expected.getHeight(), actual.getHeight());
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalSystemMatchesFullSystem() throws Exception {
+        LinearSystem incremental = new LinearSystem();
+        incremental.incrementalSolving = true;
+        addMinMaxConstraints(incremental, 300);
+        incremental.minimize();
+
+        for (int width : new int[]{320, 180, 260, 400}) {
+            // same structure, different constants: the previous basis is reused
+            incremental.reset();
+            addMinMaxConstraints(incremental, width);
+            incremental.minimize();
+
+            LinearSystem full = new LinearSystem();
+            addMinMaxConstraints(full, width);
+            full.minimize();
+
+            for (String name : VARIABLES) {
+                assertEquals(name + " for width " + width,
+                        full.getValueFor(name), incremental.getValueFor(name), 0f);
+            }
+        }
+    }
+}
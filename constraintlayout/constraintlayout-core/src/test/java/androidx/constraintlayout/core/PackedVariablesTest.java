@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.constraintlayout.core.widgets.ConstraintAnchor;
+import androidx.constraintlayout.core.widgets.ConstraintWidget;
+import androidx.constraintlayout.core.widgets.ConstraintWidgetContainer;
+import androidx.constraintlayout.core.widgets.Optimizer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+public class PackedVariablesTest {
+
+    private SolverVariable[] createVariables(Cache cache, int count) {
+        SolverVariable[] variables = new SolverVariable[count];
+        for (int i = 0; i < count; i++) {
+            variables[i] = new SolverVariable("v" + i, SolverVariable.Type.SLACK);
+            variables[i].id = i;
+            cache.mIndexedVariables[i] = variables[i];
+        }
+        return variables;
+    }
+
+    @Test
+    public void testSortedOperations() {
+        Cache cache = new Cache();
+        SolverVariable[] v = createVariables(cache, 13);
+        PackedVariables values = new PackedVariables(new ArrayRow(), cache);
+        values.put(v[5], 1f);
+        values.put(v[1], -1f);
+        values.put(v[3], -1f);
+        values.put(v[7], 1f);
+        values.put(v[11], 1f);
+        values.put(v[12], -1f);
+        assertEquals(6, values.getCurrentSize());
+        int previous = -1;
+        for (int i = 0; i < values.getCurrentSize(); i++) {
+            assertTrue(values.getVariable(i).id > previous);
+            previous = values.getVariable(i).id;
+        }
+        assertEquals(-1f, values.remove(v[1], true), 0f);
+        assertEquals(-1f, values.remove(v[3], true), 0f);
+        assertEquals(0f, values.remove(v[2], true), 0f);
+        values.add(v[5], 1f, true);
+        values.add(v[7], -1f, true);
+        assertEquals(3, values.getCurrentSize());
+        assertEquals(v[5], values.getVariable(0));
+        assertEquals(2f, values.getVariableValue(0), 0f);
+        assertFalse(values.contains(v[7]));
+        assertNull(values.getVariable(3));
+
+        values.invert();
+        assertEquals(-2f, values.get(v[5]), 0f);
+        values.divideByAmount(-2f);
+        assertEquals(1f, values.get(v[5]), 0f);
+        assertEquals(-0.5f, values.get(v[12]), 0f);
+    }
+
+    @Test
+    public void testUse() {
+        Cache cache = new Cache();
+        SolverVariable[] v = createVariables(cache, 4);
+        ArrayRow definition = new LinearSystem.PackedRow(cache);
+        definition.mVariable = v[0];
+        definition.variables.put(v[1], 2f);
+        definition.variables.put(v[2], -1f);
+
+        PackedVariables values = new PackedVariables(new ArrayRow(), cache);
+        values.put(v[0], 3f);
+        values.put(v[2], 3f);
+        values.put(v[3], 1f);
+        assertEquals(3f, values.use(definition, true), 0f);
+        // v0 is replaced by its definition: 3 * (2 v1 - v2), v2 cancels out
+        assertEquals(2, values.getCurrentSize());
+        assertEquals(6f, values.get(v[1]), 0f);
+        assertFalse(values.contains(v[2]));
+        assertEquals(1f, values.get(v[3]), 0f);
+    }
+
+    @Test
+    public void testMatchesSolverVariableValues() {
+        Cache cache = new Cache();
+        SolverVariable[] v = createVariables(cache, 30);
+        PackedVariables packed = new PackedVariables(new ArrayRow(), cache);
+        SolverVariableValues reference = new SolverVariableValues(new ArrayRow(), cache);
+        Random random = new Random(1234);
+        for (int i = 0; i < 5000; i++) {
+            SolverVariable variable = v[random.nextInt(v.length)];
+            float value = random.nextInt(9) - 4;
+            switch (random.nextInt(3)) {
+                case 0:
+                    packed.put(variable, value);
+                    reference.put(variable, value);
+                    break;
+                case 1:
+                    packed.add(variable, value, true);
+                    reference.add(variable, value, true);
+                    break;
+                default:
+                    assertEquals(reference.remove(variable, true),
+                            packed.remove(variable, true), 0f);
+                    break;
+            }
+            assertEquals(reference.getCurrentSize(), packed.getCurrentSize());
+            for (SolverVariable check : v) {
+                assertEquals(reference.get(check), packed.get(check), 0f);
+            }
+        }
+        for (int i = 0; i < packed.getCurrentSize(); i++) {
+            assertEquals(reference.getVariable(i), packed.getVariable(i));
+            assertEquals(reference.getVariableValue(i), packed.getVariableValue(i), 0f);
+        }
+    }
+
+    private ConstraintWidgetContainer createLayout(ArrayList<ConstraintWidget> widgets) {
+        ConstraintWidgetContainer root = new ConstraintWidgetContainer(0, 0, 600, 1000);
+        ConstraintWidget previous = root;
+        for (int i = 0; i < 10; i++) {
+            ConstraintWidget a = new ConstraintWidget(100, 20);
+            ConstraintWidget b = new ConstraintWidget(100, 20);
+            root.add(a);
+            root.add(b);
+            a.connect(ConstraintAnchor.Type.LEFT, root, ConstraintAnchor.Type.LEFT);
+            a.connect(ConstraintAnchor.Type.RIGHT, b, ConstraintAnchor.Type.LEFT);
+            b.connect(ConstraintAnchor.Type.LEFT, a, ConstraintAnchor.Type.RIGHT);
+            b.connect(ConstraintAnchor.Type.RIGHT, root, ConstraintAnchor.Type.RIGHT);
+            b.setHorizontalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
+            a.setHorizontalBiasPercent(0.2f);
+            a.connect(ConstraintAnchor.Type.TOP, previous, previous == root
+                    ? ConstraintAnchor.Type.TOP : ConstraintAnchor.Type.BOTTOM, 8);
+            b.connect(ConstraintAnchor.Type.TOP, a, ConstraintAnchor.Type.TOP);
+            b.connect(ConstraintAnchor.Type.BOTTOM, a, ConstraintAnchor.Type.BOTTOM);
+            widgets.add(a);
+            widgets.add(b);
+            previous = a;
+        }
+        root.setOptimizationLevel(Optimizer.OPTIMIZATION_NONE);
+        return root;
+    }
+
+    @Test
+    public void testPackedEngine() {
+        ArrayList<ConstraintWidget> expected = new ArrayList<>();
+        createLayout(expected).layout();
+
+        boolean previousEngine = LinearSystem.PACKED_ENGINE;
+        LinearSystem.PACKED_ENGINE = true;
+        try {
+            ArrayList<ConstraintWidget> actual = new ArrayList<>();
+            ConstraintWidgetContainer root = createLayout(actual);
+            root.layout();
+            long created = LinearSystem.PACKED_ARRAY_ROW_CREATION;
+            root.layout();
+            // rows are all recycled on the next pass
+            assertEquals(created, LinearSystem.PACKED_ARRAY_ROW_CREATION);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getLeft(), actual.get(i).getLeft());
+                assertEquals(expected.get(i).getTop(), actual.get(i).getTop());
+                assertEquals(expected.get(i).getWidth(), actual.get(i).getWidth());
+                assertEquals(expected.get(i).getHeight(), actual.get(i).getHeight());
+            }
+        } finally {
+            LinearSystem.PACKED_ENGINE = previousEngine;
+        }
+    }
+}
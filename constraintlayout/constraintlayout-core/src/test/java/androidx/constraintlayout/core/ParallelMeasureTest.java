@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.constraintlayout.core.widgets.ConstraintAnchor;
+import androidx.constraintlayout.core.widgets.ConstraintWidget;
+import androidx.constraintlayout.core.widgets.ConstraintWidgetContainer;
+import androidx.constraintlayout.core.widgets.Optimizer;
+import androidx.constraintlayout.core.widgets.analyzer.BasicMeasure;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelMeasureTest {
+
+    private static final int ROWS = 12;
+
+    static class TextMeasurer implements BasicMeasure.Measurer {
+        final boolean mThreadSafe;
+        final AtomicInteger mMeasures = new AtomicInteger();
+        int mDidMeasures = 0;
+
+        TextMeasurer(boolean threadSafe) {
+            mThreadSafe = threadSafe;
+        }
+
+        @Override
+        public void measure(ConstraintWidget widget, BasicMeasure.Measure measure) {
+            mMeasures.incrementAndGet();
+            int length = (Integer) widget.getCompanionWidget();
+            // wrap "text" to the given width, if any
+            int width = 10 * length;
+            if (measure.horizontalBehavior == ConstraintWidget.DimensionBehaviour.FIXED
+                    || (measure.horizontalBehavior
+                    == ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT
+                    && measure.measureStrategy != BasicMeasure.Measure.SELF_DIMENSIONS)) {
+                width = measure.horizontalDimension;
+            }
+            int lines = width > 0 ? (10 * length + width - 1) / width : 1;
+            measure.measuredWidth = width;
+            measure.measuredHeight = measure.verticalBehavior
+                    == ConstraintWidget.DimensionBehaviour.FIXED
+                    ? measure.verticalDimension : 20 * lines;
+            measure.measuredHasBaseline = true;
+            measure.measuredBaseline = 16;
+        }
+
+        @Override
+        public void didMeasures() {
+            mDidMeasures++;
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return mThreadSafe;
+        }
+    }
+
+    private ConstraintWidgetContainer createLayout(ArrayList<ConstraintWidget> widgets) {
+        ConstraintWidgetContainer root = new ConstraintWidgetContainer(0, 0, 600, 1000);
+        root.setDebugName("root");
+        ConstraintWidget previous = root;
+        for (int i = 0; i < ROWS; i++) {
+            ConstraintWidget label = new ConstraintWidget();
+            ConstraintWidget text = new ConstraintWidget();
+            label.setDebugName("label" + i);
+            text.setDebugName("text" + i);
+            label.setCompanionWidget(3 + i % 4);
+            text.setCompanionWidget(20 + 7 * i);
+            root.add(label);
+            root.add(text);
+            label.setHorizontalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+            label.setVerticalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+            text.setHorizontalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
+            text.setVerticalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+            label.connect(ConstraintAnchor.Type.LEFT, root, ConstraintAnchor.Type.LEFT, 8);
+            text.connect(ConstraintAnchor.Type.LEFT, label, ConstraintAnchor.Type.RIGHT, 8);
+            text.connect(ConstraintAnchor.Type.RIGHT, root, ConstraintAnchor.Type.RIGHT, 8);
+            label.connect(ConstraintAnchor.Type.TOP, previous, previous == root
+                    ? ConstraintAnchor.Type.TOP : ConstraintAnchor.Type.BOTTOM, 4);
+            text.connect(ConstraintAnchor.Type.TOP, label, ConstraintAnchor.Type.TOP);
+            widgets.add(label);
+            widgets.add(text);
+            previous = text;
+        }
+        return root;
+    }
+
+    private void measure(ConstraintWidgetContainer root, TextMeasurer measurer,
+            int optimizationLevel) {
+        root.setMeasurer(measurer);
+        root.setOptimizationLevel(optimizationLevel);
+        root.setHorizontalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.FIXED);
+        root.setVerticalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+        root.measure(optimizationLevel, BasicMeasure.EXACTLY, 600, BasicMeasure.UNSPECIFIED,
+                0, 0, 0, 0, 0);
+    }
+
+    @Test
+    public void testParallelMeasureMatchesSerialMeasure() {
+        int[] levels = new int[] {
+                Optimizer.OPTIMIZATION_NONE,
+                Optimizer.OPTIMIZATION_STANDARD,
+                Optimizer.OPTIMIZATION_GRAPH | Optimizer.OPTIMIZATION_DIRECT
+        };
+        for (int level : levels) {
+            ArrayList<ConstraintWidget> expected = new ArrayList<>();
+            TextMeasurer serialMeasurer = new TextMeasurer(false);
+            measure(createLayout(expected), serialMeasurer, level);
+
+            ArrayList<ConstraintWidget> actual = new ArrayList<>();
+            ConstraintWidgetContainer root = createLayout(actual);
+            TextMeasurer parallelMeasurer = new TextMeasurer(true);
+            measure(root, parallelMeasurer, level | Optimizer.OPTIMIZATION_PARALLEL_MEASURE);
+
+            assertEquals(serialMeasurer.mMeasures.get(), parallelMeasurer.mMeasures.get());
+            assertEquals(serialMeasurer.mDidMeasures, parallelMeasurer.mDidMeasures);
+            for (int i = 0; i < expected.size(); i++) {
+                ConstraintWidget a = expected.get(i);
+                ConstraintWidget b = actual.get(i);
+                assertEquals(a.getDebugName(), a.getX(), b.getX());
+                assertEquals(a.getDebugName(), a.getY(), b.getY());
+                assertEquals(a.getDebugName(), a.getWidth(), b.getWidth());
+                assertEquals(a.getDebugName(), a.getHeight(), b.getHeight());
+                assertEquals(a.getDebugName(), a.getBaselineDistance(),
+                        b.getBaselineDistance());
+            }
+        }
+    }
+
+    @Test
+    public void testParallelMeasureNeedsThreadSafeMeasurer() {
+        ArrayList<ConstraintWidget> widgets = new ArrayList<>();
+        ConstraintWidgetContainer root = createLayout(widgets);
+        final Thread thread = Thread.currentThread();
+        final AtomicInteger otherThreads = new AtomicInteger();
+        TextMeasurer measurer = new TextMeasurer(false) {
+            @Override
+            public void measure(ConstraintWidget widget, BasicMeasure.Measure measure) {
+                if (Thread.currentThread() != thread) {
+                    otherThreads.incrementAndGet();
+                }
+                super.measure(widget, measure);
+            }
+        };
+        measure(root, measurer, Optimizer.OPTIMIZATION_STANDARD
+                | Optimizer.OPTIMIZATION_PARALLEL_MEASURE);
+        assertEquals(0, otherThreads.get());
+    }
+}
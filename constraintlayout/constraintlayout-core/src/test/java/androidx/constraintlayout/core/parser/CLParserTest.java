@@ -17,6 +17,8 @@ package androidx.constraintlayout.core.parser;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -758,6 +760,55 @@ public class CLParserTest {
             e.printStackTrace();
         }
     }
-}
 
+    @Test
+    public void testParseCache() throws CLParsingException {
+        CLParseCache cache = new CLParseCache(2);
+        String a = "{ a: { start: ['parent', 'start', 20] } }";
+        String b = "{ b: { top: ['parent', 'top', 30] } }";
+        String c = "{ c: { width: 'wrap' } }";
+
+        CLObject parsedA = cache.parse(a);
+        assertEquals(a, parsedA.toJSON());
+        // same content, even from a different string instance, is only parsed once
+        assertSame(parsedA, cache.parse(new String(a.toCharArray())));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+
+        CLObject parsedB = cache.parse(b);
+        cache.parse(a);
+        // c evicts the least recently used entry, b
+        cache.parse(c);
+        assertEquals(2, cache.size());
+        assertSame(parsedA, cache.parse(a));
+        CLObject reparsedB = cache.parse(b);
+        assertNotSame(parsedB, reparsedB);
+        assertEquals(parsedB.toJSON(), reparsedB.toJSON());
+
+        cache.setMaxSize(1);
+        assertEquals(1, cache.size());
+        assertSame(reparsedB, cache.parse(b));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testParseCachedInvalidContent() {
+        CLParseCache cache = new CLParseCache();
+        try {
+            cache.parse("no json here");
+            assertTrue(false);
+        } catch (CLParsingException e) {
+            // expected
+        }
+        assertEquals(0, cache.size());
+    }
 
+    @Test
+    public void testElementContent() throws CLParsingException {
+        CLObject parsedContent = CLParser.parse("{ key: 'value', n: 42, list: ['a', 'b'] }");
+        assertEquals("value", parsedContent.get("key").content());
+        assertEquals("42", parsedContent.get("n").content());
+        assertEquals("b", parsedContent.getArray("list").get(1).content());
+    }
+}
@@ -17,6 +17,7 @@ package androidx.core.i18n;
 
 import android.content.Context;
 
+import androidx.core.i18n.messageformat_icu.simple.MessageFormatCache;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
 import androidx.test.platform.app.InstrumentationRegistry;
@@ -27,8 +28,10 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TimeZone;
 
 @RunWith(AndroidJUnit4.class)
 public class SimpleMessageFormatTest {
@@ -153,4 +156,57 @@ public class SimpleMessageFormatTest {
         Assert.assertEquals("11", "11th floor",
                 MessageFormat.format(appContext, msg, ImmutableMap.of("num", 11)));
     }
+
+    @Test @SmallTest
+    public void testFormatTo() {
+        final String msg = "{num,plural,one{# file}other{# files}}";
+        StringBuilder result = new StringBuilder("Found ");
+        Assert.assertSame(result, MessageFormat.formatTo(appContext, Locale.US, msg,
+                ImmutableMap.of("num", 1), result));
+        result.append(", ");
+        MessageFormat.formatTo(appContext, Locale.US, msg, ImmutableMap.of("num", 3), result);
+        Assert.assertEquals("Found 1 file, 3 files", result.toString());
+    }
+
+    @Test @SmallTest
+    public void testCompiledPatternCache() {
+        MessageFormatCache.clear();
+        final String msg = "{num,plural,one{# day}other{# days}}";
+        Assert.assertEquals("1 day",
+                MessageFormat.format(appContext, Locale.US, msg, ImmutableMap.of("num", 1)));
+        Assert.assertEquals("2 days",
+                MessageFormat.format(appContext, Locale.US, msg, ImmutableMap.of("num", 2)));
+        Assert.assertEquals("same pattern and locale", 1, MessageFormatCache.size());
+
+        Assert.assertEquals("2 days",
+                MessageFormat.format(appContext, Locale.UK, msg, ImmutableMap.of("num", 2)));
+        Assert.assertEquals("other locale", 2, MessageFormatCache.size());
+    }
+
+    @Test @SmallTest
+    public void testSkeletonFormatsNotCached() {
+        MessageFormatCache.clear();
+        final String msg = "Due {due, date, ::jmm}";
+        MessageFormat.format(appContext, Locale.US, msg, ImmutableMap.of("due", 0L));
+        Assert.assertEquals(0, MessageFormatCache.size());
+    }
+
+    @Test @SmallTest
+    public void testCachedDateFormatsFollowDefaultTimeZone() {
+        MessageFormatCache.clear();
+        final TimeZone defaultTimeZone = TimeZone.getDefault();
+        final String msg = "At {when, time, HH:mm}";
+        final Map<String, Object> arguments = ImmutableMap.of("when", new Date(0L));
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+            Assert.assertEquals("At 00:00",
+                    MessageFormat.format(appContext, Locale.US, msg, arguments));
+            TimeZone.setDefault(TimeZone.getTimeZone("GMT+02:00"));
+            Assert.assertEquals("At 02:00",
+                    MessageFormat.format(appContext, Locale.US, msg, arguments));
+            Assert.assertEquals("one format per time zone", 2, MessageFormatCache.size());
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+    }
 }
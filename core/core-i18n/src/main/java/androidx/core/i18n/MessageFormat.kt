@@ -16,7 +16,7 @@
 package androidx.core.i18n
 
 import android.content.Context
-import androidx.core.i18n.messageformat_icu.simple.MessageFormat
+import androidx.core.i18n.messageformat_icu.simple.MessageFormatCache
 import java.util.Locale
 
 class MessageFormat private constructor() {
@@ -26,6 +26,9 @@ class MessageFormat private constructor() {
          * Creates an ICU MessageFormat for the locale and pattern,
          * and formats with the arguments.
          *
+         * Compiled patterns are cached per locale, so formatting the same pattern repeatedly
+         * does not parse it again.
+         *
          * @param context Android context object. Used to retrieve user preferences.
          * @param locale Locale for number formatting and plural selection etc.
          * @param msg an ICU-MessageFormat-syntax string
@@ -38,9 +41,34 @@ class MessageFormat private constructor() {
             msg: String,
             namedArguments: Map<String, Any>
         ): String {
-            val result: StringBuffer = StringBuffer()
-            return MessageFormat(context, msg, locale)
-                .format(namedArguments, result, null).toString()
+            val result = StringBuilder()
+            MessageFormatCache.format(context, locale, msg, namedArguments, result)
+            return result.toString()
+        }
+
+        /**
+         * Formats a message pattern string with a variable number of name/value pair arguments,
+         * and appends the result to [result].
+         * Works like [format], but lets callers that format many messages reuse a single
+         * [StringBuilder] instead of allocating a new String for each message.
+         *
+         * @param context Android context object. Used to retrieve user preferences.
+         * @param locale Locale for number formatting and plural selection etc.
+         * @param msg an ICU-MessageFormat-syntax string
+         * @param namedArguments map of argument name to argument value
+         * @param result the builder that the formatted message is appended to
+         * @return [result]
+         */
+        @JvmStatic @JvmOverloads
+        fun formatTo(
+            context: Context,
+            locale: Locale = Locale.getDefault(),
+            msg: String,
+            namedArguments: Map<String, Any>,
+            result: StringBuilder
+        ): StringBuilder {
+            MessageFormatCache.format(context, locale, msg, namedArguments, result)
+            return result
         }
 
         /**
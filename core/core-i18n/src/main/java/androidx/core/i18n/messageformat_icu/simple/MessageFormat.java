@@ -969,8 +969,9 @@ public class MessageFormat extends Format {
      * icu_annot::stable ICU 3.0
      */
     public static String format(Context context, String pattern, Object... arguments) {
-        MessageFormat temp = new MessageFormat(context, pattern);
-        return temp.format(arguments);
+        StringBuilder result = new StringBuilder();
+        MessageFormatCache.format(context, Locale.getDefault(), pattern, arguments, result);
+        return result.toString();
     }
 
     /**
@@ -987,8 +988,39 @@ public class MessageFormat extends Format {
      * icu_annot::stable ICU 3.8
      */
     public static String format(Context context, String pattern, Map<String, Object> arguments) {
-        MessageFormat temp = new MessageFormat(context, pattern);
-        return temp.format(arguments);
+        StringBuilder result = new StringBuilder();
+        MessageFormatCache.format(context, Locale.getDefault(), pattern, arguments, result);
+        return result.toString();
+    }
+
+    /**
+     * Formats a map or array of objects and appends the <code>MessageFormat</code>'s
+     * pattern, with format elements replaced by the formatted objects, to the
+     * provided <code>StringBuilder</code>.
+     * Unlike {@link #format(Object, StringBuffer, FieldPosition)} this does not track
+     * field positions, and does not synchronize on the result.
+     *
+     * @param arguments a map or array of objects to be formatted
+     * @param result where text is appended
+     * @return the passed-in StringBuilder
+     * @throws IllegalArgumentException if an argument in
+     *         <code>arguments</code> is not of the type
+     *         expected by the format element(s) that use it
+     * @throws IllegalArgumentException if <code>arguments</code> is
+     *         an array of Object and this format uses named arguments
+     */
+    public final StringBuilder format(Object arguments, StringBuilder result) {
+        format(arguments, new AppendableWrapper(result), null);
+        return result;
+    }
+
+    /**
+     * Returns true if formatters cached for this pattern were created from user preferences,
+     * such as the hour cycle used by date and time skeletons. Such a format does not follow
+     * later changes to the preferences, so it should not be reused for long.
+     */
+    boolean dependsOnUserPreferences() {
+        return usesUserPreferences;
     }
 
     /**
@@ -1515,6 +1547,12 @@ public class MessageFormat extends Format {
     private transient PluralSelectorProvider pluralProvider;
     private transient PluralSelectorProvider ordinalProvider;
 
+    /**
+     * True if a cached formatter was created from the user preferences read through the Context,
+     * for example the hour cycle of a date skeleton.
+     */
+    private transient boolean usesUserPreferences;
+
     private DateFormat getStockDateFormatter() {
         if (stockDateFormatter == null) {
             stockDateFormatter = DateFormat.getDateTimeInstance(
@@ -2127,6 +2165,7 @@ public class MessageFormat extends Format {
         // Ignore leading whitespace when looking for "::", the skeleton signal sequence
         int i = PatternProps.skipWhiteSpace(style, 0);
         if (style.regionMatches(i, "::", 0, 2)) { // Skeleton
+            usesUserPreferences = true;
             DateTimeFormatter df = new DateTimeFormatter(context_,
                 DateTimeFormatterSkeletonOptions.fromString(style.substring(i + 2)),
                 locale_);
@@ -2308,6 +2347,7 @@ public class MessageFormat extends Format {
             cachedFormatters.clear();
         }
         customFormatArgStarts = null;
+        usesUserPreferences = false;
         // The last two "parts" can at most be ARG_LIMIT and MSG_LIMIT
         // which we need not examine.
         int limit = msgPattern.countParts() - 2;
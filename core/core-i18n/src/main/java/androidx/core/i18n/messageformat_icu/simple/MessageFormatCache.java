@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.core.i18n.messageformat_icu.simple;
+
+import android.content.Context;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * A bounded cache of compiled {@link MessageFormat}s, keyed by pattern, locale and default
+ * time zone.
+ *
+ * <p>Creating a MessageFormat parses the pattern and creates the formatters it uses, which
+ * costs much more than formatting with it. Formatting the same message repeatedly, for example
+ * while binding the items of a list, reuses the compiled format instead.
+ *
+ * <p>MessageFormat is not thread safe, so a cached format is only used while holding its lock.
+ * Formats that depend on user preferences are not cached, so that they follow changes to them.
+ * Date formatters use the default time zone from when they were created, so formats cached
+ * before the default time zone changes are not used after it.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class MessageFormatCache {
+    private static final int MAX_SIZE = 64;
+
+    private static final LruCache<Key, MessageFormat> sCache = new LruCache<>(MAX_SIZE);
+
+    private MessageFormatCache() {
+    }
+
+    /**
+     * Formats the arguments with the pattern for the locale, and appends the result.
+     *
+     * @param context Android context object. Used to retrieve user preferences.
+     * @param locale the locale for this message format
+     * @param pattern the pattern for this message format
+     * @param arguments a map or array of objects to be formatted
+     * @param result where text is appended
+     * @throws IllegalArgumentException if the pattern is invalid, or if an argument is not
+     *         of the type expected by the format element(s) that use it
+     */
+    public static void format(@NonNull Context context, @NonNull Locale locale,
+            @NonNull String pattern, Object arguments, @NonNull StringBuilder result) {
+        Key key = new Key(pattern, locale, TimeZone.getDefault().getID());
+        MessageFormat messageFormat = sCache.get(key);
+        if (messageFormat == null) {
+            // User preferences are global, so use the application context to avoid retaining an
+            // Activity in the cache.
+            Context applicationContext = context.getApplicationContext();
+            messageFormat = new MessageFormat(
+                    applicationContext != null ? applicationContext : context, pattern, locale);
+            if (messageFormat.dependsOnUserPreferences()) {
+                messageFormat.format(arguments, result);
+                return;
+            }
+            // If another thread cached the same pattern meanwhile, this format replaces it.
+            sCache.put(key, messageFormat);
+        }
+        synchronized (messageFormat) {
+            messageFormat.format(arguments, result);
+        }
+    }
+
+    /**
+     * Removes all cached formats.
+     */
+    public static void clear() {
+        sCache.evictAll();
+    }
+
+    /**
+     * Returns the number of cached formats.
+     */
+    public static int size() {
+        return sCache.size();
+    }
+
+    private static final class Key {
+        private final String mPattern;
+        private final Locale mLocale;
+        private final String mTimeZoneId;
+
+        Key(String pattern, Locale locale, String timeZoneId) {
+            mPattern = pattern;
+            mLocale = locale;
+            mTimeZoneId = timeZoneId;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return mPattern.equals(other.mPattern) && mLocale.equals(other.mLocale)
+                    && mTimeZoneId.equals(other.mTimeZoneId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * mPattern.hashCode() + mLocale.hashCode())
+                    + mTimeZoneId.hashCode();
+        }
+    }
+}
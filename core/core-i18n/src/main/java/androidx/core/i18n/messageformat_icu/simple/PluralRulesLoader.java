@@ -14,6 +14,7 @@ import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import androidx.annotation.RestrictTo;
 import androidx.core.i18n.messageformat_icu.simple.PluralRules.PluralType;
@@ -31,6 +32,11 @@ public class PluralRulesLoader extends PluralRules.Factory {
     // lazy init, use getLocaleIdToRulesIdMap to access
     private Map<String, String> localeIdToCardinalRulesId;
     private Map<String, String> localeIdToOrdinalRulesId;
+    // rules resolved by forLocale, keyed by language
+    private final Map<String, PluralRules> languageToCardinalRules =
+            new ConcurrentHashMap<String, PluralRules>();
+    private final Map<String, PluralRules> languageToOrdinalRules =
+            new ConcurrentHashMap<String, PluralRules>();
 
     /**
      * Access through singleton.
@@ -165,6 +171,18 @@ public class PluralRulesLoader extends PluralRules.Factory {
      */
     @Override
     public PluralRules forLocale(Locale locale, PluralType type) {
+        Map<String, PluralRules> languageToRules = (type == PluralType.CARDINAL)
+                ? languageToCardinalRules : languageToOrdinalRules;
+        String language = locale.getLanguage();
+        PluralRules rules = languageToRules.get(language);
+        if (rules == null) {
+            rules = loadForLocale(locale, type);
+            languageToRules.put(language, rules);
+        }
+        return rules;
+    }
+
+    private PluralRules loadForLocale(Locale locale, PluralType type) {
         String rulesId = getRulesIdForLocale(locale, type);
         if (rulesId == null || rulesId.trim().length() == 0) {
             return PluralRules.DEFAULT;
@@ -95,20 +95,26 @@ public class MetadataRepoTest {
         assertNull(getNode(new int[]{1, 2, 3, 4, 5}));
     }
 
-    final TypefaceEmojiRasterizer getNode(final int[] codepoints) {
-        return getNode(mMetadataRepo.getRootNode(), codepoints, 0);
+    @Test
+    public void testPut_manyCodePoints() {
+        // more nodes than initially allocated, the trie has to grow
+        final TypefaceEmojiRasterizer[] metadata = new TypefaceEmojiRasterizer[3000];
+        for (int i = 0; i < metadata.length; i++) {
+            metadata[i] = new TestTypefaceEmojiRasterizer(new int[]{0x1F000 + i % 100, i});
+            mMetadataRepo.put(metadata[i]);
+        }
+        for (int i = 0; i < metadata.length; i++) {
+            assertSame(metadata[i], getNode(new int[]{0x1F000 + i % 100, i}));
+            assertNull(getNode(new int[]{0x1F000 + i % 100, i + 1}));
+        }
     }
 
-    final TypefaceEmojiRasterizer getNode(
-            MetadataRepo.Node node,
-            final int[] codepoints,
-            int start
-    ) {
-        if (codepoints.length < start) return null;
-        if (codepoints.length == start) return node.getData();
-
-        final MetadataRepo.Node childNode = node.get(codepoints[start]);
-        if (childNode == null) return null;
-        return getNode(childNode, codepoints, start + 1);
+    final TypefaceEmojiRasterizer getNode(final int[] codepoints) {
+        int node = MetadataRepo.ROOT_NODE;
+        for (int codepoint : codepoints) {
+            node = mMetadataRepo.getChildNode(node, codepoint);
+            if (node == MetadataRepo.NO_NODE) return null;
+        }
+        return mMetadataRepo.getNodeData(node);
     }
 }
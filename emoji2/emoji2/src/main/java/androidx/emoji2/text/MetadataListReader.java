@@ -15,6 +15,7 @@
  */
 package androidx.emoji2.text;
 
+import android.content.res.AssetFileDescriptor;
 import android.content.res.AssetManager;
 
 import androidx.annotation.AnyThread;
@@ -24,10 +25,13 @@ import androidx.annotation.RequiresApi;
 import androidx.annotation.RestrictTo;
 import androidx.emoji2.text.flatbuffer.MetadataList;
 
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 
 /**
  * Reads the emoji metadata from a given InputStream or ByteBuffer.
@@ -67,6 +71,38 @@ class MetadataListReader {
     static MetadataList read(InputStream inputStream) throws IOException {
         final OpenTypeReader openTypeReader = new InputStreamOpenTypeReader(inputStream);
         final OffsetInfo offsetInfo = findOffsetInfo(openTypeReader);
+        return readMetadata(inputStream, openTypeReader, offsetInfo);
+    }
+
+    /**
+     * Construct MetadataList from a font stored in a file, starting at {@code fileStart}. The
+     * metadata is memory mapped from the file instead of being copied to the heap. Does not close
+     * the given FileInputStream, therefore it is caller's responsibility to properly close the
+     * stream.
+     * <p>
+     * The stream has to read the font from its start. Its file channel is only used to map the
+     * metadata at {@code fileStart} plus the metadata offset, and its position is not used,
+     * since some streams track their offset in the file without seeking the file descriptor.
+     *
+     * @param inputStream FileInputStream to read emoji metadata from
+     * @param fileStart offset of the font in the file
+     */
+    static MetadataList read(FileInputStream inputStream, long fileStart) throws IOException {
+        final OpenTypeReader openTypeReader = new InputStreamOpenTypeReader(inputStream);
+        final OffsetInfo offsetInfo = findOffsetInfo(openTypeReader);
+        try {
+            // map the metadata rather than copying it to the heap, FlatBuffers reads it in place
+            final ByteBuffer buffer = inputStream.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    fileStart + offsetInfo.getStartOffset(), offsetInfo.getLength());
+            return MetadataList.getRootAsMetadataList(buffer);
+        } catch (IOException e) {
+            // not mappable, read from the stream instead
+            return readMetadata(inputStream, openTypeReader, offsetInfo);
+        }
+    }
+
+    private static MetadataList readMetadata(InputStream inputStream,
+            OpenTypeReader openTypeReader, OffsetInfo offsetInfo) throws IOException {
         // skip to where metadata is
         openTypeReader.skip((int) (offsetInfo.getStartOffset() - openTypeReader.getPosition()));
         // allocate a ByteBuffer and read into it since FlatBuffers can read only from a ByteBuffer
@@ -102,6 +138,13 @@ class MetadataListReader {
      */
     static MetadataList read(AssetManager assetManager, String assetPath)
             throws IOException {
+        try (AssetFileDescriptor fileDescriptor = assetManager.openFd(assetPath);
+                FileInputStream inputStream = fileDescriptor.createInputStream()) {
+            // uncompressed assets are backed by the apk file, which can be memory mapped
+            return read(inputStream, fileDescriptor.getStartOffset());
+        } catch (FileNotFoundException e) {
+            // the asset is compressed
+        }
         try (InputStream inputStream = assetManager.open(assetPath)) {
             return read(inputStream);
         }
@@ -19,7 +19,6 @@ import static androidx.annotation.RestrictTo.Scope.LIBRARY;
 
 import android.content.res.AssetManager;
 import android.graphics.Typeface;
-import android.util.SparseArray;
 
 import androidx.annotation.AnyThread;
 import androidx.annotation.NonNull;
@@ -33,6 +32,7 @@ import androidx.emoji2.text.flatbuffer.MetadataList;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * Class to hold the emoji metadata required to process and draw emojis.
@@ -41,9 +41,20 @@ import java.nio.ByteBuffer;
 @RequiresApi(19)
 public final class MetadataRepo {
     /**
-     * The default children size of the root node.
+     * Root node of the trie.
      */
-    private static final int DEFAULT_ROOT_SIZE = 1024;
+    static final int ROOT_NODE = 0;
+
+    /**
+     * Returned by {@link #getChildNode(int, int)} when the node has no such child.
+     */
+    static final int NO_NODE = -1;
+
+    /**
+     * The default number of nodes of the trie. Each emoji adds at least one node.
+     */
+    private static final int DEFAULT_NODE_COUNT = 1024;
+    private static final long EMPTY_EDGE = -1L;
     private static final String S_TRACE_CREATE_REPO = "EmojiCompat.MetadataRepo.create";
 
     /**
@@ -59,9 +70,22 @@ public final class MetadataRepo {
     private final @NonNull char[] mEmojiCharArray;
 
     /**
-     * Empty root node of the trie.
+     * Trie that maps emoji codepoint(s) to TypefaceEmojiRasterizer, stored in flat arrays rather
+     * than one object per node. Nodes are identified by their index, {@link #ROOT_NODE} being the
+     * empty root. A single codepoint emoji is represented by a child of the root node.
+     * <p>
+     * The edges are kept in an open addressing hash table keyed by the parent node and the
+     * codepoint, see {@link #edgeKey(int, int)}.
      */
-    private final @NonNull Node mRootNode;
+    private @NonNull long[] mEdgeKeys;
+    private @NonNull int[] mEdgeChildren;
+    private int mEdgeCount;
+
+    /**
+     * TypefaceEmojiRasterizer of each node, {@code null} for nodes that are only a prefix.
+     */
+    private @NonNull TypefaceEmojiRasterizer[] mNodeData;
+    private int mNodeCount;
 
     /**
      * Typeface to be used to render emojis.
@@ -78,7 +102,12 @@ public final class MetadataRepo {
             @NonNull final MetadataList metadataList) {
         mTypeface = typeface;
         mMetadataList = metadataList;
-        mRootNode = new Node(DEFAULT_ROOT_SIZE);
+        int nodeCount = Math.max(DEFAULT_NODE_COUNT, mMetadataList.listLength() * 2);
+        mNodeData = new TypefaceEmojiRasterizer[nodeCount];
+        mNodeCount = 1;
+        mEdgeKeys = new long[edgeCapacity(nodeCount)];
+        Arrays.fill(mEdgeKeys, EMPTY_EDGE);
+        mEdgeChildren = new int[mEdgeKeys.length];
         mEmojiCharArray = new char[mMetadataList.listLength() * 2];
         constructIndex(mMetadataList);
     }
@@ -187,11 +216,30 @@ public final class MetadataRepo {
     }
 
     /**
+     * Returns the child of the given trie node for the codepoint, or {@link #NO_NODE}.
      */
-    @NonNull
     @RestrictTo(RestrictTo.Scope.LIBRARY)
-    Node getRootNode() {
-        return mRootNode;
+    int getChildNode(final int node, final int codePoint) {
+        final long key = edgeKey(node, codePoint);
+        final int mask = mEdgeKeys.length - 1;
+        for (int i = edgeHash(key, mask); ; i = (i + 1) & mask) {
+            final long edge = mEdgeKeys[i];
+            if (edge == key) {
+                return mEdgeChildren[i];
+            }
+            if (edge == EMPTY_EDGE) {
+                return NO_NODE;
+            }
+        }
+    }
+
+    /**
+     * Returns the TypefaceEmojiRasterizer for the codepoints leading to the given trie node, or
+     * {@code null} if they are only the prefix of an emoji.
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    TypefaceEmojiRasterizer getNodeData(final int node) {
+        return mNodeData[node];
     }
 
     /**
@@ -221,50 +269,73 @@ public final class MetadataRepo {
         Preconditions.checkArgument(data.getCodepointsLength() > 0,
                 "invalid metadata codepoint length");
 
-        mRootNode.put(data, 0, data.getCodepointsLength() - 1);
+        int node = ROOT_NODE;
+        final int length = data.getCodepointsLength();
+        for (int i = 0; i < length; i++) {
+            final int codePoint = data.getCodepointAt(i);
+            int child = getChildNode(node, codePoint);
+            if (child == NO_NODE) {
+                child = addChildNode(node, codePoint);
+            }
+            node = child;
+        }
+        mNodeData[node] = data;
     }
 
-    /**
-     * Trie node that holds mapping from emoji codepoint(s) to TypefaceEmojiRasterizer.
-     *
-     * A single codepoint emoji is represented by a child of the root node.
-     *
-     */
-    @RestrictTo(RestrictTo.Scope.LIBRARY)
-    static class Node {
-        private final SparseArray<Node> mChildren;
-        private TypefaceEmojiRasterizer mData;
-
-        private Node() {
-            this(1);
+    private int addChildNode(final int node, final int codePoint) {
+        if (mNodeCount == mNodeData.length) {
+            mNodeData = Arrays.copyOf(mNodeData, mNodeCount * 2);
+        }
+        final int child = mNodeCount++;
+        if (edgeCapacity(mEdgeCount + 1) > mEdgeKeys.length) {
+            rehashEdges(mEdgeKeys.length * 2);
         }
+        insertEdge(edgeKey(node, codePoint), child);
+        mEdgeCount++;
+        return child;
+    }
 
-        @SuppressWarnings("WeakerAccess") /* synthetic access */
-        Node(final int defaultChildrenSize) {
-            mChildren = new SparseArray<>(defaultChildrenSize);
+    private void insertEdge(final long key, final int child) {
+        final int mask = mEdgeKeys.length - 1;
+        int i = edgeHash(key, mask);
+        while (mEdgeKeys[i] != EMPTY_EDGE) {
+            i = (i + 1) & mask;
         }
+        mEdgeKeys[i] = key;
+        mEdgeChildren[i] = child;
+    }
 
-        Node get(final int key) {
-            return mChildren == null ? null : mChildren.get(key);
+    private void rehashEdges(final int capacity) {
+        final long[] keys = mEdgeKeys;
+        final int[] children = mEdgeChildren;
+        mEdgeKeys = new long[capacity];
+        Arrays.fill(mEdgeKeys, EMPTY_EDGE);
+        mEdgeChildren = new int[capacity];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY_EDGE) {
+                insertEdge(keys[i], children[i]);
+            }
         }
+    }
 
-        final TypefaceEmojiRasterizer getData() {
-            return mData;
+    /**
+     * Power of two capacity that keeps the hash table at most 3/4 full.
+     */
+    private static int edgeCapacity(final int edgeCount) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < edgeCount) {
+            capacity *= 2;
         }
+        return capacity;
+    }
 
-        @SuppressWarnings("WeakerAccess") /* synthetic access */
-        void put(@NonNull final TypefaceEmojiRasterizer data, final int start, final int end) {
-            Node node = get(data.getCodepointAt(start));
-            if (node == null) {
-                node = new Node();
-                mChildren.put(data.getCodepointAt(start), node);
-            }
+    private static long edgeKey(final int node, final int codePoint) {
+        // nodes are positive, so the key is never EMPTY_EDGE
+        return ((long) node << 32) | (codePoint & 0xFFFFFFFFL);
+    }
 
-            if (end > start) {
-                node.put(data, start + 1, end);
-            } else {
-                node.mData = data;
-            }
-        }
+    private static int edgeHash(final long key, final int mask) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
     }
 }
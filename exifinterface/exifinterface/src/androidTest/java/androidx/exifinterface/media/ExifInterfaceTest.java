@@ -497,6 +497,40 @@ public class ExifInterfaceTest {
         assertBitmapsEquivalent(srcFile, imageFile);
     }
 
+    @Test
+    @LargeTest
+    public void testJpegSaveAttributesInPlace() throws Throwable {
+        File srcFile = getFileFromExternalDir(JPEG_WITH_EXIF_BYTE_ORDER_II);
+        File imageFile = clone(srcFile);
+        ExifInterface exifInterface = new ExifInterface(imageFile.getAbsolutePath());
+        exifInterface.saveAttributes();
+        long savedLength = imageFile.length();
+
+        // Values that fit in the existing APP1 segment are patched without rewriting the file.
+        exifInterface = new ExifInterface(imageFile.getAbsolutePath());
+        exifInterface.setAttribute(ExifInterface.TAG_ORIENTATION,
+                String.valueOf(ExifInterface.ORIENTATION_ROTATE_270));
+        exifInterface.setAttribute(ExifInterface.TAG_MAKE, "a");
+        exifInterface.saveAttributes();
+        assertEquals(savedLength, imageFile.length());
+        exifInterface = new ExifInterface(imageFile.getAbsolutePath());
+        assertEquals(ExifInterface.ORIENTATION_ROTATE_270,
+                exifInterface.getAttributeInt(ExifInterface.TAG_ORIENTATION, 0));
+        assertEquals("a", exifInterface.getAttribute(ExifInterface.TAG_MAKE));
+        assertBitmapsEquivalent(srcFile, imageFile);
+
+        // Values that don't fit fall back to rewriting the file.
+        char[] longStringChars = new char[500];
+        Arrays.fill(longStringChars, 'a');
+        String longString = new String(longStringChars);
+        exifInterface.setAttribute(ExifInterface.TAG_MAKE, longString);
+        exifInterface.saveAttributes();
+        assertThat(imageFile.length()).isGreaterThan(savedLength);
+        exifInterface = new ExifInterface(imageFile.getAbsolutePath());
+        assertEquals(longString, exifInterface.getAttribute(ExifInterface.TAG_MAKE));
+        assertBitmapsEquivalent(srcFile, imageFile);
+    }
+
     @Test
     @LargeTest
     public void testDngWithExifAndXmp() throws Throwable {
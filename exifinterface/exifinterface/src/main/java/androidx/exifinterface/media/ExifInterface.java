@@ -21,7 +21,9 @@ import static androidx.exifinterface.media.ExifInterfaceUtils.closeQuietly;
 import static androidx.exifinterface.media.ExifInterfaceUtils.convertToLongArray;
 import static androidx.exifinterface.media.ExifInterfaceUtils.copy;
 import static androidx.exifinterface.media.ExifInterfaceUtils.parseSubSeconds;
+import static androidx.exifinterface.media.ExifInterfaceUtils.readFully;
 import static androidx.exifinterface.media.ExifInterfaceUtils.startsWith;
+import static androidx.exifinterface.media.ExifInterfaceUtils.writeFully;
 
 import static java.nio.ByteOrder.BIG_ENDIAN;
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
@@ -61,10 +63,12 @@ import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
@@ -4683,6 +4687,20 @@ public class ExifInterface {
         // Keep the thumbnail in memory
         mThumbnailBytes = getThumbnail();
 
+        if (mMimeType == IMAGE_TYPE_JPEG) {
+            boolean savedInPlace;
+            try {
+                savedInPlace = saveJpegAttributesInPlace();
+            } catch (Exception e) {
+                throw new IOException("Failed to save new file", e);
+            }
+            if (savedInPlace) {
+                // Discard the thumbnail in memory
+                mThumbnailBytes = null;
+                return;
+            }
+        }
+
         FileInputStream in = null;
         FileOutputStream out = null;
         File tempFile;
@@ -6356,6 +6374,154 @@ public class ExifInterface {
         }
     }
 
+    /**
+     * Replaces the EXIF APP1 segment of a JPEG file in place when the new segment isn't bigger
+     * than the existing one, so that the rest of the file doesn't have to be copied. The new
+     * segment is padded with zeros up to the size of the existing one: EXIF data is addressed by
+     * offsets, so readers ignore the padding.
+     *
+     * @return {@code true} if the attributes were saved, {@code false} if the file needs to be
+     * rewritten with {@link #saveJpegAttributes(InputStream, OutputStream)}.
+     */
+    private boolean saveJpegAttributesInPlace() throws IOException {
+        if (mOffsetToExifData == 0) {
+            return false;
+        }
+
+        // Same as saveJpegAttributes(), XMP data from a separate marker stays in its own segment
+        ExifAttribute xmpAttribute = null;
+        if (getAttribute(TAG_XMP) != null && mXmpIsFromSeparateMarker) {
+            xmpAttribute = mAttributes[IFD_TYPE_PRIMARY].remove(TAG_XMP);
+        }
+        ByteArrayOutputStream segmentStream = new ByteArrayOutputStream();
+        try {
+            writeExifSegment(new ByteOrderedDataOutputStream(segmentStream, BIG_ENDIAN));
+        } finally {
+            if (xmpAttribute != null) {
+                mAttributes[IFD_TYPE_PRIMARY].put(TAG_XMP, xmpAttribute);
+            }
+        }
+        // APP1 length followed by the EXIF data
+        byte[] segment = segmentStream.toByteArray();
+
+        RandomAccessFile file = null;
+        FileDescriptor newFileDescriptor = null;
+        FileInputStream in = null;
+        FileOutputStream out = null;
+        try {
+            FileChannel readChannel;
+            FileChannel writeChannel;
+            if (mFilename != null) {
+                file = new RandomAccessFile(mFilename, "rw");
+                readChannel = file.getChannel();
+                writeChannel = readChannel;
+            } else if (Build.VERSION.SDK_INT >= 21) {
+                // Positional reads and writes don't change the offset of the file descriptor
+                try {
+                    newFileDescriptor = Api21Impl.dup(mSeekableFileDescriptor);
+                } catch (Exception e) {
+                    // Catching ErrnoException will raise error in API < 21
+                    throw new IOException("Failed to duplicate file descriptor", e);
+                }
+                in = new FileInputStream(newFileDescriptor);
+                out = new FileOutputStream(newFileDescriptor);
+                readChannel = in.getChannel();
+                writeChannel = out.getChannel();
+            } else {
+                return false;
+            }
+
+            long lengthPosition = findExifSegmentLengthPosition(readChannel);
+            if (lengthPosition == -1) {
+                return false;
+            }
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(2);
+            readFully(readChannel, lengthBuffer, lengthPosition);
+            int length = lengthBuffer.getShort(0) & 0xffff;
+            if (segment.length > length) {
+                return false;
+            }
+            if (DEBUG) {
+                Log.d(TAG, "saveJpegAttributesInPlace: replacing " + length + " bytes at "
+                        + lengthPosition + " with " + segment.length + " bytes");
+            }
+
+            ByteBuffer original = ByteBuffer.allocate(length);
+            readFully(readChannel, original, lengthPosition);
+            ByteBuffer patched = ByteBuffer.wrap(Arrays.copyOf(segment, length));
+            patched.putShort(0, (short) length);
+            try {
+                writeFully(writeChannel, patched, lengthPosition);
+            } catch (IOException e) {
+                // Restore the original segment
+                original.rewind();
+                writeFully(writeChannel, original, lengthPosition);
+                throw e;
+            }
+            return true;
+        } finally {
+            closeQuietly(file);
+            closeQuietly(in);
+            closeQuietly(out);
+            if (newFileDescriptor != null) {
+                closeFileDescriptor(newFileDescriptor);
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the length of the EXIF APP1 segment that was parsed, or -1 if the
+     * file doesn't have exactly one EXIF APP1 segment at {@link #mOffsetToExifData}.
+     */
+    private long findExifSegmentLengthPosition(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4);
+        ByteBuffer identifier = ByteBuffer.allocate(IDENTIFIER_EXIF_APP1.length);
+        long lengthPosition = -1;
+        try {
+            readFully(channel, header, 0);
+            if (header.get(0) != MARKER || header.get(1) != MARKER_SOI) {
+                return -1;
+            }
+            long position = 2;
+            while (true) {
+                header.clear();
+                header.limit(2);
+                readFully(channel, header, position);
+                if (header.get(0) != MARKER) {
+                    return -1;
+                }
+                byte marker = header.get(1);
+                if (marker == MARKER_EOI || marker == MARKER_SOS) {
+                    break;
+                }
+                header.clear();
+                readFully(channel, header, position);
+                int length = header.getShort(2) & 0xffff;
+                if (length < 2) {
+                    return -1;
+                }
+                if (marker == MARKER_APP1 && length - 2 >= IDENTIFIER_EXIF_APP1.length) {
+                    identifier.clear();
+                    readFully(channel, identifier, position + 4);
+                    if (Arrays.equals(identifier.array(), IDENTIFIER_EXIF_APP1)) {
+                        if (lengthPosition != -1) {
+                            // More than one EXIF segment, let saveJpegAttributes() merge them
+                            return -1;
+                        }
+                        lengthPosition = position + 2;
+                    }
+                }
+                position += 2 + length;
+            }
+        } catch (EOFException e) {
+            return -1;
+        }
+        if (lengthPosition + 2 + IDENTIFIER_EXIF_APP1.length != mOffsetToExifData) {
+            return -1;
+        }
+        return lengthPosition;
+    }
+
     private void savePngAttributes(InputStream inputStream, OutputStream outputStream)
             throws IOException {
         if (DEBUG) {
@@ -27,10 +27,15 @@ import androidx.annotation.DoNotInline;
 import androidx.annotation.RequiresApi;
 
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 class ExifInterfaceUtils {
     private static final String TAG = "ExifInterfaceUtils";
@@ -72,6 +77,57 @@ class ExifInterfaceUtils {
         }
     }
 
+    /**
+     * Copies all of the remaining bytes of the file of {@code in} to the file of {@code out}
+     * through their channels, so that the data doesn't have to go through a Java buffer. Neither
+     * stream is closed.
+     * Returns the total number of bytes transferred.
+     */
+    static long copy(FileInputStream in, FileOutputStream out) throws IOException {
+        FileChannel inChannel = in.getChannel();
+        FileChannel outChannel = out.getChannel();
+        long position = inChannel.position();
+        long size = inChannel.size();
+        long total = 0;
+        while (position + total < size) {
+            long transferred = inChannel.transferTo(position + total, size - position - total,
+                    outChannel);
+            if (transferred <= 0) {
+                break;
+            }
+            total += transferred;
+        }
+        inChannel.position(position + total);
+        // Copy anything the channel couldn't transfer, e.g. if the file grew
+        return total + copy((InputStream) in, out);
+    }
+
+    /**
+     * Reads bytes from {@code channel} at the given position until {@code buffer} is full,
+     * without changing the position of the channel.
+     */
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        long offset = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of {@code buffer} to {@code channel} at the given position,
+     * without changing the position of the channel.
+     */
+    static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        long offset = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+    }
+
     /**
      * Convert given int[] to long[]. If long[] is given, just return it.
      * Return null for other types of input.
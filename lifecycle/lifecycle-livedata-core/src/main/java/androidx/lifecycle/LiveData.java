@@ -23,7 +23,6 @@ import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.arch.core.executor.ArchTaskExecutor;
-import androidx.arch.core.internal.SafeIterableMap;
 
 import java.util.Iterator;
 import java.util.Map;
@@ -63,8 +62,8 @@ public abstract class LiveData<T> {
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     static final Object NOT_SET = new Object();
 
-    private SafeIterableMap<Observer<? super T>, ObserverWrapper> mObservers =
-            new SafeIterableMap<>();
+    private final ObserverMap<Observer<? super T>, ObserverWrapper> mObservers =
+            new ObserverMap<>();
 
     // how many observers are in active state
     @SuppressWarnings("WeakerAccess") /* synthetic access */
@@ -81,6 +80,16 @@ public abstract class LiveData<T> {
     private boolean mDispatchingValue;
     @SuppressWarnings("FieldCanBeLocal")
     private boolean mDispatchInvalidated;
+    // when coalescing is enabled, setValue posts a single dispatch for all the values set until
+    // it runs
+    private boolean mCoalescingEnabled;
+    private boolean mDispatchPending;
+    private final Runnable mDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            dispatchCoalescedValue();
+        }
+    };
     private final Runnable mPostValueRunnable = new Runnable() {
         @SuppressWarnings("unchecked")
         @Override
@@ -90,6 +99,10 @@ public abstract class LiveData<T> {
                 newValue = mPendingData;
                 mPendingData = NOT_SET;
             }
+            if (newValue == NOT_SET) {
+                // already set by a coalesced dispatch
+                return;
+            }
             setValue((T) newValue);
         }
     };
@@ -158,6 +171,26 @@ public abstract class LiveData<T> {
         mDispatchingValue = false;
     }
 
+    @SuppressWarnings({"WeakerAccess", "unchecked"}) /* synthetic access */
+    void dispatchCoalescedValue() {
+        if (!mDispatchPending) {
+            return;
+        }
+        // a value posted since is part of the same burst, so it is set now rather than
+        // dispatched separately. It goes through setValue like any posted value, which doesn't
+        // post another dispatch while this one is pending.
+        Object pendingData;
+        synchronized (mDataLock) {
+            pendingData = mPendingData;
+            mPendingData = NOT_SET;
+        }
+        if (pendingData != NOT_SET) {
+            setValue((T) pendingData);
+        }
+        mDispatchPending = false;
+        dispatchingValue(null);
+    }
+
     /**
      * Adds the given observer to the observers list within the lifespan of the given
      * owner. The events are dispatched on the main thread. If LiveData already has data
@@ -306,7 +339,49 @@ public abstract class LiveData<T> {
         assertMainThread("setValue");
         mVersion++;
         mData = value;
-        dispatchingValue(null);
+        if (!mCoalescingEnabled) {
+            dispatchingValue(null);
+        } else if (!mDispatchPending) {
+            mDispatchPending = true;
+            ArchTaskExecutor.getInstance().postToMainThread(mDispatchRunnable);
+        }
+    }
+
+    /**
+     * Sets whether values are dispatched to the observers once for each burst of changes, instead
+     * of once for each change.
+     * <p>
+     * When coalescing is enabled, {@link #setValue(Object)} and {@link #postValue(Object)} update
+     * the value returned by {@link #getValue()}, and post a task to the main thread that
+     * dispatches the latest value, unless such a task is already pending. Observers then
+     * receive only the last of the values set before the task runs. This is useful for
+     * LiveData instances that are shared by many observers and updated several times per frame.
+     * <p>
+     * Observers that become active still receive the latest value immediately. If coalescing is
+     * disabled while a dispatch is pending, the latest value is dispatched immediately.
+     * <p>
+     * Coalescing is disabled by default.
+     *
+     * @param enabled whether changes are dispatched once for each burst of changes
+     */
+    @MainThread
+    protected void setCoalescingEnabled(boolean enabled) {
+        assertMainThread("setCoalescingEnabled");
+        mCoalescingEnabled = enabled;
+        if (!enabled && mDispatchPending) {
+            mDispatchPending = false;
+            dispatchingValue(null);
+        }
+    }
+
+    /**
+     * Returns whether values are dispatched to the observers once for each burst of changes.
+     *
+     * @return true if coalescing is enabled
+     * @see #setCoalescingEnabled(boolean)
+     */
+    public boolean isCoalescingEnabled() {
+        return mCoalescingEnabled;
     }
 
     /**
@@ -49,4 +49,9 @@ public class MutableLiveData<T> extends LiveData<T> {
     public void setValue(T value) {
         super.setValue(value);
     }
+
+    @Override
+    public void setCoalescingEnabled(boolean enabled) {
+        super.setCoalescingEnabled(enabled);
+    }
 }
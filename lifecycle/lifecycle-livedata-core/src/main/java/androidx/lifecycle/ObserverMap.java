@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Insertion ordered map of observers, which supports modifications during iterations.
+ * It is NOT thread safe.
+ * <p>
+ * Unlike {@code FastSafeIterableMap}, iterators are not registered with the map. A removed entry
+ * is unlinked from its neighbours but keeps its link to the previous entry, so that an iterator
+ * positioned on it can find the next entry that is still in the map.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+final class ObserverMap<K, V> implements Iterable<Map.Entry<K, V>> {
+
+    private final HashMap<K, Entry<K, V>> mHashMap = new HashMap<>();
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    Entry<K, V> mStart;
+    private Entry<K, V> mEnd;
+    // sequence of the next entry, used by iterators to ignore entries added after them
+    private long mNextSequence;
+
+    /**
+     * If the specified key is not already associated
+     * with a value, associates it with the given value.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param v   value to be associated with the specified key
+     * @return the previous value associated with the specified key,
+     * or {@code null} if there was no mapping for the key
+     */
+    @Nullable
+    V putIfAbsent(@NonNull K key, @NonNull V v) {
+        Entry<K, V> current = mHashMap.get(key);
+        if (current != null) {
+            return current.mValue;
+        }
+        Entry<K, V> newEntry = new Entry<>(key, v, mNextSequence++);
+        mHashMap.put(key, newEntry);
+        if (mEnd == null) {
+            mStart = newEntry;
+        } else {
+            mEnd.mNext = newEntry;
+            newEntry.mPrevious = mEnd;
+        }
+        mEnd = newEntry;
+        return null;
+    }
+
+    /**
+     * Removes the mapping for a key from this map if it is present.
+     *
+     * @param key key whose mapping is to be removed from the map
+     * @return the previous value associated with the specified key,
+     * or {@code null} if there was no mapping for the key
+     */
+    @Nullable
+    V remove(@NonNull K key) {
+        Entry<K, V> toRemove = mHashMap.remove(key);
+        if (toRemove == null) {
+            return null;
+        }
+        toRemove.mRemoved = true;
+        if (toRemove.mPrevious != null) {
+            toRemove.mPrevious.mNext = toRemove.mNext;
+        } else {
+            mStart = toRemove.mNext;
+        }
+        if (toRemove.mNext != null) {
+            toRemove.mNext.mPrevious = toRemove.mPrevious;
+        } else {
+            mEnd = toRemove.mPrevious;
+        }
+        // mPrevious is kept for the iterators positioned on this entry.
+        toRemove.mNext = null;
+        return toRemove.mValue;
+    }
+
+    /**
+     * @return the number of elements in this map
+     */
+    int size() {
+        return mHashMap.size();
+    }
+
+    /**
+     * @return an ascending iterator, which doesn't include new elements added during an
+     * iteration.
+     */
+    @NonNull
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator(mNextSequence);
+    }
+
+    /**
+     * @return an ascending iterator, which includes new elements added during an iteration.
+     */
+    @NonNull
+    Iterator<Map.Entry<K, V>> iteratorWithAdditions() {
+        return new EntryIterator(Long.MAX_VALUE);
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        private final long mSequenceLimit;
+        private Entry<K, V> mCurrent;
+
+        EntryIterator(long sequenceLimit) {
+            mSequenceLimit = sequenceLimit;
+        }
+
+        @Nullable
+        private Entry<K, V> nextEntry() {
+            Entry<K, V> last = mCurrent;
+            // Entries keep their link to the previous entry when removed, so this finds the
+            // closest preceding entry that is still in the map, whose next entry is the first
+            // one after mCurrent.
+            while (last != null && last.mRemoved) {
+                last = last.mPrevious;
+            }
+            Entry<K, V> next = last != null ? last.mNext : mStart;
+            if (next == null || next.mSequence >= mSequenceLimit) {
+                return null;
+            }
+            return next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextEntry() != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            Entry<K, V> next = nextEntry();
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            mCurrent = next;
+            return next;
+        }
+    }
+
+    static final class Entry<K, V> implements Map.Entry<K, V> {
+        @NonNull
+        final K mKey;
+        @NonNull
+        final V mValue;
+        final long mSequence;
+        Entry<K, V> mNext;
+        Entry<K, V> mPrevious;
+        boolean mRemoved;
+
+        Entry(@NonNull K key, @NonNull V value, long sequence) {
+            mKey = key;
+            mValue = value;
+            mSequence = sequence;
+        }
+
+        @NonNull
+        @Override
+        public K getKey() {
+            return mKey;
+        }
+
+        @NonNull
+        @Override
+        public V getValue() {
+            return mValue;
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException("An entry modification is not supported");
+        }
+
+        @Override
+        public String toString() {
+            return mKey + "=" + mValue;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package androidx.lifecycle
 
 import androidx.arch.core.executor.ArchTaskExecutor.getInstance
+import androidx.arch.core.executor.TaskExecutor
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule
 import androidx.lifecycle.testing.TestLifecycleOwner
 import kotlinx.coroutines.ExperimentalCoroutinesApi
@@ -832,6 +833,109 @@ class LiveDataTest {
         )
     }
 
+    @Test
+    fun manyObservers_removeDuringDispatch() {
+        owner.handleLifecycleEvent(Lifecycle.Event.ON_START)
+        val received = mutableListOf<Int>()
+        val observers = List(500) { index ->
+            Observer<String> { received.add(index) }
+        }
+        // Removes itself and every other observer before they are dispatched to.
+        liveData.observeForever(object : Observer<String> {
+            override fun onChanged(value: String) {
+                liveData.removeObserver(this)
+                observers.filterIndexed { index, _ -> index % 2 == 1 }
+                    .forEach { liveData.removeObserver(it) }
+            }
+        })
+        observers.forEach { liveData.observe(owner, it) }
+        liveData.value = "bla"
+        assertThat(received, `is`((0 until 500 step 2).toList()))
+        received.clear()
+        liveData.value = "bla2"
+        assertThat(received, `is`((0 until 500 step 2).toList()))
+        observers.forEach { liveData.removeObserver(it) }
+        assertThat(liveData.hasObservers(), `is`(false))
+    }
+
+    @Test
+    fun coalescing_setAndPostValueDispatchedOnce() {
+        val mainThreadTasks = ArrayDeque<Runnable>()
+        getInstance().setDelegate(object : TaskExecutor() {
+            override fun executeOnDiskIO(runnable: Runnable) {
+                runnable.run()
+            }
+
+            override fun postToMainThread(runnable: Runnable) {
+                mainThreadTasks.add(runnable)
+            }
+
+            override fun isMainThread(): Boolean = true
+        })
+        owner.handleLifecycleEvent(Lifecycle.Event.ON_START)
+        val liveData = MutableLiveData<String>()
+        liveData.setCoalescingEnabled(true)
+        assertThat(liveData.isCoalescingEnabled, `is`(true))
+        val observer = mock() as Observer<String>
+        liveData.observe(owner, observer)
+
+        liveData.value = "a"
+        liveData.value = "b"
+        liveData.postValue("c")
+        assertThat(liveData.value, `is`("b"))
+        verify(observer, never()).onChanged(anyString())
+        while (mainThreadTasks.isNotEmpty()) {
+            mainThreadTasks.removeFirst().run()
+        }
+        verify(observer, only()).onChanged("c")
+
+        liveData.value = "d"
+        liveData.setCoalescingEnabled(false)
+        verify(observer).onChanged("d")
+        liveData.value = "e"
+        verify(observer).onChanged("e")
+        while (mainThreadTasks.isNotEmpty()) {
+            mainThreadTasks.removeFirst().run()
+        }
+        verify(observer, times(3)).onChanged(anyString())
+    }
+
+    @Test
+    fun coalescing_postedValueGoesThroughSetValue() {
+        val mainThreadTasks = ArrayDeque<Runnable>()
+        getInstance().setDelegate(object : TaskExecutor() {
+            override fun executeOnDiskIO(runnable: Runnable) {
+                runnable.run()
+            }
+
+            override fun postToMainThread(runnable: Runnable) {
+                mainThreadTasks.add(runnable)
+            }
+
+            override fun isMainThread(): Boolean = true
+        })
+        owner.handleLifecycleEvent(Lifecycle.Event.ON_START)
+        val setValues = mutableListOf<String>()
+        val liveData = object : MutableLiveData<String>() {
+            override fun setValue(value: String) {
+                setValues.add(value)
+                super.setValue(value.uppercase())
+            }
+        }
+        liveData.setCoalescingEnabled(true)
+        val observer = mock() as Observer<String>
+        liveData.observe(owner, observer)
+
+        liveData.value = "a"
+        liveData.postValue("b")
+        while (mainThreadTasks.isNotEmpty()) {
+            mainThreadTasks.removeFirst().run()
+        }
+        assertThat(setValues, `is`(listOf("a", "b")))
+        assertThat(liveData.value, `is`("B"))
+        verify(observer, only()).onChanged("B")
+    }
+
     private fun getLiveDataInternalObserver(lifecycle: Lifecycle?): LifecycleEventObserver {
         val captor: KArgumentCaptor<LifecycleEventObserver> = argumentCaptor()
         verify(lifecycle)?.addObserver(captor.capture())
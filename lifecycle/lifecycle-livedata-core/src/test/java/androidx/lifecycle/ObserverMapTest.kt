@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+@RunWith(JUnit4::class)
+class ObserverMapTest {
+
+    @Test
+    fun putIfAbsentAndRemove() {
+        val map = observerMapOf(1, 2, 3)
+        assertThat(map.putIfAbsent(2, "other"), `is`("2"))
+        assertThat(map.remove(2), `is`("2"))
+        assertThat(map.remove(2), nullValue())
+        assertThat(map.size(), `is`(2))
+        assertThat(map.putIfAbsent(2, "2"), nullValue())
+        assertThat(map.keys(), `is`(listOf(1, 3, 2)))
+    }
+
+    @Test
+    fun iteratorExcludesAdditions() {
+        val map = observerMapOf(1, 2)
+        val visited = mutableListOf<Int>()
+        for (entry in map) {
+            visited.add(entry.key)
+            map.putIfAbsent(entry.key + 10, "added")
+        }
+        assertThat(visited, `is`(listOf(1, 2)))
+    }
+
+    @Test
+    fun iteratorWithAdditions() {
+        val map = observerMapOf(1, 2)
+        val visited = mutableListOf<Int>()
+        val iterator = map.iteratorWithAdditions()
+        while (iterator.hasNext()) {
+            val key = iterator.next().key
+            visited.add(key)
+            if (key < 10) {
+                map.putIfAbsent(key + 10, "added")
+            }
+        }
+        assertThat(visited, `is`(listOf(1, 2, 11, 12)))
+    }
+
+    @Test
+    fun removeCurrentAndFollowingEntries() {
+        val map = observerMapOf(1, 2, 3, 4, 5)
+        val visited = mutableListOf<Int>()
+        val iterator = map.iteratorWithAdditions()
+        while (iterator.hasNext()) {
+            val key = iterator.next().key
+            visited.add(key)
+            if (key == 2) {
+                map.remove(2)
+                map.remove(3)
+                map.remove(1)
+            }
+        }
+        assertThat(visited, `is`(listOf(1, 2, 4, 5)))
+        assertThat(map.keys(), `is`(listOf(4, 5)))
+    }
+
+    @Test
+    fun removeLastEntriesThenAdd() {
+        val map = observerMapOf(1, 2, 3)
+        val visited = mutableListOf<Int>()
+        val iterator = map.iteratorWithAdditions()
+        while (iterator.hasNext()) {
+            val key = iterator.next().key
+            visited.add(key)
+            if (key == 2) {
+                map.remove(2)
+                map.remove(3)
+                map.putIfAbsent(4, "4")
+            }
+        }
+        assertThat(visited, `is`(listOf(1, 2, 4)))
+    }
+
+    @Test
+    fun removeAllEntriesThenAdd() {
+        val map = observerMapOf(1, 2)
+        val visited = mutableListOf<Int>()
+        val iterator = map.iteratorWithAdditions()
+        while (iterator.hasNext()) {
+            val key = iterator.next().key
+            visited.add(key)
+            if (key == 1) {
+                map.remove(1)
+                map.remove(2)
+                map.putIfAbsent(3, "3")
+            }
+        }
+        assertThat(visited, `is`(listOf(1, 3)))
+        assertThat(map.size(), `is`(1))
+    }
+
+    private fun observerMapOf(vararg keys: Int): ObserverMap<Int, String> {
+        val map = ObserverMap<Int, String>()
+        keys.forEach { map.putIfAbsent(it, it.toString()) }
+        return map
+    }
+
+    private fun ObserverMap<Int, String>.keys(): List<Int> = map { it.key }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.profileinstaller
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.filters.LargeTest
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Measures [ProfileTranscoder] on synthetic profiles much larger than the golden one used by
+ * [androidx.profileinstaller.benchmark.ProfileInstallerTranscodeBenchmark], with every method id
+ * of each dex file profiled.
+ *
+ * This lives in the package of [ProfileTranscoder] to call it directly, independently of the
+ * assets and the device.
+ */
+@RunWith(Parameterized::class)
+@LargeTest
+class ProfileTranscoderBenchmark(private val dexFileCount: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private lateinit var profile: Array<DexProfileData>
+    private lateinit var profileBytes: ByteArray
+
+    @Before
+    fun setUp() {
+        profile = createProfile(dexFileCount)
+        profileBytes = write(ProfileVersion.V010_P)
+    }
+
+    @Test
+    fun readProfile() {
+        benchmarkRule.measureRepeated {
+            ProfileTranscoder.readProfile(
+                ByteArrayInputStream(profileBytes),
+                ProfileVersion.V010_P,
+                APK_NAME
+            )
+        }
+    }
+
+    @Test
+    fun writeProfileForS() {
+        benchmarkRule.measureRepeated {
+            write(ProfileVersion.V015_S)
+        }
+    }
+
+    @Test
+    fun writeProfileForP() {
+        benchmarkRule.measureRepeated {
+            write(ProfileVersion.V010_P)
+        }
+    }
+
+    @Test
+    fun readAndWriteProfileForP() {
+        benchmarkRule.measureRepeated {
+            val data = ProfileTranscoder.readProfile(
+                ByteArrayInputStream(profileBytes),
+                ProfileVersion.V010_P,
+                APK_NAME
+            )
+            ProfileTranscoder.transcodeAndWriteBody(
+                ByteArrayOutputStream(),
+                ProfileVersion.V010_P,
+                data
+            )
+        }
+    }
+
+    private fun write(version: ByteArray): ByteArray {
+        val os = ByteArrayOutputStream()
+        ProfileTranscoder.transcodeAndWriteBody(os, version, profile)
+        return os.toByteArray()
+    }
+
+    companion object {
+        private const val APK_NAME = "base.apk"
+        private const val NUM_METHOD_IDS = 0xffff
+        private const val NUM_CLASSES = 4096
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "dexFileCount={0}")
+        fun parameters(): List<Int> = listOf(1, 16)
+
+        /**
+         * Creates a profile with all the method ids of each dex file, each flagged with one of
+         * the combinations of HOT, STARTUP and POST_STARTUP.
+         */
+        private fun createProfile(dexFileCount: Int): Array<DexProfileData> =
+            Array(dexFileCount) { i ->
+                val methods = (0 until NUM_METHOD_IDS).filter { (it + i) % 8 != 0 }
+                val methodFlags = methods.map { ((it + i) % 8).toByte() }
+                DexProfileData(
+                    "",
+                    "classes${i + 1}.dex",
+                    i.toLong(),
+                    0L,
+                    NUM_CLASSES,
+                    methodFlags.count { it.toInt() and 1 != 0 } * 4,
+                    NUM_METHOD_IDS,
+                    IntArray(NUM_CLASSES) { it * 8 + i % 8 },
+                    methods.toIntArray(),
+                    methodFlags.toByteArray()
+                )
+            }
+    }
+}
@@ -18,8 +18,6 @@ package androidx.profileinstaller;
 
 import androidx.annotation.NonNull;
 
-import java.util.TreeMap;
-
 class DexProfileData {
     @NonNull
     final String apkName;
@@ -31,8 +29,9 @@ class DexProfileData {
     final int hotMethodRegionSize;
     final int numMethodIds;
     @NonNull int[] classes;
-    final @NonNull
-    TreeMap<Integer, Integer> methods;
+    // The profiled method ids in ascending order, and the flags of each of them.
+    @NonNull int[] methods;
+    @NonNull byte[] methodFlags;
 
     DexProfileData(
             @NonNull String apkName,
@@ -43,7 +42,8 @@ class DexProfileData {
             int hotMethodRegionSize,
             int numMethodIds,
             @NonNull int[] classes,
-            @NonNull TreeMap<Integer, Integer> methods
+            @NonNull int[] methods,
+            @NonNull byte[] methodFlags
     ) {
         this.apkName = apkName;
         this.dexName = dexName;
@@ -54,5 +54,6 @@ class DexProfileData {
         this.numMethodIds = numMethodIds;
         this.classes = classes;
         this.methods = methods;
+        this.methodFlags = methodFlags;
     }
 }
\ No newline at end of file
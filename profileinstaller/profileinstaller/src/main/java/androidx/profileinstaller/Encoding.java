@@ -49,11 +49,9 @@ class Encoding {
 
     static void writeUInt(@NonNull OutputStream os, long value, int numberOfBytes) throws
             IOException {
-        byte[] buffer = new byte[numberOfBytes];
         for (int i = 0; i < numberOfBytes; i++) {
-            buffer[i] = (byte) ((value >> (i * SIZEOF_BYTE)) & 0xff);
+            os.write((int) ((value >> (i * SIZEOF_BYTE)) & 0xff));
         }
-        os.write(buffer);
     }
 
     static void writeUInt8(@NonNull OutputStream os, int value) throws IOException {
@@ -90,11 +88,13 @@ class Encoding {
     }
 
     static long readUInt(@NonNull InputStream is, int numberOfBytes) throws IOException {
-        byte[] buffer = read(is, numberOfBytes);
         long value = 0;
         for (int i = 0; i < numberOfBytes; i++) {
-            long next = buffer[i] & 0xff;
-            value += next << (i * SIZEOF_BYTE);
+            int next = is.read();
+            if (next < 0) {
+                throw error("Not enough bytes to read: " + numberOfBytes);
+            }
+            value += ((long) next) << (i * SIZEOF_BYTE);
         }
         return value;
     }
@@ -115,76 +115,6 @@ class Encoding {
         return new String(read(is, size), StandardCharsets.UTF_8);
     }
 
-    static @NonNull byte[] readCompressed(
-            @NonNull InputStream is,
-            int compressedDataSize,
-            int uncompressedDataSize
-    ) throws IOException {
-        // Read the expected compressed data size.
-        Inflater inf = new Inflater();
-        try {
-            byte[] result = new byte[uncompressedDataSize];
-            int totalBytesRead = 0;
-            int totalBytesInflated = 0;
-            byte[] input = new byte[2048]; // 2KB read window size;
-            while (
-                !inf.finished() &&
-                !inf.needsDictionary() &&
-                totalBytesRead < compressedDataSize
-            ) {
-                int bytesRead = is.read(input);
-                if (bytesRead < 0) {
-                    throw error(
-                            "Invalid zip data. Stream ended after $totalBytesRead bytes. " +
-                                    "Expected " + compressedDataSize + " bytes"
-                    );
-                }
-                inf.setInput(input, 0, bytesRead);
-                try {
-                    totalBytesInflated += inf.inflate(
-                            result,
-                            totalBytesInflated,
-                            uncompressedDataSize - totalBytesInflated
-                    );
-                } catch (DataFormatException e) {
-                    throw error(e.getMessage());
-                }
-                totalBytesRead += bytesRead;
-            }
-            if (totalBytesRead != compressedDataSize) {
-                throw error(
-                        "Didn't read enough bytes during decompression." +
-                                " expected=" + compressedDataSize +
-                                " actual=" + totalBytesRead
-                );
-            }
-            if (!inf.finished()) {
-                throw error("Inflater did not finish");
-            }
-            return result;
-        } finally {
-            inf.end();
-        }
-    }
-
-    static void writeCompressed(@NonNull OutputStream os, byte[] data) throws IOException {
-        writeUInt32(os, data.length); // uncompressed size
-        byte[] outputData = compress(data);
-        writeUInt32(os, outputData.length); // compressed size
-        os.write(outputData); // compressed body
-    }
-
-    static byte[] compress(@NonNull byte[] data) throws IOException {
-        Deflater compressor = new Deflater(Deflater.BEST_SPEED);
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out, compressor)) {
-            deflater.write(data);
-        } finally {
-            compressor.end();
-        }
-        return out.toByteArray();
-    }
-
     static void writeAll(@NonNull InputStream is,
             @NonNull OutputStream os,
             @Nullable FileLock lock) throws IOException {
@@ -203,4 +133,210 @@ class Encoding {
     static @NonNull RuntimeException error(@Nullable String message) {
         return new IllegalStateException(message);
     }
+
+    /**
+     * Inflates a zipped blob of a known size from an underlying stream as it is read, rather
+     * than inflating it all into memory first.
+     *
+     * {@link #available()} returns the number of inflated bytes that are left to read, and
+     * {@link #finish()} checks that the whole blob was consumed. Closing this stream does not
+     * close the underlying stream.
+     */
+    static final class InflatingInputStream extends InputStream {
+        private static final int INPUT_WINDOW_SIZE = 2048; // 2KB read window size
+        private static final int BUFFER_SIZE = 8192;
+
+        private final InputStream mIn;
+        private final Inflater mInflater = new Inflater();
+        private final byte[] mInput = new byte[INPUT_WINDOW_SIZE];
+        private final byte[] mBuffer = new byte[BUFFER_SIZE];
+        private final int mCompressedDataSize;
+        private int mCompressedBytesRead = 0;
+        // Inflated bytes not yet inflated into mBuffer, and not yet read from it.
+        private int mBytesToInflate;
+        private int mBytesAvailable;
+        private int mPosition = 0;
+        private int mLimit = 0;
+
+        InflatingInputStream(
+                @NonNull InputStream is,
+                int compressedDataSize,
+                int uncompressedDataSize
+        ) {
+            mIn = is;
+            mCompressedDataSize = compressedDataSize;
+            mBytesToInflate = uncompressedDataSize;
+            mBytesAvailable = uncompressedDataSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (mPosition == mLimit && !fill()) {
+                return -1;
+            }
+            mBytesAvailable--;
+            return mBuffer[mPosition++] & 0xff;
+        }
+
+        @Override
+        public int read(@NonNull byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (mPosition == mLimit && !fill()) {
+                return -1;
+            }
+            int count = Math.min(len, mLimit - mPosition);
+            System.arraycopy(mBuffer, mPosition, b, off, count);
+            mPosition += count;
+            mBytesAvailable -= count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return mBytesAvailable;
+        }
+
+        /**
+         * Inflates the rest of the blob, and checks that it was exactly the expected amount of
+         * compressed data.
+         */
+        void finish() throws IOException {
+            while (fill()) {
+                mBytesAvailable -= mLimit - mPosition;
+                mPosition = mLimit;
+            }
+            if (mCompressedBytesRead != mCompressedDataSize) {
+                throw error(
+                        "Didn't read enough bytes during decompression." +
+                                " expected=" + mCompressedDataSize +
+                                " actual=" + mCompressedBytesRead
+                );
+            }
+            if (!mInflater.finished()) {
+                throw error("Inflater did not finish");
+            }
+        }
+
+        @Override
+        public void close() {
+            mInflater.end();
+        }
+
+        private boolean fill() throws IOException {
+            mPosition = 0;
+            mLimit = 0;
+            while (!mInflater.finished() && !mInflater.needsDictionary()) {
+                if (mInflater.needsInput()) {
+                    if (mCompressedBytesRead == mCompressedDataSize) {
+                        return false;
+                    }
+                    int bytesRead = mIn.read(
+                            mInput,
+                            0,
+                            Math.min(mInput.length, mCompressedDataSize - mCompressedBytesRead)
+                    );
+                    if (bytesRead < 0) {
+                        throw error(
+                                "Invalid zip data. Stream ended after " + mCompressedBytesRead
+                                        + " bytes. Expected " + mCompressedDataSize + " bytes"
+                        );
+                    }
+                    mInflater.setInput(mInput, 0, bytesRead);
+                    mCompressedBytesRead += bytesRead;
+                }
+                if (mBytesToInflate == 0) {
+                    // Let the inflater consume the end of the blob, which should not hold any
+                    // more data than expected.
+                    if (inflate(mBuffer, 1) != 0) {
+                        throw error("Inflater did not finish");
+                    }
+                    continue;
+                }
+                int bytesInflated = inflate(mBuffer, Math.min(mBuffer.length, mBytesToInflate));
+                if (bytesInflated > 0) {
+                    mBytesToInflate -= bytesInflated;
+                    mLimit = bytesInflated;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int inflate(@NonNull byte[] buffer, int length) throws IOException {
+            try {
+                return mInflater.inflate(buffer, 0, length);
+            } catch (DataFormatException e) {
+                throw error(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Compresses the bytes written to it into memory as they are written, rather than
+     * compressing them once they have all been written out uncompressed.
+     *
+     * Small writes are buffered so that each value written does not go through the native
+     * deflater on its own.
+     */
+    static final class DeflatingOutputStream extends OutputStream {
+        private static final int BUFFER_SIZE = 8192;
+
+        private final Deflater mDeflater = new Deflater(Deflater.BEST_SPEED);
+        private final ByteArrayOutputStream mCompressed = new ByteArrayOutputStream();
+        private final DeflaterOutputStream mOut =
+                new DeflaterOutputStream(mCompressed, mDeflater, BUFFER_SIZE);
+        private final byte[] mBuffer = new byte[BUFFER_SIZE];
+        private int mCount = 0;
+        private long mUncompressedSize = 0;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (mCount == mBuffer.length) {
+                flushBuffer();
+            }
+            mBuffer[mCount++] = (byte) b;
+            mUncompressedSize++;
+        }
+
+        @Override
+        public void write(@NonNull byte[] b, int off, int len) throws IOException {
+            if (len > mBuffer.length - mCount) {
+                flushBuffer();
+            }
+            if (len >= mBuffer.length) {
+                mOut.write(b, off, len);
+            } else {
+                System.arraycopy(b, off, mBuffer, mCount, len);
+                mCount += len;
+            }
+            mUncompressedSize += len;
+        }
+
+        /** The number of bytes written so far, before compression. */
+        long getUncompressedSize() {
+            return mUncompressedSize;
+        }
+
+        /** Completes the compression and returns the compressed bytes. */
+        @NonNull
+        byte[] toCompressedByteArray() throws IOException {
+            flushBuffer();
+            mOut.finish();
+            return mCompressed.toByteArray();
+        }
+
+        @Override
+        public void close() {
+            mDeflater.end();
+        }
+
+        private void flushBuffer() throws IOException {
+            if (mCount > 0) {
+                mOut.write(mBuffer, 0, mCount);
+                mCount = 0;
+            }
+        }
+    }
 }
@@ -21,16 +21,13 @@ import static androidx.profileinstaller.Encoding.UINT_16_SIZE;
 import static androidx.profileinstaller.Encoding.UINT_32_SIZE;
 import static androidx.profileinstaller.Encoding.UINT_8_SIZE;
 import static androidx.profileinstaller.Encoding.bitsToBytes;
-import static androidx.profileinstaller.Encoding.compress;
 import static androidx.profileinstaller.Encoding.error;
 import static androidx.profileinstaller.Encoding.read;
-import static androidx.profileinstaller.Encoding.readCompressed;
 import static androidx.profileinstaller.Encoding.readString;
 import static androidx.profileinstaller.Encoding.readUInt16;
 import static androidx.profileinstaller.Encoding.readUInt32;
 import static androidx.profileinstaller.Encoding.readUInt8;
 import static androidx.profileinstaller.Encoding.utf8Length;
-import static androidx.profileinstaller.Encoding.writeCompressed;
 import static androidx.profileinstaller.Encoding.writeString;
 import static androidx.profileinstaller.Encoding.writeUInt16;
 import static androidx.profileinstaller.Encoding.writeUInt32;
@@ -39,18 +36,16 @@ import static androidx.profileinstaller.Encoding.writeUInt8;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
+import androidx.profileinstaller.Encoding.DeflatingOutputStream;
+import androidx.profileinstaller.Encoding.InflatingInputStream;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 @RequiresApi(19)
 class ProfileTranscoder {
@@ -146,12 +141,12 @@ class ProfileTranscoder {
         for (DexProfileData data : lines) {
             String profileKey = generateDexKey(data.apkName, data.dexName, ProfileVersion.V001_N);
             writeUInt16(os, utf8Length(profileKey));
-            writeUInt16(os, data.methods.size());
+            writeUInt16(os, data.methods.length);
             writeUInt16(os, data.classes.length);
             writeUInt32(os, data.dexChecksum);
             writeString(os, profileKey);
 
-            for (int id : data.methods.keySet()) {
+            for (int id : data.methods) {
                 writeUInt16(os, id);
             }
 
@@ -235,7 +230,6 @@ class ProfileTranscoder {
         // 3 Sections
         // Dex, Classes and Methods
         List<WritableFileSection> sections = new ArrayList<>(3);
-        List<byte[]> sectionContents = new ArrayList<>(3);
         sections.add(writeDexFileSection(profileData));
         sections.add(createCompressibleClassSection(profileData));
         sections.add(createCompressibleMethodsSection(profileData));
@@ -253,28 +247,16 @@ class ProfileTranscoder {
             writeUInt32(os, section.mType.getValue());
             // Compute contents, and keep track of next content offset
             writeUInt32(os, offset);
+            // Size
+            writeUInt32(os, section.mContents.length);
+            // Inflated Size (0L represents uncompressed)
+            writeUInt32(os, section.mIsCompressed ? section.mExpectedInflateSize : 0L);
             // Compute Next Offset based on Contents
-            if (section.mNeedsCompression) {
-                long inflatedSize = section.mContents.length;
-                byte[] compressed = compress(section.mContents);
-                sectionContents.add(compressed);
-                // Size
-                writeUInt32(os, compressed.length);
-                // Inflated Size
-                writeUInt32(os, inflatedSize);
-                offset += compressed.length;
-            } else {
-                sectionContents.add(section.mContents);
-                // Size
-                writeUInt32(os, section.mContents.length);
-                // Inflated Size (0L represents uncompressed)
-                writeUInt32(os, 0L);
-                offset += section.mContents.length;
-            }
+            offset += section.mContents.length;
         }
         // Write contents
-        for (int i = 0; i < sectionContents.size(); i++) {
-            os.write(sectionContents.get(i));
+        for (int i = 0; i < sections.size(); i++) {
+            os.write(sections.get(i).mContents);
         }
     }
 
@@ -323,7 +305,7 @@ class ProfileTranscoder {
                     FileSectionType.DEX_FILES,
                     expectedSize,
                     contents,
-                    false /* needsCompression */
+                    false /* isCompressed */
             );
         }
     }
@@ -332,7 +314,7 @@ class ProfileTranscoder {
             @NonNull DexProfileData[] profileData
     ) throws IOException {
         int expectedSize = 0;
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+        try (DeflatingOutputStream out = new DeflatingOutputStream()) {
             for (int i = 0; i < profileData.length; i++) {
                 DexProfileData profile = profileData[i];
                 // Profile Index
@@ -345,19 +327,7 @@ class ProfileTranscoder {
                 expectedSize += UINT_16_SIZE * profile.classSetSize;
                 writeClasses(out, profile);
             }
-            byte[] contents = out.toByteArray();
-            if (expectedSize != contents.length) {
-                throw error(
-                        "Expected size " + expectedSize + ", does not match actual size "
-                                + contents.length
-                );
-            }
-            return new WritableFileSection(
-                    FileSectionType.CLASSES,
-                    expectedSize,
-                    contents,
-                    true /* needsCompression */
-            );
+            return createCompressedSection(FileSectionType.CLASSES, expectedSize, out);
         }
     }
 
@@ -365,72 +335,71 @@ class ProfileTranscoder {
             @NonNull DexProfileData[] profileData
     ) throws IOException {
         int expectedSize = 0;
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+        try (DeflatingOutputStream out = new DeflatingOutputStream()) {
             for (int i = 0; i < profileData.length; i++) {
                 DexProfileData profile = profileData[i];
                 // Method Flags
                 int methodFlags = computeMethodFlags(profile);
                 // Bitmap Contents
-                byte[] bitmapContents = createMethodBitmapRegion(profile);
+                int bitmapSize = getMethodBitmapStorageSize(profile.numMethodIds);
                 // Methods with Inline Caches
-                byte[] methodRegionContents = createMethodsWithInlineCaches(profile);
+                int methodRegionSize = getHotMethodCount(profile) * (
+                        UINT_16_SIZE + // method index diff
+                                UINT_16_SIZE); // inline cache size (always 0 for us)
                 // Profile Index
                 expectedSize += UINT_16_SIZE;
                 writeUInt16(out, i);
                 // Following Data (flags + bitmap contents + method region)
-                int followingDataSize =
-                        UINT_16_SIZE + bitmapContents.length + methodRegionContents.length;
+                int followingDataSize = UINT_16_SIZE + bitmapSize + methodRegionSize;
                 expectedSize += UINT_32_SIZE;
                 writeUInt32(out, followingDataSize);
                 // Contents
                 writeUInt16(out, methodFlags);
-                out.write(bitmapContents);
-                out.write(methodRegionContents);
+                writeMethodBitmap(out, profile);
+                writeMethodsWithInlineCaches(out, profile);
                 expectedSize += followingDataSize;
             }
-            byte[] contents = out.toByteArray();
-            if (expectedSize != contents.length) {
-                throw error(
-                        "Expected size " + expectedSize + ", does not match actual size "
-                                + contents.length
-                );
-            }
-            return new WritableFileSection(
-                    FileSectionType.METHODS,
-                    expectedSize,
-                    contents,
-                    true /* needsCompression */
-            );
-        }
-    }
-
-    private static byte[] createMethodBitmapRegion(
-            @NonNull DexProfileData profile
-    ) throws IOException {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            writeMethodBitmap(out, profile);
-            return out.toByteArray();
+            return createCompressedSection(FileSectionType.METHODS, expectedSize, out);
         }
     }
 
-    private static byte[] createMethodsWithInlineCaches(
-            @NonNull DexProfileData profile
+    private static WritableFileSection createCompressedSection(
+            @NonNull FileSectionType type,
+            int expectedSize,
+            @NonNull DeflatingOutputStream out
     ) throws IOException {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            writeMethodsWithInlineCaches(out, profile);
-            return out.toByteArray();
+        if (expectedSize != out.getUncompressedSize()) {
+            throw error(
+                    "Expected size " + expectedSize + ", does not match actual size "
+                            + out.getUncompressedSize()
+            );
         }
+        return new WritableFileSection(
+                type,
+                expectedSize,
+                out.toCompressedByteArray(),
+                true /* isCompressed */
+        );
     }
 
     private static int computeMethodFlags(@NonNull DexProfileData profileData) {
         int methodFlags = 0;
-        for (Map.Entry<Integer, Integer> entry: profileData.methods.entrySet()) {
-            int flagValue = entry.getValue();
+        for (byte flagValue : profileData.methodFlags) {
             methodFlags |= flagValue;
         }
         return methodFlags;
     }
 
+    private static int getHotMethodCount(@NonNull DexProfileData profileData) {
+        int hotMethodCount = 0;
+        for (byte flagValue : profileData.methodFlags) {
+            if ((flagValue & HOT) != 0) {
+                hotMethodCount++;
+            }
+        }
+        return hotMethodCount;
+    }
+
     /**
      * Writes the provided [lines] out into a binary profile suitable for P,Q,R devices. This
      * method expects that the MAGIC and Version of the profile header have already been written
@@ -470,18 +439,16 @@ class ProfileTranscoder {
             @NonNull OutputStream os,
             @NonNull DexProfileData[] lines
     ) throws IOException {
-        byte[] profileBytes = createCompressibleBody(lines, ProfileVersion.V010_P);
         writeUInt8(os, lines.length); // number of dex files
-        writeCompressed(os, profileBytes);
+        writeCompressedBody(os, lines, ProfileVersion.V010_P);
     }
 
     private static void writeProfileForO_MR1(
             @NonNull OutputStream os,
             @NonNull DexProfileData[] lines
     ) throws IOException {
-        byte[] profileBytes = createCompressibleBody(lines, ProfileVersion.V009_O_MR1);
         writeUInt8(os, lines.length); // number of dex files
-        writeCompressed(os, profileBytes);
+        writeCompressedBody(os, lines, ProfileVersion.V009_O_MR1);
     }
 
     /**
@@ -520,7 +487,7 @@ class ProfileTranscoder {
     ) throws IOException {
         writeUInt8(os, lines.length); // number of dex files
         for (DexProfileData data : lines) {
-            int hotMethodRegionSize = data.methods.size() * (
+            int hotMethodRegionSize = data.methods.length * (
                     UINT_16_SIZE + // method id
                             UINT_16_SIZE);// inline cache size (should always be 0 for us)
             String dexKey = generateDexKey(data.apkName, data.dexName, ProfileVersion.V005_O);
@@ -530,7 +497,7 @@ class ProfileTranscoder {
             writeUInt32(os, data.dexChecksum);
             writeString(os, dexKey);
 
-            for (int id : data.methods.keySet()) {
+            for (int id : data.methods) {
                 writeUInt16(os, id);
                 // 0 for inline cache size, since we never encode any inline cache data.
                 writeUInt16(os, 0);
@@ -543,12 +510,15 @@ class ProfileTranscoder {
     }
 
     /**
-     * Create compressable body only for V0.1.0 v0.0.9.
+     * Write the compressed body only for V0.1.0 v0.0.9, preceded by its uncompressed and
+     * compressed sizes. The body is compressed as it is serialized, it is never held in memory
+     * uncompressed.
      *
      * For 0.1.0 this will write header/header/header/body/body/body
      * For 0.0.9 this will write header/body/header/body/header/body
      */
-    private static @NonNull byte[] createCompressibleBody(
+    private static void writeCompressedBody(
+            @NonNull OutputStream os,
             @NonNull DexProfileData[] lines,
             @NonNull byte[] version
     ) throws IOException {
@@ -574,8 +544,25 @@ class ProfileTranscoder {
         }
 
         // Start serializing the data.
-        ByteArrayOutputStream dataBos = new ByteArrayOutputStream(requiredCapacity);
+        byte[] compressed;
+        try (DeflatingOutputStream dataBos = new DeflatingOutputStream()) {
+            writeBody(dataBos, lines, version);
+            if (dataBos.getUncompressedSize() != requiredCapacity) {
+                throw error("The bytes saved do not match expectation. actual="
+                        + dataBos.getUncompressedSize() + " expected=" + requiredCapacity);
+            }
+            compressed = dataBos.toCompressedByteArray();
+        }
+        writeUInt32(os, requiredCapacity); // uncompressed size
+        writeUInt32(os, compressed.length); // compressed size
+        os.write(compressed); // compressed body
+    }
 
+    private static void writeBody(
+            @NonNull OutputStream dataBos,
+            @NonNull DexProfileData[] lines,
+            @NonNull byte[] version
+    ) throws IOException {
         // Dex files must be written in the order of their profile index. This
         // avoids writing the index in the output file and simplifies the parsing logic.
         // Write profile line headers.
@@ -600,12 +587,6 @@ class ProfileTranscoder {
                 writeLineData(dataBos, data);
             }
         }
-
-        if (dataBos.size() != requiredCapacity) {
-            throw error("The bytes saved do not match expectation. actual="
-                    + dataBos.size() + " expected=" + requiredCapacity);
-        }
-        return dataBos.toByteArray();
     }
 
     private static int getMethodBitmapStorageSize(int numMethodIds) {
@@ -686,9 +667,9 @@ class ProfileTranscoder {
         // The profile stores the first method index, then the remainder are relative
         // to the previous value.
         int lastMethodIndex = 0;
-        for (Map.Entry<Integer, Integer> entry : dexData.methods.entrySet()) {
-            int methodId = entry.getKey();
-            int flags = entry.getValue();
+        for (int i = 0; i < dexData.methods.length; i++) {
+            int methodId = dexData.methods[i];
+            int flags = dexData.methodFlags[i];
             if ((flags & HOT) == 0) {
                 continue;
             }
@@ -714,7 +695,7 @@ class ProfileTranscoder {
         int lastClassIndex = 0;
         // class ids must be sorted ascending so that each id is greater than the last since we
         // are writing unsigned ints and cannot represent negative values
-        for (Integer classIndex : dexData.classes) {
+        for (int classIndex : dexData.classes) {
             int diffWithTheLastClassIndex = classIndex - lastClassIndex;
             writeUInt16(os, diffWithTheLastClassIndex);
             lastClassIndex = classIndex;
@@ -731,9 +712,9 @@ class ProfileTranscoder {
             @NonNull DexProfileData dexData
     ) throws IOException {
         byte[] bitmap = new byte[getMethodBitmapStorageSize(dexData.numMethodIds)];
-        for (Map.Entry<Integer, Integer> entry : dexData.methods.entrySet()) {
-            int methodIndex = entry.getKey();
-            int flagValue = entry.getValue();
+        for (int i = 0; i < dexData.methods.length; i++) {
+            int methodIndex = dexData.methods[i];
+            int flagValue = dexData.methodFlags[i];
 
             if ((flagValue & STARTUP) != 0) {
                 setMethodBitmapBit(bitmap, STARTUP, methodIndex, dexData);
@@ -796,17 +777,18 @@ class ProfileTranscoder {
         long compressedDataSize = readUInt32(is);
 
         // We are done with the header, so everything that follows is the compressed blob. We
-        // uncompress it all and load it into memory
-        byte[] uncompressedData = readCompressed(
+        // uncompress it as we parse it
+        DexProfileData[] lines;
+        try (InflatingInputStream dataStream = new InflatingInputStream(
                 is,
                 (int) compressedDataSize,
                 (int) uncompressedDataSize
-        );
-        if (is.read() > 0) throw error("Content found after the end of file");
-
-        try (InputStream dataStream = new ByteArrayInputStream(uncompressedData)) {
-            return readUncompressedBody(dataStream, apkName, numberOfDexFiles);
+        )) {
+            lines = readUncompressedBody(dataStream, apkName, numberOfDexFiles);
+            dataStream.finish();
         }
+        if (is.read() > 0) throw error("Content found after the end of file");
+        return lines;
     }
 
 
@@ -855,17 +837,18 @@ class ProfileTranscoder {
         long compressedDataSize = readUInt32(is);
 
         // We are done with the header, so everything that follows is the compressed blob. We
-        // uncompress it all and load it into memory
-        byte[] uncompressedData = readCompressed(
+        // uncompress it as we parse it
+        DexProfileData[] result;
+        try (InflatingInputStream dataStream = new InflatingInputStream(
                 is,
                 (int) compressedDataSize,
                 (int) uncompressedDataSize
-        );
-        if (is.read() > 0) throw error("Content found after the end of file");
-
-        try (InputStream dataStream = new ByteArrayInputStream(uncompressedData)) {
-            return readMetadataForNBody(dataStream, numberOfDexFiles, profile);
+        )) {
+            result = readMetadataForNBody(dataStream, numberOfDexFiles, profile);
+            dataStream.finish();
         }
+        if (is.read() > 0) throw error("Content found after the end of file");
+        return result;
     }
 
     /**
@@ -890,21 +873,23 @@ class ProfileTranscoder {
         // Compressed Size
         long compressed = readUInt32(is);
         // We are done with the header, so everything that follows is the compressed blob. We
-        // uncompress it all and load it into memory
-        byte[] contents = readCompressed(
+        // uncompress it as we parse it
+        DexProfileData[] result;
+        try (InflatingInputStream dataStream = new InflatingInputStream(
                 is,
                 (int) compressed,
                 (int) uncompressed
-        );
-        if (is.read() > 0) throw error("Content found after the end of file");
-        try (InputStream dataStream = new ByteArrayInputStream(contents)) {
-            return readMetadataV002Body(
+        )) {
+            result = readMetadataV002Body(
                     dataStream,
                     desiredProfileVersion,
                     dexFileCount,
                     profile
             );
+            dataStream.finish();
         }
+        if (is.read() > 0) throw error("Content found after the end of file");
+        return result;
     }
 
     @NonNull
@@ -1105,14 +1090,17 @@ class ProfileTranscoder {
                     // NOTE: It is important to use LinkedHashSet/LinkedHashMap here to
                     // ensure that iteration order matches insertion order
                     new int[classSetSize],
-                    new TreeMap<>()
+                    new int[0],
+                    new byte[0]
             );
         }
 
         // Load data for each discovered dex file.
         for (DexProfileData data : lines) {
             // The hot methods are stored one-by-one with the inline cache information alongside it.
-            readHotMethodRegion(is, data);
+            // Each of them takes at least 4 bytes, which bounds their count.
+            int[] hotMethods = new int[data.hotMethodRegionSize / (UINT_16_SIZE + UINT_16_SIZE)];
+            int hotMethodCount = readHotMethodRegion(is, data, hotMethods);
 
             // Then the startup classes are stored
             data.classes = readClasses(is, data.classSetSize);
@@ -1120,18 +1108,24 @@ class ProfileTranscoder {
             // In addition to [HOT], the methods can be labeled as [STARTUP] and [POST_STARTUP].
             // To compress this information better, this information is stored as a bitmap, with
             // 2-bits per method in the entire dex.
-            readMethodBitmap(is, data);
+            readMethodBitmap(is, data, hotMethods, hotMethodCount);
         }
 
         return lines;
     }
 
-    private static void readHotMethodRegion(
+    /**
+     * Reads the hot methods of a dex file in ascending order into {@code hotMethods}, and returns
+     * their count.
+     */
+    private static int readHotMethodRegion(
             @NonNull InputStream is,
-            @NonNull DexProfileData data
+            @NonNull DexProfileData data,
+            @NonNull int[] hotMethods
     ) throws IOException {
         int expectedBytesAvailableAfterRead = is.available() - data.hotMethodRegionSize;
         int lastMethodIndex = 0;
+        int hotMethodCount = 0;
 
         // Read one method at a time until we reach the end of the method region.
         while (is.available() > expectedBytesAvailableAfterRead) {
@@ -1140,7 +1134,10 @@ class ProfileTranscoder {
             int diffWithLastMethodDexIndex = readUInt16(is);
             int methodDexIndex = lastMethodIndex + diffWithLastMethodDexIndex;
 
-            data.methods.put(methodDexIndex, HOT);
+            // The indexes never decrease, a repeated index is the same method.
+            if (hotMethodCount == 0 || hotMethods[hotMethodCount - 1] != methodDexIndex) {
+                hotMethods[hotMethodCount++] = methodDexIndex;
+            }
 
             // Read the inline caches.
             int inlineCacheSize = readUInt16(is);
@@ -1158,6 +1155,7 @@ class ProfileTranscoder {
                     "Read too much data during profile line parse"
             );
         }
+        return hotMethodCount;
     }
 
     private static void skipInlineCache(@NonNull InputStream is) throws IOException {
@@ -1201,34 +1199,82 @@ class ProfileTranscoder {
         return classes;
     }
 
+    /**
+     * Reads the method bitmap of a dex file, and merges the methods flagged in it with the given
+     * sorted hot methods into {@link DexProfileData#methods}.
+     */
     private static void readMethodBitmap(
             @NonNull InputStream is,
-            @NonNull DexProfileData data
+            @NonNull DexProfileData data,
+            @NonNull int[] hotMethods,
+            int hotMethodCount
     ) throws IOException {
-        int methodBitmapStorageSize = bitsToBytes(data.numMethodIds * 2);
+        int numMethodIds = data.numMethodIds;
+        int methodBitmapStorageSize = bitsToBytes(numMethodIds * 2);
         byte[] methodBitmap = read(is, methodBitmapStorageSize);
-        BitSet bs = BitSet.valueOf(methodBitmap);
-        for (int methodIndex = 0; methodIndex < data.numMethodIds; methodIndex++) {
-            int newFlags = readFlagsFromBitmap(bs, methodIndex, data.numMethodIds);
-            if (newFlags != 0) {
-                Integer current = data.methods.get(methodIndex);
-                if (current == null) current = 0;
-                data.methods.put(methodIndex, current | newFlags);
+
+        // Count the methods first, so that the arrays are allocated with their final size.
+        int methodCount = hotMethodCount;
+        int hot = 0;
+        for (int methodIndex = 0; methodIndex < numMethodIds; methodIndex++) {
+            if (readFlagsFromBitmap(methodBitmap, methodIndex, numMethodIds) == 0) {
+                continue;
+            }
+            while (hot < hotMethodCount && hotMethods[hot] < methodIndex) {
+                hot++;
+            }
+            if (hot == hotMethodCount || hotMethods[hot] != methodIndex) {
+                methodCount++;
+            }
+        }
+
+        int[] methods = new int[methodCount];
+        byte[] methodFlags = new byte[methodCount];
+        int count = 0;
+        hot = 0;
+        for (int methodIndex = 0; methodIndex < numMethodIds; methodIndex++) {
+            while (hot < hotMethodCount && hotMethods[hot] < methodIndex) {
+                methods[count] = hotMethods[hot++];
+                methodFlags[count++] = HOT;
+            }
+            int flags = readFlagsFromBitmap(methodBitmap, methodIndex, numMethodIds);
+            if (hot < hotMethodCount && hotMethods[hot] == methodIndex) {
+                flags |= HOT;
+                hot++;
             }
+            if (flags != 0) {
+                methods[count] = methodIndex;
+                methodFlags[count++] = (byte) flags;
+            }
+        }
+        // Hot methods may be outside of the method ids of the bitmap.
+        while (hot < hotMethodCount) {
+            methods[count] = hotMethods[hot++];
+            methodFlags[count++] = HOT;
         }
+        data.methods = methods;
+        data.methodFlags = methodFlags;
     }
 
-    private static int readFlagsFromBitmap(@NonNull BitSet bs, int methodIndex, int numMethodIds) {
+    private static int readFlagsFromBitmap(
+            @NonNull byte[] bitmap,
+            int methodIndex,
+            int numMethodIds
+    ) {
         int result = 0;
-        if (bs.get(methodFlagBitmapIndex(STARTUP, methodIndex, numMethodIds))) {
+        if (isBitSet(bitmap, methodFlagBitmapIndex(STARTUP, methodIndex, numMethodIds))) {
             result |= STARTUP;
         }
-        if (bs.get(methodFlagBitmapIndex(POST_STARTUP, methodIndex, numMethodIds))) {
+        if (isBitSet(bitmap, methodFlagBitmapIndex(POST_STARTUP, methodIndex, numMethodIds))) {
             result |= POST_STARTUP;
         }
         return result;
     }
 
+    private static boolean isBitSet(@NonNull byte[] bitmap, int bitIndex) {
+        return (bitmap[bitIndex / SIZEOF_BYTE] & (1 << (bitIndex % SIZEOF_BYTE))) != 0;
+    }
+
     private static int methodFlagBitmapIndex(int flag, int methodIndex, int numMethodIds) {
         // The format is [startup bitmap][post startup bitmap][AmStartup][...]
         // This compresses better than ([startup bit][post startup bit])*
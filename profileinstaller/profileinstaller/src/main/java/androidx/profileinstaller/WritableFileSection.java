@@ -24,17 +24,18 @@ import androidx.annotation.NonNull;
 class WritableFileSection {
     final FileSectionType mType;
     final int mExpectedInflateSize;
+    // The bytes of the section as written to the file, already compressed if mIsCompressed.
     final byte[] mContents;
-    final boolean mNeedsCompression;
+    final boolean mIsCompressed;
 
     WritableFileSection(
             @NonNull FileSectionType type,
             int expectedInflateSize,
             @NonNull byte[] contents,
-            boolean needsCompression) {
+            boolean isCompressed) {
         this.mType = type;
         this.mExpectedInflateSize = expectedInflateSize;
         this.mContents = contents;
-        this.mNeedsCompression = needsCompression;
+        this.mIsCompressed = isCompressed;
     }
 }
@@ -31,6 +31,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -183,6 +184,68 @@ public class ProfileTranscoderTests {
         );
     }
 
+    @Test
+    public void testRoundTripLargeProfile() throws IOException {
+        DexProfileData[] profile = createLargeProfile();
+        byte[] version = ProfileVersion.V010_P;
+        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            ProfileTranscoder.transcodeAndWriteBody(os, version, profile);
+            try (InputStream is = new ByteArrayInputStream(os.toByteArray())) {
+                DexProfileData[] data = ProfileTranscoder.readProfile(is, version, APK_NAME);
+                Truth.assertThat(data).hasLength(profile.length);
+                for (int i = 0; i < profile.length; i++) {
+                    Truth.assertThat(data[i].dexName).isEqualTo(profile[i].dexName);
+                    Truth.assertThat(data[i].classes).isEqualTo(profile[i].classes);
+                    Truth.assertThat(data[i].methods).isEqualTo(profile[i].methods);
+                    Truth.assertThat(data[i].methodFlags).isEqualTo(profile[i].methodFlags);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a profile of 8 dex files with all the method ids of a dex file, flagged with all
+     * the combinations of flags.
+     */
+    private static DexProfileData[] createLargeProfile() {
+        int numMethodIds = 0xffff;
+        DexProfileData[] profile = new DexProfileData[8];
+        for (int i = 0; i < profile.length; i++) {
+            int[] classes = new int[4096];
+            for (int k = 0; k < classes.length; k++) {
+                classes[k] = k * 8 + i;
+            }
+            int methodCount = 0;
+            int[] methods = new int[numMethodIds];
+            byte[] methodFlags = new byte[numMethodIds];
+            int hotMethodCount = 0;
+            for (int methodIndex = 0; methodIndex < numMethodIds; methodIndex++) {
+                // HOT, STARTUP and POST_STARTUP for the lowest 3 bits.
+                int flags = (methodIndex + i) % 8;
+                if (flags != 0) {
+                    methods[methodCount] = methodIndex;
+                    methodFlags[methodCount++] = (byte) flags;
+                    if ((flags & 1) != 0) {
+                        hotMethodCount++;
+                    }
+                }
+            }
+            profile[i] = new DexProfileData(
+                    "",
+                    "classes" + (i + 1) + ".dex",
+                    i,
+                    0L,
+                    classes.length,
+                    hotMethodCount * 4,
+                    numMethodIds,
+                    classes,
+                    Arrays.copyOf(methods, methodCount),
+                    Arrays.copyOf(methodFlags, methodCount)
+            );
+        }
+        return profile;
+    }
+
     private static File testFile(@NonNull String fileName) {
         return new File("src/test/test-data", fileName);
     }
@@ -23,6 +23,7 @@ import java.util.Collections.emptyList
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertNotSame
 import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
 import org.junit.Assert.fail
 import org.junit.Test
 import org.junit.runner.RunWith
@@ -346,6 +347,74 @@ class AsyncListDifferTest {
         verifyNoMoreInteractions(listener)
     }
 
+    @Test
+    fun submitListCancelsPendingDiff() {
+        val comparedItems = mutableListOf<String>()
+        val differ = createComparisonRecordingDiffer { _, newItem -> comparedItems.add(newItem) }
+        differ.submitList(listOf("a", "b"))
+
+        differ.submitList(listOf("c1", "c2"))
+        differ.submitList(listOf("a", "d"))
+        drain()
+
+        // the replaced diff was canceled before it started
+        assertEquals(listOf("a", "d"), differ.currentList)
+        assertTrue(comparedItems.none { it.startsWith("c") })
+    }
+
+    @Test
+    fun submitListCancelsRunningDiff() {
+        val oldList = List(1000) { "o$it" }
+        val replacedList = List(1000) { "r$it" }
+        val newList = List(10) { "n$it" }
+        var replacedListComparisons = 0
+        lateinit var differ: AsyncListDiffer<String>
+        differ = createComparisonRecordingDiffer { _, newItem ->
+            if (newItem.startsWith("r") && replacedListComparisons++ == 0) {
+                // a newer list is submitted while the diff is running
+                differ.submitList(newList)
+            }
+        }
+        differ.submitList(oldList)
+
+        differ.submitList(replacedList)
+        drain()
+
+        // without cancellation, diffing two lists without common items compares about a
+        // million pairs of items
+        assertEquals(newList, differ.currentList)
+        assertTrue(
+            "compared $replacedListComparisons items of the replaced list",
+            replacedListComparisons < 1000
+        )
+    }
+
+    /**
+     * Creates a differ using [STRING_DIFF_CALLBACK], which calls [onCompare] for every pair of
+     * items compared with [DiffUtil.ItemCallback.areItemsTheSame].
+     */
+    private fun createComparisonRecordingDiffer(
+        onCompare: (oldItem: String, newItem: String) -> Unit
+    ): AsyncListDiffer<String> {
+        val diffCallback = object : DiffUtil.ItemCallback<String>() {
+            override fun areItemsTheSame(oldItem: String, newItem: String): Boolean {
+                onCompare(oldItem, newItem)
+                return STRING_DIFF_CALLBACK.areItemsTheSame(oldItem, newItem)
+            }
+
+            override fun areContentsTheSame(oldItem: String, newItem: String): Boolean {
+                return STRING_DIFF_CALLBACK.areContentsTheSame(oldItem, newItem)
+            }
+        }
+        return AsyncListDiffer(
+            IGNORE_CALLBACK,
+            AsyncDifferConfig.Builder(diffCallback)
+                .setMainThreadExecutor(mMainThread)
+                .setBackgroundThreadExecutor(mBackgroundThread)
+                .build()
+        )
+    }
+
     private fun drain() {
         var executed: Boolean
         do {
@@ -23,26 +23,163 @@ import static org.junit.Assert.assertTrue;
 
 import android.content.Context;
 import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
 
+import androidx.annotation.NonNull;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SdkSuppress;
 import androidx.test.filters.SmallTest;
 
+import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 @SmallTest
 @RunWith(AndroidJUnit4.class)
 public class GapWorkerTest {
+    private static final long FRAME_INTERVAL_MS = 16;
+
+    private TimeMockingRecyclerView mRecyclerView;
+
+    /**
+     * RecyclerView with a fake clock and frame time, which records the runnables posted to it,
+     * and to its next animation frame, instead of running them.
+     */
+    private static class TimeMockingRecyclerView extends RecyclerView {
+        private long mMockNanoTime = TimeUnit.SECONDS.toNanos(1);
+        long mMockDrawingTimeMs;
+        final ArrayList<Runnable> mPostedRunnables = new ArrayList<>();
+        final ArrayList<Runnable> mAnimationRunnables = new ArrayList<>();
+
+        TimeMockingRecyclerView(Context context) {
+            super(context);
+        }
+
+        void registerTimePassingMs(long ms) {
+            mMockNanoTime += TimeUnit.MILLISECONDS.toNanos(ms);
+        }
+
+        /** Pretends that the last frame was drawn so that its deadline is {@code ms} from now. */
+        void setNextFrameDeadlineInMs(long ms) {
+            mMockDrawingTimeMs =
+                    TimeUnit.NANOSECONDS.toMillis(mMockNanoTime) + ms - FRAME_INTERVAL_MS;
+        }
+
+        @Override
+        long getNanoTime() {
+            return mMockNanoTime;
+        }
+
+        @Override
+        public long getDrawingTime() {
+            return mMockDrawingTimeMs;
+        }
+
+        @Override
+        public int getWindowVisibility() {
+            // Pretend to be visible to avoid being filtered out
+            return View.VISIBLE;
+        }
+
+        @Override
+        public boolean post(Runnable action) {
+            mPostedRunnables.add(action);
+            return true;
+        }
+
+        @Override
+        public void postOnAnimation(Runnable action) {
+            mAnimationRunnables.add(action);
+        }
+
+        /**
+         * Runs the animation callbacks of the next frame, which is drawn so that its deadline is
+         * {@code deadlineMs} from now, or not drawn at all if {@code deadlineMs} is negative.
+         */
+        void runNextFrame(long deadlineMs) {
+            registerTimePassingMs(FRAME_INTERVAL_MS);
+            if (deadlineMs >= 0) {
+                setNextFrameDeadlineInMs(deadlineMs);
+            }
+            ArrayList<Runnable> runnables = new ArrayList<>(mAnimationRunnables);
+            mAnimationRunnables.clear();
+            for (Runnable runnable : runnables) {
+                runnable.run();
+            }
+        }
+    }
+
+    @After
+    public void teardown() {
+        if (mRecyclerView != null) {
+            // the GapWorker is shared by the thread, don't leak a pending reschedule
+            GapWorker gapWorker = GapWorker.sGapWorker.get();
+            if (gapWorker != null) {
+                gapWorker.mConsecutiveReschedules = 0;
+                gapWorker.mPostTimeNs = 0;
+                gapWorker.mRescheduleView = null;
+            }
+            if (mRecyclerView.isAttachedToWindow()) {
+                mRecyclerView.onDetachedFromWindow();
+            }
+        }
+    }
 
     private Context getContext() {
         return ApplicationProvider.getApplicationContext();
     }
 
+    /**
+     * Lays out a RecyclerView of 100x100 pixel views, each taking {@code createMs} to create and
+     * 1ms to bind, with the next view to prefetch not yet created.
+     */
+    private void setUpTimedPrefetch(final long createMs) {
+        mRecyclerView = new TimeMockingRecyclerView(getContext());
+        mRecyclerView.onAttachedToWindow();
+        mRecyclerView.mGapWorker.mFrameIntervalNs = TimeUnit.MILLISECONDS.toNanos(
+                FRAME_INTERVAL_MS);
+        mRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        mRecyclerView.setAdapter(new RecyclerView.Adapter<RecyclerView.ViewHolder>() {
+            @NonNull
+            @Override
+            public RecyclerView.ViewHolder onCreateViewHolder(
+                    @NonNull ViewGroup parent, int viewType) {
+                mRecyclerView.registerTimePassingMs(createMs);
+                View view = new View(getContext());
+                view.setMinimumWidth(100);
+                view.setMinimumHeight(100);
+                return new RecyclerView.ViewHolder(view) {};
+            }
+
+            @Override
+            public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+                mRecyclerView.registerTimePassingMs(1);
+            }
+
+            @Override
+            public int getItemCount() {
+                return 100;
+            }
+        });
+        mRecyclerView.measure(
+                View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(300, View.MeasureSpec.EXACTLY));
+        mRecyclerView.layout(0, 0, 100, 300);
+
+        // offset scroll so that no prefetch-able views are directly adjacent to viewport
+        mRecyclerView.scrollBy(0, 50);
+        // the tests run the prefetch themselves
+        mRecyclerView.mPostedRunnables.clear();
+        mRecyclerView.mPrefetchRegistry.setPrefetchVector(0, 1);
+        assertTrue(mRecyclerView.mRecycler.mCachedViews.isEmpty());
+    }
+
     @Test
     public void registrySimple() {
         GapWorker.LayoutPrefetchRegistryImpl registry = new GapWorker.LayoutPrefetchRegistryImpl();
@@ -182,4 +319,130 @@ public class GapWorkerTest {
             recyclerView.onDetachedFromWindow();
         }
     }
+
+    @SdkSuppress(minSdkVersion = Build.VERSION_CODES.LOLLIPOP)
+    @Test
+    public void runReschedulesDeferredPrefetch() {
+        setUpTimedPrefetch(6);
+        GapWorker gapWorker = mRecyclerView.mGapWorker;
+
+        // creating the view takes longer than what is left of the frame
+        mRecyclerView.setNextFrameDeadlineInMs(2);
+        gapWorker.run();
+
+        assertTrue(mRecyclerView.mRecycler.mCachedViews.isEmpty());
+        assertEquals(1, gapWorker.mConsecutiveReschedules);
+        assertEquals(mRecyclerView.getNanoTime(), gapWorker.mPostTimeNs);
+
+        // the worker isn't posted again before the next frame
+        assertTrue(mRecyclerView.mPostedRunnables.isEmpty());
+        assertEquals(1, mRecyclerView.mAnimationRunnables.size());
+
+        // once the next frame starts, the worker runs after its traversal
+        mRecyclerView.runNextFrame(FRAME_INTERVAL_MS);
+        assertEquals(1, mRecyclerView.mPostedRunnables.size());
+        assertTrue(mRecyclerView.mPostedRunnables.get(0) == gapWorker);
+        mRecyclerView.mPostedRunnables.remove(0).run();
+
+        assertEquals(1, mRecyclerView.mRecycler.mCachedViews.size());
+        assertTrue(mRecyclerView.mAnimationRunnables.isEmpty());
+        assertEquals(0, gapWorker.mConsecutiveReschedules);
+        assertEquals(0, gapWorker.mPostTimeNs);
+    }
+
+    @SdkSuppress(minSdkVersion = Build.VERSION_CODES.LOLLIPOP)
+    @Test
+    public void runDoesNotRescheduleWorkThatNeverFits() {
+        // creating the view takes longer than any budget a rescheduled run would have
+        setUpTimedPrefetch(10);
+        GapWorker gapWorker = mRecyclerView.mGapWorker;
+
+        mRecyclerView.setNextFrameDeadlineInMs(2);
+        gapWorker.run();
+
+        assertTrue(mRecyclerView.mRecycler.mCachedViews.isEmpty());
+        assertTrue(mRecyclerView.mAnimationRunnables.isEmpty());
+        assertTrue(mRecyclerView.mPostedRunnables.isEmpty());
+        assertEquals(0, gapWorker.mConsecutiveReschedules);
+        assertEquals(0, gapWorker.mPostTimeNs);
+    }
+
+    @SdkSuppress(minSdkVersion = Build.VERSION_CODES.LOLLIPOP)
+    @Test
+    public void pendingRescheduleIsDroppedWhenViewIsDetached() {
+        setUpTimedPrefetch(6);
+        GapWorker gapWorker = mRecyclerView.mGapWorker;
+
+        mRecyclerView.setNextFrameDeadlineInMs(2);
+        gapWorker.run();
+        assertEquals(1, mRecyclerView.mAnimationRunnables.size());
+
+        mRecyclerView.onDetachedFromWindow();
+        mRecyclerView.runNextFrame(FRAME_INTERVAL_MS);
+
+        // nothing is posted, and the next traversal of an attached view may post the worker
+        assertTrue(mRecyclerView.mPostedRunnables.isEmpty());
+        assertEquals(0, gapWorker.mConsecutiveReschedules);
+        assertEquals(0, gapWorker.mPostTimeNs);
+    }
+
+    @SdkSuppress(minSdkVersion = Build.VERSION_CODES.LOLLIPOP)
+    @Test
+    public void runStopsReschedulingAfterMaxConsecutiveRuns() {
+        // creating the view fits in half a frame, but every frame drawn leaves less than that
+        setUpTimedPrefetch(6);
+        GapWorker gapWorker = mRecyclerView.mGapWorker;
+
+        mRecyclerView.setNextFrameDeadlineInMs(2);
+        gapWorker.run();
+        int rescheduledRuns = 0;
+        while (!mRecyclerView.mAnimationRunnables.isEmpty()
+                && rescheduledRuns <= GapWorker.MAX_CONSECUTIVE_RESCHEDULES) {
+            rescheduledRuns++;
+            assertEquals(rescheduledRuns, gapWorker.mConsecutiveReschedules);
+            mRecyclerView.runNextFrame(2);
+            assertEquals(1, mRecyclerView.mPostedRunnables.size());
+            mRecyclerView.mPostedRunnables.remove(0).run();
+        }
+
+        assertEquals(GapWorker.MAX_CONSECUTIVE_RESCHEDULES, rescheduledRuns);
+        assertTrue(mRecyclerView.mAnimationRunnables.isEmpty());
+        assertTrue(mRecyclerView.mPostedRunnables.isEmpty());
+
+        assertTrue(mRecyclerView.mRecycler.mCachedViews.isEmpty());
+        assertEquals(0, gapWorker.mConsecutiveReschedules);
+        assertEquals(0, gapWorker.mPostTimeNs);
+
+        // a new run, e.g. posted from the next scroll, may reschedule itself again
+        mRecyclerView.setNextFrameDeadlineInMs(2);
+        gapWorker.run();
+        assertEquals(1, mRecyclerView.mAnimationRunnables.size());
+        assertEquals(1, gapWorker.mConsecutiveReschedules);
+    }
+
+    @SdkSuppress(minSdkVersion = Build.VERSION_CODES.LOLLIPOP)
+    @Test
+    public void rescheduledRunUsesIdleBudgetWhenNoFrameWasDrawn() {
+        // creating the view fits in half a frame, but not in what is left of the current one
+        setUpTimedPrefetch(6);
+        GapWorker gapWorker = mRecyclerView.mGapWorker;
+
+        mRecyclerView.setNextFrameDeadlineInMs(2);
+        gapWorker.run();
+        assertTrue(mRecyclerView.mRecycler.mCachedViews.isEmpty());
+        assertEquals(1, mRecyclerView.mAnimationRunnables.size());
+
+        // no frame is drawn before the rescheduled run: the deadline of the last frame has
+        // passed, so the run uses half a frame from now
+        mRecyclerView.runNextFrame(-1);
+        mRecyclerView.registerTimePassingMs(FRAME_INTERVAL_MS);
+        long startNs = mRecyclerView.getNanoTime();
+        mRecyclerView.mPostedRunnables.remove(0).run();
+
+        assertEquals(1, mRecyclerView.mRecycler.mCachedViews.size());
+        assertTrue(mRecyclerView.getNanoTime() - startNs
+                < TimeUnit.MILLISECONDS.toNanos(FRAME_INTERVAL_MS) / 2);
+        assertTrue(mRecyclerView.mAnimationRunnables.isEmpty());
+        assertEquals(0, gapWorker.mConsecutiveReschedules);
+    }
 }
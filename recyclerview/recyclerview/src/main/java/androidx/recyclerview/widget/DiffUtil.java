@@ -19,6 +19,8 @@ package androidx.recyclerview.widget;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+import androidx.core.os.OperationCanceledException;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -26,6 +28,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 
@@ -84,6 +87,9 @@ public class DiffUtil {
         // utility class, no instance.
     }
 
+    // check for cancellation every 16 steps of the middle snake search
+    private static final int CANCELLATION_CHECK_MASK = 16 - 1;
+
     private static final Comparator<Diagonal> DIAGONAL_COMPARATOR = new Comparator<Diagonal>() {
         @Override
         public int compare(Diagonal o1, Diagonal o2) {
@@ -121,6 +127,33 @@ public class DiffUtil {
      */
     @NonNull
     public static DiffResult calculateDiff(@NonNull Callback cb, boolean detectMoves) {
+        return calculateDiff(cb, detectMoves, null);
+    }
+
+    /**
+     * Calculates the list of update operations that can covert one list into the other one,
+     * stopping early if the given signal is canceled.
+     * <p>
+     * The signal is checked between steps of the computation, so a diff that is no longer needed
+     * (for example because a newer list was submitted) stops using the CPU shortly after being
+     * canceled instead of running to completion.
+     * <p>
+     * Move detection compares removed items to added items. Items are only compared to items with
+     * the same key (see {@link Callback#getOldItemKey(int)}), so providing keys makes move
+     * detection linear in the number of added and removed items instead of quadratic.
+     *
+     * @param cb The callback that acts as a gateway to the backing list data
+     * @param detectMoves True if DiffUtil should try to detect moved items, false otherwise.
+     * @param cancellationSignal A signal to cancel the computation, or null.
+     *
+     * @return A DiffResult that contains the information about the edit sequence to convert the
+     * old list into the new list.
+     * @throws OperationCanceledException if the signal was canceled before the computation
+     * completed.
+     */
+    @NonNull
+    public static DiffResult calculateDiff(@NonNull Callback cb, boolean detectMoves,
+            @Nullable CancellationSignal cancellationSignal) {
         final int oldSize = cb.getOldListSize();
         final int newSize = cb.getNewListSize();
 
@@ -142,8 +175,11 @@ public class DiffUtil {
         // We pool the ranges to avoid allocations for each recursive call.
         final List<Range> rangePool = new ArrayList<>();
         while (!stack.isEmpty()) {
+            if (cancellationSignal != null) {
+                cancellationSignal.throwIfCanceled();
+            }
             final Range range = stack.remove(stack.size() - 1);
-            final Snake snake = midPoint(range, cb, forward, backward);
+            final Snake snake = midPoint(range, cb, forward, backward, cancellationSignal);
             if (snake != null) {
                 // if it has a diagonal, save it
                 if (snake.diagonalSize() > 0) {
@@ -176,7 +212,7 @@ public class DiffUtil {
 
         return new DiffResult(cb, diagonals,
                 forward.backingData(), backward.backingData(),
-                detectMoves);
+                detectMoves, cancellationSignal);
     }
 
     /**
@@ -187,7 +223,8 @@ public class DiffUtil {
             Range range,
             Callback cb,
             CenteredArray forward,
-            CenteredArray backward) {
+            CenteredArray backward,
+            @Nullable CancellationSignal cancellationSignal) {
         if (range.oldSize() < 1 || range.newSize() < 1) {
             return null;
         }
@@ -195,6 +232,10 @@ public class DiffUtil {
         forward.set(1, range.oldListStart);
         backward.set(1, range.oldListEnd);
         for (int d = 0; d < max; d++) {
+            // each step costs O(d), check the signal every few of them
+            if (cancellationSignal != null && (d & CANCELLATION_CHECK_MASK) == 0) {
+                cancellationSignal.throwIfCanceled();
+            }
             Snake snake = forward(range, cb, forward, backward, d);
             if (snake != null) {
                 return snake;
@@ -395,6 +436,41 @@ public class DiffUtil {
         public Object getChangePayload(int oldItemPosition, int newItemPosition) {
             return null;
         }
+
+        /**
+         * Returns a key identifying the item at the given position of the old list, used to
+         * narrow down the candidates when looking for moved items.
+         * <p>
+         * Keys must be consistent with {@link #areItemsTheSame(int, int)}: two items with keys that
+         * are not {@link Object#equals(Object) equal} (a {@code null} key being a key of its own)
+         * are never considered the same item. For example, if your items have unique ids, return
+         * the id.
+         * <p>
+         * Default implementation returns {@code null}, in which case every removed item is
+         * compared with every added item.
+         *
+         * @param oldItemPosition The position of the item in the old list
+         * @return The key of the item, or {@code null}.
+         * @see #getNewItemKey(int)
+         */
+        @Nullable
+        public Object getOldItemKey(int oldItemPosition) {
+            return null;
+        }
+
+        /**
+         * Returns a key identifying the item at the given position of the new list.
+         * <p>
+         * Default implementation returns {@code null}.
+         *
+         * @param newItemPosition The position of the item in the new list
+         * @return The key of the item, or {@code null}.
+         * @see #getOldItemKey(int)
+         */
+        @Nullable
+        public Object getNewItemKey(int newItemPosition) {
+            return null;
+        }
     }
 
     /**
@@ -467,6 +543,26 @@ public class DiffUtil {
         public Object getChangePayload(@NonNull T oldItem, @NonNull T newItem) {
             return null;
         }
+
+        /**
+         * Returns a key identifying the item, such as its unique id.
+         * <p>
+         * Keys must be consistent with {@link #areItemsTheSame(T, T)}: items with keys that are not
+         * {@link Object#equals(Object) equal} are never considered the same item. They let
+         * {@link AsyncListDiffer} detect moved items without comparing every removed item with
+         * every added one.
+         * <p>
+         * Default implementation returns {@code null}.
+         *
+         * @param item The item.
+         * @return The key of the item, or {@code null}.
+         * @see Callback#getOldItemKey(int)
+         */
+        @SuppressWarnings({"unused"})
+        @Nullable
+        public Object getItemKey(@NonNull T item) {
+            return null;
+        }
     }
 
     /**
@@ -653,15 +749,25 @@ public class DiffUtil {
 
         private final boolean mDetectMoves;
 
+        @Nullable
+        private final CancellationSignal mCancellationSignal;
+
+        // Additions that were not matched by a diagonal, by item key, in increasing position.
+        // Only created while looking for moves.
+        @Nullable
+        private HashMap<Object, List<Integer>> mAdditionsByKey;
+
         /**
          * @param callback        The callback that was used to calculate the diff
          * @param diagonals       Matches between the two lists
          * @param oldItemStatuses An int[] that can be re-purposed to keep metadata
          * @param newItemStatuses An int[] that can be re-purposed to keep metadata
          * @param detectMoves     True if this DiffResult will try to detect moved items
+         * @param cancellationSignal Signal checked while detecting moves, or null
          */
         DiffResult(Callback callback, List<Diagonal> diagonals, int[] oldItemStatuses,
-                int[] newItemStatuses, boolean detectMoves) {
+                int[] newItemStatuses, boolean detectMoves,
+                @Nullable CancellationSignal cancellationSignal) {
             mDiagonals = diagonals;
             mOldItemStatuses = oldItemStatuses;
             mNewItemStatuses = newItemStatuses;
@@ -671,6 +777,7 @@ public class DiffUtil {
             mOldListSize = callback.getOldListSize();
             mNewListSize = callback.getNewListSize();
             mDetectMoves = detectMoves;
+            mCancellationSignal = cancellationSignal;
             addEdgeDiagonals();
             findMatchingItems();
         }
@@ -691,8 +798,8 @@ public class DiffUtil {
 
         /**
          * Find position mapping from old list to new list.
-         * If moves are requested, we'll also try to do an n^2 search between additions and
-         * removals to find moves.
+         * If moves are requested, we'll also try to match additions and removals to find moves.
+         * This is an n^2 search when the callback doesn't provide item keys.
          */
         private void findMatchingItems() {
             for (Diagonal diagonal : mDiagonals) {
@@ -714,11 +821,15 @@ public class DiffUtil {
         }
 
         private void findMoveMatches() {
+            groupAdditionsByKey();
             // for each removal, find matching addition
             int posX = 0;
             for (Diagonal diagonal : mDiagonals) {
                 while (posX < diagonal.x) {
                     if (mOldItemStatuses[posX] == 0) {
+                        if (mCancellationSignal != null) {
+                            mCancellationSignal.throwIfCanceled();
+                        }
                         // there is a removal, find matching addition from the rest
                         findMatchingAddition(posX);
                     }
@@ -727,37 +838,62 @@ public class DiffUtil {
                 // snap back for the next diagonal
                 posX = diagonal.endX();
             }
+            mAdditionsByKey = null;
         }
 
         /**
-         * Search the whole list to find the addition for the given removal of position posX
-         *
-         * @param posX position in the old list
+         * Group the additions by the key of their item so that a removal is only compared with
+         * the additions that can be the same item.
          */
-        private void findMatchingAddition(int posX) {
+        private void groupAdditionsByKey() {
+            final HashMap<Object, List<Integer>> additionsByKey = new HashMap<>();
             int posY = 0;
-            final int diagonalsSize = mDiagonals.size();
-            for (int i = 0; i < diagonalsSize; i++) {
-                final Diagonal diagonal = mDiagonals.get(i);
+            for (Diagonal diagonal : mDiagonals) {
                 while (posY < diagonal.y) {
-                    // found some additions, evaluate
-                    if (mNewItemStatuses[posY] == 0) { // not evaluated yet
-                        boolean matching = mCallback.areItemsTheSame(posX, posY);
-                        if (matching) {
-                            // yay found it, set values
-                            boolean contentsMatching = mCallback.areContentsTheSame(posX, posY);
-                            final int changeFlag = contentsMatching ? FLAG_MOVED_NOT_CHANGED
-                                    : FLAG_MOVED_CHANGED;
-                            // once we process one of these, it will mark the other one as ignored.
-                            mOldItemStatuses[posX] = (posY << FLAG_OFFSET) | changeFlag;
-                            mNewItemStatuses[posY] = (posX << FLAG_OFFSET) | changeFlag;
-                            return;
+                    if (mNewItemStatuses[posY] == 0) {
+                        final Object key = mCallback.getNewItemKey(posY);
+                        List<Integer> additions = additionsByKey.get(key);
+                        if (additions == null) {
+                            additions = new ArrayList<>();
+                            additionsByKey.put(key, additions);
                         }
+                        additions.add(posY);
                     }
                     posY++;
                 }
                 posY = diagonal.endY();
             }
+            mAdditionsByKey = additionsByKey;
+        }
+
+        /**
+         * Search the additions with the same key to find the addition for the given removal of
+         * position posX
+         *
+         * @param posX position in the old list
+         */
+        private void findMatchingAddition(int posX) {
+            final List<Integer> additions = mAdditionsByKey.get(mCallback.getOldItemKey(posX));
+            if (additions == null) {
+                return;
+            }
+            final int additionsSize = additions.size();
+            for (int i = 0; i < additionsSize; i++) {
+                final int posY = additions.get(i);
+                if (mNewItemStatuses[posY] == 0) { // not evaluated yet
+                    boolean matching = mCallback.areItemsTheSame(posX, posY);
+                    if (matching) {
+                        // yay found it, set values
+                        boolean contentsMatching = mCallback.areContentsTheSame(posX, posY);
+                        final int changeFlag = contentsMatching ? FLAG_MOVED_NOT_CHANGED
+                                : FLAG_MOVED_CHANGED;
+                        // once we process one of these, it will mark the other one as ignored.
+                        mOldItemStatuses[posX] = (posY << FLAG_OFFSET) | changeFlag;
+                        mNewItemStatuses[posY] = (posX << FLAG_OFFSET) | changeFlag;
+                        return;
+                    }
+                }
+            }
         }
 
         /**
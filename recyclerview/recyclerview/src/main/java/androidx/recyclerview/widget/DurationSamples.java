@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.widget;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent durations of an operation (creating or binding a given view type) to
+ * estimate its distribution, rather than a single running average.
+ * <p>
+ * A running average hides the occasional slow operation, which is exactly the one that makes a
+ * prefetch overrun its deadline. Percentiles of the recent samples let the prefetcher only start
+ * work that will almost always fit in the remaining frame time.
+ */
+final class DurationSamples {
+    /**
+     * Number of samples kept. Older samples are overwritten.
+     */
+    static final int CAPACITY = 32;
+
+    /**
+     * Number of samples needed before percentiles are considered meaningful.
+     */
+    static final int MIN_SAMPLES = 4;
+
+    private final long[] mSamples = new long[CAPACITY];
+    private final long[] mSorted = new long[CAPACITY];
+    private int mCount;
+    private int mNext;
+    private boolean mSortedValid;
+
+    void add(long durationNs) {
+        mSamples[mNext] = durationNs;
+        mNext = (mNext + 1) % CAPACITY;
+        if (mCount < CAPACITY) {
+            mCount++;
+        }
+        mSortedValid = false;
+    }
+
+    int size() {
+        return mCount;
+    }
+
+    boolean hasEnoughSamples() {
+        return mCount >= MIN_SAMPLES;
+    }
+
+    /**
+     * Returns the duration under which the given percentage of the recent samples fall, or 0 if
+     * there are no samples.
+     *
+     * @param percentile Percentile, between 0 and 100.
+     */
+    long percentileNs(int percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+        if (!mSortedValid) {
+            System.arraycopy(mSamples, 0, mSorted, 0, mCount);
+            Arrays.sort(mSorted, 0, mCount);
+            mSortedValid = true;
+        }
+        // nearest-rank percentile
+        int rank = (percentile * mCount + 99) / 100;
+        return mSorted[Math.max(0, Math.min(mCount, rank) - 1)];
+    }
+
+    long medianNs() {
+        return percentileNs(50);
+    }
+
+    long p95Ns() {
+        return percentileNs(95);
+    }
+}
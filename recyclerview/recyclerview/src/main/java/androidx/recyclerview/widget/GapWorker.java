@@ -20,6 +20,7 @@ import android.view.View;
 
 import androidx.annotation.Nullable;
 import androidx.core.os.TraceCompat;
+import androidx.core.view.ViewCompat;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -31,10 +32,49 @@ final class GapWorker implements Runnable {
 
     static final ThreadLocal<GapWorker> sGapWorker = new ThreadLocal<>();
 
+    /**
+     * Maximum number of consecutive times prefetch re-posts itself to finish work that didn't fit
+     * before the deadline of the frame it ran for.
+     */
+    static final int MAX_CONSECUTIVE_RESCHEDULES = 4;
+
     ArrayList<RecyclerView> mRecyclerViews = new ArrayList<>();
     long mPostTimeNs;
     long mFrameIntervalNs;
 
+    /**
+     * True if the last {@link #prefetch(long)} skipped creating or binding a view because it
+     * wouldn't have finished before the deadline, but is expected to fit in a later frame.
+     */
+    boolean mHasDeferredPrefetch;
+    int mConsecutiveReschedules;
+
+    /**
+     * View to post this worker to once the next frame has been drawn, or null if no rescheduled
+     * run is pending.
+     */
+    @Nullable
+    RecyclerView mRescheduleView;
+
+    /**
+     * Runs in the animation callbacks of the next frame, and posts this worker so that it runs
+     * after that frame's traversal with a new frame deadline.
+     */
+    private final Runnable mPostAfterNextFrame = new Runnable() {
+        @Override
+        public void run() {
+            RecyclerView view = mRescheduleView;
+            mRescheduleView = null;
+            if (view != null && view.isAttachedToWindow() && mRecyclerViews.contains(view)) {
+                view.post(GapWorker.this);
+            } else {
+                // the view went away, let the next traversal post the worker again
+                mConsecutiveReschedules = 0;
+                mPostTimeNs = 0;
+            }
+        }
+    };
+
     static class Task {
         public boolean immediate;
         public int viewVelocity;
@@ -288,6 +328,13 @@ final class GapWorker implements Runnable {
             holder = recycler.tryGetViewHolderForPositionByDeadline(
                     position, false, deadlineNs);
 
+            if (deadlineNs != RecyclerView.FOREVER_NS
+                    && (holder == null || !holder.isBound())
+                    && canFitInRescheduledRun(view, holder, position)) {
+                // the view couldn't be created or bound in time, try again in a later frame
+                mHasDeferredPrefetch = true;
+            }
+
             if (holder != null) {
                 if (holder.isBound() && !holder.isInvalid()) {
                     // Only give the view a chance to go into the cache if binding succeeded
@@ -307,6 +354,35 @@ final class GapWorker implements Runnable {
         return holder;
     }
 
+    /**
+     * Returns true if the create and/or bind that didn't fit before the deadline is expected to
+     * fit in the budget of a rescheduled run, which is half a frame when the UI thread is idle.
+     * <p>
+     * Work that is always more expensive than that is left to the regular prefetch of the next
+     * traversal, instead of rescheduling runs that can't do it.
+     */
+    private boolean canFitInRescheduledRun(RecyclerView view,
+            @Nullable RecyclerView.ViewHolder holder, int position) {
+        RecyclerView.RecycledViewPool pool = view.mRecycler.getRecycledViewPool();
+        long expectedNs;
+        if (holder == null) {
+            // creating the view didn't fit, it also has to be bound
+            if (view.mAdapter == null) {
+                return false;
+            }
+            int offsetPosition = view.mAdapterHelper.findPositionOffset(position);
+            if (offsetPosition < 0 || offsetPosition >= view.mAdapter.getItemCount()) {
+                return false;
+            }
+            int viewType = view.mAdapter.getItemViewType(offsetPosition);
+            expectedNs = pool.getExpectedCreateTimeNs(viewType)
+                    + pool.getExpectedBindTimeNs(viewType);
+        } else {
+            expectedNs = pool.getExpectedBindTimeNs(holder.getItemViewType());
+        }
+        return expectedNs < mFrameIntervalNs / 2;
+    }
+
     private void prefetchInnerRecyclerViewWithDeadline(@Nullable RecyclerView innerView,
             long deadlineNs) {
         if (innerView == null) {
@@ -364,12 +440,14 @@ final class GapWorker implements Runnable {
     }
 
     void prefetch(long deadlineNs) {
+        mHasDeferredPrefetch = false;
         buildTaskList();
         flushTasksWithDeadline(deadlineNs);
     }
 
     @Override
     public void run() {
+        RecyclerView rescheduleView = null;
         try {
             TraceCompat.beginSection(RecyclerView.TRACE_PREFETCH_TAG);
 
@@ -382,10 +460,12 @@ final class GapWorker implements Runnable {
             // valid in animation/input callbacks, so query it here to be safe.
             final int size = mRecyclerViews.size();
             long latestFrameVsyncMs = 0;
+            RecyclerView visibleView = null;
             for (int i = 0; i < size; i++) {
                 RecyclerView view = mRecyclerViews.get(i);
                 if (view.getWindowVisibility() == View.VISIBLE) {
                     latestFrameVsyncMs = Math.max(view.getDrawingTime(), latestFrameVsyncMs);
+                    visibleView = view;
                 }
             }
 
@@ -395,12 +475,34 @@ final class GapWorker implements Runnable {
             }
 
             long nextFrameNs = TimeUnit.MILLISECONDS.toNanos(latestFrameVsyncMs) + mFrameIntervalNs;
+            if (mConsecutiveReschedules > 0) {
+                // Rescheduled run: if no frame was drawn since, the UI thread is idle and the
+                // last vsync is stale, so use part of a frame from now instead.
+                final long nowNs = visibleView.getNanoTime();
+                if (nextFrameNs < nowNs) {
+                    nextFrameNs = nowNs + mFrameIntervalNs / 2;
+                }
+            }
 
             prefetch(nextFrameNs);
 
-            // TODO: consider rescheduling self, if there's more work to do
+            // Spread the work that didn't fit in this frame, typically expensive creates of a
+            // view type that is about to scroll in, over the next few frames. A rescheduled run
+            // waits for the next frame, so that it gets a new deadline rather than the one that
+            // was just missed.
+            if (mHasDeferredPrefetch && mConsecutiveReschedules < MAX_CONSECUTIVE_RESCHEDULES) {
+                rescheduleView = visibleView;
+            }
         } finally {
-            mPostTimeNs = 0;
+            if (rescheduleView != null) {
+                mConsecutiveReschedules++;
+                mPostTimeNs = rescheduleView.getNanoTime();
+                mRescheduleView = rescheduleView;
+                ViewCompat.postOnAnimation(rescheduleView, mPostAfterNextFrame);
+            } else {
+                mConsecutiveReschedules = 0;
+                mPostTimeNs = 0;
+            }
             TraceCompat.endSection();
         }
     }
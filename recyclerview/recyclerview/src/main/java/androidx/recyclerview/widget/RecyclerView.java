@@ -6301,12 +6301,18 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          * 2) If {@link #willBindInTime(int, long, long)} returns false for one view, it will return
          * false for all other views of its type for the same deadline. This prevents items
          * constructed by {@link GapWorker} prefetch from being bound to a lower priority prefetch.
+         *
+         * 3) Recent create/bind times are also kept as samples, so that prefetch can plan with the
+         * 95th percentile of a type's cost once enough are known: a type with occasional slow
+         * creates isn't started when only its average cost fits in the frame.
          */
         static class ScrapData {
             final ArrayList<ViewHolder> mScrapHeap = new ArrayList<>();
             int mMaxScrap = DEFAULT_MAX_SCRAP;
             long mCreateRunningAverageNs = 0;
             long mBindRunningAverageNs = 0;
+            final DurationSamples mCreateSamples = new DurationSamples();
+            final DurationSamples mBindSamples = new DurationSamples();
         }
 
         SparseArray<ScrapData> mScrap = new SparseArray<>();
@@ -6444,21 +6450,44 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             ScrapData scrapData = getScrapDataForType(viewType);
             scrapData.mCreateRunningAverageNs = runningAverage(
                     scrapData.mCreateRunningAverageNs, createTimeNs);
+            scrapData.mCreateSamples.add(createTimeNs);
         }
 
         void factorInBindTime(int viewType, long bindTimeNs) {
             ScrapData scrapData = getScrapDataForType(viewType);
             scrapData.mBindRunningAverageNs = runningAverage(
                     scrapData.mBindRunningAverageNs, bindTimeNs);
+            scrapData.mBindSamples.add(bindTimeNs);
+        }
+
+        /**
+         * Expected duration of an operation, for planning: the 95th percentile of the recent
+         * samples when there are enough of them, the running average otherwise.
+         */
+        private static long expectedDurationNs(DurationSamples samples, long runningAverageNs) {
+            if (samples.hasEnoughSamples()) {
+                return samples.p95Ns();
+            }
+            return runningAverageNs;
+        }
+
+        long getExpectedCreateTimeNs(int viewType) {
+            ScrapData scrapData = getScrapDataForType(viewType);
+            return expectedDurationNs(scrapData.mCreateSamples, scrapData.mCreateRunningAverageNs);
+        }
+
+        long getExpectedBindTimeNs(int viewType) {
+            ScrapData scrapData = getScrapDataForType(viewType);
+            return expectedDurationNs(scrapData.mBindSamples, scrapData.mBindRunningAverageNs);
         }
 
         boolean willCreateInTime(int viewType, long approxCurrentNs, long deadlineNs) {
-            long expectedDurationNs = getScrapDataForType(viewType).mCreateRunningAverageNs;
+            long expectedDurationNs = getExpectedCreateTimeNs(viewType);
             return expectedDurationNs == 0 || (approxCurrentNs + expectedDurationNs < deadlineNs);
         }
 
         boolean willBindInTime(int viewType, long approxCurrentNs, long deadlineNs) {
-            long expectedDurationNs = getScrapDataForType(viewType).mBindRunningAverageNs;
+            long expectedDurationNs = getExpectedBindTimeNs(viewType);
             return expectedDurationNs == 0 || (approxCurrentNs + expectedDurationNs < deadlineNs);
         }
 
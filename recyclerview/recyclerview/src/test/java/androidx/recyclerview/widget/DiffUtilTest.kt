@@ -15,6 +15,8 @@
  */
 package androidx.recyclerview.widget
 
+import androidx.core.os.CancellationSignal
+import androidx.core.os.OperationCanceledException
 import java.util.Random
 import java.util.UUID
 import org.hamcrest.CoreMatchers.equalTo
@@ -363,6 +365,91 @@ class DiffUtilTest {
 
     private fun calculate() = DiffUtil.calculateDiff(callback, true)
 
+    @Test
+    fun keysMatchUnkeyedResult() {
+        repeat(20) {
+            testRandom(initialSize = 50, operationCount = 40)
+            val keyedCallback = ItemListCallback(
+                oldList = before,
+                newList = after,
+                useKeys = true
+            )
+            val unkeyed = calculate()
+            val keyed = DiffUtil.calculateDiff(keyedCallback, true)
+            before.indices.forEach {
+                assertEquals(unkeyed.convertOldPositionToNew(it), keyed.convertOldPositionToNew(it))
+            }
+            after.indices.forEach {
+                assertEquals(unkeyed.convertNewPositionToOld(it), keyed.convertNewPositionToOld(it))
+            }
+        }
+    }
+
+    @Test
+    fun keysOnlyCompareSameKey() {
+        initWithSize(20)
+        move(0, 19)
+        move(3, 10)
+        var comparisons = 0
+        val keyedCallback = object : DiffUtil.Callback() {
+            override fun getOldListSize() = before.size
+            override fun getNewListSize() = after.size
+            override fun areItemsTheSame(oldItemPosition: Int, newItemPosition: Int): Boolean {
+                comparisons++
+                return before[oldItemPosition].id == after[newItemPosition].id
+            }
+            override fun areContentsTheSame(oldItemPosition: Int, newItemPosition: Int) = true
+            override fun getOldItemKey(oldItemPosition: Int) = before[oldItemPosition].id
+            override fun getNewItemKey(newItemPosition: Int) = after[newItemPosition].id
+        }
+        DiffUtil.calculateDiff(keyedCallback, false)
+        val myersComparisons = comparisons
+        comparisons = 0
+        val result = DiffUtil.calculateDiff(keyedCallback, true)
+        // each removal is compared with the single addition that has its key
+        assertEquals(myersComparisons + 2, comparisons)
+        assertEquals(19, result.convertOldPositionToNew(0))
+    }
+
+    @Test(expected = OperationCanceledException::class)
+    fun canceledBeforeStart() {
+        initWithSize(10)
+        add(3)
+        val signal = CancellationSignal()
+        signal.cancel()
+        DiffUtil.calculateDiff(callback, true, signal)
+    }
+
+    @Test
+    fun canceledWhileRunning() {
+        initWithSize(2000)
+        repeat(500) {
+            move(sRand.nextInt(after.size), sRand.nextInt(after.size))
+        }
+        val signal = CancellationSignal()
+        var comparisons = 0
+        val cancelingCallback = object : DiffUtil.Callback() {
+            override fun getOldListSize() = before.size
+            override fun getNewListSize() = after.size
+            override fun areItemsTheSame(oldItemPosition: Int, newItemPosition: Int): Boolean {
+                if (++comparisons == 1000) {
+                    signal.cancel()
+                }
+                return before[oldItemPosition].id == after[newItemPosition].id
+            }
+            override fun areContentsTheSame(oldItemPosition: Int, newItemPosition: Int) = true
+        }
+        try {
+            DiffUtil.calculateDiff(cancelingCallback, true, signal)
+            Assert.fail("diff should be canceled")
+        } catch (e: OperationCanceledException) { // expected
+        }
+        val canceledComparisons = comparisons
+        comparisons = 0
+        DiffUtil.calculateDiff(cancelingCallback, true, null)
+        assertThat(canceledComparisons < comparisons, `is`(true))
+    }
+
     @Test
     fun duplicate() {
         before.addAll(listOf(Item(false), Item(false)))
@@ -682,7 +769,8 @@ class DiffUtilTest {
     private class ItemListCallback(
         private val oldList: List<Item>,
         private val newList: List<Item>,
-        private val assertCalls: Boolean = true
+        private val assertCalls: Boolean = true,
+        private val useKeys: Boolean = false
     ) : DiffUtil.Callback() {
         override fun getOldListSize() = oldList.size
 
@@ -729,6 +817,12 @@ class DiffUtilTest {
 
             return newList[newItemIndex].payload
         }
+
+        override fun getOldItemKey(oldItemIndex: Int): Any? =
+            if (useKeys) oldList[oldItemIndex].id else null
+
+        override fun getNewItemKey(newItemIndex: Int): Any? =
+            if (useKeys) newList[newItemIndex].id else null
     }
 
     companion object {
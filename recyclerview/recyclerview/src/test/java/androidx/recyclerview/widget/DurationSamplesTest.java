@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class DurationSamplesTest {
+
+    @Test
+    public void empty() {
+        DurationSamples samples = new DurationSamples();
+        assertEquals(0, samples.size());
+        assertFalse(samples.hasEnoughSamples());
+        assertEquals(0, samples.medianNs());
+        assertEquals(0, samples.p95Ns());
+    }
+
+    @Test
+    public void percentiles() {
+        DurationSamples samples = new DurationSamples();
+        for (int i = 1; i <= 20; i++) {
+            samples.add(i * 1000);
+        }
+        assertTrue(samples.hasEnoughSamples());
+        assertEquals(10000, samples.medianNs());
+        assertEquals(19000, samples.p95Ns());
+        assertEquals(1000, samples.percentileNs(0));
+        assertEquals(20000, samples.percentileNs(100));
+    }
+
+    @Test
+    public void slowOutlierShowsInP95() {
+        DurationSamples samples = new DurationSamples();
+        for (int i = 0; i < 19; i++) {
+            samples.add(1000);
+        }
+        samples.add(50000);
+        assertEquals(1000, samples.medianNs());
+        assertEquals(1000, samples.p95Ns());
+        samples.add(50000);
+        assertEquals(50000, samples.p95Ns());
+    }
+
+    @Test
+    public void oldSamplesAreForgotten() {
+        DurationSamples samples = new DurationSamples();
+        for (int i = 0; i < DurationSamples.CAPACITY; i++) {
+            samples.add(90000);
+        }
+        assertEquals(90000, samples.p95Ns());
+        for (int i = 0; i < DurationSamples.CAPACITY; i++) {
+            samples.add(2000);
+        }
+        assertEquals(DurationSamples.CAPACITY, samples.size());
+        assertEquals(2000, samples.p95Ns());
+    }
+}
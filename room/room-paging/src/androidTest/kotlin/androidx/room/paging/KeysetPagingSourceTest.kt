@@ -0,0 +1,241 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.paging
+
+import android.database.Cursor
+import androidx.arch.core.executor.testing.CountingTaskExecutorRule
+import androidx.kruth.assertThat
+import androidx.paging.PagingConfig
+import androidx.paging.PagingSource.LoadResult
+import androidx.paging.testing.TestPager
+import androidx.room.Room
+import androidx.room.RoomDatabase
+import androidx.room.util.getColumnIndexOrThrow
+import androidx.sqlite.db.SimpleSQLiteQuery
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.SmallTest
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertTrue
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+@SmallTest
+class KeysetPagingSourceTest {
+
+    @JvmField
+    @Rule
+    val countingTaskExecutorRule = CountingTaskExecutorRule()
+
+    private lateinit var database: LimitOffsetTestDb
+    private lateinit var dao: TestItemDao
+
+    @Before
+    fun init() {
+        database = Room.inMemoryDatabaseBuilder(
+            ApplicationProvider.getApplicationContext(),
+            LimitOffsetTestDb::class.java,
+        ).build()
+        dao = database.dao
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+        countingTaskExecutorRule.drainTasks(500, TimeUnit.MILLISECONDS)
+        assertThat(countingTaskExecutorRule.isIdle).isTrue()
+    }
+
+    @Test
+    fun load_initialLoad() = runPagingSourceTest { pager, _ ->
+        dao.addAllItems(ITEMS_LIST)
+        val result = pager.refresh() as LoadResult.Page
+
+        assertThat(result.data).containsExactlyElementsIn(ITEMS_LIST.subList(0, 15)).inOrder()
+        assertThat(result.prevKey).isNull()
+        assertThat(result.nextKey).isEqualTo(14L)
+        assertThat(result.itemsBefore).isEqualTo(LoadResult.Page.COUNT_UNDEFINED)
+        assertThat(result.itemsAfter).isEqualTo(LoadResult.Page.COUNT_UNDEFINED)
+    }
+
+    @Test
+    fun load_initialLoadWithKey() = runPagingSourceTest { pager, _ ->
+        dao.addAllItems(ITEMS_LIST)
+        val result = pager.refresh(initialKey = 50L) as LoadResult.Page
+
+        assertThat(result.data).containsExactlyElementsIn(ITEMS_LIST.subList(50, 65)).inOrder()
+        assertThat(result.prevKey).isEqualTo(50L)
+        assertThat(result.nextKey).isEqualTo(64L)
+    }
+
+    @Test
+    fun load_initialLoadWithKeyPastEnd_loadsLastPage() = runPagingSourceTest { pager, _ ->
+        dao.addAllItems(ITEMS_LIST)
+        val result = pager.refresh(initialKey = 200L) as LoadResult.Page
+
+        assertThat(result.data).containsExactlyElementsIn(ITEMS_LIST.subList(85, 100)).inOrder()
+        assertThat(result.prevKey).isEqualTo(85L)
+        assertThat(result.nextKey).isNull()
+    }
+
+    @Test
+    fun load_initialEmptyLoad() = runPagingSourceTest { pager, _ ->
+        val result = pager.refresh() as LoadResult.Page
+
+        assertTrue(result.data.isEmpty())
+        assertThat(result.prevKey).isNull()
+        assertThat(result.nextKey).isNull()
+    }
+
+    @Test
+    fun append_untilEnd() = runPagingSourceTest { pager, _ ->
+        dao.addAllItems(ITEMS_LIST)
+        pager.refresh(initialKey = 80L)
+
+        var result = pager.append() as LoadResult.Page
+        assertThat(result.data).containsExactlyElementsIn(ITEMS_LIST.subList(95, 100)).inOrder()
+        assertThat(result.nextKey).isEqualTo(99L)
+
+        result = pager.append() as LoadResult.Page
+        assertTrue(result.data.isEmpty())
+        assertThat(result.nextKey).isNull()
+    }
+
+    @Test
+    fun prepend_untilStart() = runPagingSourceTest { pager, _ ->
+        dao.addAllItems(ITEMS_LIST)
+        pager.refresh(initialKey = 7L)
+
+        var result = pager.prepend() as LoadResult.Page
+        assertThat(result.data).containsExactlyElementsIn(ITEMS_LIST.subList(2, 7)).inOrder()
+        assertThat(result.prevKey).isEqualTo(2L)
+
+        result = pager.prepend() as LoadResult.Page
+        assertThat(result.data).containsExactlyElementsIn(ITEMS_LIST.subList(0, 2)).inOrder()
+        assertThat(result.prevKey).isNull()
+    }
+
+    @Test
+    fun load_skipsKeysWithoutRows() = runPagingSourceTest { pager, _ ->
+        dao.addAllItems(ITEMS_LIST.filter { it.id % 2 == 0 })
+        pager.refresh()
+
+        val result = pager.append() as LoadResult.Page
+        assertThat(result.data.map { it.id }).containsExactly(30, 32, 34, 36, 38).inOrder()
+    }
+
+    @Test
+    fun load_withCounts() = runPagingSourceTest(
+        KeysetPagingSourceImpl(database, countItems = true)
+    ) { pager, pagingSource ->
+        dao.addAllItems(ITEMS_LIST)
+        val result = pager.refresh(initialKey = 40L) as LoadResult.Page
+
+        assertThat(pagingSource.itemCount.get()).isEqualTo(100)
+        assertThat(result.itemsBefore).isEqualTo(40)
+        assertThat(result.itemsAfter).isEqualTo(45)
+    }
+
+    @Test
+    fun load_withQueryArguments() = runPagingSourceTest(
+        KeysetPagingSourceImpl(
+            db = database,
+            queryString = "SELECT * FROM TestItem WHERE id >= ?",
+            args = arrayOf(60),
+            countItems = true,
+        )
+    ) { pager, _ ->
+        dao.addAllItems(ITEMS_LIST)
+        val result = pager.refresh(initialKey = 90L) as LoadResult.Page
+
+        assertThat(result.data).containsExactlyElementsIn(ITEMS_LIST.subList(90, 100)).inOrder()
+        assertThat(result.nextKey).isNull()
+        assertThat(result.itemsBefore).isEqualTo(30)
+        assertThat(result.itemsAfter).isEqualTo(0)
+    }
+
+    @Test
+    fun dbInsert_pagingSourceInvalidates() = runPagingSourceTest { pager, pagingSource ->
+        dao.addAllItems(ITEMS_LIST)
+        // load once to register db observers
+        pager.refresh()
+        assertThat(pagingSource.invalid).isFalse()
+        // paging source should be invalidated when insert into db
+        dao.addTestItem(TestItem(101))
+        countingTaskExecutorRule.drainTasks(500, TimeUnit.MILLISECONDS)
+        assertTrue(pagingSource.invalid)
+    }
+
+    @Test
+    fun getRefreshKey_startOfAnchorPage() = runPagingSourceTest { pager, pagingSource ->
+        dao.addAllItems(ITEMS_LIST)
+        pager.refresh(initialKey = 20L)
+        pager.append()
+
+        // anchorPosition 17 is in the appended page of items 35-39
+        assertThat(pagingSource.getRefreshKey(pager.getPagingState(17))).isEqualTo(35L)
+    }
+
+    private fun runPagingSourceTest(
+        pagingSource: KeysetPagingSourceImpl = KeysetPagingSourceImpl(database),
+        config: PagingConfig = CONFIG,
+        block: suspend (
+            pager: TestPager<Long, TestItem>,
+            pagingSource: KeysetPagingSourceImpl
+        ) -> Unit
+    ) {
+        runBlocking {
+            block(TestPager(config, pagingSource), pagingSource)
+        }
+    }
+}
+
+class KeysetPagingSourceImpl(
+    db: RoomDatabase,
+    queryString: String = "SELECT * FROM TestItem",
+    args: Array<Any> = emptyArray(),
+    countItems: Boolean = false,
+) : KeysetPagingSource<TestItem>(
+    sourceQuery = SimpleSQLiteQuery(queryString, args),
+    db = db,
+    keyColumn = "id",
+    countItems = countItems,
+    tables = arrayOf("TestItem")
+) {
+
+    override fun convertRows(cursor: Cursor): List<TestItem> {
+        val cursorIndexOfId = getColumnIndexOrThrow(cursor, "id")
+        val data = mutableListOf<TestItem>()
+        while (cursor.moveToNext()) {
+            data.add(TestItem(cursor.getInt(cursorIndexOfId)))
+        }
+        return data
+    }
+}
+
+private val CONFIG = PagingConfig(
+    pageSize = 5,
+    enablePlaceholders = false,
+    initialLoadSize = 15
+)
+
+private val ITEMS_LIST = List(100) { TestItem(id = it) }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.paging
+
+import android.database.Cursor
+import androidx.paging.PagingSource
+import androidx.paging.PagingState
+import androidx.room.RoomDatabase
+import androidx.room.RoomSQLiteQuery
+import androidx.room.getQueryDispatcher
+import androidx.room.paging.util.INVALID
+import androidx.room.paging.util.ThreadSafeInvalidationObserver
+import androidx.room.withTransaction
+import androidx.sqlite.db.SupportSQLiteQuery
+import java.util.concurrent.atomic.AtomicInteger
+import kotlinx.coroutines.withContext
+
+/**
+ * An implementation of [PagingSource] that pages a query by seeking on an ordering key.
+ *
+ * Pages are loaded with `WHERE key > ? ORDER BY key LIMIT ?` rather than `LIMIT ? OFFSET ?`, so
+ * when [keyColumn] is indexed, loading a page costs the same no matter how far into the results
+ * it is. [keyColumn] must be an integer column returned by [sourceQuery] whose values are unique
+ * within its results, such as the primary key, and results are ordered by it ascending.
+ *
+ * Keys are values of [keyColumn]: a refresh loads items with a key greater than or equal to the
+ * refresh key, an append loads items after the key and a prepend loads items before it.
+ *
+ * Counting the items of a large query scans all of its results, so it only happens when
+ * [countItems] is true, and then only once per generation as part of the refresh. Without
+ * counts, pages report [LoadResult.Page.COUNT_UNDEFINED] and placeholders are not shown.
+ *
+ * Registers observers on tables lazily and automatically invalidates itself when data changes.
+ */
+abstract class KeysetPagingSource<Value : Any>(
+    sourceQuery: SupportSQLiteQuery,
+    private val db: RoomDatabase,
+    private val keyColumn: String,
+    private val countItems: Boolean,
+    vararg tables: String,
+) : PagingSource<Long, Value>() {
+
+    private val sourceQuery: RoomSQLiteQuery = RoomSQLiteQuery.copyFrom(sourceQuery)
+
+    internal val itemCount: AtomicInteger = AtomicInteger(LoadResult.Page.COUNT_UNDEFINED)
+
+    private val observer = ThreadSafeInvalidationObserver(
+        tables = tables,
+        onInvalidated = ::invalidate
+    )
+
+    override suspend fun load(params: LoadParams<Long>): LoadResult<Long, Value> {
+        return withContext(db.getQueryDispatcher()) {
+            observer.registerIfNecessary(db)
+            try {
+                when (params) {
+                    is LoadParams.Refresh ->
+                        if (countItems) db.withTransaction { refresh(params) } else refresh(params)
+                    else -> nonInitialLoad(params)
+                }
+            } catch (e: Exception) {
+                LoadResult.Error(e)
+            }
+        }
+    }
+
+    /**
+     * Loads items from the refresh key onwards. If there are none, for example because items at
+     * the end were deleted, the last page is loaded instead.
+     *
+     * When [countItems] is true this runs in a transaction so that the counts match the data.
+     */
+    private fun refresh(params: LoadParams.Refresh<Long>): LoadResult<Long, Value> {
+        val key = params.key
+        var page = queryPage(key, params.loadSize, ascending = true, inclusive = true)
+        var loadedLastPage = false
+        if (page.data.isEmpty() && key != null) {
+            page = queryPage(key, params.loadSize, ascending = false, inclusive = false)
+            loadedLastPage = true
+        }
+        val first = page.firstKey
+        val last = page.lastKey
+        val prevKey = if (first == null || (key == null && !loadedLastPage)) null else first
+        val nextKey = if (loadedLastPage || page.data.size < params.loadSize) null else last
+        if (!countItems) {
+            return LoadResult.Page(data = page.data, prevKey = prevKey, nextKey = nextKey)
+        }
+        val count = queryCount(null)
+        itemCount.set(count)
+        val itemsBefore = when {
+            first == null -> count
+            prevKey == null -> 0
+            else -> queryCount(first)
+        }
+        return LoadResult.Page(
+            data = page.data,
+            prevKey = prevKey,
+            nextKey = nextKey,
+            itemsBefore = itemsBefore,
+            itemsAfter = maxOf(0, count - itemsBefore - page.data.size)
+        )
+    }
+
+    private fun nonInitialLoad(params: LoadParams<Long>): LoadResult<Long, Value> {
+        val key = params.key!!
+        val append = params is LoadParams.Append
+        val page = queryPage(key, params.loadSize, ascending = append, inclusive = false)
+        val full = page.data.size >= params.loadSize
+        val loadResult = LoadResult.Page(
+            data = page.data,
+            prevKey = if (append || full) page.firstKey else null,
+            nextKey = if (!append || full) page.lastKey else null,
+        )
+        // manually check if database has been updated. If so, the observer's
+        // invalidation callback will invalidate this paging source
+        db.invalidationTracker.refreshVersionsSync()
+        @Suppress("UNCHECKED_CAST")
+        return if (invalid) INVALID as LoadResult.Invalid<Long, Value> else loadResult
+    }
+
+    /**
+     * Queries up to [limit] items after [key], or before it when [ascending] is false, and returns
+     * them in ascending key order.
+     */
+    private fun queryPage(
+        key: Long?,
+        limit: Int,
+        ascending: Boolean,
+        inclusive: Boolean,
+    ): Rows<Value> {
+        val column = "`$keyColumn`"
+        val where = when {
+            key == null -> ""
+            ascending -> if (inclusive) "WHERE $column >= ?" else "WHERE $column > ?"
+            else -> if (inclusive) "WHERE $column <= ?" else "WHERE $column < ?"
+        }
+        val order = if (ascending) "ASC" else "DESC"
+        val keysetQuery =
+            "SELECT * FROM ( ${sourceQuery.sql} ) $where ORDER BY $column $order LIMIT $limit"
+        val argCount = sourceQuery.argCount
+        val sqLiteQuery: RoomSQLiteQuery = RoomSQLiteQuery.acquire(
+            keysetQuery,
+            if (key == null) argCount else argCount + 1
+        )
+        sqLiteQuery.copyArgumentsFrom(sourceQuery)
+        if (key != null) {
+            sqLiteQuery.bindLong(argCount + 1, key)
+        }
+        val cursor = db.query(sqLiteQuery)
+        try {
+            val data = convertRows(cursor)
+            if (data.isEmpty()) {
+                return Rows(data, null, null)
+            }
+            val keyIndex = cursor.getColumnIndexOrThrow(keyColumn)
+            cursor.moveToFirst()
+            val firstRowKey = cursor.getLong(keyIndex)
+            cursor.moveToLast()
+            val lastRowKey = cursor.getLong(keyIndex)
+            return if (ascending) {
+                Rows(data, firstRowKey, lastRowKey)
+            } else {
+                Rows(data.asReversed(), lastRowKey, firstRowKey)
+            }
+        } finally {
+            cursor.close()
+            sqLiteQuery.release()
+        }
+    }
+
+    /**
+     * Returns the number of items, or the number of items before [key] if it is not null.
+     */
+    private fun queryCount(key: Long?): Int {
+        val where = if (key == null) "" else "WHERE `$keyColumn` < ?"
+        val countQuery = "SELECT COUNT(*) FROM ( ${sourceQuery.sql} ) $where"
+        val argCount = sourceQuery.argCount
+        val sqLiteQuery: RoomSQLiteQuery = RoomSQLiteQuery.acquire(
+            countQuery,
+            if (key == null) argCount else argCount + 1
+        )
+        sqLiteQuery.copyArgumentsFrom(sourceQuery)
+        if (key != null) {
+            sqLiteQuery.bindLong(argCount + 1, key)
+        }
+        val cursor: Cursor = db.query(sqLiteQuery)
+        try {
+            return if (cursor.moveToFirst()) cursor.getInt(0) else 0
+        } finally {
+            cursor.close()
+            sqLiteQuery.release()
+        }
+    }
+
+    protected abstract fun convertRows(cursor: Cursor): List<Value>
+
+    /**
+     * Refreshes from the first item of the page closest to the anchor position, so that the
+     * items being displayed are reloaded.
+     */
+    override fun getRefreshKey(state: PagingState<Long, Value>): Long? {
+        return state.anchorPosition?.let { state.closestPageToPosition(it)?.prevKey }
+    }
+
+    private class Rows<Value>(val data: List<Value>, val firstKey: Long?, val lastKey: Long?)
+}
@@ -53,6 +53,9 @@ import java.util.concurrent.atomic.AtomicBoolean
 // memory table table, flipping the invalidated flag ON.
 // * When multi-instance invalidation is turned on, MultiInstanceInvalidationClient will be created.
 // It works as an Observer, and notifies other instances of table invalidation.
+// * For tables with row tracking enabled, additional triggers record the rowid of each modified row
+// in a second memory table, (table_id, row_id). Observers of those tables are only notified if
+// Observer.isRowObserved accepts one of the modified rows.
 open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX) constructor(
     internal val database: RoomDatabase,
     private val shadowTablesMap: Map<String, String>,
@@ -76,6 +79,14 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
 
     private val observedTableTracker: ObservedTableTracker = ObservedTableTracker(tableNames.size)
 
+    @GuardedBy("rowTrackedTables")
+    private val rowTrackedTables = BooleanArray(tableNames.size)
+
+    // Whether the row modification log exists on the current connection. It is only created once
+    // a table with row tracking enabled starts being tracked, as most databases never use it.
+    @Volatile
+    private var rowTrackingTableCreated = false
+
     private val invalidationLiveDataContainer: InvalidationLiveDataContainer =
         InvalidationLiveDataContainer(database)
 
@@ -155,6 +166,7 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
             database.execSQL("PRAGMA temp_store = MEMORY;")
             database.execSQL("PRAGMA recursive_triggers='ON';")
             database.execSQL(CREATE_TRACKING_TABLE_SQL)
+            rowTrackingTableCreated = false
             syncTriggers(database)
             cleanupStatement = database.compileStatement(RESET_UPDATED_TABLES_SQL)
             initialized = true
@@ -197,6 +209,11 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
             }
             db.execSQL(sql)
         }
+        if (isRowTracked(tableId)) {
+            for (trigger in TRIGGERS) {
+                db.execSQL("DROP TRIGGER IF EXISTS ${getRowTriggerName(tableName, trigger)}")
+            }
+        }
     }
 
     private fun startTrackingTable(db: SupportSQLiteDatabase, tableId: Int) {
@@ -224,6 +241,68 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
             }
             db.execSQL(sql)
         }
+        if (isRowTracked(tableId)) {
+            if (!rowTrackingTableCreated) {
+                db.execSQL(CREATE_ROW_TRACKING_TABLE_SQL)
+                rowTrackingTableCreated = true
+            }
+            for (trigger in TRIGGERS) {
+                val sql = buildString {
+                    append("CREATE TEMP TRIGGER IF NOT EXISTS ")
+                    append(getRowTriggerName(tableName, trigger))
+                    append(" AFTER ")
+                    append(trigger)
+                    append(" ON `")
+                    append(tableName)
+                    append("` BEGIN")
+                    if (trigger != "INSERT") {
+                        append(" INSERT OR IGNORE INTO ").append(ROW_UPDATE_TABLE_NAME)
+                        append(" VALUES(").append(tableId).append(", OLD.rowid);")
+                    }
+                    if (trigger != "DELETE") {
+                        append(" INSERT OR IGNORE INTO ").append(ROW_UPDATE_TABLE_NAME)
+                        append(" VALUES(").append(tableId).append(", NEW.rowid);")
+                    }
+                    append(" END")
+                }
+                db.execSQL(sql)
+            }
+        }
+    }
+
+    private fun isRowTracked(tableId: Int): Boolean {
+        return synchronized(rowTrackedTables) { rowTrackedTables[tableId] }
+    }
+
+    /**
+     * Enables row tracking for the given tables or views, so that their observers are only
+     * notified of changes to rows accepted by [Observer.isRowObserved].
+     *
+     * By default, any write to a table invalidates every observer of that table. With row
+     * tracking, the rowid of each modified row is also recorded, which costs an additional write
+     * per modified row but lets observers of unrelated rows skip re-running their queries. It
+     * suits tables that see many small transactions, such as a table of chat messages observed
+     * per conversation. The tables must have a rowid, i.e. can't be `WITHOUT ROWID` tables.
+     *
+     * Row tracking can't be disabled and applies to changes made once the next transaction
+     * begins. Changes notified through multi-instance invalidation or
+     * [notifyObserversByTableNames] carry no row information and invalidate all observers.
+     *
+     * If one of the tables does not exist in the database, this method throws an
+     * [IllegalArgumentException].
+     *
+     * @param tables The names of the tables or views to track rows of.
+     */
+    @ExperimentalRoomApi
+    open fun enableRowTracking(vararg tables: String) {
+        val tableIds = validateAndResolveTableNames(tables).map { tableName ->
+            tableIdLookup.getValue(tableName.lowercase(Locale.US))
+        }.toIntArray()
+        synchronized(rowTrackedTables) {
+            tableIds.forEach { tableId -> rowTrackedTables[tableId] = true }
+        }
+        // Triggers of tables that are already tracked need to be created again to add row tracking.
+        observedTableTracker.onRowTrackingEnabled(*tableIds)
     }
 
     /**
@@ -348,6 +427,7 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
         override fun run() {
             val closeLock = database.getCloseLock()
             closeLock.lock()
+            var modifiedRowIds: Map<Int, Set<Long>> = emptyMap()
             val invalidatedTableIds: Set<Int> =
                 try {
                     if (!ensureInitialization()) {
@@ -371,6 +451,7 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
                     val invalidatedTableIds: Set<Int>
                     try {
                         invalidatedTableIds = checkUpdatedTable()
+                        modifiedRowIds = checkModifiedRows(invalidatedTableIds)
                         db.setTransactionSuccessful()
                     } finally {
                         db.endTransaction()
@@ -397,7 +478,7 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
             if (invalidatedTableIds.isNotEmpty()) {
                 synchronized(observerMap) {
                     observerMap.forEach {
-                        it.value.notifyByTableInvalidStatus(invalidatedTableIds)
+                        it.value.notifyByTableInvalidStatus(invalidatedTableIds, modifiedRowIds)
                     }
                 }
             }
@@ -419,6 +500,27 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
             }
             return invalidatedTableIds
         }
+
+        /**
+         * Returns the rowids of modified rows of row tracked tables, keyed by table id. Tables
+         * without an entry are invalidated as a whole.
+         */
+        private fun checkModifiedRows(invalidatedTableIds: Set<Int>): Map<Int, Set<Long>> {
+            if (!rowTrackingTableCreated || invalidatedTableIds.none { isRowTracked(it) }) {
+                return emptyMap()
+            }
+            val modifiedRowIds = mutableMapOf<Int, MutableSet<Long>>()
+            database.query(SimpleSQLiteQuery(SELECT_MODIFIED_ROWS_SQL)).useCursor { cursor ->
+                while (cursor.moveToNext()) {
+                    modifiedRowIds.getOrPut(cursor.getInt(0)) { mutableSetOf() }
+                        .add(cursor.getLong(1))
+                }
+            }
+            if (modifiedRowIds.isNotEmpty()) {
+                database.openHelper.writableDatabase.execSQL(RESET_MODIFIED_ROWS_SQL)
+            }
+            return modifiedRowIds
+        }
     }
 
     /**
@@ -599,18 +701,23 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
          * based on the given invalid status set.
          *
          * @param invalidatedTablesIds The table ids of the tables that are invalidated.
+         * @param modifiedRowIds The rowids of modified rows of row tracked tables, keyed by table
+         * id. Invalidated tables without an entry are invalidated regardless of rows.
          */
-        internal fun notifyByTableInvalidStatus(invalidatedTablesIds: Set<Int?>) {
+        internal fun notifyByTableInvalidStatus(
+            invalidatedTablesIds: Set<Int?>,
+            modifiedRowIds: Map<Int, Set<Long>> = emptyMap()
+        ) {
             val invalidatedTables = when (tableIds.size) {
                 0 -> emptySet()
-                1 -> if (invalidatedTablesIds.contains(tableIds[0])) {
+                1 -> if (isInvalidated(0, invalidatedTablesIds, modifiedRowIds)) {
                     singleTableSet // Optimization for a single-table observer
                 } else {
                     emptySet()
                 }
                 else -> buildSet {
-                    tableIds.forEachIndexed { idx, tableId ->
-                        if (invalidatedTablesIds.contains(tableId)) {
+                    tableIds.indices.forEach { idx ->
+                        if (isInvalidated(idx, invalidatedTablesIds, modifiedRowIds)) {
                             add(tableNames[idx])
                         }
                     }
@@ -622,6 +729,20 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
             }
         }
 
+        @OptIn(ExperimentalRoomApi::class)
+        private fun isInvalidated(
+            index: Int,
+            invalidatedTablesIds: Set<Int?>,
+            modifiedRowIds: Map<Int, Set<Long>>
+        ): Boolean {
+            val tableId = tableIds[index]
+            if (!invalidatedTablesIds.contains(tableId)) {
+                return false
+            }
+            val rowIds = modifiedRowIds[tableId] ?: return true
+            return rowIds.any { rowId -> observer.isRowObserved(tableNames[index], rowId) }
+        }
+
         /**
          * Notifies the underlying [.mObserver] if it observes any of the specified
          * `tables`.
@@ -679,6 +800,21 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
          */
         abstract fun onInvalidated(tables: Set<String>)
 
+        /**
+         * Returns whether a change to the row with the given rowid invalidates this observer.
+         *
+         * This is only called for tables with row tracking enabled through
+         * [InvalidationTracker.enableRowTracking], on the thread refreshing invalidations, so it
+         * should be fast. By default all rows are observed.
+         *
+         * @param table The name of the modified table. This will be the name of an underlying
+         * table when observing a view.
+         * @param rowId The rowid of the modified row.
+         * @return True if [onInvalidated] should be called for the change.
+         */
+        @ExperimentalRoomApi
+        open fun isRowObserved(table: String, rowId: Long): Boolean = true
+
         internal open val isRemote: Boolean
             get() = false
     }
@@ -738,6 +874,21 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
             return needTriggerSync
         }
 
+        /**
+         * Changes the state of the given tables to false if their triggers are created, so that
+         * they are created again with row tracking triggers at the next sync.
+         */
+        fun onRowTrackingEnabled(vararg tableIds: Int) {
+            synchronized(this) {
+                tableIds.forEach { tableId ->
+                    if (triggerStates[tableId]) {
+                        triggerStates[tableId] = false
+                        needsSync = true
+                    }
+                }
+            }
+        }
+
         /**
          * If we are re-opening the db we'll need to add all the triggers that we need so change
          * the current state to false for all.
@@ -801,6 +952,11 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
                 observer.onInvalidated(tables)
             }
         }
+
+        @OptIn(ExperimentalRoomApi::class)
+        override fun isRowObserved(table: String, rowId: Long): Boolean {
+            return delegateRef.get()?.isRowObserved(table, rowId) ?: true
+        }
     }
 
     companion object {
@@ -812,6 +968,22 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
             "CREATE TEMP TABLE $UPDATE_TABLE_NAME ($TABLE_ID_COLUMN_NAME INTEGER PRIMARY KEY, " +
                 "$INVALIDATED_COLUMN_NAME INTEGER NOT NULL DEFAULT 0)"
 
+        private const val ROW_UPDATE_TABLE_NAME = "room_row_modification_log"
+        private const val ROW_ID_COLUMN_NAME = "row_id"
+        @VisibleForTesting
+        internal const val CREATE_ROW_TRACKING_TABLE_SQL =
+            "CREATE TEMP TABLE IF NOT EXISTS $ROW_UPDATE_TABLE_NAME " +
+                "($TABLE_ID_COLUMN_NAME INTEGER NOT NULL, " +
+                "$ROW_ID_COLUMN_NAME INTEGER NOT NULL, " +
+                "PRIMARY KEY($TABLE_ID_COLUMN_NAME, $ROW_ID_COLUMN_NAME))"
+
+        @VisibleForTesting
+        internal const val SELECT_MODIFIED_ROWS_SQL =
+            "SELECT $TABLE_ID_COLUMN_NAME, $ROW_ID_COLUMN_NAME FROM $ROW_UPDATE_TABLE_NAME"
+
+        @VisibleForTesting
+        internal const val RESET_MODIFIED_ROWS_SQL = "DELETE FROM $ROW_UPDATE_TABLE_NAME"
+
         @VisibleForTesting
         internal const val RESET_UPDATED_TABLES_SQL =
             "UPDATE $UPDATE_TABLE_NAME SET $INVALIDATED_COLUMN_NAME = 0 " +
@@ -826,6 +998,11 @@ open class InvalidationTracker @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX
             triggerType: String
         ) = "`room_table_modification_trigger_${tableName}_$triggerType`"
 
+        internal fun getRowTriggerName(
+            tableName: String,
+            triggerType: String
+        ) = "`room_row_modification_trigger_${tableName}_$triggerType`"
+
         internal fun beginTransactionInternal(database: SupportSQLiteDatabase) {
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN &&
                 database.isWriteAheadLoggingEnabled
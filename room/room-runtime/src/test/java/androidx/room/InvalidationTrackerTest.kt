@@ -52,6 +52,7 @@ import org.mockito.kotlin.doThrow
 import org.mockito.kotlin.eq
 import org.mockito.kotlin.isNull
 import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
 import org.mockito.kotlin.reset
 import org.mockito.kotlin.times
 import org.mockito.kotlin.verify
@@ -288,6 +289,111 @@ class InvalidationTrackerTest {
         }
     }
 
+    @OptIn(ExperimentalRoomApi::class)
+    @Test
+    fun createRowTrackingTriggers() {
+        mTracker.enableRowTracking("a")
+        val observer = LatchObserver(1, "a")
+        mTracker.addObserver(observer)
+        var sqlArgCaptor: KArgumentCaptor<String> = argumentCaptor()
+        verify(mSqliteDb, times(8)).execSQL(sqlArgCaptor.capture())
+        assertThat(sqlArgCaptor.allValues).containsAtLeast(
+            InvalidationTracker.CREATE_ROW_TRACKING_TABLE_SQL,
+            "CREATE TEMP TRIGGER IF NOT EXISTS `room_row_modification_trigger_a_UPDATE` AFTER " +
+                "UPDATE ON `a` BEGIN INSERT OR IGNORE INTO room_row_modification_log " +
+                "VALUES(0, OLD.rowid); INSERT OR IGNORE INTO room_row_modification_log " +
+                "VALUES(0, NEW.rowid); END",
+            "CREATE TEMP TRIGGER IF NOT EXISTS `room_row_modification_trigger_a_DELETE` AFTER " +
+                "DELETE ON `a` BEGIN INSERT OR IGNORE INTO room_row_modification_log " +
+                "VALUES(0, OLD.rowid); END",
+            "CREATE TEMP TRIGGER IF NOT EXISTS `room_row_modification_trigger_a_INSERT` AFTER " +
+                "INSERT ON `a` BEGIN INSERT OR IGNORE INTO room_row_modification_log " +
+                "VALUES(0, NEW.rowid); END"
+        )
+        reset(mSqliteDb)
+        mTracker.removeObserver(observer)
+        sqlArgCaptor = argumentCaptor()
+        verify(mSqliteDb, times(6)).execSQL(sqlArgCaptor.capture())
+        assertThat(sqlArgCaptor.allValues).contains(
+            "DROP TRIGGER IF EXISTS `room_row_modification_trigger_a_INSERT`"
+        )
+    }
+
+    @OptIn(ExperimentalRoomApi::class)
+    @Test
+    fun enableRowTracking_recreatesTriggersOfTrackedTable() {
+        mTracker.addObserver(LatchObserver(1, "a"))
+        reset(mSqliteDb)
+        mTracker.enableRowTracking("a")
+        mTracker.refreshVersionsSync()
+        val sqlArgCaptor: KArgumentCaptor<String> = argumentCaptor()
+        verify(mSqliteDb, times(8)).execSQL(sqlArgCaptor.capture())
+        assertThat(sqlArgCaptor.allValues).containsAtLeast(
+            InvalidationTracker.CREATE_ROW_TRACKING_TABLE_SQL,
+            "CREATE TEMP TRIGGER IF NOT EXISTS `room_row_modification_trigger_a_DELETE` AFTER " +
+                "DELETE ON `a` BEGIN INSERT OR IGNORE INTO room_row_modification_log " +
+                "VALUES(0, OLD.rowid); END"
+        )
+    }
+
+    @OptIn(ExperimentalRoomApi::class)
+    @Test
+    fun rowTrackingTable_createdOnceOnFirstRowTrackedTable() {
+        // not created for tables without row tracking
+        mTracker.addObserver(LatchObserver(1, "a"))
+        verify(mSqliteDb, never()).execSQL(InvalidationTracker.CREATE_ROW_TRACKING_TABLE_SQL)
+
+        mTracker.enableRowTracking("a", "B")
+        mTracker.refreshVersionsSync()
+        mTracker.addObserver(LatchObserver(1, "B"))
+        verify(mSqliteDb, times(1)).execSQL(InvalidationTracker.CREATE_ROW_TRACKING_TABLE_SQL)
+    }
+
+    @OptIn(ExperimentalRoomApi::class)
+    @Test
+    fun enableRowTracking_badTable() {
+        assertFailsWith<IllegalArgumentException>(message = "There is no table with name x") {
+            mTracker.enableRowTracking("x")
+        }
+    }
+
+    @OptIn(ExperimentalRoomApi::class)
+    @Test
+    fun observeRowTrackedTable() {
+        mTracker.enableRowTracking("a")
+        val observer = RowLatchObserver(1, 5L, "a", "B")
+        mTracker.addObserver(observer)
+
+        // unrelated row of a row tracked table
+        setInvalidatedTables(0)
+        setModifiedRows(0, 3L)
+        refreshSync()
+        assertThat(observer.await()).isEqualTo(false)
+
+        // observed row of a row tracked table
+        setInvalidatedTables(0)
+        setModifiedRows(0, 3L, 0, 5L)
+        refreshSync()
+        assertThat(observer.await()).isEqualTo(true)
+        assertThat(observer.invalidatedTables).containsExactly("a")
+
+        // a table without row tracking
+        setInvalidatedTables(0, 1)
+        setModifiedRows(0, 3L)
+        observer.reset(1)
+        refreshSync()
+        assertThat(observer.await()).isEqualTo(true)
+        assertThat(observer.invalidatedTables).containsExactly("B")
+
+        // a row tracked table without recorded rows
+        setInvalidatedTables(0)
+        setModifiedRows()
+        observer.reset(1)
+        refreshSync()
+        assertThat(observer.await()).isEqualTo(true)
+        assertThat(observer.invalidatedTables).containsExactly("a")
+    }
+
     @Test
     fun observeFtsTable() {
         val observer = LatchObserver(1, "C")
@@ -439,6 +545,24 @@ class InvalidationTrackerTest {
         )
     }
 
+    /**
+     * Setup Cursor result to return the given pairs of table id and rowid as modified rows
+     */
+    private fun setModifiedRows(vararg tableIdAndRowIds: Any) {
+        drainTasks()
+        val cursor: Cursor = mock()
+        val index = AtomicInteger(-1)
+        whenever(cursor.moveToNext()).thenAnswer { index.addAndGet(1) < tableIdAndRowIds.size / 2 }
+        whenever(cursor.getInt(0)).thenAnswer { tableIdAndRowIds[index.get() * 2] as Int }
+        whenever(cursor.getLong(1)).thenAnswer { tableIdAndRowIds[index.get() * 2 + 1] as Long }
+        doReturn(cursor).whenever(mRoomDatabase)?.query(
+            query = argThat<SimpleSQLiteQuery> { argument ->
+                argument.sql == InvalidationTracker.SELECT_MODIFIED_ROWS_SQL
+            },
+            signal = isNull(),
+        )
+    }
+
     private fun createCursorWithValues(vararg tableIds: Int): Cursor {
         val cursor: Cursor = mock()
         val index = AtomicInteger(-1)
@@ -480,6 +604,30 @@ class InvalidationTrackerTest {
         }
     }
 
+    internal class RowLatchObserver(
+        count: Int,
+        private val observedRowId: Long,
+        vararg tableNames: String
+    ) : InvalidationTracker.Observer(arrayOf(*tableNames)) {
+        private val latchObserver = LatchObserver(count, *tableNames)
+
+        val invalidatedTables: Set<String>?
+            get() = latchObserver.invalidatedTables
+
+        fun await(): Boolean = latchObserver.await()
+
+        fun reset(count: Int) = latchObserver.reset(count)
+
+        override fun onInvalidated(tables: Set<String>) {
+            latchObserver.onInvalidated(tables)
+        }
+
+        @OptIn(ExperimentalRoomApi::class)
+        override fun isRowObserved(table: String, rowId: Long): Boolean {
+            return rowId == observedRowId
+        }
+    }
+
     companion object {
         /**
          * Tries to trigger garbage collection by allocating in the heap until an element is
@@ -103,6 +103,17 @@ class ObservedTableTrackerTest {
         )
     }
 
+    @Test
+    fun rowTrackingEnabled() {
+        initState(2, 3)
+        mTracker.onRowTrackingEnabled(3, 4)
+        assertThat(
+            mTracker.getTablesToSync()
+        ).isEqualTo(
+            createResponse(3, InvalidationTracker.ObservedTableTracker.ADD)
+        )
+    }
+
     private fun initState(vararg tableIds: Int) {
         mTracker.onAdded(*tableIds)
         mTracker.getTablesToSync()
@@ -55,6 +55,15 @@ class EnsureInitializerMetadataDetector : Detector(), SourceCodeScanner, XmlScan
         private const val DESCRIPTION = "Every Initializer needs to be accompanied by a " +
             "corresponding <meta-data> entry in the AndroidManifest.xml file."
 
+        // There does not seem to be a way to evaluate resources defined in the manifest, so both
+        // the values and the names of their string resources are listed.
+        private val STARTUP_VALUES = setOf(
+            "androidx.startup",
+            "@string/androidx_startup",
+            "androidx.startup.concurrent",
+            "@string/androidx_startup_concurrent",
+        )
+
         val ISSUE = Issue.create(
             id = "EnsureInitializerMetadata",
             briefDescription = DESCRIPTION,
@@ -107,12 +116,10 @@ class EnsureInitializerMetadataDetector : Detector(), SourceCodeScanner, XmlScan
     }
 
     override fun visitElement(context: XmlContext, element: Element) {
-        // Track all <meta-data> elements with value androidx.startup
+        // Track all <meta-data> elements with value androidx.startup or androidx.startup.concurrent
         val name = element.getAttributeNS(ANDROID_URI, ATTR_NAME)
         val value = element.getAttributeNS(ANDROID_URI, ATTR_VALUE)
-        // There does not seem to be a way to evaluate resources defined in the manifest.
-        // Figure out if there is a better way.
-        if (value == "androidx.startup" || value == "@string/androidx_startup") {
+        if (value in STARTUP_VALUES) {
             reachable += name
         }
     }
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.startup
+
+import android.content.Context
+import android.os.Bundle
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.MediumTest
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.hamcrest.CoreMatchers.containsString
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.not
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+@MediumTest
+class ConcurrentInitializationTest {
+
+    private lateinit var context: Context
+    private lateinit var appInitializer: AppInitializer
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        appInitializer = AppInitializer(context)
+        ConcurrentState.reset()
+    }
+
+    @Test
+    fun concurrentInitializersRunInParallel() {
+        val metadata = Bundle().apply {
+            putString(FirstConcurrentInitializer::class.java.name, CONCURRENT)
+            putString(SecondConcurrentInitializer::class.java.name, CONCURRENT)
+            putString(CallingThreadInitializer::class.java.name, STARTUP)
+        }
+        appInitializer.discoverAndInitialize(metadata)
+
+        assertThat(appInitializer.mInitialized.size, `is`(3))
+        assertThat(appInitializer.mDiscovered.size, `is`(3))
+        // Each concurrent initializer waits for the other one, which only completes if they run
+        // at the same time.
+        val first = appInitializer.mInitialized[FirstConcurrentInitializer::class.java] as Thread
+        val second = appInitializer.mInitialized[SecondConcurrentInitializer::class.java] as Thread
+        assertThat(first, not(`is`(second)))
+        assertThat(first, not(`is`(Thread.currentThread())))
+        assertThat(
+            appInitializer.mInitialized[CallingThreadInitializer::class.java] as Thread,
+            `is`(Thread.currentThread())
+        )
+        assertTrue(ConcurrentState.dependenciesInitializedFirst)
+    }
+
+    @Test
+    fun criticalPathFollowsDependencies() {
+        val initialization = ConcurrentInitialization(
+            appInitializer,
+            setOf<Class<out Initializer<*>>>(
+                InitializerNoDependencies::class.java,
+                InitializerWithDependency::class.java
+            )
+        )
+        initialization.run(listOf(InitializerWithDependency::class.java))
+
+        assertThat(appInitializer.mInitialized.size, `is`(2))
+        assertThat(
+            initialization.criticalPath,
+            `is`(
+                listOf<Class<out Initializer<*>>>(
+                    InitializerNoDependencies::class.java,
+                    InitializerWithDependency::class.java
+                )
+            )
+        )
+    }
+
+    @Test
+    fun initializedComponentsAreSkipped() {
+        appInitializer.initializeComponent(InitializerNoDependencies::class.java)
+        val initialization = ConcurrentInitialization(
+            appInitializer,
+            setOf<Class<out Initializer<*>>>(InitializerWithDependency::class.java)
+        )
+        initialization.run(listOf(InitializerWithDependency::class.java))
+
+        assertThat(appInitializer.mInitialized.size, `is`(2))
+        assertThat(
+            initialization.criticalPath,
+            `is`(listOf<Class<out Initializer<*>>>(InitializerWithDependency::class.java))
+        )
+    }
+
+    @Test
+    fun cyclicDependencies() {
+        val metadata = Bundle().apply {
+            putString(CyclicDependencyInitializer::class.java.name, CONCURRENT)
+        }
+        try {
+            appInitializer.discoverAndInitialize(metadata)
+            fail()
+        } catch (exception: StartupException) {
+            assertThat(exception.localizedMessage, containsString("Cycle detected."))
+        }
+    }
+
+    @Test
+    fun failureIsPropagated() {
+        val metadata = Bundle().apply {
+            putString(FailingInitializer::class.java.name, CONCURRENT)
+            putString(InitializerNoDependencies::class.java.name, STARTUP)
+        }
+        try {
+            appInitializer.discoverAndInitialize(metadata)
+            fail()
+        } catch (exception: StartupException) {
+            assertThat(exception.localizedMessage, containsString(FailingInitializer.MESSAGE))
+        }
+    }
+
+    companion object {
+        const val STARTUP = "androidx.startup"
+        const val CONCURRENT = "androidx.startup.concurrent"
+    }
+}
+
+internal object ConcurrentState {
+    lateinit var bothStarted: CountDownLatch
+    @Volatile
+    var initializedCount = 0
+    @Volatile
+    var dependenciesInitializedFirst = false
+
+    fun reset() {
+        bothStarted = CountDownLatch(2)
+        initializedCount = 0
+        dependenciesInitializedFirst = false
+    }
+}
+
+/**
+ * Waits for [SecondConcurrentInitializer] to start, and returns the thread it ran on.
+ */
+class FirstConcurrentInitializer : Initializer<Thread> {
+    override fun create(context: Context): Thread = awaitBothStarted()
+
+    override fun dependencies(): List<Class<out Initializer<*>>> = emptyList()
+}
+
+/**
+ * Waits for [FirstConcurrentInitializer] to start, and returns the thread it ran on.
+ */
+class SecondConcurrentInitializer : Initializer<Thread> {
+    override fun create(context: Context): Thread = awaitBothStarted()
+
+    override fun dependencies(): List<Class<out Initializer<*>>> = emptyList()
+}
+
+private fun awaitBothStarted(): Thread {
+    ConcurrentState.bothStarted.countDown()
+    check(ConcurrentState.bothStarted.await(5, TimeUnit.SECONDS)) { "Not run concurrently" }
+    synchronized(ConcurrentState) {
+        ConcurrentState.initializedCount++
+    }
+    return Thread.currentThread()
+}
+
+/**
+ * Depends on both concurrent initializers, and returns the thread it ran on.
+ */
+class CallingThreadInitializer : Initializer<Thread> {
+    override fun create(context: Context): Thread {
+        ConcurrentState.dependenciesInitializedFirst = ConcurrentState.initializedCount == 2
+        return Thread.currentThread()
+    }
+
+    override fun dependencies(): List<Class<out Initializer<*>>> = listOf(
+        FirstConcurrentInitializer::class.java,
+        SecondConcurrentInitializer::class.java
+    )
+}
+
+/**
+ * Initializer that always fails.
+ */
+class FailingInitializer : Initializer<Unit> {
+    override fun create(context: Context) {
+        throw IllegalStateException(MESSAGE)
+    }
+
+    override fun dependencies(): List<Class<out Initializer<*>>> = emptyList()
+
+    companion object {
+        const val MESSAGE = "Initialization failed"
+    }
+}
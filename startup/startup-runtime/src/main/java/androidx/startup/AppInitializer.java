@@ -39,6 +39,13 @@ import java.util.Set;
  * <code>ComponentInitializer</code>s. The discovery mechanism is via
  * <code>&lt;meta-data&gt;</code> entries in the merged
  * <code>AndroidManifest.xml</code>.
+ * <p>
+ * Initializers discovered with the value <code>androidx.startup.concurrent</code> instead of
+ * <code>androidx.startup</code> are safe to initialize on a background thread. When there are
+ * any, the dependency graph of all discovered initializers is computed up front, and concurrent
+ * initializers run on a bounded pool of background threads as soon as their dependencies are
+ * initialized. All other initializers still run on the main thread. Initializers that initialize
+ * other components must declare them in {@link Initializer#dependencies()}.
  */
 @SuppressWarnings("WeakerAccess")
 public final class AppInitializer {
@@ -62,6 +69,9 @@ public final class AppInitializer {
     @NonNull
     final Set<Class<? extends Initializer<?>>> mDiscovered;
 
+    @NonNull
+    final Set<Class<? extends Initializer<?>>> mConcurrent;
+
     @NonNull
     final Context mContext;
 
@@ -73,6 +83,7 @@ public final class AppInitializer {
     AppInitializer(@NonNull Context context) {
         mContext = context.getApplicationContext();
         mDiscovered = new HashSet<>();
+        mConcurrent = new HashSet<>();
         mInitialized = new HashMap<>();
     }
 
@@ -195,6 +206,28 @@ public final class AppInitializer {
         }
     }
 
+    /**
+     * Returns the result of an initialized component, or <code>null</code> if it was not
+     * initialized yet.
+     */
+    @Nullable
+    Object getInitialized(@NonNull Class<?> component) {
+        synchronized (sLock) {
+            return mInitialized.get(component);
+        }
+    }
+
+    /**
+     * Records the result of an initialized component, unless it was initialized already.
+     */
+    void setInitialized(@NonNull Class<?> component, @NonNull Object result) {
+        synchronized (sLock) {
+            if (!mInitialized.containsKey(component)) {
+                mInitialized.put(component, result);
+            }
+        }
+    }
+
     @SuppressWarnings("deprecation")
     void discoverAndInitialize(
             @NonNull Class<? extends InitializationProvider> initializationProvider) {
@@ -215,18 +248,22 @@ public final class AppInitializer {
     @SuppressWarnings("unchecked")
     void discoverAndInitialize(@Nullable Bundle metadata) {
         String startup = mContext.getString(R.string.androidx_startup);
+        String concurrent = mContext.getString(R.string.androidx_startup_concurrent);
         try {
             if (metadata != null) {
                 Set<Class<?>> initializing = new HashSet<>();
                 Set<String> keys = metadata.keySet();
                 for (String key : keys) {
                     String value = metadata.getString(key, null);
-                    if (startup.equals(value)) {
+                    if (startup.equals(value) || concurrent.equals(value)) {
                         Class<?> clazz = Class.forName(key);
                         if (Initializer.class.isAssignableFrom(clazz)) {
                             Class<? extends Initializer<?>> component =
                                     (Class<? extends Initializer<?>>) clazz;
                             mDiscovered.add(component);
+                            if (concurrent.equals(value)) {
+                                mConcurrent.add(component);
+                            }
                             if (StartupLogger.DEBUG) {
                                 StartupLogger.i(String.format("Discovered %s", key));
                             }
@@ -235,6 +272,10 @@ public final class AppInitializer {
                 }
                 // Initialize only after discovery is complete. This way, the check for
                 // isEagerlyInitialized is correct.
+                if (!mConcurrent.isEmpty()) {
+                    new ConcurrentInitialization(this, mConcurrent).run(mDiscovered);
+                    return;
+                }
                 for (Class<? extends Initializer<?>> component : mDiscovered) {
                     doInitialize(component, initializing);
                 }
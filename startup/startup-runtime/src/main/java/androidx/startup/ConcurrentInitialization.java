@@ -0,0 +1,326 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.startup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.tracing.Trace;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Initializes a graph of {@link Initializer}s, running the ones declared as concurrent on a
+ * bounded pool of background threads.
+ * <p>
+ * The graph of dependencies is computed up front, and each {@link Initializer} starts as soon as
+ * all of its dependencies are initialized. Initializers that were not declared as concurrent run
+ * on the thread calling {@link #run(Collection)}, which returns once every initializer in the
+ * graph is initialized.
+ */
+final class ConcurrentInitialization {
+
+    private static final int MIN_THREADS = 2;
+    private static final int MAX_THREADS = 4;
+    private static final long KEEP_ALIVE_SECONDS = 1;
+
+    /**
+     * Wakes up the calling thread when the graph is done, or has failed.
+     */
+    private static final Node WAKE_UP = new Node(null, null, false);
+
+    @NonNull
+    private final AppInitializer mAppInitializer;
+
+    @NonNull
+    private final Set<Class<? extends Initializer<?>>> mConcurrent;
+
+    @NonNull
+    private final Map<Class<?>, Node> mNodes = new LinkedHashMap<>();
+
+    /**
+     * Initializers that are ready to run on the calling thread.
+     */
+    @NonNull
+    private final BlockingQueue<Node> mCallingThreadQueue = new LinkedBlockingQueue<>();
+
+    @NonNull
+    private final AtomicInteger mRemaining = new AtomicInteger();
+
+    @NonNull
+    private final AtomicReference<Throwable> mFailure = new AtomicReference<>();
+
+    private long mStartNanos;
+    private long mEndNanos;
+
+    /**
+     * @param appInitializer The {@link AppInitializer} that holds initialized components.
+     * @param concurrent     The {@link Initializer}s that can run on background threads.
+     */
+    ConcurrentInitialization(
+            @NonNull AppInitializer appInitializer,
+            @NonNull Set<Class<? extends Initializer<?>>> concurrent) {
+        mAppInitializer = appInitializer;
+        mConcurrent = concurrent;
+    }
+
+    /**
+     * Initializes the components and their dependencies, unless they are already initialized.
+     *
+     * @param components The {@link Initializer}s to initialize.
+     */
+    void run(@NonNull Collection<Class<? extends Initializer<?>>> components) {
+        mStartNanos = System.nanoTime();
+        try {
+            Set<Class<?>> visiting = new HashSet<>();
+            for (Class<? extends Initializer<?>> component : components) {
+                if (mAppInitializer.getInitialized(component) == null) {
+                    addNode(component, visiting);
+                }
+            }
+        } catch (Throwable throwable) {
+            throw new StartupException(throwable);
+        }
+        if (!mNodes.isEmpty()) {
+            initializeNodes();
+        }
+        mEndNanos = System.nanoTime();
+        if (StartupLogger.DEBUG) {
+            logReport();
+        }
+    }
+
+    @NonNull
+    private Node addNode(
+            @NonNull Class<? extends Initializer<?>> component,
+            @NonNull Set<Class<?>> visiting) throws ReflectiveOperationException {
+        Node node = mNodes.get(component);
+        if (node != null) {
+            return node;
+        }
+        if (visiting.contains(component)) {
+            String message = String.format(
+                    "Cannot initialize %s. Cycle detected.", component.getName()
+            );
+            throw new IllegalStateException(message);
+        }
+        visiting.add(component);
+        Initializer<?> initializer = component.getDeclaredConstructor().newInstance();
+        node = new Node(component, initializer, mConcurrent.contains(component));
+        for (Class<? extends Initializer<?>> dependency : initializer.dependencies()) {
+            if (mAppInitializer.getInitialized(dependency) == null) {
+                Node dependencyNode = addNode(dependency, visiting);
+                dependencyNode.mDependents.add(node);
+                node.mDependencies.add(dependencyNode);
+                node.mPendingDependencies.incrementAndGet();
+            }
+        }
+        visiting.remove(component);
+        mNodes.put(component, node);
+        return node;
+    }
+
+    private void initializeNodes() {
+        mRemaining.set(mNodes.size());
+        ThreadPoolExecutor executor = createExecutor();
+        try {
+            for (Node node : mNodes.values()) {
+                if (node.mPendingDependencies.get() == 0) {
+                    dispatch(node, executor);
+                }
+            }
+            while (mRemaining.get() > 0 && mFailure.get() == null) {
+                Node node = mCallingThreadQueue.take();
+                if (node != WAKE_UP) {
+                    initialize(node, executor);
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new StartupException(exception);
+        } finally {
+            // Initializers that are already running are allowed to finish.
+            executor.shutdown();
+        }
+        Throwable failure = mFailure.get();
+        if (failure instanceof StartupException) {
+            throw (StartupException) failure;
+        } else if (failure != null) {
+            throw new StartupException(failure);
+        }
+    }
+
+    private void dispatch(@NonNull final Node node, @NonNull final Executor executor) {
+        if (node.mConcurrent) {
+            executor.execute(() -> initialize(node, executor));
+        } else {
+            mCallingThreadQueue.offer(node);
+        }
+    }
+
+    private void initialize(@NonNull Node node, @NonNull Executor executor) {
+        if (mFailure.get() != null) {
+            return;
+        }
+        boolean isTracingEnabled = Trace.isEnabled();
+        try {
+            if (isTracingEnabled) {
+                // Use the simpleName here because section names would get too big otherwise.
+                Trace.beginSection(node.mComponent.getSimpleName());
+            }
+            node.mThreadName = Thread.currentThread().getName();
+            node.mStartNanos = System.nanoTime();
+            // A component initialized meanwhile through AppInitializer.initializeComponent() is
+            // not initialized again.
+            if (mAppInitializer.getInitialized(node.mComponent) == null) {
+                if (StartupLogger.DEBUG) {
+                    StartupLogger.i(String.format("Initializing %s", node.mComponent.getName()));
+                }
+                Object result = node.mInitializer.create(mAppInitializer.mContext);
+                mAppInitializer.setInitialized(node.mComponent, result);
+                if (StartupLogger.DEBUG) {
+                    StartupLogger.i(String.format("Initialized %s", node.mComponent.getName()));
+                }
+            }
+            node.mEndNanos = System.nanoTime();
+        } catch (Throwable throwable) {
+            mFailure.compareAndSet(null, throwable);
+            mCallingThreadQueue.offer(WAKE_UP);
+            return;
+        } finally {
+            if (isTracingEnabled) {
+                Trace.endSection();
+            }
+        }
+        for (Node dependent : node.mDependents) {
+            if (dependent.mPendingDependencies.decrementAndGet() == 0) {
+                dispatch(dependent, executor);
+            }
+        }
+        if (mRemaining.decrementAndGet() == 0) {
+            mCallingThreadQueue.offer(WAKE_UP);
+        }
+    }
+
+    /**
+     * Returns the chain of dependencies that determined how long the initialization took, starting
+     * with the first initializer to run. Each initializer is the dependency of the next one that
+     * was initialized last.
+     */
+    @NonNull
+    List<Class<? extends Initializer<?>>> getCriticalPath() {
+        Node last = null;
+        for (Node node : mNodes.values()) {
+            if (last == null || node.mEndNanos > last.mEndNanos) {
+                last = node;
+            }
+        }
+        List<Class<? extends Initializer<?>>> path = new ArrayList<>();
+        for (Node node = last; node != null; node = node.lastDependency()) {
+            path.add(node.mComponent);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private void logReport() {
+        for (Node node : mNodes.values()) {
+            StartupLogger.i(String.format("%s took %d ms on %s", node.mComponent.getName(),
+                    toMillis(node.mEndNanos - node.mStartNanos), node.mThreadName));
+        }
+        StringBuilder criticalPath = new StringBuilder();
+        for (Class<? extends Initializer<?>> component : getCriticalPath()) {
+            if (criticalPath.length() > 0) {
+                criticalPath.append(" -> ");
+            }
+            criticalPath.append(component.getSimpleName());
+        }
+        StartupLogger.i(String.format("Initialized %d components in %d ms, critical path: %s",
+                mNodes.size(), toMillis(mEndNanos - mStartNanos), criticalPath));
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @NonNull
+    private static ThreadPoolExecutor createExecutor() {
+        int threads = Math.max(MIN_THREADS,
+                Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger mCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(@NonNull Runnable runnable) {
+                        return new Thread(runnable,
+                                "androidx.startup-" + mCount.incrementAndGet());
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * An {@link Initializer} in the graph.
+     */
+    private static final class Node {
+        final Class<? extends Initializer<?>> mComponent;
+        final Initializer<?> mInitializer;
+        final boolean mConcurrent;
+        final List<Node> mDependencies = new ArrayList<>();
+        final List<Node> mDependents = new ArrayList<>();
+        final AtomicInteger mPendingDependencies = new AtomicInteger();
+        volatile long mStartNanos;
+        volatile long mEndNanos;
+        @Nullable
+        volatile String mThreadName;
+
+        Node(Class<? extends Initializer<?>> component, Initializer<?> initializer,
+                boolean concurrent) {
+            mComponent = component;
+            mInitializer = initializer;
+            mConcurrent = concurrent;
+        }
+
+        @Nullable
+        Node lastDependency() {
+            Node last = null;
+            for (Node dependency : mDependencies) {
+                if (last == null || dependency.mEndNanos > last.mEndNanos) {
+                    last = dependency;
+                }
+            }
+            return last;
+        }
+    }
+}
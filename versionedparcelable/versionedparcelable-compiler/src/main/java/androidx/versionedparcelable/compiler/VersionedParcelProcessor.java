@@ -17,9 +17,11 @@ package androidx.versionedparcelable.compiler;
 
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
@@ -73,10 +75,12 @@ public class VersionedParcelProcessor extends AbstractProcessor {
     private static final ClassName RESTRICT_TO_SCOPE = RESTRICT_TO.nestedClass("Scope");
     private static final ClassName VERSIONED_PARCEL =
             ClassName.get("androidx.versionedparcelable", "VersionedParcel");
+    private static final ClassName PARCELIZER = VERSIONED_PARCEL.nestedClass("Parcelizer");
 
     private static final String GEN_SUFFIX = "Parcelizer";
     private static final String READ = "read";
     private static final String WRITE = "write";
+    private static final String PARCELIZER_FIELD = "PARCELIZER";
 
     private Messager mMessager;
     private ProcessingEnvironment mEnv;
@@ -305,6 +309,36 @@ public class VersionedParcelProcessor extends AbstractProcessor {
         readBuilder.addStatement("return obj");
         genClass.addMethod(readBuilder.build());
         genClass.addMethod(writeBuilder.build());
+
+        // Registers a parcelizer calling read and write directly, so that VersionedParcel does
+        // not need reflection to call them.
+        ClassName genClassName = ClassName.get(getPkg(versionedParcelable),
+                versionedParcelable.getSimpleName() + GEN_SUFFIX);
+        TypeName parcelizerType = ParameterizedTypeName.get(PARCELIZER, type);
+        TypeSpec parcelizer = TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(parcelizerType)
+                .addMethod(MethodSpec.methodBuilder(READ)
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(type)
+                        .addParameter(VERSIONED_PARCEL, "parcel")
+                        .addStatement("return $T.read(parcel)", genClassName)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder(WRITE)
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(type, "obj")
+                        .addParameter(VERSIONED_PARCEL, "parcel")
+                        .addStatement("$T.write(obj, parcel)", genClassName)
+                        .build())
+                .build();
+        genClass.addField(FieldSpec.builder(parcelizerType, PARCELIZER_FIELD)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$L", parcelizer)
+                .build());
+        genClass.addStaticBlock(CodeBlock.of(
+                "$T.registerParcelizer($T.class.getName(), $T.class, $L);\n",
+                VERSIONED_PARCEL, genClassName, type, PARCELIZER_FIELD));
         try {
             TypeSpec typeSpec = genClass.build();
             String pkg = getPkg(versionedParcelable);
@@ -322,6 +356,11 @@ public class VersionedParcelProcessor extends AbstractProcessor {
                         // The empty package here is a hack to avoid an import,
                         // since the classes have the same name.
                         .superclass(ClassName.get("", superCls));
+                // Registers the parcelizer under this name too, to read parcels written with it.
+                jetifyClass.addStaticBlock(CodeBlock.of(
+                        "$T.registerParcelizer($L.class.getName(), null, $L.$L);\n",
+                        VERSIONED_PARCEL, jetifyAs.substring(1, jetifyAs.length() - 1)
+                                + GEN_SUFFIX, superCls, PARCELIZER_FIELD));
                 jetifyClass.addMethod(MethodSpec
                         .methodBuilder(READ)
                         .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
@@ -456,6 +456,37 @@ public class VersionedParcelIntegTest {
         assertEquals(obj.mGenericType.mValue, other.mGenericType.mValue);
     }
 
+    @Test
+    public void testRegisteredParcelizerCalledDirectly() {
+        final int[] calls = new int[2];
+        final VersionedParcel.Parcelizer<GenericType> generated = GenericTypeParcelizer.PARCELIZER;
+        VersionedParcel.registerParcelizer(GenericTypeParcelizer.class.getName(),
+                GenericType.class, new VersionedParcel.Parcelizer<GenericType>() {
+                    @Override
+                    public GenericType read(VersionedParcel parcel) {
+                        calls[0]++;
+                        return generated.read(parcel);
+                    }
+
+                    @Override
+                    public void write(GenericType obj, VersionedParcel parcel) {
+                        calls[1]++;
+                        generated.write(obj, parcel);
+                    }
+                });
+        try {
+            ParcelizableImpl obj = new ParcelizableImpl();
+            obj.mGenericType = new GenericType<>("xxxx");
+            ParcelizableImpl other = parcelCopy(obj);
+            assertEquals(obj.mGenericType.mValue, other.mGenericType.mValue);
+            assertEquals(1, calls[0]);
+            assertEquals(1, calls[1]);
+        } finally {
+            VersionedParcel.registerParcelizer(GenericTypeParcelizer.class.getName(),
+                    GenericType.class, generated);
+        }
+    }
+
     @VersionedParcelize(allowSerialization = true,
             ignoreParcelables = true,
             isCustom = true,
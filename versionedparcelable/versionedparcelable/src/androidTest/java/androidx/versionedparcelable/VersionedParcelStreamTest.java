@@ -16,6 +16,7 @@
 
 package androidx.versionedparcelable;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
@@ -76,6 +77,20 @@ public class VersionedParcelStreamTest {
                 createInputParcel().readException(null, 0).getClass());
     }
 
+    @Test
+    public void testFieldsOfDifferentSizes() {
+        byte[] bytes = new byte[0x10000];
+        bytes[bytes.length - 1] = 7;
+        mOutputParcel.writeByteArray(bytes, 1);
+        mOutputParcel.writeInt(42, 2);
+        mOutputParcel.writeString("My string", 3);
+
+        VersionedParcelStream input = createInputParcel();
+        assertArrayEquals(bytes, input.readByteArray(null, 1));
+        assertEquals(42, input.readInt(0, 2));
+        assertEquals("My string", input.readString(null, 3));
+    }
+
     private VersionedParcelStream createInputParcel() {
         mOutputParcel.closeField();
         return new VersionedParcelStream(new ByteArrayInputStream(mOutput.toByteArray()), null);
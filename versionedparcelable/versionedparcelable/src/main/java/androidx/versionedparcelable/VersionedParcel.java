@@ -52,6 +52,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  */
@@ -79,6 +80,14 @@ public abstract class VersionedParcel {
     private static final int TYPE_INTEGER = 7;
     private static final int TYPE_FLOAT = 8;
 
+    // Parcelizers registered by generated code, shared by all VersionedParcels.
+    private static final ConcurrentHashMap<String, Parcelizer<?>> sReadParcelizers =
+            new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Class<?>, Parcelizer<?>> sWriteParcelizers =
+            new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Class<?>, String> sParcelizerNames =
+            new ConcurrentHashMap<>();
+
     @NonNull
     final SimpleArrayMap<String, Method> mReadCache;
     @NonNull
@@ -1060,14 +1069,16 @@ public abstract class VersionedParcel {
     }
 
     private void writeVersionedParcelableCreator(@NonNull VersionedParcelable p) {
-        Class<?> name;
-        try {
-            name = findParcelClass(p.getClass());
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException(p.getClass().getSimpleName() + " does not have a Parcelizer",
-                    e);
+        String name = sParcelizerNames.get(p.getClass());
+        if (name == null) {
+            try {
+                name = findParcelClass(p.getClass()).getName();
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException(
+                        p.getClass().getSimpleName() + " does not have a Parcelizer", e);
+            }
         }
-        writeString(name.getName());
+        writeString(name);
     }
 
     /**
@@ -1592,6 +1603,10 @@ public abstract class VersionedParcel {
             @NonNull VersionedParcel versionedParcel
     ) {
         try {
+            Parcelizer<?> parcelizer = getReadParcelizer(parcelCls);
+            if (parcelizer != null) {
+                return (T) parcelizer.read(versionedParcel);
+            }
             Method m = getReadMethod(parcelCls);
             return (T) m.invoke(null, versionedParcel);
         } catch (IllegalAccessException e) {
@@ -1614,10 +1629,16 @@ public abstract class VersionedParcel {
 
     /**
      */
+    @SuppressWarnings("unchecked")
     protected <T extends VersionedParcelable> void writeToParcel(
             @NonNull T val,
             @NonNull VersionedParcel versionedParcel
     ) {
+        Parcelizer<T> parcelizer = (Parcelizer<T>) sWriteParcelizers.get(val.getClass());
+        if (parcelizer != null) {
+            parcelizer.write(val, versionedParcel);
+            return;
+        }
         try {
             Method m = getWriteMethod(val.getClass());
             m.invoke(null, val, versionedParcel);
@@ -1639,6 +1660,22 @@ public abstract class VersionedParcel {
         }
     }
 
+    /**
+     * Returns the parcelizer registered for the Parcelizer class named {@code parcelCls}, or
+     * null if it was generated without one and must be called through reflection.
+     */
+    @Nullable
+    private Parcelizer<?> getReadParcelizer(@NonNull String parcelCls)
+            throws ClassNotFoundException {
+        Parcelizer<?> parcelizer = sReadParcelizers.get(parcelCls);
+        if (parcelizer == null && !mReadCache.containsKey(parcelCls)) {
+            // Generated Parcelizer classes register themselves when initialized.
+            Class.forName(parcelCls, true, VersionedParcel.class.getClassLoader());
+            parcelizer = sReadParcelizers.get(parcelCls);
+        }
+        return parcelizer;
+    }
+
     @NonNull
     private Method getReadMethod(@NonNull String parcelCls) throws IllegalAccessException,
             NoSuchMethodException, ClassNotFoundException {
@@ -1670,12 +1707,54 @@ public abstract class VersionedParcel {
         if (ret == null) {
             String pkg = cls.getPackage().getName();
             String c = String.format("%s.%sParcelizer", pkg, cls.getSimpleName());
-            ret = Class.forName(c, false, cls.getClassLoader());
+            // Initialize the class so that a generated parcelizer registers itself.
+            ret = Class.forName(c, true, cls.getClassLoader());
             mParcelizerCache.put(cls.getName(), ret);
         }
         return ret;
     }
 
+    /**
+     * Registers the generated parcelizer for a {@link VersionedParcelable}, so that it is called
+     * directly instead of through reflection. Generated Parcelizer classes call this when they
+     * are initialized.
+     *
+     * @param parcelizerName the name of the generated Parcelizer class, as written to parcels.
+     * @param cls the class written by the parcelizer, or null if the parcelizer is only used to
+     *            read parcels written under {@code parcelizerName}.
+     * @param parcelizer the parcelizer.
+     */
+    public static <T extends VersionedParcelable> void registerParcelizer(
+            @NonNull String parcelizerName,
+            @Nullable Class<T> cls,
+            @NonNull Parcelizer<T> parcelizer
+    ) {
+        sReadParcelizers.put(parcelizerName, parcelizer);
+        if (cls != null) {
+            sParcelizerNames.put(cls, parcelizerName);
+            sWriteParcelizers.put(cls, parcelizer);
+        }
+    }
+
+    /**
+     * Reads and writes a {@link VersionedParcelable}, implemented by the generated Parcelizer
+     * class.
+     *
+     * @param <T> the type of VersionedParcelable.
+     */
+    public interface Parcelizer<T extends VersionedParcelable> {
+        /**
+         * Reads a new object from the parcel.
+         */
+        @NonNull
+        T read(@NonNull VersionedParcel parcel);
+
+        /**
+         * Writes the fields of {@code obj} to the parcel.
+         */
+        void write(@NonNull T obj, @NonNull VersionedParcel parcel);
+    }
+
     /**
      */
     public static class ParcelException extends RuntimeException {
@@ -35,6 +35,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Set;
 
 /**
@@ -73,6 +74,9 @@ class VersionedParcelStream extends VersionedParcel {
     private DataOutputStream mCurrentOutput;
     @Nullable
     private FieldBuffer mFieldBuffer;
+    // Field buffers not in use, shared with sub parcels so that their growth is reused.
+    @NonNull
+    private final ArrayList<FieldBuffer> mFieldBufferPool;
     private boolean mIgnoreParcelables;
 
     int mCount = 0;
@@ -81,7 +85,8 @@ class VersionedParcelStream extends VersionedParcel {
 
     VersionedParcelStream(@Nullable InputStream input, @Nullable OutputStream output) {
         this(input, output, new SimpleArrayMap<String, Method>(),
-                new SimpleArrayMap<String, Method>(), new SimpleArrayMap<String, Class<?>>());
+                new SimpleArrayMap<String, Method>(), new SimpleArrayMap<String, Class<?>>(),
+                new ArrayList<FieldBuffer>());
     }
 
     private VersionedParcelStream(
@@ -89,9 +94,11 @@ class VersionedParcelStream extends VersionedParcel {
             @Nullable OutputStream output,
             @NonNull SimpleArrayMap<String, Method> readCache,
             @NonNull SimpleArrayMap<String, Method> writeCache,
-            @NonNull SimpleArrayMap<String, Class<?>> parcelizerCache
+            @NonNull SimpleArrayMap<String, Class<?>> parcelizerCache,
+            @NonNull ArrayList<FieldBuffer> fieldBufferPool
     ) {
         super(readCache, writeCache, parcelizerCache);
+        mFieldBufferPool = fieldBufferPool;
         mMasterInput = input != null ? new DataInputStream(new FilterInputStream(input) {
             @Override
             public int read() throws IOException {
@@ -157,6 +164,7 @@ class VersionedParcelStream extends VersionedParcel {
             } catch (IOException e) {
                 throw new ParcelException(e);
             }
+            mFieldBufferPool.add(mFieldBuffer);
             mFieldBuffer = null;
         }
     }
@@ -164,7 +172,7 @@ class VersionedParcelStream extends VersionedParcel {
     @Override
     protected @NonNull VersionedParcel createSubParcel() {
         return new VersionedParcelStream(mCurrentInput, mCurrentOutput, mReadCache, mWriteCache,
-                mParcelizerCache);
+                mParcelizerCache, mFieldBufferPool);
     }
 
     @Override
@@ -199,7 +207,9 @@ class VersionedParcelStream extends VersionedParcel {
     @Override
     public void setOutputField(int fieldId) {
         closeField();
-        mFieldBuffer = new FieldBuffer(fieldId, mMasterOutput);
+        int pooled = mFieldBufferPool.size();
+        mFieldBuffer = pooled != 0 ? mFieldBufferPool.remove(pooled - 1) : new FieldBuffer();
+        mFieldBuffer.reset(fieldId, mMasterOutput);
         mCurrentOutput = mFieldBuffer.mDataStream;
     }
 
@@ -562,11 +572,15 @@ class VersionedParcelStream extends VersionedParcel {
         final ByteArrayOutputStream mOutput = new ByteArrayOutputStream();
         @NonNull
         final DataOutputStream mDataStream = new DataOutputStream(mOutput);
-        private final int mFieldId;
-        @NonNull
-        private final DataOutputStream mTarget;
-
-        FieldBuffer(int fieldId, @NonNull DataOutputStream target) {
+        private int mFieldId;
+        @Nullable
+        private DataOutputStream mTarget;
+
+        /**
+         * Starts buffering a new field, keeping the capacity grown by previous fields.
+         */
+        void reset(int fieldId, @NonNull DataOutputStream target) {
+            mOutput.reset();
             mFieldId = fieldId;
             mTarget = target;
         }
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.wear.protolayout.expression.pipeline;
+
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+import androidx.annotation.VisibleForTesting;
+import androidx.collection.ArrayMap;
+import androidx.collection.ArraySet;
+import androidx.wear.protolayout.expression.DynamicDataKey;
+import androidx.wear.protolayout.expression.proto.DynamicDataProto.DynamicDataValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces the updates of the data stores used by a {@link DynamicTypeEvaluator}, and propagates
+ * them at most once per frame.
+ *
+ * <p>A store wrapped with {@link #wrap} registers a single callback per key with the underlying
+ * store, shared by all of the bound dynamic types reading that key. Updates received during a
+ * frame only record the latest value of each key. On the next frame, all of the callbacks of the
+ * changed keys, across all of the wrapped stores, are first sent {@link
+ * DynamicTypeValueReceiverWithPreUpdate#onPreUpdate()}, and only then the new values. As nodes
+ * wait for all of their pending inputs before evaluating, a node depending on several changed
+ * keys, or on a key changed several times during the frame, evaluates once per frame rather than
+ * once per update.
+ *
+ * <p>This class is not thread-safe and must only be used from the UI thread.
+ */
+final class DataUpdateBatcher {
+    @NonNull private final Consumer<Runnable> mFrameScheduler;
+    @NonNull private final List<BatchedDataStore> mStoresWithPendingUpdates = new ArrayList<>();
+    private boolean mFrameScheduled = false;
+
+    private long mUpdateCount = 0;
+    private long mFrameCount = 0;
+    private long mDispatchCount = 0;
+
+    /** Creates a batcher propagating the updates on the next {@link Choreographer} frame. */
+    DataUpdateBatcher() {
+        this(
+                runnable ->
+                        Choreographer.getInstance()
+                                .postFrameCallback(frameTimeNanos -> runnable.run()));
+    }
+
+    /**
+     * Creates a batcher propagating the updates when the runnables given to {@code frameScheduler}
+     * are run.
+     */
+    @VisibleForTesting
+    DataUpdateBatcher(@NonNull Consumer<Runnable> frameScheduler) {
+        mFrameScheduler = frameScheduler;
+    }
+
+    /** Returns a {@link DataStore} reading from {@code dataStore}, with batched updates. */
+    @NonNull
+    DataStore wrap(@NonNull DataStore dataStore) {
+        return new BatchedDataStore(dataStore);
+    }
+
+    /** Returns the number of updates received from the underlying stores. */
+    long getUpdateCount() {
+        return mUpdateCount;
+    }
+
+    /** Returns the number of frames in which updates were propagated. */
+    long getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * Returns the number of values propagated to the source nodes of the bound dynamic types,
+     * i.e. the number of source node evaluations.
+     */
+    long getDispatchCount() {
+        return mDispatchCount;
+    }
+
+    private void onUpdate(@NonNull BatchedDataStore store) {
+        mUpdateCount++;
+        if (!mStoresWithPendingUpdates.contains(store)) {
+            mStoresWithPendingUpdates.add(store);
+        }
+        if (!mFrameScheduled) {
+            mFrameScheduled = true;
+            mFrameScheduler.accept(this::propagatePendingUpdates);
+        }
+    }
+
+    @UiThread
+    private void propagatePendingUpdates() {
+        mFrameScheduled = false;
+        if (mStoresWithPendingUpdates.isEmpty()) {
+            return;
+        }
+        mFrameCount++;
+        List<PendingUpdate> updates = new ArrayList<>();
+        for (BatchedDataStore store : mStoresWithPendingUpdates) {
+            store.takePendingUpdates(updates);
+        }
+        mStoresWithPendingUpdates.clear();
+
+        // Mark all of the affected nodes first, so that each of them waits for all of its changed
+        // inputs before evaluating.
+        for (PendingUpdate update : updates) {
+            for (DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue> callback :
+                    update.mCallbacks) {
+                callback.onPreUpdate();
+            }
+        }
+        for (PendingUpdate update : updates) {
+            for (DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue> callback :
+                    update.mCallbacks) {
+                mDispatchCount++;
+                if (update.mValue != null) {
+                    callback.onData(update.mValue);
+                } else {
+                    callback.onInvalidated();
+                }
+            }
+        }
+    }
+
+    /** The latest value of a key, with the callbacks registered for it when it's propagated. */
+    private static final class PendingUpdate {
+        // Null if the value was invalidated.
+        @Nullable final DynamicDataValue mValue;
+
+        @NonNull
+        final List<DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue>> mCallbacks;
+
+        PendingUpdate(
+                @Nullable DynamicDataValue value,
+                @NonNull List<DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue>> callbacks) {
+            mValue = value;
+            mCallbacks = callbacks;
+        }
+    }
+
+    private final class BatchedDataStore extends DataStore {
+        @NonNull private final DataStore mDataStore;
+
+        @NonNull
+        private final Map<DynamicDataKey<?>, KeyCallback> mKeyCallbacks = new ArrayMap<>();
+
+        // The latest value of each key updated since the last frame, or null if it was
+        // invalidated.
+        @NonNull
+        private final Map<DynamicDataKey<?>, DynamicDataValue> mPendingValues = new ArrayMap<>();
+
+        BatchedDataStore(@NonNull DataStore dataStore) {
+            mDataStore = dataStore;
+        }
+
+        @Override
+        void registerCallback(
+                @NonNull DynamicDataKey<?> key,
+                @NonNull DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue> callback) {
+            KeyCallback keyCallback = mKeyCallbacks.get(key);
+            if (keyCallback == null) {
+                keyCallback = new KeyCallback(key);
+                mKeyCallbacks.put(key, keyCallback);
+                mDataStore.registerCallback(key, keyCallback);
+            }
+            keyCallback.mCallbacks.add(callback);
+        }
+
+        @Override
+        void unregisterCallback(
+                @NonNull DynamicDataKey<?> key,
+                @NonNull DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue> callback) {
+            KeyCallback keyCallback = mKeyCallbacks.get(key);
+            if (keyCallback == null) {
+                return;
+            }
+            keyCallback.mCallbacks.remove(callback);
+            if (keyCallback.mCallbacks.isEmpty()) {
+                mKeyCallbacks.remove(key);
+                mPendingValues.remove(key);
+                mDataStore.unregisterCallback(key, keyCallback);
+            }
+        }
+
+        @Nullable
+        @Override
+        DynamicDataValue getDynamicDataValuesProto(@NonNull DynamicDataKey<?> key) {
+            return mDataStore.getDynamicDataValuesProto(key);
+        }
+
+        void takePendingUpdates(@NonNull List<PendingUpdate> updates) {
+            for (Map.Entry<DynamicDataKey<?>, DynamicDataValue> entry :
+                    mPendingValues.entrySet()) {
+                KeyCallback keyCallback = mKeyCallbacks.get(entry.getKey());
+                if (keyCallback != null) {
+                    updates.add(
+                            new PendingUpdate(
+                                    entry.getValue(), new ArrayList<>(keyCallback.mCallbacks)));
+                }
+            }
+            mPendingValues.clear();
+        }
+
+        /** The callback registered with the underlying store for a key. */
+        private final class KeyCallback
+                implements DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue> {
+            @NonNull private final DynamicDataKey<?> mKey;
+
+            @NonNull
+            final Set<DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue>> mCallbacks =
+                    new ArraySet<>();
+
+            KeyCallback(@NonNull DynamicDataKey<?> key) {
+                mKey = key;
+            }
+
+            @Override
+            public void onPreUpdate() {
+                // The callbacks of this key are only marked when the batch is propagated.
+            }
+
+            @Override
+            public void onData(@NonNull DynamicDataValue newData) {
+                mPendingValues.put(mKey, newData);
+                onUpdate(BatchedDataStore.this);
+            }
+
+            @Override
+            public void onInvalidated() {
+                mPendingValues.put(mKey, null);
+                onUpdate(BatchedDataStore.this);
+            }
+        }
+    }
+}
@@ -91,6 +91,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -138,11 +139,13 @@ public class DynamicTypeEvaluator {
 
     @NonNull private static final StateStore EMPTY_STATE_STORE = new StateStore(emptyMap());
 
-    @NonNull private final StateStore mStateStore;
-    @NonNull private final PlatformDataStore mPlatformDataStore;
+    @NonNull private final DataStore mStateStore;
+    @NonNull private final DataStore mPlatformDataStore;
     @NonNull private final QuotaManager mAnimationQuotaManager;
     @NonNull private final QuotaManager mDynamicTypesQuotaManager;
     @NonNull private final EpochTimePlatformDataSource mTimeDataSource;
+    // Null if update batching is disabled.
+    @Nullable private final DataUpdateBatcher mUpdateBatcher;
 
     /** Configuration for creating {@link DynamicTypeEvaluator}. */
     public static final class Config {
@@ -156,6 +159,7 @@ public class DynamicTypeEvaluator {
 
         @Nullable private final PlatformTimeUpdateNotifier mPlatformTimeUpdateNotifier;
         @Nullable private final Supplier<Instant> mClock;
+        private final boolean mUpdateBatchingEnabled;
 
         Config(
                 @Nullable StateStore stateStore,
@@ -163,13 +167,15 @@ public class DynamicTypeEvaluator {
                 @Nullable QuotaManager dynamicTypesQuotaManager,
                 @NonNull Map<PlatformDataKey<?>, PlatformDataProvider> sourceKeyToDataProviders,
                 @Nullable PlatformTimeUpdateNotifier platformTimeUpdateNotifier,
-                @Nullable Supplier<Instant> clock) {
+                @Nullable Supplier<Instant> clock,
+                boolean updateBatchingEnabled) {
             this.mStateStore = stateStore;
             this.mAnimationQuotaManager = animationQuotaManager;
             this.mDynamicTypesQuotaManager = dynamicTypesQuotaManager;
             this.mSourceKeyToDataProviders.putAll(sourceKeyToDataProviders);
             this.mPlatformTimeUpdateNotifier = platformTimeUpdateNotifier;
             this.mClock = clock;
+            this.mUpdateBatchingEnabled = updateBatchingEnabled;
         }
 
         /** Builds a {@link DynamicTypeEvaluator.Config}. */
@@ -184,6 +190,7 @@ public class DynamicTypeEvaluator {
 
             @Nullable private PlatformTimeUpdateNotifier mPlatformTimeUpdateNotifier = null;
             @Nullable private Supplier<Instant> mClock = null;
+            private boolean mUpdateBatchingEnabled = false;
 
             /**
              * Sets the state store that will be used for dereferencing the state keys in the
@@ -279,6 +286,19 @@ public class DynamicTypeEvaluator {
                 return this;
             }
 
+            /**
+             * Sets whether updates of the state and platform data should be batched. If enabled,
+             * the updates received during a frame are coalesced and propagated together on the
+             * next frame, so that each bound dynamic type is evaluated at most once per frame,
+             * regardless of how many of its sources changed. If not set, defaults to {@code
+             * false}, and each update is propagated immediately.
+             */
+            @NonNull
+            public Builder setUpdateBatchingEnabled(boolean enabled) {
+                this.mUpdateBatchingEnabled = enabled;
+                return this;
+            }
+
             @NonNull
             public Config build() {
                 return new Config(
@@ -287,7 +307,8 @@ public class DynamicTypeEvaluator {
                         mDynamicTypesQuotaManager,
                         mSourceKeyToDataProviders,
                         mPlatformTimeUpdateNotifier,
-                        mClock);
+                        mClock,
+                        mUpdateBatchingEnabled);
             }
         }
 
@@ -344,12 +365,46 @@ public class DynamicTypeEvaluator {
         public PlatformTimeUpdateNotifier getPlatformTimeUpdateNotifier() {
             return mPlatformTimeUpdateNotifier;
         }
+
+        /**
+         * Returns whether updates of the state and platform data are coalesced and propagated at
+         * most once per frame.
+         */
+        public boolean isUpdateBatchingEnabled() {
+            return mUpdateBatchingEnabled;
+        }
     }
 
     /** Constructs a {@link DynamicTypeEvaluator}. */
     public DynamicTypeEvaluator(@NonNull Config config) {
-        this.mStateStore =
+        this(config, config.isUpdateBatchingEnabled() ? new DataUpdateBatcher() : null);
+    }
+
+    /**
+     * Constructs a {@link DynamicTypeEvaluator} whose batched updates, if enabled in {@code
+     * config}, are propagated when the runnables given to {@code frameScheduler} are run.
+     */
+    @VisibleForTesting
+    DynamicTypeEvaluator(@NonNull Config config, @NonNull Consumer<Runnable> frameScheduler) {
+        this(
+                config,
+                config.isUpdateBatchingEnabled()
+                        ? new DataUpdateBatcher(frameScheduler)
+                        : null);
+    }
+
+    private DynamicTypeEvaluator(
+            @NonNull Config config, @Nullable DataUpdateBatcher updateBatcher) {
+        DataStore stateStore =
                 config.getStateStore() != null ? config.getStateStore() : EMPTY_STATE_STORE;
+        DataStore platformDataStore = new PlatformDataStore(config.getPlatformDataProviders());
+        if (updateBatcher != null) {
+            stateStore = updateBatcher.wrap(stateStore);
+            platformDataStore = updateBatcher.wrap(platformDataStore);
+        }
+        this.mUpdateBatcher = updateBatcher;
+        this.mStateStore = stateStore;
+        this.mPlatformDataStore = platformDataStore;
         this.mAnimationQuotaManager =
                 config.getAnimationQuotaManager() != null
                         ? config.getAnimationQuotaManager()
@@ -358,7 +413,6 @@ public class DynamicTypeEvaluator {
                 config.getDynamicTypesQuotaManager() != null
                         ? config.getDynamicTypesQuotaManager()
                         : NO_OP_QUOTA_MANAGER;
-        this.mPlatformDataStore = new PlatformDataStore(config.getPlatformDataProviders());
         PlatformTimeUpdateNotifier notifier = config.getPlatformTimeUpdateNotifier();
         if (notifier == null) {
             notifier = new PlatformTimeUpdateNotifierImpl();
@@ -368,6 +422,33 @@ public class DynamicTypeEvaluator {
         this.mTimeDataSource = new EpochTimePlatformDataSource(clock, notifier);
     }
 
+    /**
+     * Returns the number of state and platform data updates received by this evaluator, or 0 if
+     * update batching is disabled.
+     */
+    @RestrictTo(Scope.LIBRARY_GROUP)
+    public long getBatchedUpdateCount() {
+        return mUpdateBatcher != null ? mUpdateBatcher.getUpdateCount() : 0;
+    }
+
+    /**
+     * Returns the number of frames in which batched updates were propagated, or 0 if update
+     * batching is disabled.
+     */
+    @RestrictTo(Scope.LIBRARY_GROUP)
+    public long getBatchedUpdateFrameCount() {
+        return mUpdateBatcher != null ? mUpdateBatcher.getFrameCount() : 0;
+    }
+
+    /**
+     * Returns the number of batched values propagated to the source nodes of the bound dynamic
+     * types, or 0 if update batching is disabled.
+     */
+    @RestrictTo(Scope.LIBRARY_GROUP)
+    public long getBatchedUpdateDispatchCount() {
+        return mUpdateBatcher != null ? mUpdateBatcher.getDispatchCount() : 0;
+    }
+
     /**
      * Binds a {@link DynamicTypeBindingRequest}.
      *
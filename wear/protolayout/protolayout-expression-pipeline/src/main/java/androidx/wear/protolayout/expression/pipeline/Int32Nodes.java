@@ -81,7 +81,7 @@ class Int32Nodes {
     static class LegacyPlatformInt32SourceNode extends StateSourceNode<Integer> {
 
         LegacyPlatformInt32SourceNode(
-                PlatformDataStore dataStore,
+                DataStore dataStore,
                 PlatformInt32Source protoNode,
                 DynamicTypeValueReceiverWithPreUpdate<Integer> downstream) {
             super(
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.wear.protolayout.expression.pipeline;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.wear.protolayout.expression.AppDataKey;
+import androidx.wear.protolayout.expression.DynamicBuilders.DynamicString;
+import androidx.wear.protolayout.expression.proto.DynamicDataProto.DynamicDataValue;
+import androidx.wear.protolayout.expression.proto.FixedProto.FixedString;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.truth.Expect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(AndroidJUnit4.class)
+public class DataUpdateBatcherTest {
+    @Rule public Expect mExpect = Expect.create();
+
+    private static final AppDataKey<DynamicString> KEY_FOO = new AppDataKey<>("foo");
+    private static final AppDataKey<DynamicString> KEY_BAZ = new AppDataKey<>("baz");
+
+    private final List<Runnable> mPendingFrames = new ArrayList<>();
+    private final DataUpdateBatcher mBatcherUnderTest = new DataUpdateBatcher(mPendingFrames::add);
+    private final StateStore mStateStore =
+            new StateStore(
+                    ImmutableMap.of(
+                            KEY_FOO, buildDynamicDataValue("bar"),
+                            KEY_BAZ, buildDynamicDataValue("foobar")));
+    private final DataStore mBatchedStore = mBatcherUnderTest.wrap(mStateStore);
+
+    @Test
+    public void readsCurrentValueFromUnderlyingStore() {
+        mExpect.that(mBatchedStore.getDynamicDataValuesProto(KEY_FOO))
+                .isEqualTo(buildDynamicDataValue("bar"));
+    }
+
+    @Test
+    public void update_isDeferredUntilNextFrame() {
+        DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue> cb = buildCallbackMock();
+        mBatchedStore.registerCallback(KEY_FOO, cb);
+
+        mStateStore.setAppStateEntryValuesProto(
+                ImmutableMap.of(
+                        KEY_FOO, buildDynamicDataValue("test"),
+                        KEY_BAZ, buildDynamicDataValue("foobar")));
+
+        verifyNoInteractions(cb);
+        mExpect.that(mPendingFrames).hasSize(1);
+
+        runPendingFrames();
+
+        verify(cb).onPreUpdate();
+        verify(cb).onData(buildDynamicDataValue("test"));
+    }
+
+    @Test
+    public void multipleUpdatesInOneFrame_onlyLatestValueIsPropagated() {
+        DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue> cb = buildCallbackMock();
+        mBatchedStore.registerCallback(KEY_FOO, cb);
+
+        for (int i = 0; i < 10; i++) {
+            mStateStore.setAppStateEntryValuesProto(
+                    ImmutableMap.of(
+                            KEY_FOO, buildDynamicDataValue("test" + i),
+                            KEY_BAZ, buildDynamicDataValue("foobar")));
+        }
+        mExpect.that(mPendingFrames).hasSize(1);
+
+        runPendingFrames();
+
+        verify(cb).onPreUpdate();
+        verify(cb).onData(buildDynamicDataValue("test9"));
+        verify(cb, never()).onData(buildDynamicDataValue("test0"));
+        mExpect.that(mBatcherUnderTest.getUpdateCount()).isEqualTo(10);
+        mExpect.that(mBatcherUnderTest.getFrameCount()).isEqualTo(1);
+        mExpect.that(mBatcherUnderTest.getDispatchCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void updatesAcrossStores_allPreUpdatesAreSentBeforeData() {
+        StateStore otherStore =
+                new StateStore(ImmutableMap.of(KEY_FOO, buildDynamicDataValue("other")));
+        DataStore otherBatchedStore = mBatcherUnderTest.wrap(otherStore);
+        DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue> cb = buildCallbackMock();
+        InOrder inOrder = Mockito.inOrder(cb);
+        mBatchedStore.registerCallback(KEY_FOO, cb);
+        mBatchedStore.registerCallback(KEY_BAZ, cb);
+        otherBatchedStore.registerCallback(KEY_FOO, cb);
+
+        mStateStore.setAppStateEntryValuesProto(
+                ImmutableMap.of(
+                        KEY_FOO, buildDynamicDataValue("testFoo"),
+                        KEY_BAZ, buildDynamicDataValue("testBaz")));
+        otherStore.setAppStateEntryValuesProto(
+                ImmutableMap.of(KEY_FOO, buildDynamicDataValue("testOther")));
+        runPendingFrames();
+
+        inOrder.verify(cb, times(3)).onPreUpdate();
+        inOrder.verify(cb, times(3)).onData(any());
+        inOrder.verifyNoMoreInteractions();
+        mExpect.that(mBatcherUnderTest.getFrameCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void removedValue_propagatesInvalidated() {
+        DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue> cb = buildCallbackMock();
+        mBatchedStore.registerCallback(KEY_FOO, cb);
+
+        mStateStore.setAppStateEntryValuesProto(
+                ImmutableMap.of(KEY_BAZ, buildDynamicDataValue("foobar")));
+        runPendingFrames();
+
+        verify(cb).onPreUpdate();
+        verify(cb).onInvalidated();
+        verify(cb, never()).onData(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void callbacksOfSameKey_shareOneUnderlyingRegistration() {
+        DataStore underlyingStore = mock(DataStore.class);
+        DataStore batchedStore = mBatcherUnderTest.wrap(underlyingStore);
+        DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue> cb1 = buildCallbackMock();
+        DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue> cb2 = buildCallbackMock();
+
+        batchedStore.registerCallback(KEY_FOO, cb1);
+        batchedStore.registerCallback(KEY_FOO, cb2);
+
+        ArgumentCaptor<DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue>> captor =
+                ArgumentCaptor.forClass(DynamicTypeValueReceiverWithPreUpdate.class);
+        verify(underlyingStore).registerCallback(eq(KEY_FOO), captor.capture());
+
+        captor.getValue().onPreUpdate();
+        captor.getValue().onData(buildDynamicDataValue("test"));
+        runPendingFrames();
+
+        verify(cb1).onData(buildDynamicDataValue("test"));
+        verify(cb2).onData(buildDynamicDataValue("test"));
+        mExpect.that(mBatcherUnderTest.getDispatchCount()).isEqualTo(2);
+
+        batchedStore.unregisterCallback(KEY_FOO, cb1);
+        verify(underlyingStore, never()).unregisterCallback(any(), any());
+        batchedStore.unregisterCallback(KEY_FOO, cb2);
+        verify(underlyingStore).unregisterCallback(KEY_FOO, captor.getValue());
+    }
+
+    @Test
+    public void unregisteredCallback_isNotCalledForPendingUpdate() {
+        DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue> cb = buildCallbackMock();
+        mBatchedStore.registerCallback(KEY_FOO, cb);
+
+        mStateStore.setAppStateEntryValuesProto(
+                ImmutableMap.of(
+                        KEY_FOO, buildDynamicDataValue("test"),
+                        KEY_BAZ, buildDynamicDataValue("foobar")));
+        mBatchedStore.unregisterCallback(KEY_FOO, cb);
+        runPendingFrames();
+
+        verifyNoInteractions(cb);
+        mExpect.that(mBatcherUnderTest.getFrameCount()).isEqualTo(1);
+        mExpect.that(mBatcherUnderTest.getDispatchCount()).isEqualTo(0);
+    }
+
+    private void runPendingFrames() {
+        List<Runnable> frames = new ArrayList<>(mPendingFrames);
+        mPendingFrames.clear();
+        for (Runnable frame : frames) {
+            frame.run();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private DynamicTypeValueReceiverWithPreUpdate<DynamicDataValue> buildCallbackMock() {
+        return mock(DynamicTypeValueReceiverWithPreUpdate.class);
+    }
+
+    private DynamicDataValue buildDynamicDataValue(String value) {
+        return DynamicDataValue.newBuilder()
+                .setStringVal(FixedString.newBuilder().setValue(value))
+                .build();
+    }
+}
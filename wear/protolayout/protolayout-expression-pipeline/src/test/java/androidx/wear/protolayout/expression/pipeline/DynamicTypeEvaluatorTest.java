@@ -28,11 +28,17 @@ import android.icu.util.ULocale;
 
 import androidx.annotation.NonNull;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.wear.protolayout.expression.AppDataKey;
 import androidx.wear.protolayout.expression.DynamicBuilders;
 import androidx.wear.protolayout.expression.DynamicBuilders.DynamicBool;
+import androidx.wear.protolayout.expression.DynamicBuilders.DynamicString;
 import androidx.wear.protolayout.expression.PlatformDataKey;
 import androidx.wear.protolayout.expression.PlatformHealthSources;
 import androidx.wear.protolayout.expression.pipeline.DynamicTypeEvaluator.EvaluationException;
+import androidx.wear.protolayout.expression.proto.DynamicDataProto.DynamicDataValue;
+import androidx.wear.protolayout.expression.proto.FixedProto.FixedString;
+
+import com.google.common.collect.ImmutableMap;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -41,6 +47,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.Executor;
 
 @RunWith(AndroidJUnit4.class)
@@ -141,6 +148,84 @@ public class DynamicTypeEvaluatorTest {
         }
     }
 
+    @Test
+    public void updateBatchingEnabled_stateUpdatesAreCoalescedPerFrame() throws Exception {
+        AppDataKey<DynamicString> keyFoo = new AppDataKey<>("foo");
+        AppDataKey<DynamicString> keyBaz = new AppDataKey<>("baz");
+        StateStore stateStore =
+                new StateStore(
+                        ImmutableMap.of(
+                                keyFoo, buildDynamicDataValue("foo"),
+                                keyBaz, buildDynamicDataValue("baz")));
+        List<Runnable> pendingFrames = new ArrayList<>();
+        DynamicTypeEvaluator evaluator =
+                new DynamicTypeEvaluator(
+                        new DynamicTypeEvaluator.Config.Builder()
+                                .setStateStore(stateStore)
+                                .setUpdateBatchingEnabled(true)
+                                .build(),
+                        pendingFrames::add);
+        ArrayList<String> results = new ArrayList<>();
+        BoundDynamicType boundDynamicType =
+                evaluator.bind(
+                        DynamicTypeBindingRequest.forDynamicString(
+                                DynamicString.from(keyFoo).concat(DynamicString.from(keyBaz)),
+                                ULocale.ENGLISH,
+                                new MainThreadExecutor(),
+                                new AddToListCallback<>(results)));
+        boundDynamicType.startEvaluation();
+        assertThat(results).containsExactly("foobaz");
+
+        for (int i = 0; i < 5; i++) {
+            stateStore.setAppStateEntryValuesProto(
+                    ImmutableMap.of(
+                            keyFoo, buildDynamicDataValue("foo" + i),
+                            keyBaz, buildDynamicDataValue("baz" + i)));
+        }
+
+        // Nothing is propagated until the next frame.
+        assertThat(results).containsExactly("foobaz");
+        assertThat(pendingFrames).hasSize(1);
+
+        pendingFrames.remove(0).run();
+
+        assertThat(results).containsExactly("foobaz", "foo4baz4").inOrder();
+        assertThat(evaluator.getBatchedUpdateCount()).isEqualTo(10);
+        assertThat(evaluator.getBatchedUpdateFrameCount()).isEqualTo(1);
+        assertThat(evaluator.getBatchedUpdateDispatchCount()).isEqualTo(2);
+        boundDynamicType.close();
+    }
+
+    @Test
+    public void updateBatchingDisabled_countersAreZero() throws Exception {
+        AppDataKey<DynamicString> keyFoo = new AppDataKey<>("foo");
+        StateStore stateStore =
+                new StateStore(ImmutableMap.of(keyFoo, buildDynamicDataValue("foo")));
+        DynamicTypeEvaluator evaluator =
+                new DynamicTypeEvaluator(
+                        new DynamicTypeEvaluator.Config.Builder()
+                                .setStateStore(stateStore)
+                                .build());
+        ArrayList<String> results = new ArrayList<>();
+        BoundDynamicType boundDynamicType =
+                evaluator.bind(
+                        DynamicTypeBindingRequest.forDynamicString(
+                                DynamicString.from(keyFoo),
+                                ULocale.ENGLISH,
+                                new MainThreadExecutor(),
+                                new AddToListCallback<>(results)));
+        boundDynamicType.startEvaluation();
+
+        stateStore.setAppStateEntryValuesProto(
+                ImmutableMap.of(keyFoo, buildDynamicDataValue("bar")));
+
+        assertThat(results).containsExactly("foo", "bar").inOrder();
+        assertThat(evaluator.getBatchedUpdateCount()).isEqualTo(0);
+        assertThat(evaluator.getBatchedUpdateFrameCount()).isEqualTo(0);
+        assertThat(evaluator.getBatchedUpdateDispatchCount()).isEqualTo(0);
+        boundDynamicType.close();
+    }
+
     @NonNull
     private static DynamicTypeBindingRequest createSingleNodeDynamicBoolRequest(
             ArrayList<Boolean> results) {
@@ -197,6 +282,13 @@ public class DynamicTypeEvaluatorTest {
                         .build());
     }
 
+    @NonNull
+    private static DynamicDataValue buildDynamicDataValue(@NonNull String value) {
+        return DynamicDataValue.newBuilder()
+                .setStringVal(FixedString.newBuilder().setValue(value))
+                .build();
+    }
+
     private static QuotaManager unlimitedQuota() {
         return new FixedQuotaManagerImpl(MAX_VALUE);
     }
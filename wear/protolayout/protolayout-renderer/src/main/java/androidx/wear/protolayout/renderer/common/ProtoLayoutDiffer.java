@@ -16,10 +16,9 @@
 
 package androidx.wear.protolayout.renderer.common;
 
+import static androidx.core.util.Preconditions.checkNotNull;
 import static androidx.core.util.Preconditions.checkState;
 
-import android.annotation.SuppressLint;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
@@ -32,7 +31,6 @@ import androidx.wear.protolayout.proto.LayoutElementProto.Layout;
 import androidx.wear.protolayout.proto.LayoutElementProto.LayoutElement;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /** Utility to diff 2 proto layouts in order to be able to partially update the display. */
@@ -78,33 +76,66 @@ public class ProtoLayoutDiffer {
         @Nullable final LayoutElement mLayoutElement;
         @Nullable final ArcLayoutElement mArcLayoutElement;
         @NonNull final NodeFingerprint mFingerprint;
-        @NonNull final String mPosId;
+        @Nullable private final TreeNode mParent;
+        private final int mChildIndex;
+        // Created on demand from the parent and the child index, as only changed nodes need it.
+        @Nullable private String mPosId;
 
         private TreeNode(
                 @Nullable LayoutElement layoutElement,
                 @Nullable ArcLayoutElement arcLayoutElement,
                 @NonNull NodeFingerprint fingerprint,
-                @NonNull String posId) {
+                @Nullable TreeNode parent,
+                int childIndex,
+                @Nullable String posId) {
             this.mLayoutElement = layoutElement;
             this.mArcLayoutElement = arcLayoutElement;
             this.mFingerprint = fingerprint;
+            this.mParent = parent;
+            this.mChildIndex = childIndex;
             this.mPosId = posId;
         }
 
         @NonNull
-        static TreeNode ofLayoutElement(
+        static TreeNode ofRoot(
                 @NonNull LayoutElement layoutElement,
                 @NonNull NodeFingerprint fingerprint,
                 @NonNull String posId) {
-            return new TreeNode(layoutElement, null, fingerprint, posId);
+            return new TreeNode(
+                    layoutElement,
+                    null,
+                    fingerprint,
+                    /* parent= */ null,
+                    FIRST_CHILD_INDEX,
+                    posId);
+        }
+
+        @NonNull
+        static TreeNode ofLayoutElement(
+                @NonNull LayoutElement layoutElement,
+                @NonNull NodeFingerprint fingerprint,
+                @NonNull TreeNode parent,
+                int childIndex) {
+            return new TreeNode(layoutElement, null, fingerprint, parent, childIndex, null);
         }
 
         @NonNull
         static TreeNode ofArcLayoutElement(
                 @NonNull ArcLayoutElement arcLayoutElement,
                 @NonNull NodeFingerprint fingerprint,
-                @NonNull String id) {
-            return new TreeNode(null, arcLayoutElement, fingerprint, id);
+                @NonNull TreeNode parent,
+                int childIndex) {
+            return new TreeNode(null, arcLayoutElement, fingerprint, parent, childIndex, null);
+        }
+
+        @NonNull
+        String getPosId() {
+            String posId = mPosId;
+            if (posId == null) {
+                posId = createNodePosId(checkNotNull(mParent).getPosId(), mChildIndex);
+                mPosId = posId;
+            }
+            return posId;
         }
 
         @NonNull
@@ -158,7 +189,7 @@ public class ProtoLayoutDiffer {
         @NonNull
         @RestrictTo(Scope.LIBRARY_GROUP)
         public String getPosId() {
-            return mTreeNode.mPosId;
+            return mTreeNode.getPosId();
         }
 
         /**
@@ -201,11 +232,11 @@ public class ProtoLayoutDiffer {
      * @param childIndex Index of this child node. For the first child, use {@link
      *     #FIRST_CHILD_INDEX}, and increment by one for each.
      */
-    @SuppressLint("DefaultLocale")
     @NonNull
     @RestrictTo(Scope.LIBRARY_GROUP)
     public static String createNodePosId(@NonNull String parentPosId, int childIndex) {
-        return String.format("%s.%d", parentPosId, childIndex + 1);
+        // This is called for every node of every inflated layout, so avoid String.format.
+        return parentPosId + '.' + (childIndex + 1);
     }
 
     /**
@@ -259,12 +290,15 @@ public class ProtoLayoutDiffer {
         }
         NodeFingerprint prevRootFingerprint = prevTreeFingerprint.getRoot();
         TreeNode rootNode =
-                TreeNode.ofLayoutElement(
-                        layout.getRoot(), layout.getFingerprint().getRoot(), ROOT_NODE_ID);
+                TreeNode.ofRoot(layout.getRoot(), layout.getFingerprint().getRoot(), ROOT_NODE_ID);
 
         List<TreeNodeWithChange> changedNodes = new ArrayList<>();
         try {
-            addChangedNodes(prevRootFingerprint, rootNode, changedNodes);
+            addChangedNodes(
+                    prevRootFingerprint,
+                    rootNode,
+                    getChangeType(prevRootFingerprint, rootNode.mFingerprint),
+                    changedNodes);
         } catch (InconsistentFingerprintException ignored) {
             return null;
         }
@@ -293,9 +327,10 @@ public class ProtoLayoutDiffer {
     private static void addChangedNodes(
             @NonNull NodeFingerprint prevNodeFingerprint,
             @NonNull TreeNode node,
+            @NonNull NodeChangeType changeType,
             @NonNull List<TreeNodeWithChange> changedNodes)
             throws InconsistentFingerprintException {
-        switch (getChangeType(prevNodeFingerprint, node.mFingerprint)) {
+        switch (changeType) {
             case CHANGE_IN_SELF_ONLY:
                 changedNodes.add(node.withChange(/* isSelfOnlyChange= */ true));
                 break;
@@ -365,98 +400,112 @@ public class ProtoLayoutDiffer {
             @NonNull TreeNode node,
             @NonNull List<TreeNodeWithChange> changedNodes)
             throws InconsistentFingerprintException {
-        List<TreeNode> childList = getChildNodes(node);
-        if (childList.isEmpty()) {
-            return;
-        }
-        // This must have been checked in getChangeType()
-        checkState(childList.size() == prevNodeFingerprint.getChildNodesCount());
-        for (int i = 0; i < childList.size(); i++) {
-            TreeNode childNode = childList.get(i);
-            NodeFingerprint prevChildNodeFingerprint = prevNodeFingerprint.getChildNodes(i);
-            addChangedNodes(prevChildNodeFingerprint, childNode, changedNodes);
-        }
-    }
-
-    @SuppressWarnings("MixedMutabilityReturnType")
-    @NonNull
-    private static List<TreeNode> getChildNodes(@NonNull TreeNode node)
-            throws InconsistentFingerprintException {
         @Nullable LayoutElement layoutElement = node.mLayoutElement;
         if (layoutElement == null) {
             // Only LayoutElement objects (which includes Arc and Span) can have children.
-            return Collections.emptyList();
+            return;
         }
         NodeFingerprint fingerprint = node.mFingerprint;
         switch (layoutElement.getInnerCase()) {
             case BOX:
-                return getLinearChildNodes(
+                addChangedLinearChildNodes(
                         layoutElement.getBox().getContentsList(),
                         fingerprint.getChildNodesList(),
-                        node.mPosId);
+                        prevNodeFingerprint,
+                        node,
+                        changedNodes);
+                break;
             case COLUMN:
-                return getLinearChildNodes(
+                addChangedLinearChildNodes(
                         layoutElement.getColumn().getContentsList(),
                         fingerprint.getChildNodesList(),
-                        node.mPosId);
+                        prevNodeFingerprint,
+                        node,
+                        changedNodes);
+                break;
             case ROW:
-                return getLinearChildNodes(
+                addChangedLinearChildNodes(
                         layoutElement.getRow().getContentsList(),
                         fingerprint.getChildNodesList(),
-                        node.mPosId);
+                        prevNodeFingerprint,
+                        node,
+                        changedNodes);
+                break;
             case ARC:
-                return getRadialChildNodes(
+                addChangedRadialChildNodes(
                         layoutElement.getArc().getContentsList(),
                         fingerprint.getChildNodesList(),
-                        node.mPosId);
+                        prevNodeFingerprint,
+                        node,
+                        changedNodes);
+                break;
             default:
-                return Collections.emptyList();
+                break;
         }
     }
 
-    @SuppressWarnings("MixedMutabilityReturnType")
-    @NonNull
-    private static List<TreeNode> getLinearChildNodes(
+    private static void addChangedLinearChildNodes(
             @NonNull List<LayoutElement> childElements,
             @NonNull List<NodeFingerprint> childElementFingerprints,
-            @NonNull String parentPosId)
+            @NonNull NodeFingerprint prevNodeFingerprint,
+            @NonNull TreeNode parent,
+            @NonNull List<TreeNodeWithChange> changedNodes)
             throws InconsistentFingerprintException {
-        if (childElements.isEmpty()) {
-            return Collections.emptyList();
-        }
-        if (childElements.size() != childElementFingerprints.size()) {
-            throw new InconsistentFingerprintException();
-        }
-        List<TreeNode> nodes = new ArrayList<>(childElements.size());
+        checkChildNodesCount(childElements, childElementFingerprints, prevNodeFingerprint);
         for (int i = 0; i < childElements.size(); i++) {
-            String childPosId = createNodePosId(parentPosId, FIRST_CHILD_INDEX + i);
-            nodes.add(
+            NodeFingerprint childFingerprint = childElementFingerprints.get(i);
+            NodeFingerprint prevChildFingerprint = prevNodeFingerprint.getChildNodes(i);
+            NodeChangeType changeType = getChangeType(prevChildFingerprint, childFingerprint);
+            // An unchanged subtree is skipped from its fingerprint alone.
+            if (changeType == NodeChangeType.NO_CHANGE) {
+                continue;
+            }
+            addChangedNodes(
+                    prevChildFingerprint,
                     TreeNode.ofLayoutElement(
-                            childElements.get(i), childElementFingerprints.get(i), childPosId));
+                            childElements.get(i), childFingerprint, parent, FIRST_CHILD_INDEX + i),
+                    changeType,
+                    changedNodes);
         }
-        return nodes;
     }
 
-    @SuppressWarnings("MixedMutabilityReturnType")
-    @NonNull
-    private static List<TreeNode> getRadialChildNodes(
+    private static void addChangedRadialChildNodes(
             @NonNull List<ArcLayoutElement> childElements,
             @NonNull List<NodeFingerprint> childElementFingerprints,
-            @NonNull String parentPosId)
+            @NonNull NodeFingerprint prevNodeFingerprint,
+            @NonNull TreeNode parent,
+            @NonNull List<TreeNodeWithChange> changedNodes)
+            throws InconsistentFingerprintException {
+        checkChildNodesCount(childElements, childElementFingerprints, prevNodeFingerprint);
+        for (int i = 0; i < childElements.size(); i++) {
+            NodeFingerprint childFingerprint = childElementFingerprints.get(i);
+            NodeFingerprint prevChildFingerprint = prevNodeFingerprint.getChildNodes(i);
+            NodeChangeType changeType = getChangeType(prevChildFingerprint, childFingerprint);
+            // An unchanged subtree is skipped from its fingerprint alone.
+            if (changeType == NodeChangeType.NO_CHANGE) {
+                continue;
+            }
+            addChangedNodes(
+                    prevChildFingerprint,
+                    TreeNode.ofArcLayoutElement(
+                            childElements.get(i), childFingerprint, parent, FIRST_CHILD_INDEX + i),
+                    changeType,
+                    changedNodes);
+        }
+    }
+
+    private static void checkChildNodesCount(
+            @NonNull List<?> childElements,
+            @NonNull List<NodeFingerprint> childElementFingerprints,
+            @NonNull NodeFingerprint prevNodeFingerprint)
             throws InconsistentFingerprintException {
         if (childElements.isEmpty()) {
-            return Collections.emptyList();
+            return;
         }
         if (childElements.size() != childElementFingerprints.size()) {
             throw new InconsistentFingerprintException();
         }
-        List<TreeNode> nodes = new ArrayList<>(childElements.size());
-        for (int i = 0; i < childElements.size(); i++) {
-            String childPosId = createNodePosId(parentPosId, FIRST_CHILD_INDEX + i);
-            nodes.add(
-                    TreeNode.ofArcLayoutElement(
-                            childElements.get(i), childElementFingerprints.get(i), childPosId));
-        }
-        return nodes;
+        // This must have been checked in getChangeType()
+        checkState(childElements.size() == prevNodeFingerprint.getChildNodesCount());
     }
 }
@@ -18,10 +18,8 @@ package androidx.wear.protolayout.renderer.dynamicdata;
 
 import static androidx.core.util.Preconditions.checkNotNull;
 import static androidx.wear.protolayout.renderer.common.ProtoLayoutDiffer.FIRST_CHILD_INDEX;
-import static androidx.wear.protolayout.renderer.common.ProtoLayoutDiffer.createNodePosId;
-import static androidx.wear.protolayout.renderer.common.ProtoLayoutDiffer.getParentNodePosId;
 
-import android.util.ArrayMap;
+import android.util.SparseArray;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -32,13 +30,16 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
- * A pseudo-tree structure for Layout nodes with Position Id. Note that the relation of each two
- * nodes can be discovered through their position id.
+ * A tree structure for Layout nodes with Position Id. Note that the relation of each two nodes can
+ * be discovered through their position id.
+ *
+ * <p>Position ids are only parsed to find their node: the tree itself is made of entries keyed by
+ * their child index under their parent, so that walking up or down the tree doesn't create or
+ * compare any position id. Entries without a node are kept for the ancestors of the stored nodes.
  *
  * <p>NOTE: This class relies on strict ordering of the posIds. It's up to the caller to make sure
  * there is never a missing posId between two sibling nodes.
@@ -53,17 +54,46 @@ final class PositionIdTree<T extends TreeNode> {
         void destroy();
     }
 
-    @NonNull private final Map<String, T> mPosIdToTreeNode = new ArrayMap<>();
+    /** A position in the tree, that may or may not hold a node. */
+    private static final class Entry<T> {
+        @Nullable final Entry<T> mParent;
+        final int mChildIndex;
+        @NonNull final SparseArray<Entry<T>> mChildren = new SparseArray<>();
+        @Nullable T mNode;
+
+        Entry(@Nullable Entry<T> parent, int childIndex) {
+            mParent = parent;
+            mChildIndex = childIndex;
+        }
+    }
+
+    // Keyed by the part of the posId before the first child index, i.e. the id of the root node.
+    @NonNull private final List<String> mRootIds = new ArrayList<>(1);
+    @NonNull private final List<Entry<T>> mRoots = new ArrayList<>(1);
 
     /** Calls {@code action} on all of the tree nodes. */
     void forEach(Consumer<T> action) {
-        mPosIdToTreeNode.values().forEach(action);
+        for (Entry<T> root : mRoots) {
+            forEachIn(root, action);
+        }
+    }
+
+    private void forEachIn(@NonNull Entry<T> entry, @NonNull Consumer<T> action) {
+        if (entry.mNode != null) {
+            action.accept(entry.mNode);
+        }
+        for (int i = 0; i < entry.mChildren.size(); i++) {
+            forEachIn(entry.mChildren.valueAt(i), action);
+        }
     }
 
     /** Removes all of the nodes in the tree and calls their {@link TreeNode#destroy()}. */
     void clear() {
-        mPosIdToTreeNode.values().forEach(TreeNode::destroy);
-        mPosIdToTreeNode.clear();
+        List<T> nodes = new ArrayList<>();
+        forEach(nodes::add);
+        mRootIds.clear();
+        mRoots.clear();
+        nodes.forEach(TreeNode::destroy);
     }
 
     /**
@@ -72,19 +102,26 @@ final class PositionIdTree<T extends TreeNode> {
      * be removed.
      */
     void removeChildNodesFor(@NonNull String posId) {
-        removeChildNodesFor(posId, /* removeRoot= */ false);
+        Entry<T> entry = findEntry(posId, posId.length(), /* create= */ false);
+        if (entry != null) {
+            removeChildNodesFor(entry);
+            prune(entry);
+        }
     }
 
-    private void removeChildNodesFor(@NonNull String posId, boolean removeRoot) {
+    private void removeChildNodesFor(@NonNull Entry<T> entry) {
         for (int childIndex = FIRST_CHILD_INDEX; ; childIndex++) {
-            String possibleChildPosId = createNodePosId(posId, childIndex);
-            if (!mPosIdToTreeNode.containsKey(possibleChildPosId)) {
+            Entry<T> child = entry.mChildren.get(childIndex);
+            if (child == null || child.mNode == null) {
                 break;
             }
-            removeChildNodesFor(possibleChildPosId, /* removeRoot= */ true);
-        }
-        if (removeRoot) {
-            checkNotNull(mPosIdToTreeNode.remove(posId)).destroy();
+            removeChildNodesFor(child);
+            T node = child.mNode;
+            child.mNode = null;
+            node.destroy();
+            if (child.mChildren.size() == 0) {
+                entry.mChildren.remove(childIndex);
+            }
         }
     }
 
@@ -93,7 +130,9 @@ final class PositionIdTree<T extends TreeNode> {
      * the old node will be removed and will be destroyed.
      */
     void addOrReplace(@NonNull String posId, @NonNull T newNode) {
-        T oldNode = mPosIdToTreeNode.put(posId, newNode);
+        Entry<T> entry = checkNotNull(findEntry(posId, posId.length(), /* create= */ true));
+        T oldNode = entry.mNode;
+        entry.mNode = newNode;
         if (oldNode != null) {
             oldNode.destroy();
         }
@@ -102,13 +141,34 @@ final class PositionIdTree<T extends TreeNode> {
     /** Returns the node matching the {@code predicate} or an null if there is no match. */
     @Nullable
     T findFirst(@NonNull Predicate<? super T> predicate) {
-        return mPosIdToTreeNode.values().stream().filter(predicate).findFirst().orElse(null);
+        for (Entry<T> root : mRoots) {
+            T result = findFirstIn(root, predicate);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private T findFirstIn(@NonNull Entry<T> entry, @NonNull Predicate<? super T> predicate) {
+        if (entry.mNode != null && predicate.test(entry.mNode)) {
+            return entry.mNode;
+        }
+        for (int i = 0; i < entry.mChildren.size(); i++) {
+            T result = findFirstIn(entry.mChildren.valueAt(i), predicate);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
     }
 
     /** Returns the node with {@code posId} or null if it doesn't exist. */
     @Nullable
     T get(String posId) {
-        return mPosIdToTreeNode.get(posId);
+        Entry<T> entry = findEntry(posId, posId.length(), /* create= */ false);
+        return entry == null ? null : entry.mNode;
     }
 
     /**
@@ -117,16 +177,13 @@ final class PositionIdTree<T extends TreeNode> {
     @NonNull
     List<T> findAncestorsFor(@NonNull String posId, @NonNull Predicate<? super T> predicate) {
         List<T> result = new ArrayList<>();
-        while (true) {
-            String parentPosId = getParentNodePosId(posId);
-            if (parentPosId == null) {
-                break;
-            }
-            T value = mPosIdToTreeNode.get(parentPosId);
+        Entry<T> parent = findParentEntry(posId);
+        while (parent != null) {
+            T value = parent.mNode;
             if (value != null && predicate.test(value)) {
                 result.add(value);
             }
-            posId = parentPosId;
+            parent = parent.mParent;
         }
         return result;
     }
@@ -144,24 +201,26 @@ final class PositionIdTree<T extends TreeNode> {
     @NonNull
     List<T> findChildrenFor(@NonNull String posId, @NonNull Predicate<? super T> predicate) {
         List<T> result = new ArrayList<>();
-        addChildrenFor(posId, predicate, result);
+        Entry<T> entry = findEntry(posId, posId.length(), /* create= */ false);
+        if (entry != null) {
+            addChildrenFor(entry, predicate, result);
+        }
         return result;
     }
 
     private void addChildrenFor(
-            @NonNull String posId,
+            @NonNull Entry<T> entry,
             @NonNull Predicate<? super T> predicate,
             @NonNull List<T> result) {
         for (int childIndex = FIRST_CHILD_INDEX; ; childIndex++) {
-            String possibleChildPosId = createNodePosId(posId, childIndex);
-            if (!mPosIdToTreeNode.containsKey(possibleChildPosId)) {
+            Entry<T> child = entry.mChildren.get(childIndex);
+            if (child == null || child.mNode == null) {
                 break;
             }
-            T value = mPosIdToTreeNode.get(possibleChildPosId);
-            if (value != null && predicate.test(value)) {
-                result.add(value);
+            if (predicate.test(child.mNode)) {
+                result.add(child.mNode);
             }
-            addChildrenFor(possibleChildPosId, predicate, result);
+            addChildrenFor(child, predicate, result);
         }
     }
 
@@ -169,6 +228,122 @@ final class PositionIdTree<T extends TreeNode> {
     @VisibleForTesting
     @NonNull
     Collection<T> getAllNodes() {
-        return Collections.unmodifiableCollection(mPosIdToTreeNode.values());
+        List<T> nodes = new ArrayList<>();
+        forEach(nodes::add);
+        return Collections.unmodifiableCollection(nodes);
+    }
+
+    /**
+     * Returns the entry for the first {@code length} characters of {@code posId}. If {@code
+     * create} is true, the entry and its missing ancestors are created, otherwise null is returned
+     * if there is no such entry.
+     */
+    @Nullable
+    private Entry<T> findEntry(@NonNull String posId, int length, boolean create) {
+        int rootIdLength = getRootIdLength(posId);
+        Entry<T> entry = findRoot(posId, rootIdLength, create);
+        int start = rootIdLength + 1;
+        while (entry != null && start <= length) {
+            int end = posId.indexOf('.', start);
+            if (end < 0 || end > length) {
+                end = length;
+            }
+            // Child ids are created as childIndex + 1, see ProtoLayoutDiffer#createNodePosId.
+            int childIndex = parseChildId(posId, start, end) - 1;
+            Entry<T> child = entry.mChildren.get(childIndex);
+            if (child == null && create) {
+                child = new Entry<>(entry, childIndex);
+                entry.mChildren.put(childIndex, child);
+            }
+            entry = child;
+            start = end + 1;
+        }
+        return entry;
+    }
+
+    /** Returns the entry for the parent of the node with {@code posId}, if there is one. */
+    @Nullable
+    private Entry<T> findParentEntry(@NonNull String posId) {
+        if (getRootIdLength(posId) == posId.length()) {
+            return null;
+        }
+        return findEntry(posId, posId.lastIndexOf('.'), /* create= */ false);
+    }
+
+    @Nullable
+    private Entry<T> findRoot(@NonNull String posId, int rootIdLength, boolean create) {
+        for (int i = 0; i < mRootIds.size(); i++) {
+            String rootId = mRootIds.get(i);
+            if (rootId.length() == rootIdLength && posId.startsWith(rootId)) {
+                return mRoots.get(i);
+            }
+        }
+        if (!create) {
+            return null;
+        }
+        Entry<T> root = new Entry<>(/* parent= */ null, FIRST_CHILD_INDEX);
+        mRootIds.add(posId.substring(0, rootIdLength));
+        mRoots.add(root);
+        return root;
+    }
+
+    /** Removes {@code entry} and its ancestors, if they don't hold any node. */
+    private void prune(@NonNull Entry<T> entry) {
+        while (entry.mNode == null && entry.mChildren.size() == 0) {
+            Entry<T> parent = entry.mParent;
+            if (parent == null) {
+                int rootIndex = mRoots.indexOf(entry);
+                mRoots.remove(rootIndex);
+                mRootIds.remove(rootIndex);
+                return;
+            }
+            parent.mChildren.remove(entry.mChildIndex);
+            entry = parent;
+        }
+    }
+
+    /**
+     * Returns the length of the id of the root node in {@code posId}, that is followed by the
+     * child ids. If the child ids aren't positive numbers, {@code posId} isn't a position id
+     * created by {@link androidx.wear.protolayout.renderer.common.ProtoLayoutDiffer} and is only
+     * used as a root id.
+     */
+    private static int getRootIdLength(@NonNull String posId) {
+        int rootIdLength = posId.indexOf('.');
+        if (rootIdLength <= 0) {
+            return posId.length();
+        }
+        int start = rootIdLength + 1;
+        while (start <= posId.length()) {
+            int end = posId.indexOf('.', start);
+            if (end < 0) {
+                end = posId.length();
+            }
+            if (parseChildId(posId, start, end) <= 0) {
+                return posId.length();
+            }
+            start = end + 1;
+        }
+        return rootIdLength;
+    }
+
+    /**
+     * Parses the child id between {@code start} and {@code end} in {@code posId}, or returns -1
+     * if it isn't a positive number without leading zeros.
+     */
+    private static int parseChildId(@NonNull String posId, int start, int end) {
+        // Longer ids could overflow, they are not a valid child index anyway.
+        if (start == end || end - start > 9 || posId.charAt(start) == '0') {
+            return -1;
+        }
+        int childId = 0;
+        for (int i = start; i < end; i++) {
+            char c = posId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            childId = childId * 10 + (c - '0');
+        }
+        return childId;
     }
 }
@@ -235,4 +235,23 @@ public class PositionIdTreeTest {
     public void get_nonExistentNode_returnsNull() {
         assertThat(mTree.get("NON_EXISTENT")).isNull();
     }
+
+    @Test
+    public void get_removedChildNode_returnsNull() {
+        mTree.removeChildNodesFor(NODE_2);
+
+        assertThat(mTree.get(NODE_2)).isEqualTo(mNode2);
+        assertThat(mTree.get(NODE_2_1)).isNull();
+        assertThat(mTree.get(NODE_2_2)).isNull();
+    }
+
+    @Test
+    public void get_missingNodeInDisjointTree_returnsNull() {
+        // Missing NODE_3_1
+        mTree.addOrReplace(NODE_3_1_1, mNode3Child1Child1);
+
+        assertThat(mTree.get(NODE_3_1)).isNull();
+        assertThat(mTree.get(NODE_3_1_1)).isEqualTo(mNode3Child1Child1);
+        assertThat(mTree.getAllNodes()).hasSize(mAllNodes.size() + 1);
+    }
 }
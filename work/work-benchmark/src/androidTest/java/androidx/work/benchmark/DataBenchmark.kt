@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.work.Data
+import java.io.ByteArrayOutputStream
+import java.io.ObjectOutputStream
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Compares the [Data] binary format with the [ObjectOutputStream] based format it replaced, which
+ * [Data.fromByteArray] can still read.
+ */
+@RunWith(AndroidJUnit4::class)
+@LargeTest
+class DataBenchmark {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private lateinit var data: Data
+    private lateinit var bytes: ByteArray
+    private lateinit var objectStreamBytes: ByteArray
+
+    @Before
+    fun setUp() {
+        data = Data.Builder()
+            .putString("url", "https://www.example.com/upload/photos/12345")
+            .putString("account", "someone@example.com")
+            .putInt("attempt", 3)
+            .putLong("timestamp", 1_700_000_000_000L)
+            .putBoolean("metered", false)
+            .putDouble("progress", 0.75)
+            .putStringArray("tags", arrayOf("camera", "backup", "wifi"))
+            .putLongArray("ids", LongArray(64) { it * 31L })
+            .putByteArray("checksum", ByteArray(32) { it.toByte() })
+            .build()
+        bytes = data.toByteArray()
+        objectStreamBytes = toObjectStreamByteArray(data)
+        assertEquals(data, Data.fromByteArray(bytes))
+        assertEquals(data, Data.fromByteArray(objectStreamBytes))
+    }
+
+    @Test
+    fun serialize() {
+        benchmarkRule.measureRepeated {
+            data.toByteArray()
+        }
+    }
+
+    @Test
+    fun serializeObjectStream() {
+        benchmarkRule.measureRepeated {
+            toObjectStreamByteArray(data)
+        }
+    }
+
+    @Test
+    fun deserialize() {
+        benchmarkRule.measureRepeated {
+            Data.fromByteArray(bytes)
+        }
+    }
+
+    @Test
+    fun deserializeObjectStream() {
+        benchmarkRule.measureRepeated {
+            Data.fromByteArray(objectStreamBytes)
+        }
+    }
+
+    /**
+     * The format previously written by [Data.toByteArray].
+     */
+    private fun toObjectStreamByteArray(data: Data): ByteArray {
+        val outputStream = ByteArrayOutputStream()
+        ObjectOutputStream(outputStream).use { objectOutputStream ->
+            objectOutputStream.writeInt(data.size())
+            for ((key, value) in data.keyValueMap) {
+                objectOutputStream.writeUTF(key)
+                objectOutputStream.writeObject(value)
+            }
+        }
+        return outputStream.toByteArray()
+    }
+}
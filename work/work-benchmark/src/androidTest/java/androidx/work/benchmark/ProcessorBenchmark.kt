@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.benchmark
+
+import android.content.Context
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.work.Configuration
+import androidx.work.ListenableWorker
+import androidx.work.OneTimeWorkRequestBuilder
+import androidx.work.WorkerFactory
+import androidx.work.WorkerParameters
+import androidx.work.impl.Processor
+import androidx.work.impl.StartStopToken
+import androidx.work.impl.WorkDatabase
+import androidx.work.impl.model.WorkGenerationalId
+import androidx.work.impl.utils.SerialExecutorImpl
+import androidx.work.impl.utils.taskexecutor.SerialExecutor
+import androidx.work.impl.utils.taskexecutor.TaskExecutor
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.CyclicBarrier
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import org.junit.After
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Measures the time it takes for a batch of work, started concurrently from several threads, to
+ * reach its [ListenableWorker] (enqueue-to-start latency of the last work of the batch).
+ */
+@RunWith(AndroidJUnit4::class)
+@LargeTest
+class ProcessorBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+    private lateinit var context: Context
+    private lateinit var database: WorkDatabase
+    private lateinit var workerExecutor: ExecutorService
+    private lateinit var startingThreads: ExecutorService
+    private lateinit var taskExecutor: TaskExecutor
+    private lateinit var processor: Processor
+
+    @Volatile
+    private var started = CountDownLatch(0)
+    @Volatile
+    private var executed = CountDownLatch(0)
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        workerExecutor = Executors.newFixedThreadPool(THREADS)
+        startingThreads = Executors.newFixedThreadPool(THREADS)
+        val serialExecutor = SerialExecutorImpl(Executors.newSingleThreadExecutor())
+        taskExecutor = object : TaskExecutor {
+            private val mainExecutor = Executor { it.run() }
+
+            override fun getMainThreadExecutor(): Executor {
+                return mainExecutor
+            }
+
+            override fun getSerialTaskExecutor(): SerialExecutor {
+                return serialExecutor
+            }
+        }
+        val configuration = Configuration.Builder()
+            .setExecutor(workerExecutor)
+            .setWorkerFactory(object : WorkerFactory() {
+                override fun createWorker(
+                    appContext: Context,
+                    workerClassName: String,
+                    workerParameters: WorkerParameters
+                ): ListenableWorker {
+                    started.countDown()
+                    return NoOpWorker(appContext, workerParameters)
+                }
+            })
+            .build()
+        database = WorkDatabase.create(
+            context, configuration.taskExecutor, configuration.clock, true
+        )
+        processor = Processor(context, configuration, taskExecutor, database)
+        processor.addExecutionListener { _, _ -> executed.countDown() }
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+        workerExecutor.shutdownNow()
+        startingThreads.shutdownNow()
+    }
+
+    @Test
+    fun startWorkContended() {
+        val barrier = CyclicBarrier(THREADS)
+        benchmarkRule.measureRepeated {
+            val tokens = runWithTimingDisabled {
+                started = CountDownLatch(WORK_COUNT)
+                executed = CountDownLatch(WORK_COUNT)
+                List(WORK_COUNT) {
+                    val request = OneTimeWorkRequestBuilder<NoOpWorker>().build()
+                    database.workSpecDao().insertWorkSpec(request.workSpec)
+                    StartStopToken(WorkGenerationalId(request.stringId, 0))
+                }
+            }
+            for (thread in 0 until THREADS) {
+                startingThreads.execute {
+                    barrier.await()
+                    for (i in thread until WORK_COUNT step THREADS) {
+                        processor.startWork(tokens[i])
+                    }
+                }
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS))
+            runWithTimingDisabled {
+                assertTrue(executed.await(10, TimeUnit.SECONDS))
+                database.workSpecDao()
+                    .pruneFinishedWorkWithZeroDependentsIgnoringKeepForAtLeast()
+            }
+        }
+    }
+
+    companion object {
+        private const val THREADS = 4
+        private const val WORK_COUNT = 200
+    }
+}
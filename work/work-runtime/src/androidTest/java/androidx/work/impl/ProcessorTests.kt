@@ -48,6 +48,7 @@ import java.util.concurrent.Executor
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 import org.junit.After
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertFalse
@@ -270,6 +271,130 @@ class ProcessorTests : DatabaseTest() {
         assertTrue(called)
     }
 
+    @Test
+    @MediumTest
+    fun testListenersNotifiedBeforeNextStartOfSameId() {
+        val request = OneTimeWorkRequest.Builder(LatchWorker::class.java).build()
+        insertWork(request)
+        val id = request.workSpec.generationalId()
+        val events = mutableListOf<String>()
+        val restarted = CountDownLatch(1)
+        val restartThread = Executors.newSingleThreadExecutor()
+        val listener = ExecutionListener { _, _ ->
+            synchronized(events) {
+                if (events.isNotEmpty()) return@ExecutionListener
+                events.add("executed")
+            }
+            restartThread.execute {
+                val started = processor.startWork(StartStopToken(id))
+                synchronized(events) { events.add("started $started") }
+                restarted.countDown()
+            }
+            // Gives the start a chance to overtake this notification.
+            assertFalse(restarted.await(200, TimeUnit.MILLISECONDS))
+            synchronized(events) { events.add("notified") }
+        }
+        processor.addExecutionListener(listener)
+        processor.startWork(StartStopToken(id))
+        (factory.awaitWorker(request.id) as LatchWorker).mLatch.countDown()
+
+        assertTrue(restarted.await(3, TimeUnit.SECONDS))
+        synchronized(events) {
+            assertEquals(listOf("executed", "notified", "started true"), events)
+        }
+        restartThread.shutdown()
+        assertTrue(restartThread.awaitTermination(3, TimeUnit.SECONDS))
+    }
+
+    @Test
+    @MediumTest
+    fun testConcurrentStartAndCancelOfDifferentIds() {
+        val requests = List(20) {
+            OneTimeWorkRequest.Builder(StopAwareWorker::class.java).build()
+        }
+        requests.forEach { insertWork(it) }
+        val executed = CountDownLatch(requests.size)
+        processor.addExecutionListener { _, _ -> executed.countDown() }
+
+        val started = AtomicInteger()
+        runConcurrently(threads = 4) {
+            requests.forEach { request ->
+                if (processor.startWork(StartStopToken(request.workSpec.generationalId()))) {
+                    started.incrementAndGet()
+                }
+            }
+        }
+        // Only one of the threads starts each request.
+        assertEquals(requests.size, started.get())
+        requests.forEach { assertTrue(processor.isEnqueued(it.stringId)) }
+
+        val cancelled = AtomicInteger()
+        runConcurrently(threads = 4) {
+            requests.forEach { request ->
+                if (processor.stopAndCancelWork(request.stringId, 0)) {
+                    cancelled.incrementAndGet()
+                }
+            }
+        }
+        assertEquals(requests.size, cancelled.get())
+        requests.forEach { assertTrue(processor.isCancelled(it.stringId)) }
+        assertTrue(executed.await(3, TimeUnit.SECONDS))
+        assertFalse(processor.hasWork())
+    }
+
+    @Test
+    @MediumTest
+    fun testConcurrentStartStopAndCancelOfSameId() {
+        val request = OneTimeWorkRequest.Builder(StopAwareWorker::class.java).build()
+        insertWork(request)
+        val id = request.workSpec.generationalId()
+        val executed = AtomicInteger()
+        processor.addExecutionListener { executedId, _ ->
+            assertEquals(id, executedId)
+            executed.incrementAndGet()
+        }
+
+        val started = AtomicInteger()
+        runConcurrently(threads = 4) {
+            repeat(20) {
+                // The token is added to the current run even when it is already enqueued, so
+                // this stops runs started by the other threads too.
+                val token = StartStopToken(id)
+                if (processor.startWork(token)) {
+                    started.incrementAndGet()
+                }
+                processor.stopWork(token, 0)
+            }
+        }
+        processor.stopAndCancelWork(id.workSpecId, 0)
+
+        assertFalse(processor.isEnqueued(id.workSpecId))
+        assertFalse(processor.hasWork())
+        // Every run that was started completes, and is reported, exactly once.
+        val deadline = System.currentTimeMillis() + 3000
+        while (executed.get() < started.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+        assertTrue(started.get() > 0)
+        assertEquals(started.get(), executed.get())
+    }
+
+    private fun runConcurrently(threads: Int, block: () -> Unit) {
+        val executor = Executors.newFixedThreadPool(threads)
+        val start = CountDownLatch(1)
+        val futures = List(threads) {
+            executor.submit {
+                start.await()
+                block()
+            }
+        }
+        start.countDown()
+        // Rethrows any failure of the block.
+        futures.forEach { it.get(3, TimeUnit.SECONDS) }
+        executor.shutdown()
+        assertTrue(executor.awaitTermination(3, TimeUnit.SECONDS))
+    }
+
     @After
     fun tearDown() {
         defaultExecutor.shutdownNow()
@@ -27,9 +27,12 @@ import androidx.room.TypeConverter;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.ObjectStreamConstants;
+import java.io.UTFDataFormatException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -63,6 +66,29 @@ public final class Data {
     @SuppressLint("MinMaxConstant")
     public static final int MAX_DATA_BYTES = 10 * 1024;    // 10KB
 
+    // Serialized format, see toByteArrayInternal(). Doesn't start with the same bytes as
+    // ObjectStreamConstants.STREAM_MAGIC, used by previous versions.
+    private static final short STREAM_MAGIC = (short) 0xABEF;
+    private static final byte STREAM_VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_BOOLEAN = 1;
+    private static final byte TYPE_BYTE = 2;
+    private static final byte TYPE_INTEGER = 3;
+    private static final byte TYPE_LONG = 4;
+    private static final byte TYPE_FLOAT = 5;
+    private static final byte TYPE_DOUBLE = 6;
+    private static final byte TYPE_STRING = 7;
+    private static final byte TYPE_BOOLEAN_ARRAY = 8;
+    private static final byte TYPE_BYTE_ARRAY = 9;
+    private static final byte TYPE_INTEGER_ARRAY = 10;
+    private static final byte TYPE_LONG_ARRAY = 11;
+    private static final byte TYPE_FLOAT_ARRAY = 12;
+    private static final byte TYPE_DOUBLE_ARRAY = 13;
+    private static final byte TYPE_STRING_ARRAY = 14;
+    // Set on array types when elements are preceded by whether they are non-null
+    private static final byte TYPE_FLAG_NULLABLE_ELEMENTS = 0x40;
+
     @SuppressWarnings("WeakerAccess") /* synthetic access */
             Map<String, Object> mValues;
 
@@ -361,6 +387,10 @@ public final class Data {
 
     /**
      * Converts {@link Data} to a byte array for persistent storage.
+     * <p>
+     * The payload starts with {@link #STREAM_MAGIC} and {@link #STREAM_VERSION}, followed by the
+     * number of entries, and for each entry its type tag, key and value. Arrays of primitives are
+     * written as their primitive values.
      *
      * @param data The {@link Data} object to convert
      * @return The byte array representation of the input
@@ -372,32 +402,21 @@ public final class Data {
     @NonNull
     public static byte[] toByteArrayInternal(@NonNull Data data) {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        ObjectOutputStream objectOutputStream = null;
-        try {
-            objectOutputStream = new ObjectOutputStream(outputStream);
-            objectOutputStream.writeInt(data.size());
+        try (DataOutputStream output = new DataOutputStream(outputStream)) {
+            output.writeShort(STREAM_MAGIC);
+            output.writeByte(STREAM_VERSION);
+            output.writeInt(data.size());
             for (Map.Entry<String, Object> entry : data.mValues.entrySet()) {
-                objectOutputStream.writeUTF(entry.getKey());
-                objectOutputStream.writeObject(entry.getValue());
+                writeEntry(output, entry.getKey(), entry.getValue());
             }
+        } catch (UTFDataFormatException e) {
+            // a key or a String is longer than 65535 bytes
+            throw new IllegalStateException(
+                    "Data cannot occupy more than " + MAX_DATA_BYTES
+                            + " bytes when serialized", e);
         } catch (IOException e) {
             Log.e(TAG, "Error in Data#toByteArray: ", e);
             return outputStream.toByteArray();
-        } finally {
-            if (objectOutputStream != null) {
-                try {
-                    // NOTE: this writes something to the output stream for bookkeeping purposes.
-                    // Don't get the byteArray before we do this!
-                    objectOutputStream.close();
-                } catch (IOException e) {
-                    Log.e(TAG, "Error in Data#toByteArray: ", e);
-                }
-            }
-            try {
-                outputStream.close();
-            } catch (IOException e) {
-                Log.e(TAG, "Error in Data#toByteArray: ", e);
-            }
         }
 
         if (outputStream.size() > MAX_DATA_BYTES) {
@@ -410,6 +429,9 @@ public final class Data {
 
     /**
      * Converts a byte array to {@link Data}.
+     * <p>
+     * Both the current format and the {@link java.io.Serializable} based format used by previous
+     * versions of the library are supported.
      *
      * @param bytes The byte array representation to convert
      * @return An {@link Data} object built from the input
@@ -422,7 +444,44 @@ public final class Data {
             throw new IllegalStateException(
                     "Data cannot occupy more than " + MAX_DATA_BYTES + " bytes when serialized");
         }
+        if (bytes.length == 0) {
+            return new Data(new HashMap<String, Object>());
+        }
+        if (isObjectStream(bytes)) {
+            return fromObjectStreamByteArray(bytes);
+        }
+
+        Map<String, Object> map = new HashMap<>();
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (input.readShort() != STREAM_MAGIC) {
+                throw new IOException("Magic number doesn't match");
+            }
+            int version = input.readUnsignedByte();
+            if (version != STREAM_VERSION) {
+                throw new IOException("Unsupported version number: " + version);
+            }
+            for (int i = input.readInt(); i > 0; i--) {
+                byte type = input.readByte();
+                map.put(input.readUTF(), readValue(input, type));
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error in Data#fromByteArray: ", e);
+        }
+        return new Data(map);
+    }
 
+    private static boolean isObjectStream(@NonNull byte[] bytes) {
+        return bytes.length >= 2
+                && (short) (((bytes[0] & 0xFF) << 8) | (bytes[1] & 0xFF))
+                == ObjectStreamConstants.STREAM_MAGIC;
+    }
+
+    /**
+     * Reads the format written with an {@link java.io.ObjectOutputStream} by previous versions of
+     * the library, so that {@link Data} already persisted can still be read.
+     */
+    @NonNull
+    private static Data fromObjectStreamByteArray(@NonNull byte[] bytes) {
         Map<String, Object> map = new HashMap<>();
         ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
         ObjectInputStream objectInputStream = null;
@@ -450,6 +509,220 @@ public final class Data {
         return new Data(map);
     }
 
+    private static void writeEntry(@NonNull DataOutputStream output, @NonNull String key,
+            @Nullable Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(TYPE_NULL);
+            output.writeUTF(key);
+            return;
+        }
+        Class<?> valueType = value.getClass();
+        if (valueType == Boolean.class) {
+            output.writeByte(TYPE_BOOLEAN);
+            output.writeUTF(key);
+            output.writeBoolean((Boolean) value);
+        } else if (valueType == Byte.class) {
+            output.writeByte(TYPE_BYTE);
+            output.writeUTF(key);
+            output.writeByte((Byte) value);
+        } else if (valueType == Integer.class) {
+            output.writeByte(TYPE_INTEGER);
+            output.writeUTF(key);
+            output.writeInt((Integer) value);
+        } else if (valueType == Long.class) {
+            output.writeByte(TYPE_LONG);
+            output.writeUTF(key);
+            output.writeLong((Long) value);
+        } else if (valueType == Float.class) {
+            output.writeByte(TYPE_FLOAT);
+            output.writeUTF(key);
+            output.writeFloat((Float) value);
+        } else if (valueType == Double.class) {
+            output.writeByte(TYPE_DOUBLE);
+            output.writeUTF(key);
+            output.writeDouble((Double) value);
+        } else if (valueType == String.class) {
+            output.writeByte(TYPE_STRING);
+            output.writeUTF(key);
+            output.writeUTF((String) value);
+        } else if (valueType == String[].class) {
+            String[] array = (String[]) value;
+            output.writeByte(TYPE_STRING_ARRAY);
+            output.writeUTF(key);
+            output.writeInt(array.length);
+            for (String element : array) {
+                output.writeBoolean(element != null);
+                if (element != null) {
+                    output.writeUTF(element);
+                }
+            }
+        } else if (value instanceof Object[]) {
+            writeBoxedArray(output, key, (Object[]) value);
+        } else {
+            throw new IllegalArgumentException("Key " + key + " has invalid type " + valueType);
+        }
+    }
+
+    private static void writeBoxedArray(@NonNull DataOutputStream output, @NonNull String key,
+            @NonNull Object[] array) throws IOException {
+        Class<?> valueType = array.getClass();
+        byte type;
+        if (valueType == Boolean[].class) {
+            type = TYPE_BOOLEAN_ARRAY;
+        } else if (valueType == Byte[].class) {
+            type = TYPE_BYTE_ARRAY;
+        } else if (valueType == Integer[].class) {
+            type = TYPE_INTEGER_ARRAY;
+        } else if (valueType == Long[].class) {
+            type = TYPE_LONG_ARRAY;
+        } else if (valueType == Float[].class) {
+            type = TYPE_FLOAT_ARRAY;
+        } else if (valueType == Double[].class) {
+            type = TYPE_DOUBLE_ARRAY;
+        } else {
+            throw new IllegalArgumentException("Key " + key + " has invalid type " + valueType);
+        }
+        // Arrays only have null elements if put as boxed arrays, mark each element in that case
+        boolean hasNullElements = false;
+        for (Object element : array) {
+            if (element == null) {
+                hasNullElements = true;
+                break;
+            }
+        }
+        if (hasNullElements) {
+            type |= TYPE_FLAG_NULLABLE_ELEMENTS;
+        }
+        output.writeByte(type);
+        output.writeUTF(key);
+        output.writeInt(array.length);
+        for (Object element : array) {
+            if (hasNullElements) {
+                output.writeBoolean(element != null);
+                if (element == null) {
+                    continue;
+                }
+            }
+            switch (type & ~TYPE_FLAG_NULLABLE_ELEMENTS) {
+                case TYPE_BOOLEAN_ARRAY:
+                    output.writeBoolean((Boolean) element);
+                    break;
+                case TYPE_BYTE_ARRAY:
+                    output.writeByte((Byte) element);
+                    break;
+                case TYPE_INTEGER_ARRAY:
+                    output.writeInt((Integer) element);
+                    break;
+                case TYPE_LONG_ARRAY:
+                    output.writeLong((Long) element);
+                    break;
+                case TYPE_FLOAT_ARRAY:
+                    output.writeFloat((Float) element);
+                    break;
+                default:
+                    output.writeDouble((Double) element);
+                    break;
+            }
+        }
+    }
+
+    @Nullable
+    private static Object readValue(@NonNull DataInputStream input, byte type)
+            throws IOException {
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_BOOLEAN:
+                return input.readBoolean();
+            case TYPE_BYTE:
+                return input.readByte();
+            case TYPE_INTEGER:
+                return input.readInt();
+            case TYPE_LONG:
+                return input.readLong();
+            case TYPE_FLOAT:
+                return input.readFloat();
+            case TYPE_DOUBLE:
+                return input.readDouble();
+            case TYPE_STRING:
+                return input.readUTF();
+            case TYPE_STRING_ARRAY: {
+                String[] array = new String[readArrayLength(input)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = input.readBoolean() ? input.readUTF() : null;
+                }
+                return array;
+            }
+            default:
+                return readBoxedArray(input, type);
+        }
+    }
+
+    @NonNull
+    private static Object[] readBoxedArray(@NonNull DataInputStream input, byte type)
+            throws IOException {
+        boolean hasNullElements = (type & TYPE_FLAG_NULLABLE_ELEMENTS) != 0;
+        int length = readArrayLength(input);
+        Object[] array;
+        switch (type & ~TYPE_FLAG_NULLABLE_ELEMENTS) {
+            case TYPE_BOOLEAN_ARRAY:
+                array = new Boolean[length];
+                break;
+            case TYPE_BYTE_ARRAY:
+                array = new Byte[length];
+                break;
+            case TYPE_INTEGER_ARRAY:
+                array = new Integer[length];
+                break;
+            case TYPE_LONG_ARRAY:
+                array = new Long[length];
+                break;
+            case TYPE_FLOAT_ARRAY:
+                array = new Float[length];
+                break;
+            case TYPE_DOUBLE_ARRAY:
+                array = new Double[length];
+                break;
+            default:
+                throw new IOException("Unsupported type: " + type);
+        }
+        for (int i = 0; i < length; i++) {
+            if (hasNullElements && !input.readBoolean()) {
+                continue;
+            }
+            switch (type & ~TYPE_FLAG_NULLABLE_ELEMENTS) {
+                case TYPE_BOOLEAN_ARRAY:
+                    array[i] = input.readBoolean();
+                    break;
+                case TYPE_BYTE_ARRAY:
+                    array[i] = input.readByte();
+                    break;
+                case TYPE_INTEGER_ARRAY:
+                    array[i] = input.readInt();
+                    break;
+                case TYPE_LONG_ARRAY:
+                    array[i] = input.readLong();
+                    break;
+                case TYPE_FLOAT_ARRAY:
+                    array[i] = input.readFloat();
+                    break;
+                default:
+                    array[i] = input.readDouble();
+                    break;
+            }
+        }
+        return array;
+    }
+
+    private static int readArrayLength(@NonNull DataInputStream input) throws IOException {
+        int length = input.readInt();
+        // every element takes at least one byte
+        if (length < 0 || length > MAX_DATA_BYTES) {
+            throw new IOException("Invalid array length: " + length);
+        }
+        return length;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -22,6 +22,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.os.PowerManager;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
@@ -39,21 +40,35 @@ import androidx.work.impl.utils.taskexecutor.TaskExecutor;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 
 /**
  * A Processor can intelligently schedule and execute work on demand.
+ * <p>
+ * Bookkeeping for a given {@link WorkSpec} id is guarded by one of a fixed set of locks
+ * picked by the id, so that starting and stopping unrelated work doesn't contend on a single
+ * lock. Queries ({@link #isEnqueued(String)}, {@link #hasWork()}, ...) read the concurrent maps
+ * without locking.
+ * <p>
+ * {@link ExecutionListener}s are notified of a completed run while holding the lock of its id,
+ * so no new run of that id is accepted until they have been notified, and each id's events
+ * reach them in order.
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public class Processor implements ForegroundProcessor {
     private static final String TAG = Logger.tagWithPrefix("Processor");
     private static final String FOREGROUND_WAKELOCK_TAG = "ProcessorForegroundLck";
+    // Must be a power of two.
+    private static final int LOCK_STRIPES = 16;
 
+    @GuardedBy("mLock")
     @Nullable
     private PowerManager.WakeLock mForegroundLock;
 
@@ -61,13 +76,18 @@ public class Processor implements ForegroundProcessor {
     private Configuration mConfiguration;
     private TaskExecutor mWorkTaskExecutor;
     private WorkDatabase mWorkDatabase;
+    // Only modified while holding the lock of the workSpecId, and mLock for puts.
     private Map<String, WorkerWrapper> mForegroundWorkMap;
+    // Only modified while holding the lock of the workSpecId.
     private Map<String, WorkerWrapper> mEnqueuedWorkMap;
-    //  workSpecId  to a  Set<WorkRunId>
+    //  workSpecId  to a  Set<WorkRunId>, the sets are guarded by the lock of the workSpecId
     private Map<String, Set<StartStopToken>> mWorkRuns;
     private Set<String> mCancelledIds;
 
     private final List<ExecutionListener> mOuterListeners;
+    private final Object[] mWorkLocks;
+    // Guards the foreground service state. Can be acquired while holding a work lock, but not
+    // the other way around.
     private final Object mLock;
 
     public Processor(
@@ -79,13 +99,17 @@ public class Processor implements ForegroundProcessor {
         mConfiguration = configuration;
         mWorkTaskExecutor = workTaskExecutor;
         mWorkDatabase = workDatabase;
-        mEnqueuedWorkMap = new HashMap<>();
-        mForegroundWorkMap = new HashMap<>();
-        mCancelledIds = new HashSet<>();
-        mOuterListeners = new ArrayList<>();
+        mEnqueuedWorkMap = new ConcurrentHashMap<>();
+        mForegroundWorkMap = new ConcurrentHashMap<>();
+        mCancelledIds = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        mOuterListeners = new CopyOnWriteArrayList<>();
         mForegroundLock = null;
         mLock = new Object();
-        mWorkRuns = new HashMap<>();
+        mWorkLocks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            mWorkLocks[i] = new Object();
+        }
+        mWorkRuns = new ConcurrentHashMap<>();
     }
 
     /**
@@ -124,7 +148,7 @@ public class Processor implements ForegroundProcessor {
             return false;
         }
         WorkerWrapper workWrapper;
-        synchronized (mLock) {
+        synchronized (lockFor(workSpecId)) {
             // Work may get triggered multiple times if they have passing constraints
             // and new work with those constraints are added.
             if (isEnqueued(workSpecId)) {
@@ -179,10 +203,10 @@ public class Processor implements ForegroundProcessor {
                         onExecuted(workWrapper, needsReschedule);
                     },
                     mWorkTaskExecutor.getMainThreadExecutor());
-            mEnqueuedWorkMap.put(workSpecId, workWrapper);
             HashSet<StartStopToken> set = new HashSet<>();
             set.add(startStopToken);
             mWorkRuns.put(workSpecId, set);
+            mEnqueuedWorkMap.put(workSpecId, workWrapper);
         }
         mWorkTaskExecutor.getSerialTaskExecutor().execute(workWrapper);
         Logger.get().debug(TAG, getClass().getSimpleName() + ": processing " + id);
@@ -192,18 +216,23 @@ public class Processor implements ForegroundProcessor {
     @Override
     public void startForeground(@NonNull String workSpecId,
             @NonNull ForegroundInfo foregroundInfo) {
-        synchronized (mLock) {
+        synchronized (lockFor(workSpecId)) {
             Logger.get().info(TAG, "Moving WorkSpec (" + workSpecId + ") to the foreground");
-            WorkerWrapper wrapper = mEnqueuedWorkMap.remove(workSpecId);
+            WorkerWrapper wrapper = mEnqueuedWorkMap.get(workSpecId);
             if (wrapper != null) {
-                if (mForegroundLock == null) {
-                    mForegroundLock = WakeLocks.newWakeLock(mAppContext, FOREGROUND_WAKELOCK_TAG);
-                    mForegroundLock.acquire();
+                synchronized (mLock) {
+                    if (mForegroundLock == null) {
+                        mForegroundLock = WakeLocks.newWakeLock(mAppContext,
+                                FOREGROUND_WAKELOCK_TAG);
+                        mForegroundLock.acquire();
+                    }
+                    // Add before removing, so that lock-free readers always find the wrapper.
+                    mForegroundWorkMap.put(workSpecId, wrapper);
+                    mEnqueuedWorkMap.remove(workSpecId);
+                    Intent intent = createStartForegroundIntent(mAppContext,
+                            wrapper.getWorkGenerationalId(), foregroundInfo);
+                    ContextCompat.startForegroundService(mAppContext, intent);
                 }
-                mForegroundWorkMap.put(workSpecId, wrapper);
-                Intent intent = createStartForegroundIntent(mAppContext,
-                        wrapper.getWorkGenerationalId(), foregroundInfo);
-                ContextCompat.startForegroundService(mAppContext, intent);
             }
         }
     }
@@ -217,7 +246,7 @@ public class Processor implements ForegroundProcessor {
     public boolean stopForegroundWork(@NonNull StartStopToken token, int reason) {
         String id = token.getId().getWorkSpecId();
         WorkerWrapper wrapper;
-        synchronized (mLock) {
+        synchronized (lockFor(id)) {
             // TODO: race, we can cancel next run of the worker.
             wrapper = cleanUpWorkerUnsafe(id);
         }
@@ -237,7 +266,7 @@ public class Processor implements ForegroundProcessor {
     public boolean stopWork(@NonNull StartStopToken runId, int reason) {
         String id = runId.getId().getWorkSpecId();
         WorkerWrapper wrapper;
-        synchronized (mLock) {
+        synchronized (lockFor(id)) {
             if (mForegroundWorkMap.get(id) != null) {
                 Logger.get().debug(TAG,
                         "Ignored stopWork. WorkerWrapper " + id + " is in foreground");
@@ -268,7 +297,7 @@ public class Processor implements ForegroundProcessor {
      */
     public boolean stopAndCancelWork(@NonNull String id, int reason) {
         WorkerWrapper wrapper;
-        synchronized (mLock) {
+        synchronized (lockFor(id)) {
             Logger.get().debug(TAG, "Processor cancelling " + id);
             mCancelledIds.add(id);
             // Check if running in the context of a foreground service
@@ -288,19 +317,15 @@ public class Processor implements ForegroundProcessor {
      * @return {@code true} if the id has already been marked as cancelled
      */
     public boolean isCancelled(@NonNull String id) {
-        synchronized (mLock) {
-            return mCancelledIds.contains(id);
-        }
+        return mCancelledIds.contains(id);
     }
 
     /**
      * @return {@code true} if the processor has work to process.
      */
     public boolean hasWork() {
-        synchronized (mLock) {
-            return !(mEnqueuedWorkMap.isEmpty()
-                    && mForegroundWorkMap.isEmpty());
-        }
+        return !(mEnqueuedWorkMap.isEmpty()
+                && mForegroundWorkMap.isEmpty());
     }
 
     /**
@@ -308,9 +333,7 @@ public class Processor implements ForegroundProcessor {
      * @return {@code true} if the id was enqueued in the processor.
      */
     public boolean isEnqueued(@NonNull String workSpecId) {
-        synchronized (mLock) {
-            return getWorkerWrapperUnsafe(workSpecId) != null;
-        }
+        return getWorkerWrapper(workSpecId) != null;
     }
 
     /**
@@ -319,9 +342,7 @@ public class Processor implements ForegroundProcessor {
      * @param executionListener The {@link ExecutionListener} to add
      */
     public void addExecutionListener(@NonNull ExecutionListener executionListener) {
-        synchronized (mLock) {
-            mOuterListeners.add(executionListener);
-        }
+        mOuterListeners.add(executionListener);
     }
 
     /**
@@ -330,16 +351,14 @@ public class Processor implements ForegroundProcessor {
      * @param executionListener The {@link ExecutionListener} to remove
      */
     public void removeExecutionListener(@NonNull ExecutionListener executionListener) {
-        synchronized (mLock) {
-            mOuterListeners.remove(executionListener);
-        }
+        mOuterListeners.remove(executionListener);
     }
 
     private void onExecuted(@NonNull WorkerWrapper wrapper, boolean needsReschedule) {
-        synchronized (mLock) {
-            WorkGenerationalId id = wrapper.getWorkGenerationalId();
-            String workSpecId = id.getWorkSpecId();
-            WorkerWrapper workerWrapper = getWorkerWrapperUnsafe(workSpecId);
+        WorkGenerationalId id = wrapper.getWorkGenerationalId();
+        String workSpecId = id.getWorkSpecId();
+        synchronized (lockFor(workSpecId)) {
+            WorkerWrapper workerWrapper = getWorkerWrapper(workSpecId);
             // can be called for another generation, so we shouldn't remove it
             if (workerWrapper == wrapper) {
                 cleanUpWorkerUnsafe(workSpecId);
@@ -347,14 +366,25 @@ public class Processor implements ForegroundProcessor {
             Logger.get().debug(TAG,
                     getClass().getSimpleName() + " " + workSpecId
                             + " executed; reschedule = " + needsReschedule);
+            // Notify while holding the lock, so that a startWork() for the same id can't be
+            // accepted, and reported to the listeners, before they see this run complete.
+            // Apart from the listeners, which all run on the main thread, nothing waits for a
+            // work lock while holding another one, so this can't deadlock.
             for (ExecutionListener executionListener : mOuterListeners) {
                 executionListener.onExecuted(id, needsReschedule);
             }
         }
     }
 
+    @NonNull
+    private Object lockFor(@NonNull String workSpecId) {
+        int hash = workSpecId.hashCode();
+        // spread the high bits, like HashMap does
+        return mWorkLocks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
     @Nullable
-    private WorkerWrapper getWorkerWrapperUnsafe(@NonNull String workSpecId) {
+    private WorkerWrapper getWorkerWrapper(@NonNull String workSpecId) {
         WorkerWrapper workerWrapper = mForegroundWorkMap.get(workSpecId);
         if (workerWrapper == null) {
             workerWrapper = mEnqueuedWorkMap.get(workSpecId);
@@ -369,23 +399,19 @@ public class Processor implements ForegroundProcessor {
      */
     @Nullable
     public WorkSpec getRunningWorkSpec(@NonNull String workSpecId) {
-        synchronized (mLock) {
-            WorkerWrapper workerWrapper = getWorkerWrapperUnsafe(workSpecId);
-            if (workerWrapper != null) {
-                return workerWrapper.getWorkSpec();
-            } else {
-                return null;
-            }
+        WorkerWrapper workerWrapper = getWorkerWrapper(workSpecId);
+        if (workerWrapper != null) {
+            return workerWrapper.getWorkSpec();
+        } else {
+            return null;
         }
     }
 
     private void runOnExecuted(@NonNull final WorkGenerationalId id, boolean needsReschedule) {
         mWorkTaskExecutor.getMainThreadExecutor().execute(
                 () -> {
-                    synchronized (mLock) {
-                        for (ExecutionListener executionListener : mOuterListeners) {
-                            executionListener.onExecuted(id, needsReschedule);
-                        }
+                    for (ExecutionListener executionListener : mOuterListeners) {
+                        executionListener.onExecuted(id, needsReschedule);
                     }
                 }
         );
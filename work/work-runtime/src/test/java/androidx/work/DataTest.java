@@ -27,6 +27,10 @@ import androidx.annotation.NonNull;
 
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -89,6 +93,52 @@ public class DataTest {
         assertThat(restoredData.getIntArray(KEY2), is(equalTo(expectedValue2)));
     }
 
+    @Test
+    public void testSerializeAllTypes() {
+        Data data = new Data.Builder()
+                .putBoolean("boolean", true)
+                .putByte("byte", (byte) -7)
+                .putInt("int", Integer.MIN_VALUE)
+                .putLong("long", Long.MAX_VALUE)
+                .putFloat("float", 1.5f)
+                .putDouble("double", Double.NaN)
+                .putString("String", "\u00e9\u0000\ud83d\ude00")
+                .putBooleanArray("boolean array", new boolean[]{true, false})
+                .putByteArray("byte array", new byte[]{1, 2, 3})
+                .putLongArray("long array", new long[0])
+                .putFloatArray("float array", new float[]{-0f, Float.MAX_VALUE})
+                .putDoubleArray("double array", new double[]{Double.MIN_VALUE})
+                .putStringArray("String array", new String[]{"a", null, ""})
+                .put("null", null)
+                .put("Integer array", new Integer[]{1, null, 3})
+                .build();
+
+        Data restoredData = Data.fromByteArray(data.toByteArray());
+
+        assertThat(restoredData, is(data));
+        assertThat(restoredData.hasKeyWithValueOfType("null", Object.class), is(false));
+        assertThat(restoredData.size(), is(data.size()));
+    }
+
+    @Test
+    public void testDeserializeObjectStreamFormat() throws IOException {
+        Data data = createData();
+        // format written by previous versions, that may still be in the database
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+            objectOutputStream.writeInt(data.size());
+            for (Map.Entry<String, Object> entry : data.mValues.entrySet()) {
+                objectOutputStream.writeUTF(entry.getKey());
+                objectOutputStream.writeObject(entry.getValue());
+            }
+        }
+
+        Data restoredData = Data.fromByteArray(outputStream.toByteArray());
+
+        assertThat(restoredData, is(data));
+        assertThat(data.toByteArray().length < outputStream.size(), is(true));
+    }
+
     @Test
     public void testSerializePastMaxSize() {
         int[] payload = new int[Data.MAX_DATA_BYTES + 1];
@@ -115,6 +165,20 @@ public class DataTest {
         }
     }
 
+    @Test
+    public void testSerializeLongStringPastMaxSize() {
+        char[] payload = new char[70 * 1024];
+        Arrays.fill(payload, 'a');
+        boolean caughtIllegalStateException = false;
+        try {
+            new Data.Builder().putString("payload", new String(payload)).build();
+        } catch (IllegalStateException e) {
+            caughtIllegalStateException = true;
+        } finally {
+            assertThat(caughtIllegalStateException, is(true));
+        }
+    }
+
     @Test
     public void testToString() {
         Data data = createData();